@@ -53,6 +53,7 @@ module.exports = {
         "advance/dlq",
         "advance/filters",
         "advance/retries",
+        "advance/circuit-breaker",
         "advance/sink-pool",
       ],
     },
@@ -107,6 +107,18 @@ public interface AppConfig extends Config {
     @DefaultValue("2147483647")
     Integer getRetryMaxAttempts();
 
+    @Key("RETRY_DELAYED_ENABLE")
+    @DefaultValue("false")
+    boolean getRetryDelayedEnable();
+
+    @Key("RETRY_DELAYED_THREADS")
+    @DefaultValue("1")
+    Integer getRetryDelayedThreads();
+
+    @Key("RETRY_DELAYED_MAX_PARKED_MESSAGES")
+    @DefaultValue("10000")
+    Integer getRetryDelayedMaxParkedMessages();
+
     @Key("INPUT_SCHEMA_PROTO_ALLOW_UNKNOWN_FIELDS_ENABLE")
     @DefaultValue("true")
     boolean getInputSchemaProtoAllowUnknownFieldsEnable();
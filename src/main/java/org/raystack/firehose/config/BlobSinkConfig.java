@@ -46,6 +46,18 @@ public interface BlobSinkConfig extends AppConfig {
     @DefaultValue("268435456")
     long getLocalFileRotationMaxSizeBytes();
 
+    @Key("SINK_BLOB_UPLOAD_THREADS")
+    @DefaultValue("10")
+    int getUploadThreads();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_MAX_OPEN")
+    @DefaultValue("0")
+    int getLocalFileWriterMaxOpen();
+
+    @Key("SINK_BLOB_LOCAL_FILE_WRITER_MAX_BUFFERED_BYTES")
+    @DefaultValue("0")
+    long getLocalFileWriterMaxBufferedBytes();
+
     @Key("SINK_BLOB_FILE_PARTITION_PROTO_TIMESTAMP_FIELD_NAME")
     String getFilePartitionProtoTimestampFieldName();
 
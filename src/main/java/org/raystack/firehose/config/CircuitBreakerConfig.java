@@ -0,0 +1,44 @@
+package org.raystack.firehose.config;
+
+import org.raystack.firehose.config.converter.CircuitBreakerOpenActionConverter;
+import org.raystack.firehose.config.enums.CircuitBreakerOpenAction;
+
+public interface CircuitBreakerConfig extends AppConfig {
+
+    @Key("SINK_CIRCUIT_BREAKER_ENABLE")
+    @DefaultValue("false")
+    boolean isSinkCircuitBreakerEnable();
+
+    @Key("SINK_CIRCUIT_BREAKER_WINDOW_MS")
+    @DefaultValue("60000")
+    long getSinkCircuitBreakerWindowMs();
+
+    @Key("SINK_CIRCUIT_BREAKER_MIN_BATCHES")
+    @DefaultValue("10")
+    int getSinkCircuitBreakerMinBatches();
+
+    @Key("SINK_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD")
+    @DefaultValue("50")
+    int getSinkCircuitBreakerFailureRateThreshold();
+
+    @Key("SINK_CIRCUIT_BREAKER_SLOW_BATCH_MS")
+    @DefaultValue("0")
+    long getSinkCircuitBreakerSlowBatchMs();
+
+    @Key("SINK_CIRCUIT_BREAKER_SLOW_BATCH_RATE_THRESHOLD")
+    @DefaultValue("100")
+    int getSinkCircuitBreakerSlowBatchRateThreshold();
+
+    @Key("SINK_CIRCUIT_BREAKER_OPEN_DURATION_MS")
+    @DefaultValue("30000")
+    long getSinkCircuitBreakerOpenDurationMs();
+
+    @Key("SINK_CIRCUIT_BREAKER_HALF_OPEN_PROBE_BATCHES")
+    @DefaultValue("1")
+    int getSinkCircuitBreakerHalfOpenProbeBatches();
+
+    @Key("SINK_CIRCUIT_BREAKER_OPEN_ACTION")
+    @ConverterClass(CircuitBreakerOpenActionConverter.class)
+    @DefaultValue("PAUSE")
+    CircuitBreakerOpenAction getSinkCircuitBreakerOpenAction();
+}
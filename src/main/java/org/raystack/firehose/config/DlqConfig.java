@@ -1,7 +1,9 @@
 package org.raystack.firehose.config;
 
 import org.raystack.firehose.config.converter.BlobStorageTypeConverter;
+import org.raystack.firehose.config.converter.DlqBlobStorageCompressionTypeConverter;
 import org.raystack.firehose.config.converter.DlqWriterTypeConverter;
+import org.raystack.firehose.config.enums.DlqBlobStorageCompressionType;
 import org.raystack.firehose.sink.common.blobstorage.BlobStorageType;
 import org.raystack.firehose.sink.dlq.DLQWriterType;
 
@@ -17,6 +19,31 @@ public interface DlqConfig extends AppConfig {
     @ConverterClass(BlobStorageTypeConverter.class)
     BlobStorageType getBlobStorageType();
 
+    @Key("DLQ_BLOB_STORAGE_ROLLING_FILE_ENABLE")
+    @DefaultValue("false")
+    boolean getDlqBlobStorageRollingFileEnable();
+
+    @Key("DLQ_BLOB_STORAGE_LOCAL_DIRECTORY")
+    @DefaultValue("/tmp/firehose-dlq")
+    String getDlqBlobStorageLocalDirectory();
+
+    @Key("DLQ_BLOB_STORAGE_COMPRESSION_TYPE")
+    @DefaultValue("GZIP")
+    @ConverterClass(DlqBlobStorageCompressionTypeConverter.class)
+    DlqBlobStorageCompressionType getDlqBlobStorageCompressionType();
+
+    @Key("DLQ_BLOB_STORAGE_LOCAL_FILE_ROTATION_MAX_SIZE_BYTES")
+    @DefaultValue("67108864")
+    long getDlqBlobStorageLocalFileRotationMaxSizeBytes();
+
+    @Key("DLQ_BLOB_STORAGE_LOCAL_FILE_ROTATION_DURATION_MS")
+    @DefaultValue("300000")
+    long getDlqBlobStorageLocalFileRotationDurationMs();
+
+    @Key("DLQ_BLOB_STORAGE_UPLOAD_THREADS")
+    @DefaultValue("2")
+    Integer getDlqBlobStorageUploadThreads();
+
     @Key("DLQ_RETRY_MAX_ATTEMPTS")
     @DefaultValue("2147483647")
     Integer getDlqRetryMaxAttempts();
@@ -29,4 +56,16 @@ public interface DlqConfig extends AppConfig {
     @DefaultValue("false")
     boolean getDlqSinkEnable();
 
+    @Key("DLQ_ASYNC_ENABLE")
+    @DefaultValue("false")
+    boolean getDlqAsyncEnable();
+
+    @Key("DLQ_ASYNC_QUEUE_CAPACITY")
+    @DefaultValue("10000")
+    Integer getDlqAsyncQueueCapacity();
+
+    @Key("DLQ_ASYNC_MAX_BATCH_SIZE")
+    @DefaultValue("1000")
+    Integer getDlqAsyncMaxBatchSize();
+
 }
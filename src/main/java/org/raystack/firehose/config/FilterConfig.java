@@ -32,4 +32,12 @@ public interface FilterConfig extends Config {
     @Key("FILTER_JSON_SCHEMA")
     String getFilterJsonSchema();
 
+    @Key("FILTER_JEXL_PARALLELISM")
+    @DefaultValue("1")
+    int getFilterJexlParallelism();
+
+    @Key("FILTER_JEXL_PARALLEL_MIN_BATCH_SIZE")
+    @DefaultValue("1000")
+    int getFilterJexlParallelMinBatchSize();
+
 }
@@ -67,6 +67,18 @@ public interface GCSConfig extends Config {
     @Key("${GCS_TYPE}_GCS_RETRY_RPC_MAX_TIMEOUT_MS")
     @DefaultValue("5000")
     Long getGCSRetryRPCMaxTimeoutMS();
-}
 
+    /**
+     * @return Size of the chunks of resumable uploads, rounded up to a multiple of 256 KiB.
+     * Smaller files are uploaded in a single request.
+     */
+    @Key("${GCS_TYPE}_GCS_UPLOAD_CHUNK_SIZE_BYTES")
+    @DefaultValue("16777216")
+    Integer getGCSUploadChunkSizeBytes();
 
+    /**
+     * @return Host of the GCS API, to use a local stand-in instead of GCS.
+     */
+    @Key("${GCS_TYPE}_GCS_HOST")
+    String getGCSHost();
+}
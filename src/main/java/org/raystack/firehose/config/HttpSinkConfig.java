@@ -1,9 +1,11 @@
 package org.raystack.firehose.config;
 
+import org.raystack.firehose.config.enums.HttpSinkCompressionType;
 import org.raystack.firehose.config.enums.HttpSinkDataFormatType;
 import org.raystack.firehose.config.enums.HttpSinkParameterPlacementType;
 import org.raystack.firehose.config.enums.HttpSinkParameterSourceType;
 import org.raystack.firehose.config.enums.HttpSinkRequestMethodType;
+import org.raystack.firehose.config.converter.HttpSinkCompressionTypeConverter;
 import org.raystack.firehose.config.converter.HttpSinkRequestMethodConverter;
 import org.raystack.firehose.config.converter.HttpSinkParameterDataFormatConverter;
 import org.raystack.firehose.config.converter.HttpSinkParameterPlacementTypeConverter;
@@ -37,6 +39,14 @@ public interface HttpSinkConfig extends AppConfig {
     @DefaultValue("10")
     Integer getSinkHttpMaxConnections();
 
+    @Key("SINK_HTTP_REQUEST_PARALLELISM")
+    @DefaultValue("1")
+    Integer getSinkHttpRequestParallelism();
+
+    @Key("SINK_HTTP_ADAPTIVE_CONCURRENCY_MAX_LIMIT")
+    @DefaultValue("0")
+    Integer getSinkHttpAdaptiveConcurrencyMaxLimit();
+
     @Key("SINK_HTTP_SERVICE_URL")
     String getSinkHttpServiceUrl();
 
@@ -90,6 +100,27 @@ public interface HttpSinkConfig extends AppConfig {
     @DefaultValue("true")
     Boolean getSinkHttpDeleteBodyEnable();
 
+    @Key("SINK_HTTP_GROUPED_BATCH_ENABLE")
+    @DefaultValue("false")
+    Boolean getSinkHttpGroupedBatchEnable();
+
+    @Key("SINK_HTTP_BATCH_MAX_BYTES")
+    @DefaultValue("0")
+    Long getSinkHttpBatchMaxBytes();
+
+    @Key("SINK_HTTP_BATCH_MAX_MESSAGES")
+    @DefaultValue("0")
+    Integer getSinkHttpBatchMaxMessages();
+
+    @Key("SINK_HTTP_COMPRESSION_TYPE")
+    @DefaultValue("none")
+    @ConverterClass(HttpSinkCompressionTypeConverter.class)
+    HttpSinkCompressionType getSinkHttpCompressionType();
+
+    @Key("SINK_HTTP_COMPRESSION_LEVEL")
+    @DefaultValue("-1")
+    Integer getSinkHttpCompressionLevel();
+
     @Key("SINK_HTTP_SIMPLE_DATE_FORMAT_ENABLE")
     @DefaultValue("true")
     Boolean getSinkHttpSimpleDateFormatEnable();
@@ -44,6 +44,10 @@ public interface KafkaConsumerConfig extends AppConfig {
     @DefaultValue("9223372036854775807")
     Long getSourceKafkaPollTimeoutMs();
 
+    @Key("SOURCE_KAFKA_PAUSED_POLL_TIMEOUT_MS")
+    @DefaultValue("100")
+    long getSourceKafkaPausedPollTimeoutMs();
+
     @Key("SOURCE_KAFKA_CONSUMER_MODE")
     @ConverterClass(ConsumerModeConverter.class)
     @DefaultValue("SYNC")
@@ -53,6 +57,10 @@ public interface KafkaConsumerConfig extends AppConfig {
     @DefaultValue("-1")
     long getSourceKafkaConsumerManualCommitMinIntervalMs();
 
+    @Key("SOURCE_KAFKA_CONSUMER_OFFSET_RANGE_TRACKING_ENABLE")
+    @DefaultValue("false")
+    boolean isSourceKafkaConsumerOffsetRangeTrackingEnable();
+
     @Key("SOURCE_KAFKA_CONSUMER_CONFIG_PARTITION_ASSIGNMENT_STRATEGY")
     @DefaultValue("org.apache.kafka.clients.consumer.CooperativeStickyAssignor")
     String getSourceKafkaConsumerConfigPartitionAssignmentStrategy();
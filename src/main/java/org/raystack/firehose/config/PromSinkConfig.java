@@ -25,6 +25,10 @@ public interface PromSinkConfig extends AppConfig {
     @Key("SINK_PROM_MAX_CONNECTIONS")
     Integer getSinkPromMaxConnections();
 
+    @Key("SINK_PROM_ADAPTIVE_CONCURRENCY_MAX_LIMIT")
+    @DefaultValue("0")
+    Integer getSinkPromAdaptiveConcurrencyMaxLimit();
+
     @Key("SINK_PROM_SERVICE_URL")
     String getSinkPromServiceUrl();
 
@@ -34,4 +34,19 @@ public interface S3Config extends Config {
     @Key("${S3_TYPE}_S3_API_TIMEOUT_MS")
     @DefaultValue("40000")
     Long getS3ApiTimeout();
+
+    @Key("${S3_TYPE}_S3_ENDPOINT")
+    String getS3Endpoint();
+
+    @Key("${S3_TYPE}_S3_MULTIPART_THRESHOLD_BYTES")
+    @DefaultValue("16777216")
+    Long getS3MultipartThresholdBytes();
+
+    @Key("${S3_TYPE}_S3_MULTIPART_PART_SIZE_BYTES")
+    @DefaultValue("8388608")
+    Long getS3MultipartPartSizeBytes();
+
+    @Key("${S3_TYPE}_S3_MULTIPART_UPLOAD_THREADS")
+    @DefaultValue("4")
+    Integer getS3MultipartUploadThreads();
 }
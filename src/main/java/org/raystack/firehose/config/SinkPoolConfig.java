@@ -10,4 +10,20 @@ public interface SinkPoolConfig extends AppConfig {
     @Config.Key("SINK_POOL_QUEUE_POLL_TIMEOUT_MS")
     @Config.DefaultValue("1000")
     int getSinkPoolQueuePollTimeoutMS();
+
+    @Config.Key("SINK_POOL_PARTITION_AFFINITY_ENABLE")
+    @Config.DefaultValue("false")
+    boolean isSinkPoolPartitionAffinityEnable();
+
+    @Config.Key("SINK_POOL_PARTITION_AFFINITY_WORKER_QUEUE_CAPACITY")
+    @Config.DefaultValue("2")
+    int getSinkPoolPartitionAffinityWorkerQueueCapacity();
+
+    @Config.Key("SINK_POOL_PIPELINE_ENABLE")
+    @Config.DefaultValue("false")
+    boolean isSinkPoolPipelineEnable();
+
+    @Config.Key("SINK_POOL_PIPELINE_QUEUE_CAPACITY")
+    @Config.DefaultValue("1")
+    int getSinkPoolPipelineQueueCapacity();
 }
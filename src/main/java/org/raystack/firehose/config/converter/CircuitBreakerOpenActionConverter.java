@@ -0,0 +1,13 @@
+package org.raystack.firehose.config.converter;
+
+import org.raystack.firehose.config.enums.CircuitBreakerOpenAction;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+public class CircuitBreakerOpenActionConverter implements Converter<CircuitBreakerOpenAction> {
+    @Override
+    public CircuitBreakerOpenAction convert(Method method, String input) {
+        return CircuitBreakerOpenAction.valueOf(input.toUpperCase());
+    }
+}
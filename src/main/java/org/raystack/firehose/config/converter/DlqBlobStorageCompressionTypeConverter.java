@@ -0,0 +1,13 @@
+package org.raystack.firehose.config.converter;
+
+import org.raystack.firehose.config.enums.DlqBlobStorageCompressionType;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+public class DlqBlobStorageCompressionTypeConverter implements Converter<DlqBlobStorageCompressionType> {
+    @Override
+    public DlqBlobStorageCompressionType convert(Method method, String input) {
+        return DlqBlobStorageCompressionType.valueOf(input.toUpperCase());
+    }
+}
@@ -0,0 +1,13 @@
+package org.raystack.firehose.config.converter;
+
+import org.raystack.firehose.config.enums.HttpSinkCompressionType;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+public class HttpSinkCompressionTypeConverter implements Converter<HttpSinkCompressionType> {
+    @Override
+    public HttpSinkCompressionType convert(Method method, String input) {
+        return HttpSinkCompressionType.valueOf(input.toUpperCase());
+    }
+}
@@ -0,0 +1,6 @@
+package org.raystack.firehose.config.enums;
+
+public enum CircuitBreakerOpenAction {
+    PAUSE,
+    DLQ
+}
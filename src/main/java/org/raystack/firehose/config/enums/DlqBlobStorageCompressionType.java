@@ -0,0 +1,7 @@
+package org.raystack.firehose.config.enums;
+
+public enum DlqBlobStorageCompressionType {
+    NONE,
+    GZIP,
+    ZSTD
+}
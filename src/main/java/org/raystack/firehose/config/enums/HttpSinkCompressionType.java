@@ -0,0 +1,8 @@
+package org.raystack.firehose.config.enums;
+
+public enum HttpSinkCompressionType {
+    NONE,
+    GZIP,
+    ZSTD,
+    SNAPPY
+}
@@ -2,5 +2,6 @@ package org.raystack.firehose.config.enums;
 
 public enum HttpSinkDataFormatType {
     PROTO,
-    JSON
+    JSON,
+    BINARY
 }
@@ -14,6 +14,7 @@ import lombok.AllArgsConstructor;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 import static org.raystack.firehose.metrics.Metrics.SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS;
@@ -38,8 +39,8 @@ public class FirehoseAsyncConsumer implements FirehoseConsumer {
             }
             if (filteredMessages.sizeOfValidMessages() > 0) {
                 List<Message> validMessages = filteredMessages.getValidMessages();
-                Future<List<Message>> scheduledTask = scheduleTask(validMessages);
-                consumerAndOffsetManager.addOffsets(scheduledTask, validMessages);
+                Map<Future<List<Message>>, List<Message>> scheduledTasks = scheduleTasks(validMessages);
+                scheduledTasks.forEach(consumerAndOffsetManager::addOffsets);
             }
             sinkPool.fetchFinishedSinkTasks().forEach(consumerAndOffsetManager::setCommittable);
             consumerAndOffsetManager.commit();
@@ -51,15 +52,15 @@ public class FirehoseAsyncConsumer implements FirehoseConsumer {
         }
     }
 
-    private Future<List<Message>> scheduleTask(List<Message> messages) {
+    private Map<Future<List<Message>>, List<Message>> scheduleTasks(List<Message> messages) {
         while (true) {
-            Future<List<Message>> scheduledTask = sinkPool.submitTask(messages);
-            if (scheduledTask == null) {
+            Map<Future<List<Message>>, List<Message>> scheduledTasks = sinkPool.submitTasks(messages);
+            if (scheduledTasks == null) {
                 firehoseInstrumentation.logInfo("The Queue is full");
                 sinkPool.fetchFinishedSinkTasks().forEach(consumerAndOffsetManager::setCommittable);
             } else {
                 firehoseInstrumentation.logInfo("Adding sink task");
-                return scheduledTask;
+                return scheduledTasks;
             }
         }
     }
@@ -68,6 +69,7 @@ public class FirehoseAsyncConsumer implements FirehoseConsumer {
     public void close() throws IOException {
         sinkPool.close();
         consumerAndOffsetManager.close();
+        firehoseFilter.close();
         tracer.close();
         firehoseInstrumentation.close();
     }
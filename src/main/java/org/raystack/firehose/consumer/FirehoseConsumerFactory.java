@@ -3,18 +3,22 @@ package org.raystack.firehose.consumer;
 import org.raystack.firehose.consumer.kafka.ConsumerAndOffsetManager;
 import org.raystack.firehose.consumer.kafka.FirehoseKafkaConsumer;
 import org.raystack.firehose.consumer.kafka.OffsetManager;
+import org.raystack.firehose.consumer.kafka.RangeOffsetManager;
 import io.jaegertracing.Configuration;
 import org.raystack.depot.metrics.StatsDReporter;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.sink.SinkFactory;
 import org.raystack.firehose.utils.KafkaUtils;
 import org.raystack.firehose.config.AppConfig;
+import org.raystack.firehose.config.CircuitBreakerConfig;
 import org.raystack.firehose.config.DlqConfig;
 import org.raystack.firehose.config.FilterConfig;
 import org.raystack.firehose.config.ErrorConfig;
 import org.raystack.firehose.config.KafkaConsumerConfig;
 import org.raystack.firehose.config.SinkPoolConfig;
+import org.raystack.firehose.config.enums.CircuitBreakerOpenAction;
 import org.raystack.firehose.config.enums.KafkaConsumerMode;
+import org.raystack.firehose.sink.PartitionAffineSinkPool;
 import org.raystack.firehose.sink.SinkPool;
 import org.raystack.firehose.filter.Filter;
 import org.raystack.firehose.filter.NoOpFilter;
@@ -25,12 +29,16 @@ import org.raystack.firehose.sink.Sink;
 import org.raystack.firehose.sink.common.KeyOrMessageParser;
 import org.raystack.firehose.sinkdecorator.BackOff;
 import org.raystack.firehose.sinkdecorator.BackOffProvider;
+import org.raystack.firehose.sinkdecorator.CircuitBreaker;
 import org.raystack.firehose.error.ErrorHandler;
 import org.raystack.firehose.sinkdecorator.ExponentialBackOffProvider;
+import org.raystack.firehose.sinkdecorator.RetryScheduler;
 import org.raystack.firehose.sinkdecorator.SinkFinal;
+import org.raystack.firehose.sinkdecorator.SinkWithCircuitBreaker;
 import org.raystack.firehose.sinkdecorator.SinkWithDlq;
 import org.raystack.firehose.sinkdecorator.SinkWithFailHandler;
 import org.raystack.firehose.sinkdecorator.SinkWithRetry;
+import org.raystack.firehose.sink.dlq.AsyncDlqWriter;
 import org.raystack.firehose.sink.dlq.DlqWriter;
 import org.raystack.firehose.sink.dlq.DlqWriterFactory;
 import org.raystack.firehose.tracer.SinkTracer;
@@ -41,6 +49,7 @@ import io.opentracing.Tracer;
 import io.opentracing.noop.NoopTracerFactory;
 import org.aeonbits.owner.ConfigFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -60,7 +69,9 @@ public class FirehoseConsumerFactory {
     private final StencilClient stencilClient;
     private final FirehoseInstrumentation firehoseInstrumentation;
     private final KeyOrMessageParser parser;
-    private final OffsetManager offsetManager = new OffsetManager();
+    private final OffsetManager offsetManager;
+    private final CircuitBreaker circuitBreaker;
+    private DlqWriter asyncDlqWriter;
 
     /**
      * Instantiates a new Firehose consumer factory.
@@ -85,6 +96,24 @@ public class FirehoseConsumerFactory {
                 ? StencilClientFactory.getClient(stencilUrl, StencilUtils.getStencilConfig(kafkaConsumerConfig, statsDReporter.getClient()))
                 : StencilClientFactory.getClient();
         parser = new KeyOrMessageParser(stencilClient.getParser(kafkaConsumerConfig.getInputSchemaProtoClass()), kafkaConsumerConfig);
+        offsetManager = this.kafkaConsumerConfig.isSourceKafkaConsumerOffsetRangeTrackingEnable() ? new RangeOffsetManager() : new OffsetManager();
+        circuitBreaker = createCircuitBreaker();
+    }
+
+    private CircuitBreaker createCircuitBreaker() {
+        CircuitBreakerConfig circuitBreakerConfig = ConfigFactory.create(CircuitBreakerConfig.class, config);
+        if (!circuitBreakerConfig.isSinkCircuitBreakerEnable()) {
+            return null;
+        }
+        return new CircuitBreaker(
+                circuitBreakerConfig.getSinkCircuitBreakerWindowMs(),
+                circuitBreakerConfig.getSinkCircuitBreakerMinBatches(),
+                circuitBreakerConfig.getSinkCircuitBreakerFailureRateThreshold(),
+                circuitBreakerConfig.getSinkCircuitBreakerSlowBatchMs(),
+                circuitBreakerConfig.getSinkCircuitBreakerSlowBatchRateThreshold(),
+                circuitBreakerConfig.getSinkCircuitBreakerOpenDurationMs(),
+                circuitBreakerConfig.getSinkCircuitBreakerHalfOpenProbeBatches(),
+                new FirehoseInstrumentation(statsDReporter, CircuitBreaker.class));
     }
 
     private FirehoseFilter buildFilter(FilterConfig filterConfig) {
@@ -126,8 +155,9 @@ public class FirehoseConsumerFactory {
                 kafkaConsumerConfig.isTraceJaegarEnable());
         SinkFactory sinkFactory = new SinkFactory(kafkaConsumerConfig, statsDReporter, stencilClient, offsetManager);
         sinkFactory.init();
+        RetryScheduler retryScheduler = createRetryScheduler(tracer, sinkFactory);
         if (kafkaConsumerConfig.getSourceKafkaConsumerMode().equals(KafkaConsumerMode.SYNC)) {
-            Sink sink = createSink(tracer, sinkFactory);
+            Sink sink = createSink(tracer, sinkFactory, retryScheduler);
             ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), offsetManager, firehoseKafkaConsumer, kafkaConsumerConfig, new FirehoseInstrumentation(statsDReporter, ConsumerAndOffsetManager.class));
             return new FirehoseSyncConsumer(
                     sink,
@@ -140,14 +170,21 @@ public class FirehoseConsumerFactory {
             int nThreads = sinkPoolConfig.getSinkPoolNumThreads();
             List<Sink> sinks = new ArrayList<>(nThreads);
             for (int ii = 0; ii < nThreads; ii++) {
-                sinks.add(createSink(tracer, sinkFactory));
+                sinks.add(createSink(tracer, sinkFactory, retryScheduler));
             }
             ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(sinks, offsetManager, firehoseKafkaConsumer, kafkaConsumerConfig, new FirehoseInstrumentation(statsDReporter, ConsumerAndOffsetManager.class));
-            SinkPool sinkPool = new SinkPool(
-                    new LinkedBlockingQueue<>(sinks),
-                    sinks,
-                    Executors.newCachedThreadPool(),
-                    sinkPoolConfig.getSinkPoolQueuePollTimeoutMS());
+            SinkPool sinkPool = createSinkPool(sinkPoolConfig, sinks);
+            if (sinkPoolConfig.isSinkPoolPipelineEnable()) {
+                return new FirehosePipelinedAsyncConsumer(
+                        sinkPool,
+                        firehoseTracer,
+                        consumerAndOffsetManager,
+                        firehoseFilter,
+                        new FirehoseInstrumentation(statsDReporter, FirehosePipelinedAsyncConsumer.class),
+                        Executors.newFixedThreadPool(2),
+                        sinkPoolConfig.getSinkPoolPipelineQueueCapacity(),
+                        sinkPoolConfig.getSinkPoolQueuePollTimeoutMS());
+            }
             return new FirehoseAsyncConsumer(
                     sinkPool,
                     firehoseTracer,
@@ -157,21 +194,102 @@ public class FirehoseConsumerFactory {
         }
     }
 
-    private Sink createSink(Tracer tracer, SinkFactory sinkFactory) {
+    private SinkPool createSinkPool(SinkPoolConfig sinkPoolConfig, List<Sink> sinks) {
+        if (sinkPoolConfig.isSinkPoolPartitionAffinityEnable()) {
+            return new PartitionAffineSinkPool(
+                    sinks,
+                    Executors.newFixedThreadPool(sinks.size()),
+                    sinkPoolConfig.getSinkPoolPartitionAffinityWorkerQueueCapacity(),
+                    sinkPoolConfig.getSinkPoolQueuePollTimeoutMS(),
+                    new FirehoseInstrumentation(statsDReporter, PartitionAffineSinkPool.class));
+        }
+        return new SinkPool(
+                new LinkedBlockingQueue<>(sinks),
+                sinks,
+                Executors.newCachedThreadPool(),
+                sinkPoolConfig.getSinkPoolQueuePollTimeoutMS());
+    }
+
+    /**
+     * Creates the retry scheduler and its retry sinks when delayed retries are enabled.
+     * Delayed retries hold offsets in the offset manager, so they are not used when offsets are committed
+     * for all partitions or when the sink manages offsets itself.
+     *
+     * @return the started retry scheduler, null to retry on the sink threads
+     */
+    private RetryScheduler createRetryScheduler(Tracer tracer, SinkFactory sinkFactory) {
+        AppConfig appConfig = ConfigFactory.create(AppConfig.class, config);
+        if (!appConfig.getRetryDelayedEnable()) {
+            return null;
+        }
+        if (!kafkaConsumerConfig.isSourceKafkaCommitOnlyCurrentPartitionsEnable()) {
+            firehoseInstrumentation.logWarn("Delayed retry needs SOURCE_KAFKA_COMMIT_ONLY_CURRENT_PARTITIONS_ENABLE, retrying on the sink threads");
+            return null;
+        }
+        RetryScheduler retryScheduler = new RetryScheduler(
+                offsetManager,
+                getBackOffProvider(),
+                appConfig.getRetryDelayedMaxParkedMessages(),
+                new FirehoseInstrumentation(statsDReporter, RetryScheduler.class),
+                Executors.newFixedThreadPool(appConfig.getRetryDelayedThreads()));
+        List<Sink> retrySinks = new ArrayList<>();
+        for (int ii = 0; ii < appConfig.getRetryDelayedThreads(); ii++) {
+            retrySinks.add(createSink(tracer, sinkFactory, retryScheduler));
+        }
+        if (retrySinks.get(0).canManageOffsets()) {
+            firehoseInstrumentation.logWarn("Delayed retry is not supported by sinks managing offsets, retrying on the sink threads");
+            for (Sink retrySink : retrySinks) {
+                try {
+                    retrySink.close();
+                } catch (IOException e) {
+                    firehoseInstrumentation.logWarn("Failed to close retry sink: {}", e.getMessage());
+                }
+            }
+            return null;
+        }
+        retryScheduler.start(retrySinks);
+        return retryScheduler;
+    }
+
+    private Sink createSink(Tracer tracer, SinkFactory sinkFactory, RetryScheduler retryScheduler) {
         ErrorHandler errorHandler = new ErrorHandler(ConfigFactory.create(ErrorConfig.class, config));
         Sink baseSink = sinkFactory.getSink();
-        Sink sinkWithFailHandler = new SinkWithFailHandler(baseSink, errorHandler);
-        Sink sinkWithRetry = withRetry(sinkWithFailHandler, errorHandler);
+        Sink sinkWithCircuitBreaker = withCircuitBreaker(baseSink, tracer);
+        Sink sinkWithFailHandler = new SinkWithFailHandler(sinkWithCircuitBreaker, errorHandler);
+        Sink sinkWithRetry = withRetry(sinkWithFailHandler, errorHandler, retryScheduler);
         Sink sinkWithDLQ = withDlq(sinkWithRetry, tracer, errorHandler);
         return new SinkFinal(sinkWithDLQ, new FirehoseInstrumentation(statsDReporter, SinkFinal.class));
     }
 
+    /**
+     * to stop pushing to a failing downstream, shared by all sinks of the consumer.
+     *
+     * @param sink   Sink To wrap with circuit breaker decorator
+     * @param tracer tracer for the DLQ writer
+     * @return Sink with circuit breaker decorator
+     */
+    private Sink withCircuitBreaker(Sink sink, Tracer tracer) {
+        if (circuitBreaker == null) {
+            return sink;
+        }
+        CircuitBreakerConfig circuitBreakerConfig = ConfigFactory.create(CircuitBreakerConfig.class, config);
+        DlqWriter dlqWriter = null;
+        if (circuitBreakerConfig.getSinkCircuitBreakerOpenAction() == CircuitBreakerOpenAction.DLQ) {
+            if (ConfigFactory.create(DlqConfig.class, config).getDlqSinkEnable()) {
+                dlqWriter = createDlqWriter(tracer);
+            } else {
+                firehoseInstrumentation.logWarn("Circuit breaker needs DLQ_SINK_ENABLE to write to the DLQ, pausing while open");
+            }
+        }
+        return new SinkWithCircuitBreaker(sink, circuitBreaker, dlqWriter, new FirehoseInstrumentation(statsDReporter, SinkWithCircuitBreaker.class));
+    }
+
     public Sink withDlq(Sink sink, Tracer tracer, ErrorHandler errorHandler) {
         DlqConfig dlqConfig = ConfigFactory.create(DlqConfig.class, config);
         if (!dlqConfig.getDlqSinkEnable()) {
             return sink;
         }
-        DlqWriter dlqWriter = DlqWriterFactory.create(new HashMap<>(config), statsDReporter, tracer);
+        DlqWriter dlqWriter = createDlqWriter(tracer);
         BackOffProvider backOffProvider = getBackOffProvider();
         return new SinkWithDlq(
                 sink,
@@ -182,17 +300,61 @@ public class FirehoseConsumerFactory {
                 new FirehoseInstrumentation(statsDReporter, SinkWithDlq.class));
     }
 
+    /**
+     * Creates the DLQ writer of a sink. With DLQ_ASYNC_ENABLE all sinks share one writer queuing messages
+     * for a writer thread, it needs the offset manager to hold their offsets, so it is only used when
+     * offsets are committed from the offset manager.
+     *
+     * @param tracer tracer for the DLQ writer
+     * @return the DLQ writer
+     */
+    private DlqWriter createDlqWriter(Tracer tracer) {
+        DlqConfig dlqConfig = ConfigFactory.create(DlqConfig.class, config);
+        if (!dlqConfig.getDlqAsyncEnable()) {
+            return createBaseDlqWriter(tracer);
+        }
+        if (!kafkaConsumerConfig.isSourceKafkaCommitOnlyCurrentPartitionsEnable()) {
+            firehoseInstrumentation.logWarn("Async DLQ needs SOURCE_KAFKA_COMMIT_ONLY_CURRENT_PARTITIONS_ENABLE, writing to DLQ on the sink threads");
+            return createBaseDlqWriter(tracer);
+        }
+        if (asyncDlqWriter == null) {
+            asyncDlqWriter = new AsyncDlqWriter(
+                    createBaseDlqWriter(tracer),
+                    offsetManager,
+                    getBackOffProvider(),
+                    dlqConfig,
+                    dlqConfig.getDlqAsyncQueueCapacity(),
+                    dlqConfig.getDlqAsyncMaxBatchSize(),
+                    new FirehoseInstrumentation(statsDReporter, AsyncDlqWriter.class),
+                    Executors.newSingleThreadExecutor());
+        }
+        return asyncDlqWriter;
+    }
+
+    /**
+     * Creates the writer to the DLQ destination. The rolling blob storage writer owns the files of its local
+     * directory, so every writer created here is a share of the one writer of the directory in the JVM,
+     * released when its owner closes it.
+     *
+     * @param tracer tracer for the DLQ writer
+     * @return the DLQ writer
+     */
+    private DlqWriter createBaseDlqWriter(Tracer tracer) {
+        return DlqWriterFactory.create(new HashMap<>(config), statsDReporter, tracer);
+    }
+
     /**
      * to enable the retry feature for the basic sinks based on the config.
      *
-     * @param sink         Sink To wrap with retry decorator
-     * @param errorHandler error handler
+     * @param sink           Sink To wrap with retry decorator
+     * @param errorHandler   error handler
+     * @param retryScheduler scheduler of delayed retries, null to retry on the calling thread
      * @return Sink with retry decorator
      */
-    private Sink withRetry(Sink sink, ErrorHandler errorHandler) {
+    private Sink withRetry(Sink sink, ErrorHandler errorHandler, RetryScheduler retryScheduler) {
         AppConfig appConfig = ConfigFactory.create(AppConfig.class, config);
         BackOffProvider backOffProvider = getBackOffProvider();
-        return new SinkWithRetry(sink, backOffProvider, new FirehoseInstrumentation(statsDReporter, SinkWithRetry.class), appConfig, parser, errorHandler);
+        return new SinkWithRetry(sink, backOffProvider, new FirehoseInstrumentation(statsDReporter, SinkWithRetry.class), appConfig, parser, errorHandler, retryScheduler);
     }
 
     private BackOffProvider getBackOffProvider() {
@@ -8,10 +8,12 @@ import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.metrics.Metrics;
 import lombok.AllArgsConstructor;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
 
 @AllArgsConstructor
-public class FirehoseFilter {
+public class FirehoseFilter implements Closeable {
     private final Filter filter;
     private final FirehoseInstrumentation firehoseInstrumentation;
 
@@ -24,4 +26,9 @@ public class FirehoseFilter {
         }
         return filteredMessage;
     }
+
+    @Override
+    public void close() throws IOException {
+        filter.close();
+    }
 }
@@ -0,0 +1,192 @@
+package org.raystack.firehose.consumer;
+
+import org.raystack.firehose.consumer.kafka.ConsumerAndOffsetManager;
+import org.raystack.firehose.exception.FirehoseConsumerFailedException;
+import org.raystack.firehose.filter.FilteredMessages;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.SinkPool;
+import org.raystack.firehose.tracer.SinkTracer;
+import io.opentracing.Span;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.raystack.firehose.metrics.Metrics.SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS;
+
+/**
+ * Async consumer which overlaps kafka poll, filtering and sink dispatch.
+ * <p>
+ * Poll and commit stay on the consumer thread as the kafka consumer is not thread safe.
+ * Filtering and scheduling tasks on the {@link SinkPool} run on two stage threads connected by bounded queues,
+ * so the next poll and filter happen while sinks are still flushing.
+ * When the filter queue is full, all assigned partitions are paused until the stages catch up.
+ * <p>
+ * Offsets of a batch are only added to the offset manager by the dispatch stage, once its tasks are scheduled,
+ * and before its filtered offsets are set committable. So a commit from the consumer thread never skips over
+ * messages still in the pipeline.
+ */
+public class FirehosePipelinedAsyncConsumer implements FirehoseConsumer {
+    private final SinkPool sinkPool;
+    private final SinkTracer tracer;
+    private final ConsumerAndOffsetManager consumerAndOffsetManager;
+    private final FirehoseFilter firehoseFilter;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final ExecutorService stageExecutor;
+    private final long stagePollTimeoutMillis;
+    private final BlockingQueue<List<Message>> filterQueue;
+    private final BlockingQueue<PipelineBatch> dispatchQueue;
+    private final Deque<List<Message>> pendingBatches = new ArrayDeque<>();
+    private final AtomicReference<Throwable> stageFailure = new AtomicReference<>();
+    private volatile boolean running = true;
+
+    public FirehosePipelinedAsyncConsumer(SinkPool sinkPool,
+                                          SinkTracer tracer,
+                                          ConsumerAndOffsetManager consumerAndOffsetManager,
+                                          FirehoseFilter firehoseFilter,
+                                          FirehoseInstrumentation firehoseInstrumentation,
+                                          ExecutorService stageExecutor,
+                                          int queueCapacity,
+                                          long stagePollTimeoutMillis) {
+        this.sinkPool = sinkPool;
+        this.tracer = tracer;
+        this.consumerAndOffsetManager = consumerAndOffsetManager;
+        this.firehoseFilter = firehoseFilter;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.stageExecutor = stageExecutor;
+        this.stagePollTimeoutMillis = stagePollTimeoutMillis;
+        this.filterQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dispatchQueue = new ArrayBlockingQueue<>(queueCapacity);
+        stageExecutor.submit(() -> runStage(this::filterNextBatch));
+        stageExecutor.submit(() -> runStage(this::dispatchNextBatch));
+    }
+
+    @Override
+    public void process() {
+        Instant beforeCall = Instant.now();
+        try {
+            throwIfStageFailed();
+            handOffPendingBatches();
+            if (pendingBatches.isEmpty()) {
+                consumerAndOffsetManager.resume();
+            } else {
+                consumerAndOffsetManager.pause();
+            }
+            List<Message> messages = consumerAndOffsetManager.readMessages();
+            if (!messages.isEmpty()) {
+                pendingBatches.addLast(messages);
+                handOffPendingBatches();
+            }
+            consumerAndOffsetManager.commit();
+        } finally {
+            firehoseInstrumentation.captureDurationSince(SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS, beforeCall);
+        }
+    }
+
+    private void handOffPendingBatches() {
+        while (!pendingBatches.isEmpty() && filterQueue.offer(pendingBatches.peekFirst())) {
+            pendingBatches.pollFirst();
+        }
+    }
+
+    private void throwIfStageFailed() {
+        Throwable failure = stageFailure.get();
+        if (failure != null) {
+            throw new FirehoseConsumerFailedException(failure);
+        }
+    }
+
+    private void runStage(Stage stage) {
+        try {
+            while (running) {
+                stage.runOnce();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception | Error e) {
+            firehoseInstrumentation.logError("Pipeline stage failed: {}", e.getMessage());
+            stageFailure.compareAndSet(null, e);
+            running = false;
+        }
+    }
+
+    private void filterNextBatch() throws Exception {
+        List<Message> messages = filterQueue.poll(stagePollTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (messages == null) {
+            return;
+        }
+        List<Span> spans = tracer.startTrace(messages);
+        FilteredMessages filteredMessages = firehoseFilter.applyFilter(messages);
+        dispatchQueue.put(new PipelineBatch(filteredMessages, spans));
+    }
+
+    private void dispatchNextBatch() throws InterruptedException {
+        PipelineBatch batch = dispatchQueue.poll(stagePollTimeoutMillis, TimeUnit.MILLISECONDS);
+        setFinishedBatchesCommittable();
+        if (batch == null) {
+            return;
+        }
+        FilteredMessages filteredMessages = batch.getFilteredMessages();
+        if (filteredMessages.sizeOfValidMessages() > 0) {
+            Map<Future<List<Message>>, List<Message>> scheduledTasks = sinkPool.submitTasks(filteredMessages.getValidMessages());
+            while (scheduledTasks == null) {
+                if (!running) {
+                    throw new InterruptedException();
+                }
+                setFinishedBatchesCommittable();
+                scheduledTasks = sinkPool.submitTasks(filteredMessages.getValidMessages());
+            }
+            scheduledTasks.forEach(consumerAndOffsetManager::addOffsets);
+        }
+        if (filteredMessages.sizeOfInvalidMessages() > 0) {
+            consumerAndOffsetManager.forceAddOffsetsAndSetCommittable(filteredMessages.getInvalidMessages());
+        }
+        tracer.finishTrace(batch.getSpans());
+    }
+
+    private void setFinishedBatchesCommittable() {
+        sinkPool.fetchFinishedSinkTasks().forEach(consumerAndOffsetManager::setCommittable);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        stageExecutor.shutdownNow();
+        try {
+            stageExecutor.awaitTermination(stagePollTimeoutMillis * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sinkPool.close();
+        consumerAndOffsetManager.close();
+        firehoseFilter.close();
+        tracer.close();
+        firehoseInstrumentation.close();
+    }
+
+    private interface Stage {
+        void runOnce() throws Exception;
+    }
+
+    /**
+     * Filtered messages of a polled batch along with their spans.
+     */
+    @AllArgsConstructor
+    @Getter
+    private static class PipelineBatch {
+        private final FilteredMessages filteredMessages;
+        private final List<Span> spans;
+    }
+}
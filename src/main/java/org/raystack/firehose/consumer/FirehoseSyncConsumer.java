@@ -56,6 +56,7 @@ public class FirehoseSyncConsumer implements FirehoseConsumer {
     @Override
     public void close() throws IOException {
         sink.close();
+        firehoseFilter.close();
         tracer.close();
         consumerAndOffsetManager.close();
         firehoseInstrumentation.close();
@@ -83,6 +83,14 @@ public class ConsumerAndOffsetManager implements AutoCloseable {
         return firehoseKafkaConsumer.readMessages();
     }
 
+    public void pause() {
+        firehoseKafkaConsumer.pause();
+    }
+
+    public void resume() {
+        firehoseKafkaConsumer.resume();
+    }
+
     public void commit() {
         long currentTimeStamp = System.currentTimeMillis();
         if (currentTimeStamp - lastCommitTimeStamp > kafkaConsumerConfig.getSourceKafkaConsumerManualCommitMinIntervalMs()) {
@@ -14,11 +14,13 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.raystack.firehose.metrics.Metrics.FAILURE_TAG;
 import static org.raystack.firehose.metrics.Metrics.SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL;
+import static org.raystack.firehose.metrics.Metrics.SOURCE_KAFKA_PARTITIONS_PAUSE_TOTAL;
 import static org.raystack.firehose.metrics.Metrics.SUCCESS_TAG;
 
 /**
@@ -30,6 +32,7 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
     private final KafkaConsumerConfig consumerConfig;
     private final FirehoseInstrumentation firehoseInstrumentation;
     private final Map<TopicPartition, OffsetAndMetadata> committedOffsets = new ConcurrentHashMap<>();
+    private boolean paused = false;
 
     /**
      * A Constructor.
@@ -50,7 +53,8 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
      * @return list of EsbMessage {@see EsbMessage}
      */
     public List<Message> readMessages() {
-        ConsumerRecords<byte[], byte[]> records = kafkaConsumer.poll(Duration.ofMillis(consumerConfig.getSourceKafkaPollTimeoutMs()));
+        long pollTimeoutMs = paused ? consumerConfig.getSourceKafkaPausedPollTimeoutMs() : consumerConfig.getSourceKafkaPollTimeoutMs();
+        ConsumerRecords<byte[], byte[]> records = kafkaConsumer.poll(Duration.ofMillis(pollTimeoutMs));
         firehoseInstrumentation.logInfo("Pulled {} messages", records.count());
         firehoseInstrumentation.capturePulledMessageHistogram(records.count());
         firehoseInstrumentation.captureGlobalMessageMetrics(Metrics.MessageScope.CONSUMER, records.count());
@@ -63,6 +67,34 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
         return messages;
     }
 
+    /**
+     * Pause fetching from all currently assigned partitions.
+     * Polling has to continue while paused so that the consumer stays in the group,
+     * it is done with {@code SOURCE_KAFKA_PAUSED_POLL_TIMEOUT_MS} until {@link #resume()} is called.
+     * Partitions assigned after a rebalance are not paused, so this can be called again on every poll.
+     */
+    public void pause() {
+        Set<TopicPartition> assignment = kafkaConsumer.assignment();
+        if (!paused) {
+            firehoseInstrumentation.logInfo("Pausing {} partitions", assignment.size());
+            firehoseInstrumentation.incrementCounter(SOURCE_KAFKA_PARTITIONS_PAUSE_TOTAL);
+        }
+        kafkaConsumer.pause(assignment);
+        paused = true;
+    }
+
+    /**
+     * Resume fetching from all paused partitions.
+     */
+    public void resume() {
+        if (!paused) {
+            return;
+        }
+        firehoseInstrumentation.logInfo("Resuming paused partitions");
+        kafkaConsumer.resume(kafkaConsumer.paused());
+        paused = false;
+    }
+
     public void close() {
         try {
             firehoseInstrumentation.logInfo("Consumer is closing");
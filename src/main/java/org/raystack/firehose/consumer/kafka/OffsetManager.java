@@ -4,9 +4,11 @@ import org.raystack.firehose.message.Message;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +25,8 @@ import java.util.stream.Collectors;
 public class OffsetManager {
     private final Map<Object, Set<OffsetNode>> toBeCommittableBatchOffsets = new HashMap<>();
     private final Map<TopicPartition, TreeSet<OffsetNode>> sortedOffsets = new HashMap<>();
+    private final Map<Object, List<OffsetNode>> heldBatchOffsets = new HashMap<>();
+    private final Map<OffsetNode, Integer> heldOffsetCounts = new IdentityHashMap<>();
 
     /**
      * @param offsetKeyToMessagesMap A map of key to list of messages to be added
@@ -54,9 +58,54 @@ public class OffsetManager {
 
     private synchronized void addOffsetToBatch(Object batch, OffsetNode node) {
         toBeCommittableBatchOffsets.computeIfAbsent(batch, x -> new HashSet<>()).add(node);
-        sortedOffsets.computeIfAbsent(
-                node.getTopicPartition(),
-                topicPartition -> new TreeSet<>(Comparator.comparingLong(offsetNode -> offsetNode.getOffsetAndMetadata().offset()))).add(node);
+        getOrCreateOffsetsForTopicPartition(node.getTopicPartition()).add(node);
+    }
+
+    private TreeSet<OffsetNode> getOrCreateOffsetsForTopicPartition(TopicPartition topicPartition) {
+        return sortedOffsets.computeIfAbsent(
+                topicPartition,
+                key -> new TreeSet<>(Comparator.comparingLong(offsetNode -> offsetNode.getOffsetAndMetadata().offset())));
+    }
+
+    /**
+     * Keeps the offsets of the messages from being committed until the key is released,
+     * whether or not the batches they were added with are committable.
+     *
+     * @param key         key to release the offsets with
+     * @param messageList messages to hold the offsets of
+     */
+    public synchronized void holdOffsets(Object key, List<Message> messageList) {
+        List<OffsetNode> heldNodes = heldBatchOffsets.computeIfAbsent(key, x -> new ArrayList<>());
+        for (Message message : messageList) {
+            OffsetNode node = new OffsetNode(
+                    new TopicPartition(message.getTopic(), message.getPartition()),
+                    new OffsetAndMetadata(message.getOffset() + 1));
+            TreeSet<OffsetNode> nodes = getOrCreateOffsetsForTopicPartition(node.getTopicPartition());
+            OffsetNode existingNode = nodes.ceiling(node);
+            if (existingNode != null && existingNode.getOffsetAndMetadata().offset() == node.getOffsetAndMetadata().offset()) {
+                node = existingNode;
+            } else {
+                nodes.add(node);
+            }
+            heldOffsetCounts.merge(node, 1, Integer::sum);
+            heldNodes.add(node);
+        }
+    }
+
+    /**
+     * @param key key the offsets were held with, they become committable once no other key holds them.
+     */
+    public synchronized void releaseOffsets(Object key) {
+        List<OffsetNode> heldNodes = heldBatchOffsets.remove(key);
+        if (heldNodes == null) {
+            return;
+        }
+        for (OffsetNode node : heldNodes) {
+            if (heldOffsetCounts.merge(node, -1, Integer::sum) == 0) {
+                heldOffsetCounts.remove(node);
+                node.setCommittable(true);
+            }
+        }
     }
 
     /**
@@ -95,7 +144,7 @@ public class OffsetManager {
         while (iterator.hasNext()) {
             previous = current;
             current = iterator.next();
-            if (!current.isCommittable()) {
+            if (!current.isCommittable() || heldOffsetCounts.containsKey(current)) {
                 break;
             }
             if (previous != null) {
@@ -112,7 +161,8 @@ public class OffsetManager {
                 break;
             }
         }
-        return nodes.first().isCommittable() ? Optional.of(nodes.first()) : Optional.empty();
+        OffsetNode first = nodes.first();
+        return first.isCommittable() && !heldOffsetCounts.containsKey(first) ? Optional.of(first) : Optional.empty();
     }
 
     protected TreeSet<OffsetNode> getOffsetsForTopicPartition(TopicPartition topicPartition) {
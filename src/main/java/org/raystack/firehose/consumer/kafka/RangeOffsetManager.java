@@ -0,0 +1,236 @@
+package org.raystack.firehose.consumer.kafka;
+
+import org.raystack.firehose.message.Message;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OffsetManager which keeps offset ranges instead of a node per offset.
+ * <p>
+ * Offsets of a partition added to a batch are kept as one segment with the lowest and the highest offset,
+ * so memory and allocations grow with the number of batches and partitions instead of the number of messages.
+ * Every partition is locked on its own, so sinks setting batches committable do not contend on one monitor.
+ * <p>
+ * A partition can be committed up to the last finished offset below its lowest unfinished segment.
+ * When batches interleave offsets of the same partition this is computed from segment bounds,
+ * so the committed offset can lag behind the exact one, but it never goes past an unfinished message.
+ * <p>
+ * This class is thread safe. Multiple sinks can use the same object.
+ */
+public class RangeOffsetManager extends OffsetManager {
+    private final Map<TopicPartition, PartitionOffsets> partitionOffsets = new ConcurrentHashMap<>();
+    private final Map<Object, BatchOffsets> toBeCommittableBatchOffsets = new HashMap<>();
+    private final Map<Object, List<Segment>> heldSegments = new HashMap<>();
+
+    @Override
+    public void addOffsetToBatch(Map<Object, List<Message>> offsetKeyToMessagesMap) {
+        offsetKeyToMessagesMap.forEach(this::addOffsetToBatch);
+    }
+
+    @Override
+    public void addOffsetsAndSetCommittable(List<Message> messageList) {
+        forEachPartitionRange(messageList, (partition, min, max) -> partition.addSegment(min, max, true));
+    }
+
+    @Override
+    public void addOffsetToBatch(Object batch, List<Message> messageList) {
+        while (true) {
+            BatchOffsets batchOffsets = getOpenBatch(batch);
+            synchronized (batchOffsets) {
+                if (!batchOffsets.isCommittable()) {
+                    forEachPartitionRange(messageList, batchOffsets::add);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addOffsetToBatch(Object batch, Message message) {
+        addOffsetToBatch(batch, Collections.singletonList(message));
+    }
+
+    @Override
+    public void setCommittable(Object batch) {
+        BatchOffsets batchOffsets;
+        synchronized (toBeCommittableBatchOffsets) {
+            batchOffsets = toBeCommittableBatchOffsets.remove(batch);
+        }
+        if (batchOffsets != null) {
+            synchronized (batchOffsets) {
+                batchOffsets.setCommittable();
+            }
+        }
+    }
+
+    /**
+     * Holds the offsets with segments of their own, which stay unfinished until the key is released.
+     */
+    @Override
+    public void holdOffsets(Object key, List<Message> messageList) {
+        List<Segment> segments = new ArrayList<>();
+        forEachPartitionRange(messageList, (partition, min, max) -> segments.add(partition.addSegment(min, max, false)));
+        synchronized (heldSegments) {
+            heldSegments.computeIfAbsent(key, x -> new ArrayList<>()).addAll(segments);
+        }
+    }
+
+    @Override
+    public void releaseOffsets(Object key) {
+        List<Segment> segments;
+        synchronized (heldSegments) {
+            segments = heldSegments.remove(key);
+        }
+        if (segments != null) {
+            segments.forEach(segment -> segment.partition.setCommittable(segment));
+        }
+    }
+
+    /**
+     * @return offsets for all partitions
+     * It also compacts the segments of every partition by removing finished ones.
+     */
+    @Override
+    public Map<TopicPartition, OffsetAndMetadata> getCommittableOffset() {
+        Map<TopicPartition, OffsetAndMetadata> committableOffsets = new HashMap<>();
+        partitionOffsets.forEach((topicPartition, partition) -> {
+            OffsetAndMetadata committableOffset = partition.compactAndFetchCommittableOffset();
+            if (committableOffset != null) {
+                committableOffsets.put(topicPartition, committableOffset);
+            }
+        });
+        return committableOffsets;
+    }
+
+    private BatchOffsets getOpenBatch(Object batch) {
+        synchronized (toBeCommittableBatchOffsets) {
+            return toBeCommittableBatchOffsets.computeIfAbsent(batch, key -> new BatchOffsets());
+        }
+    }
+
+    /**
+     * Calls the consumer once for every run of consecutive messages from the same partition,
+     * with the lowest and the highest offset of the run.
+     */
+    private void forEachPartitionRange(List<Message> messageList, RangeConsumer consumer) {
+        int start = 0;
+        while (start < messageList.size()) {
+            Message first = messageList.get(start);
+            long min = first.getOffset();
+            long max = first.getOffset();
+            int end = start + 1;
+            while (end < messageList.size()
+                    && messageList.get(end).getPartition() == first.getPartition()
+                    && messageList.get(end).getTopic().equals(first.getTopic())) {
+                min = Math.min(min, messageList.get(end).getOffset());
+                max = Math.max(max, messageList.get(end).getOffset());
+                end++;
+            }
+            PartitionOffsets partition = partitionOffsets.computeIfAbsent(
+                    new TopicPartition(first.getTopic(), first.getPartition()), topicPartition -> new PartitionOffsets());
+            consumer.accept(partition, min, max);
+            start = end;
+        }
+    }
+
+    private interface RangeConsumer {
+        void accept(PartitionOffsets partition, long min, long max);
+    }
+
+    /**
+     * Segments of a batch, at most one per partition.
+     */
+    private static class BatchOffsets {
+        private final List<Segment> segments = new ArrayList<>();
+        private boolean committable = false;
+
+        void add(PartitionOffsets partition, long min, long max) {
+            for (Segment segment : segments) {
+                if (segment.partition == partition) {
+                    partition.extendSegment(segment, min, max);
+                    return;
+                }
+            }
+            segments.add(partition.addSegment(min, max, false));
+        }
+
+        void setCommittable() {
+            committable = true;
+            segments.forEach(segment -> segment.partition.setCommittable(segment));
+        }
+
+        boolean isCommittable() {
+            return committable;
+        }
+    }
+
+    private static class Segment {
+        private final PartitionOffsets partition;
+        private long min;
+        private long max;
+        private boolean committable;
+
+        Segment(PartitionOffsets partition, long min, long max, boolean committable) {
+            this.partition = partition;
+            this.min = min;
+            this.max = max;
+            this.committable = committable;
+        }
+    }
+
+    private static class PartitionOffsets {
+        private final List<Segment> segments = new ArrayList<>();
+        private OffsetAndMetadata committableOffset;
+
+        synchronized Segment addSegment(long min, long max, boolean committable) {
+            Segment segment = new Segment(this, min, max, committable);
+            segments.add(segment);
+            return segment;
+        }
+
+        synchronized void extendSegment(Segment segment, long min, long max) {
+            segment.min = Math.min(segment.min, min);
+            segment.max = Math.max(segment.max, max);
+        }
+
+        synchronized void setCommittable(Segment segment) {
+            segment.committable = true;
+        }
+
+        /**
+         * @return offset to commit, the offset after the last finished offset below the lowest unfinished segment.
+         * Null if nothing can be committed.
+         */
+        synchronized OffsetAndMetadata compactAndFetchCommittableOffset() {
+            long lowestPending = Long.MAX_VALUE;
+            for (Segment segment : segments) {
+                if (!segment.committable) {
+                    lowestPending = Math.min(lowestPending, segment.min);
+                }
+            }
+            long position = committableOffset == null ? -1 : committableOffset.offset();
+            if (lowestPending < position) {
+                return null;
+            }
+            long newPosition = position;
+            for (Segment segment : segments) {
+                if (segment.committable && segment.min < lowestPending) {
+                    newPosition = Math.max(newPosition, segment.max < lowestPending ? segment.max + 1 : segment.min + 1);
+                }
+            }
+            final long lowestPendingOffset = lowestPending;
+            segments.removeIf(segment -> segment.committable && segment.max < lowestPendingOffset);
+            if (newPosition != position) {
+                committableOffset = new OffsetAndMetadata(newPosition);
+            }
+            return committableOffset;
+        }
+    }
+}
@@ -2,12 +2,14 @@ package org.raystack.firehose.filter;
 
 import org.raystack.firehose.message.Message;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
 
 /**
  * Interface for filtering the messages.
  */
-public interface Filter {
+public interface Filter extends Closeable {
 
     /**
      * The method used for filtering the messages.
@@ -18,4 +20,13 @@ public interface Filter {
      */
     FilteredMessages filter(List<Message> messages) throws FilterException;
 
+    /**
+     * Releases the resources held by the filter.
+     *
+     * @throws IOException if the resources fail to release
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
 }
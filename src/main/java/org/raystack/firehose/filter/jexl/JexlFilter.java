@@ -1,5 +1,6 @@
 package org.raystack.firehose.filter.jexl;
 
+import com.google.common.base.Throwables;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.config.FilterConfig;
@@ -8,14 +9,21 @@ import org.raystack.firehose.filter.Filter;
 import org.raystack.firehose.filter.FilterException;
 import org.raystack.firehose.filter.FilteredMessages;
 import org.apache.commons.jexl2.Expression;
-import org.apache.commons.jexl2.JexlContext;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.JexlException;
 import org.apache.commons.jexl2.MapContext;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * A concrete class of Filter. This class is responsible
@@ -24,12 +32,24 @@ import java.util.List;
  * The filter expression is obtained from the {@link FilterConfig#getFilterJexlExpression()}
  * along with configurations for {@link FilterConfig#getFilterDataSource()} - [key|message]
  * and {@link FilterConfig#getFilterSchemaProtoClass()} - FQCN of the protobuf schema.
+ * <p>
+ * The schema class, its {@code parseFrom} method and the expression are resolved once,
+ * and every thread evaluates on its own reusable context.
+ * Batches of at least {@link FilterConfig#getFilterJexlParallelMinBatchSize()} messages are split
+ * across {@link FilterConfig#getFilterJexlParallelism()} threads.
  */
 public class JexlFilter implements Filter {
+    private static final int EXPRESSION_CACHE_SIZE = 256;
 
     private final Expression expression;
     private final FilterDataSourceType filterDataSourceType;
     private final String protoSchema;
+    private final String objectAccessor;
+    private final MethodHandle parseFrom;
+    private final ThreadLocal<MapContext> contexts = ThreadLocal.withInitial(MapContext::new);
+    private final int parallelism;
+    private final int parallelMinBatchSize;
+    private ExecutorService executorService;
 
     /**
      * Instantiates a new Message filter.
@@ -41,12 +61,20 @@ public class JexlFilter implements Filter {
         JexlEngine engine = new JexlEngine();
         engine.setSilent(false);
         engine.setStrict(true);
+        engine.setCache(EXPRESSION_CACHE_SIZE);
         this.filterDataSourceType = filterConfig.getFilterDataSource();
         this.protoSchema = filterConfig.getFilterSchemaProtoClass();
         firehoseInstrumentation.logInfo("\n\tFilter type: {}", this.filterDataSourceType);
         this.expression = engine.createExpression(filterConfig.getFilterJexlExpression());
         firehoseInstrumentation.logInfo("\n\tFilter schema: {}", this.protoSchema);
         firehoseInstrumentation.logInfo("\n\tFilter expression: {}", filterConfig.getFilterJexlExpression());
+        this.objectAccessor = getObjectAccessor();
+        this.parseFrom = getParseFrom();
+        this.parallelism = filterConfig.getFilterJexlParallelism();
+        this.parallelMinBatchSize = filterConfig.getFilterJexlParallelMinBatchSize();
+        if (parallelism > 1) {
+            this.executorService = new ForkJoinPool(parallelism);
+        }
     }
 
     /**
@@ -58,29 +86,89 @@ public class JexlFilter implements Filter {
      */
     @Override
     public FilteredMessages filter(List<Message> messages) throws FilterException {
+        boolean[] results = executorService != null && messages.size() >= parallelMinBatchSize
+                ? evaluateInParallel(messages)
+                : evaluate(messages, 0, messages.size());
         FilteredMessages filteredMessages = new FilteredMessages();
-        for (Message message : messages) {
-            try {
-                Object data = (filterDataSourceType.equals(FilterDataSourceType.KEY)) ? message.getLogKey() : message.getLogMessage();
-                Object obj = MethodUtils.invokeStaticMethod(Class.forName(protoSchema), "parseFrom", data);
-                if (evaluate(obj)) {
-                    filteredMessages.addToValidMessages(message);
-                } else {
-                    filteredMessages.addToInvalidMessages(message);
-                }
-            } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                throw new FilterException("Failed while filtering EsbMessages", e);
+        for (int i = 0; i < messages.size(); i++) {
+            if (results[i]) {
+                filteredMessages.addToValidMessages(messages.get(i));
+            } else {
+                filteredMessages.addToInvalidMessages(messages.get(i));
             }
         }
         return filteredMessages;
 
     }
 
-    private boolean evaluate(Object data) throws FilterException {
+    /**
+     * Shuts down the threads evaluating batches in parallel.
+     */
+    @Override
+    public void close() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private boolean[] evaluateInParallel(List<Message> messages) throws FilterException {
+        int chunkSize = (messages.size() + parallelism - 1) / parallelism;
+        List<Callable<boolean[]>> chunks = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            int start = from;
+            int end = Math.min(from + chunkSize, messages.size());
+            chunks.add(() -> evaluate(messages, start, end));
+        }
+        boolean[] results = new boolean[messages.size()];
+        try {
+            int from = 0;
+            for (Future<boolean[]> chunk : executorService.invokeAll(chunks)) {
+                boolean[] chunkResults = chunk.get();
+                System.arraycopy(chunkResults, 0, results, from, chunkResults.length);
+                from += chunkResults.length;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FilterException("Interrupted while filtering EsbMessages", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FilterException) {
+                throw (FilterException) e.getCause();
+            }
+            throw new FilterException("Failed while filtering EsbMessages", e);
+        } catch (RejectedExecutionException e) {
+            throw new FilterException("Filter is closed, EsbMessages can not be filtered", e);
+        }
+        return results;
+    }
+
+    private boolean[] evaluate(List<Message> messages, int start, int end) throws FilterException {
+        boolean[] results = new boolean[end - start];
+        MapContext context = contexts.get();
+        for (int i = start; i < end; i++) {
+            Message message = messages.get(i);
+            byte[] data = (filterDataSourceType.equals(FilterDataSourceType.KEY)) ? message.getLogKey() : message.getLogMessage();
+            results[i - start] = evaluate(context, parse(data));
+        }
+        return results;
+    }
+
+    private Object parse(byte[] data) throws FilterException {
+        try {
+            return parseFrom.invoke(data);
+        } catch (Exception e) {
+            throw new FilterException("Failed while filtering EsbMessages", e);
+        } catch (Throwable e) {
+            Throwables.throwIfUnchecked(e);
+            throw new FilterException("Failed while filtering EsbMessages " + e.getMessage());
+        }
+    }
+
+    private boolean evaluate(MapContext context, Object data) throws FilterException {
         Object result;
         try {
-            result = expression.evaluate(convertDataToContext(data));
-        } catch (JexlException | IllegalAccessException e) {
+            context.set(objectAccessor, data);
+            result = expression.evaluate(context);
+        } catch (JexlException e) {
             throw new FilterException("Failed while filtering " + e.getMessage());
         }
         if (result instanceof Boolean) {
@@ -90,15 +178,18 @@ public class JexlFilter implements Filter {
         }
     }
 
-    private JexlContext convertDataToContext(Object t) throws IllegalAccessException {
-        JexlContext context = new MapContext();
-        context.set(getObjectAccessor(), t);
-        return context;
+    private MethodHandle getParseFrom() {
+        try {
+            Class<?> schemaClass = Class.forName(protoSchema);
+            return MethodHandles.publicLookup().findStatic(schemaClass, "parseFrom", MethodType.methodType(schemaClass, byte[].class));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Invalid filter schema proto class " + protoSchema, e);
+        }
     }
 
     private String getObjectAccessor() {
         String[] schemaNameSplit = protoSchema.split("\\.");
-        String objectAccessor = schemaNameSplit[schemaNameSplit.length - 1];
-        return objectAccessor.substring(0, 1).toLowerCase() + objectAccessor.substring(1);
+        String accessor = schemaNameSplit[schemaNameSplit.length - 1];
+        return accessor.substring(0, 1).toLowerCase() + accessor.substring(1);
     }
 }
@@ -3,8 +3,7 @@ package org.raystack.firehose.filter.json;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.protobuf.DynamicMessage;
-import com.google.protobuf.util.JsonFormat;
+import org.raystack.firehose.message.DecodedPayload;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import com.networknt.schema.JsonSchema;
@@ -35,7 +34,6 @@ public class JsonFilter implements Filter {
     private final FirehoseInstrumentation firehoseInstrumentation;
     private final JsonSchema schema;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private JsonFormat.Printer jsonPrinter;
     private Parser parser;
 
     /**
@@ -51,7 +49,6 @@ public class JsonFilter implements Filter {
         this.schema = schemaFactory.getSchema(filterConfig.getFilterJsonSchema());
         if (filterConfig.getFilterESBMessageFormat() == FilterMessageFormatType.PROTOBUF) {
             this.parser = stencilClient.getParser(filterConfig.getFilterSchemaProtoClass());
-            this.jsonPrinter = JsonFormat.printer().preservingProtoFieldNames();
         }
     }
 
@@ -66,8 +63,7 @@ public class JsonFilter implements Filter {
     public FilteredMessages filter(List<Message> messages) throws FilterException {
         FilteredMessages filteredMessages = new FilteredMessages();
         for (Message message : messages) {
-            byte[] data = (filterConfig.getFilterDataSource().equals(KEY)) ? message.getLogKey() : message.getLogMessage();
-            String jsonMessage = deserialize(data);
+            JsonNode jsonMessage = deserialize(message);
             if (evaluate(jsonMessage)) {
                 filteredMessages.addToValidMessages(message);
             } else {
@@ -77,34 +73,37 @@ public class JsonFilter implements Filter {
         return filteredMessages;
     }
 
-    private boolean evaluate(String jsonMessage) throws FilterException {
-        try {
-            JsonNode message = objectMapper.readTree(jsonMessage);
-            if (firehoseInstrumentation.isDebugEnabled()) {
-                firehoseInstrumentation.logDebug("Json Message: \n {}", message.toPrettyString());
-            }
-            Set<ValidationMessage> validationErrors = schema.validate(message);
-            validationErrors.forEach(error -> {
-                firehoseInstrumentation.logDebug("Message filtered out due to: {}", error.getMessage());
-            });
-            return validationErrors.isEmpty();
-        } catch (JsonProcessingException e) {
-            throw new FilterException("Failed to parse JSON message", e);
+    private boolean evaluate(JsonNode message) {
+        if (firehoseInstrumentation.isDebugEnabled()) {
+            firehoseInstrumentation.logDebug("Json Message: \n {}", message.toPrettyString());
         }
+        Set<ValidationMessage> validationErrors = schema.validate(message);
+        validationErrors.forEach(error -> {
+            firehoseInstrumentation.logDebug("Message filtered out due to: {}", error.getMessage());
+        });
+        return validationErrors.isEmpty();
     }
 
-    private String deserialize(byte[] data) throws FilterException {
+    /**
+     * Protobuf messages are turned into a json tree straight from the decoded message,
+     * without printing them to a json string first.
+     */
+    private JsonNode deserialize(Message message) throws FilterException {
+        boolean isKey = filterConfig.getFilterDataSource().equals(KEY);
         switch (filterConfig.getFilterESBMessageFormat()) {
             case PROTOBUF:
                 try {
-                    DynamicMessage message = parser.parse(data);
-                    return jsonPrinter.print(message);
-
+                    DecodedPayload payload = isKey ? message.getDecodedLogKey() : message.getDecodedLogMessage();
+                    return ProtoJsonNodeBuilder.build(payload.parse(filterConfig.getFilterSchemaProtoClass(), parser));
                 } catch (Exception e) {
                     throw new FilterException("Failed to parse Protobuf message", e);
                 }
             case JSON:
-                return new String(data, Charset.defaultCharset());
+                try {
+                    return objectMapper.readTree(new String(isKey ? message.getLogKey() : message.getLogMessage(), Charset.defaultCharset()));
+                } catch (JsonProcessingException e) {
+                    throw new FilterException("Failed to parse JSON message", e);
+                }
             default:
                 throw new FilterException("Invalid message format type");
         }
@@ -0,0 +1,150 @@
+package org.raystack.firehose.filter.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+import lombok.experimental.UtilityClass;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a Jackson tree straight from a protobuf message.
+ * <p>
+ * The tree is the same as reading the output of {@link JsonFormat#printer()} with proto field names preserved,
+ * without printing and parsing the intermediate JSON string.
+ * Well known types from {@code google/protobuf}, which have their own JSON mapping, are still printed by
+ * {@link JsonFormat} and read back.
+ */
+@UtilityClass
+public class ProtoJsonNodeBuilder {
+    private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final JsonFormat.Printer WELL_KNOWN_TYPE_PRINTER = JsonFormat.printer().preservingProtoFieldNames();
+    private static final String WELL_KNOWN_TYPE_PACKAGE = "google.protobuf";
+
+    /**
+     * Build the tree of a message.
+     *
+     * @param message the protobuf message
+     * @return the json tree
+     * @throws InvalidProtocolBufferException when a well known type cannot be printed
+     */
+    public static JsonNode build(Message message) throws InvalidProtocolBufferException {
+        if (isWellKnownType(message.getDescriptorForType())) {
+            return buildWellKnownType(message);
+        }
+        ObjectNode node = NODE_FACTORY.objectNode();
+        for (Map.Entry<Descriptors.FieldDescriptor, Object> field : message.getAllFields().entrySet()) {
+            node.set(field.getKey().getName(), buildField(field.getKey(), field.getValue()));
+        }
+        return node;
+    }
+
+    private static JsonNode buildField(Descriptors.FieldDescriptor field, Object value) throws InvalidProtocolBufferException {
+        if (field.isMapField()) {
+            Descriptors.FieldDescriptor keyField = field.getMessageType().findFieldByName("key");
+            Descriptors.FieldDescriptor valueField = field.getMessageType().findFieldByName("value");
+            ObjectNode node = NODE_FACTORY.objectNode();
+            for (Object entry : (List<?>) value) {
+                Message entryMessage = (Message) entry;
+                node.set(buildMapKey(keyField, entryMessage.getField(keyField)), buildValue(valueField, entryMessage.getField(valueField)));
+            }
+            return node;
+        }
+        if (field.isRepeated()) {
+            ArrayNode node = NODE_FACTORY.arrayNode();
+            for (Object element : (List<?>) value) {
+                node.add(buildValue(field, element));
+            }
+            return node;
+        }
+        return buildValue(field, value);
+    }
+
+    private static JsonNode buildValue(Descriptors.FieldDescriptor field, Object value) throws InvalidProtocolBufferException {
+        switch (field.getType()) {
+            case INT32:
+            case SINT32:
+            case SFIXED32:
+                return NODE_FACTORY.numberNode((Integer) value);
+            case UINT32:
+            case FIXED32:
+                long unsignedValue = Integer.toUnsignedLong((Integer) value);
+                return unsignedValue <= Integer.MAX_VALUE ? NODE_FACTORY.numberNode((int) unsignedValue) : NODE_FACTORY.numberNode(unsignedValue);
+            case INT64:
+            case SINT64:
+            case SFIXED64:
+                return NODE_FACTORY.textNode(value.toString());
+            case UINT64:
+            case FIXED64:
+                return NODE_FACTORY.textNode(Long.toUnsignedString((Long) value));
+            case FLOAT:
+                return buildFloatingPoint(((Float) value).doubleValue(), value.toString());
+            case DOUBLE:
+                return buildFloatingPoint((Double) value, value.toString());
+            case BOOL:
+                return NODE_FACTORY.booleanNode((Boolean) value);
+            case STRING:
+                return NODE_FACTORY.textNode((String) value);
+            case BYTES:
+                return NODE_FACTORY.textNode(Base64.getEncoder().encodeToString(((ByteString) value).toByteArray()));
+            case ENUM:
+                Descriptors.EnumValueDescriptor enumValue = (Descriptors.EnumValueDescriptor) value;
+                if (enumValue.getType().getFullName().equals(WELL_KNOWN_TYPE_PACKAGE + ".NullValue")) {
+                    return NODE_FACTORY.nullNode();
+                }
+                return enumValue.getIndex() == -1 ? NODE_FACTORY.numberNode(enumValue.getNumber()) : NODE_FACTORY.textNode(enumValue.getName());
+            case MESSAGE:
+            case GROUP:
+                return build((Message) value);
+            default:
+                throw new IllegalArgumentException("Unsupported field type " + field.getType());
+        }
+    }
+
+    /**
+     * Float values are printed with {@link Float#toString()} and read back as doubles,
+     * so the double of their decimal string is used instead of widening the float.
+     */
+    private static JsonNode buildFloatingPoint(double value, String printed) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return NODE_FACTORY.textNode(printed);
+        }
+        return NODE_FACTORY.numberNode(Double.parseDouble(printed));
+    }
+
+    private static String buildMapKey(Descriptors.FieldDescriptor keyField, Object key) {
+        switch (keyField.getType()) {
+            case UINT32:
+            case FIXED32:
+                return Integer.toUnsignedString((Integer) key);
+            case UINT64:
+            case FIXED64:
+                return Long.toUnsignedString((Long) key);
+            default:
+                return key.toString();
+        }
+    }
+
+    private static boolean isWellKnownType(Descriptors.Descriptor descriptor) {
+        return descriptor.getFile().getPackage().equals(WELL_KNOWN_TYPE_PACKAGE);
+    }
+
+    private static JsonNode buildWellKnownType(Message message) throws InvalidProtocolBufferException {
+        try {
+            return OBJECT_MAPPER.readTree(WELL_KNOWN_TYPE_PRINTER.print(message));
+        } catch (JsonProcessingException e) {
+            throw new InvalidProtocolBufferException(e.getMessage());
+        }
+    }
+}
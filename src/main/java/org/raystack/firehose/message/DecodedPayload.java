@@ -0,0 +1,72 @@
+package org.raystack.firehose.message;
+
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.raystack.stencil.Parser;
+
+/**
+ * Decoded view of the key or the value bytes of a {@link Message}.
+ * <p>
+ * The payload is parsed at most once per schema, the {@link DynamicMessage} and its JSON print are kept
+ * until the message is released, so the filter, the retry decorator and the sink reuse the same decode.
+ * Callers without a schema name always get a fresh parse.
+ */
+public class DecodedPayload {
+    private final byte[] data;
+    private String schema;
+    private DynamicMessage dynamicMessage;
+    private String json;
+    private JsonPrinter jsonPrinter;
+
+    DecodedPayload(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Parse the payload, reusing an earlier parse with the same schema.
+     *
+     * @param protoClassName schema the parser was created for, null to skip the cache
+     * @param parser         parser for the schema
+     * @return the dynamic message
+     * @throws InvalidProtocolBufferException when the payload is not a valid message of the schema
+     */
+    public synchronized DynamicMessage parse(String protoClassName, Parser parser) throws InvalidProtocolBufferException {
+        if (protoClassName == null) {
+            return parser.parse(data);
+        }
+        if (dynamicMessage == null || !protoClassName.equals(schema)) {
+            dynamicMessage = parser.parse(data);
+            schema = protoClassName;
+            json = null;
+        }
+        return dynamicMessage;
+    }
+
+    /**
+     * Print the payload as JSON, reusing an earlier print with the same schema and printer.
+     *
+     * @param protoClassName schema the parser was created for, null to skip the cache
+     * @param parser         parser for the schema
+     * @param printer        printer for the parsed message
+     * @return the JSON string
+     * @throws InvalidProtocolBufferException when the payload is not a valid message of the schema
+     */
+    public synchronized String toJson(String protoClassName, Parser parser, JsonPrinter printer) throws InvalidProtocolBufferException {
+        DynamicMessage message = parse(protoClassName, parser);
+        if (protoClassName == null) {
+            return printer.print(message);
+        }
+        if (json == null || jsonPrinter != printer) {
+            json = printer.print(message);
+            jsonPrinter = printer;
+        }
+        return json;
+    }
+
+    /**
+     * Prints a parsed payload as JSON.
+     */
+    public interface JsonPrinter {
+        String print(DynamicMessage message) throws InvalidProtocolBufferException;
+    }
+}
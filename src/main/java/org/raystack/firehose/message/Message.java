@@ -4,7 +4,7 @@ package org.raystack.firehose.message;
 import org.raystack.firehose.exception.DefaultException;
 import org.raystack.depot.error.ErrorInfo;
 import org.raystack.depot.error.ErrorType;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -14,10 +14,12 @@ import java.util.Base64;
 
 /**
  * A class to hold a single protobuf message in binary format.
+ * <p>
+ * The key and the value are decoded lazily through {@link #getDecodedLogKey()} and {@link #getDecodedLogMessage()},
+ * and the decoded form is kept until {@link #releaseDecoded()} is called once the batch is acknowledged.
  */
 @Getter
 @EqualsAndHashCode
-@AllArgsConstructor
 public class Message {
     private byte[] logKey;
     private byte[] logMessage;
@@ -29,6 +31,24 @@ public class Message {
     private long consumeTimestamp;
     @Setter
     private ErrorInfo errorInfo;
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private DecodedPayload decodedLogKey;
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private DecodedPayload decodedLogMessage;
+
+    public Message(byte[] logKey, byte[] logMessage, String topic, int partition, long offset, Headers headers, long timestamp, long consumeTimestamp, ErrorInfo errorInfo) {
+        this.logKey = logKey;
+        this.logMessage = logMessage;
+        this.topic = topic;
+        this.partition = partition;
+        this.offset = offset;
+        this.headers = headers;
+        this.timestamp = timestamp;
+        this.consumeTimestamp = consumeTimestamp;
+        this.errorInfo = errorInfo;
+    }
 
     public void setDefaultErrorIfNotPresent() {
         if (errorInfo == null) {
@@ -79,6 +99,40 @@ public class Message {
                 message.getTimestamp(),
                 message.getConsumeTimestamp(),
                 errorInfo);
+        this.decodedLogKey = message.decodedLogKey;
+        this.decodedLogMessage = message.decodedLogMessage;
+    }
+
+    /**
+     * Gets the decoded view of the key, created on first use.
+     *
+     * @return the decoded key
+     */
+    public synchronized DecodedPayload getDecodedLogKey() {
+        if (decodedLogKey == null) {
+            decodedLogKey = new DecodedPayload(logKey);
+        }
+        return decodedLogKey;
+    }
+
+    /**
+     * Gets the decoded view of the message, created on first use.
+     *
+     * @return the decoded message
+     */
+    public synchronized DecodedPayload getDecodedLogMessage() {
+        if (decodedLogMessage == null) {
+            decodedLogMessage = new DecodedPayload(logMessage);
+        }
+        return decodedLogMessage;
+    }
+
+    /**
+     * Drops the decoded key and message, they are decoded again if needed.
+     */
+    public synchronized void releaseDecoded() {
+        decodedLogKey = null;
+        decodedLogMessage = null;
     }
 
     /**
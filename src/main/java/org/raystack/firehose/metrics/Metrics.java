@@ -36,13 +36,19 @@ public class Metrics {
     public static final String SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "messages_commit_total";
     public static final String SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "partitions_process_milliseconds";
     public static final String SOURCE_KAFKA_PULL_BATCH_SIZE_TOTAL = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "pull_batch_size_total";
+    public static final String SOURCE_KAFKA_PARTITIONS_PAUSE_TOTAL = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "partitions_pause_total";
 
     // SINK MEASUREMENTS
     public static final String SINK_MESSAGES_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "messages_total";
     public static final String SINK_RESPONSE_TIME_MILLISECONDS = APPLICATION_PREFIX + SINK_PREFIX + "response_time_milliseconds";
     public static final String SINK_MESSAGES_DROP_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "messages_drop_total";
     public static final String SINK_HTTP_RESPONSE_CODE_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + HTTP_SINK_PREFIX + "response_code_total";
+    public static final String SINK_HTTP_CONCURRENCY_LIMIT = APPLICATION_PREFIX + SINK_PREFIX + HTTP_SINK_PREFIX + "concurrency_limit";
     public static final String SINK_PUSH_BATCH_SIZE_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "push_batch_size_total";
+    public static final String SINK_POOL_WORKER_QUEUE_DEPTH = APPLICATION_PREFIX + SINK_PREFIX + "pool_worker_queue_depth";
+    public static final String SINK_CIRCUIT_BREAKER_STATE = APPLICATION_PREFIX + SINK_PREFIX + "circuit_breaker_state";
+    public static final String SINK_CIRCUIT_BREAKER_TRANSITIONS_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "circuit_breaker_transitions_total";
+    public static final String SINK_CIRCUIT_BREAKER_REJECTED_MESSAGES_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "circuit_breaker_rejected_messages_total";
 
     // MONGO SINK MEASUREMENTS
     public static final String SINK_MONGO_INSERTED_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + MONGO_SINK_PREFIX + "inserted_total";
@@ -53,10 +59,13 @@ public class Metrics {
     public static final String RETRY_MESSAGES_TOTAL = APPLICATION_PREFIX + RETRY_PREFIX + "messages_total";
     public static final String RETRY_ATTEMPTS_TOTAL = APPLICATION_PREFIX + RETRY_PREFIX + "attempts_total";
     public static final String RETRY_SLEEP_TIME_MILLISECONDS = APPLICATION_PREFIX + RETRY_PREFIX + "backoff_sleep_milliseconds";
+    public static final String RETRY_PARKED_MESSAGES = APPLICATION_PREFIX + RETRY_PREFIX + "parked_messages";
 
     // DLQ MEASUREMENTS
     public static final String DLQ_RETRY_ATTEMPTS_TOTAL = APPLICATION_PREFIX + DLQ_PREFIX + RETRY_PREFIX + "attempts_total";
     public static final String DLQ_MESSAGES_TOTAL = APPLICATION_PREFIX + DLQ_PREFIX + "messages_total";
+    public static final String DLQ_QUEUED_MESSAGES = APPLICATION_PREFIX + DLQ_PREFIX + "queued_messages";
+    public static final String DLQ_BLOB_STORAGE_PENDING_FILES = APPLICATION_PREFIX + DLQ_PREFIX + "blob_storage_pending_files";
 
     // GLOBAL MEASUREMENTS
     public static final String GLOBAL_MESSAGES_TOTAL = APPLICATION_PREFIX + GLOBAL_PREFIX + "messages_total";
@@ -77,6 +86,9 @@ public class Metrics {
     public static final String FAILURE_TAG = "success=false";
     public static final String MESSAGE_TYPE_TAG = "type=%s"; // total, success, failure
     public static final String MESSAGE_SCOPE_TAG = "scope=%s";
+    public static final String SINK_POOL_WORKER_TAG = "worker=%d";
+    public static final String SINK_HTTP_HOST_TAG = "host=%s";
+    public static final String SINK_CIRCUIT_BREAKER_STATE_TAG = "state=%s";
 
     //ERROR TAGS
     public static final String ERROR_TYPE_TAG = "error_type=%s";
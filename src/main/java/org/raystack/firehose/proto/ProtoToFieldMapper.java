@@ -1,25 +1,34 @@
 package org.raystack.firehose.proto;
 
 
-import org.raystack.firehose.sink.jdbc.JdbcMapper;
+import org.raystack.firehose.message.DecodedPayload;
+import org.raystack.firehose.sink.jdbc.field.JdbcFieldFactory;
+import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 import org.raystack.stencil.Parser;
 import org.apache.http.util.Asserts;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 /**
  * Utility class to map fields in protobuf format to corresponding fields of a table in database.
+ * <p>
+ * The mapping is compiled into field descriptors once per message type, so mapping a message only reads its fields.
  */
 public class ProtoToFieldMapper {
 
     private final Parser protoParser;
     private final Properties protoIndexToFieldMapping;
+    private final String protoClassName;
+    private volatile CompiledMapping compiledMapping;
 
     /**
      * Instantiates a new Proto to field mapper.
@@ -28,8 +37,20 @@ public class ProtoToFieldMapper {
      * @param protoIndexToFieldMapping the proto index to field mapping
      */
     public ProtoToFieldMapper(Parser protoParser, Properties protoIndexToFieldMapping) {
+        this(protoParser, protoIndexToFieldMapping, null);
+    }
+
+    /**
+     * Instantiates a new Proto to field mapper reusing the decode cached on the messages.
+     *
+     * @param protoParser              the proto parser
+     * @param protoIndexToFieldMapping the proto index to field mapping
+     * @param protoClassName           schema the parser was created for, null to parse every message again
+     */
+    public ProtoToFieldMapper(Parser protoParser, Properties protoIndexToFieldMapping, String protoClassName) {
         this.protoParser = protoParser;
         this.protoIndexToFieldMapping = protoIndexToFieldMapping;
+        this.protoClassName = protoClassName;
     }
 
     /**
@@ -46,25 +67,105 @@ public class ProtoToFieldMapper {
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalArgumentException(e);
         }
+        return getFields(dynamicMessage);
+    }
+
+    /**
+     * returns a map with column name as key and value of the field as the value, reusing the decode of the payload.
+     *
+     * @param payload decoded key or message to access the fields from
+     * @return a map containing mapping between the column name and the actual value for the column.
+     */
+    public Map<String, Object> getFields(DecodedPayload payload) {
+        DynamicMessage dynamicMessage;
+        try {
+            dynamicMessage = payload.parse(protoClassName, protoParser);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return getFields(dynamicMessage);
+    }
+
+    /**
+     * returns a map with column name as key and value of the field as the value, for an already parsed message.
+     *
+     * @param message the parsed message
+     * @return a map containing mapping between the column name and the actual value for the column.
+     */
+    public Map<String, Object> getFields(Message message) {
+        List<FieldMapping> fieldMappings = compile(message.getDescriptorForType());
         Map<String, Object> columnToValueMap = new HashMap<>();
-        updateMapping(dynamicMessage, protoIndexToFieldMapping, columnToValueMap);
+        updateMapping(message, fieldMappings, columnToValueMap);
         return columnToValueMap;
     }
 
-    private void updateMapping(Message message, Properties protoToDbMapping, Map<String, Object> columnToValueMap) {
+    private List<FieldMapping> compile(Descriptors.Descriptor descriptor) {
+        CompiledMapping compiled = compiledMapping;
+        if (compiled == null || compiled.descriptor != descriptor) {
+            compiled = new CompiledMapping(descriptor, compile(descriptor, protoIndexToFieldMapping));
+            compiledMapping = compiled;
+        }
+        return compiled.fieldMappings;
+    }
+
+    private static List<FieldMapping> compile(Descriptors.Descriptor descriptor, Properties protoToDbMapping) {
+        List<FieldMapping> fieldMappings = new ArrayList<>(protoToDbMapping.size());
         Enumeration<Object> keys = protoToDbMapping.keys();
         while (keys.hasMoreElements()) {
             String key = (String) keys.nextElement();
-            JdbcMapper jdbcMapper = new JdbcMapper(key, message, protoToDbMapping).initialize();
-            Object column = jdbcMapper.getColumn();
+            Descriptors.FieldDescriptor fieldDescriptor = descriptor.findFieldByNumber(Integer.valueOf(key));
+            if (fieldDescriptor == null) {
+                throw new IllegalArgumentException(String.format("Descriptor not found for index: %s", key));
+            }
+            Object column = protoToDbMapping.get(key);
             if (column instanceof String) {
-                columnToValueMap = jdbcMapper.add(columnToValueMap);
+                fieldMappings.add(new FieldMapping(fieldDescriptor, (String) column, null));
             } else if (column instanceof Properties) {
-                Asserts.check(jdbcMapper.getColumnValue() instanceof Message, "could not handle mapping");
-                updateMapping((Message) jdbcMapper.getColumnValue(), (Properties) column, columnToValueMap);
+                Asserts.check(fieldDescriptor.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE
+                        && !fieldDescriptor.isRepeated(), "could not handle mapping");
+                fieldMappings.add(new FieldMapping(fieldDescriptor, null, compile(fieldDescriptor.getMessageType(), (Properties) column)));
             } else {
                 throw new RuntimeException("column can either be properties or string");
             }
         }
+        return Collections.unmodifiableList(fieldMappings);
+    }
+
+    private void updateMapping(Message message, List<FieldMapping> fieldMappings, Map<String, Object> columnToValueMap) {
+        for (FieldMapping fieldMapping : fieldMappings) {
+            Object columnValue = message.getField(fieldMapping.fieldDescriptor);
+            if (fieldMapping.column != null) {
+                columnToValueMap.put(fieldMapping.column, JdbcFieldFactory
+                        .getField(columnValue, fieldMapping.fieldDescriptor)
+                        .getColumn());
+            } else {
+                updateMapping((Message) columnValue, fieldMapping.nestedMappings, columnToValueMap);
+            }
+        }
+    }
+
+    private static final class CompiledMapping {
+        private final Descriptors.Descriptor descriptor;
+        private final List<FieldMapping> fieldMappings;
+
+        CompiledMapping(Descriptors.Descriptor descriptor, List<FieldMapping> fieldMappings) {
+            this.descriptor = descriptor;
+            this.fieldMappings = fieldMappings;
+        }
+    }
+
+    /**
+     * Field of the message mapped either to a column or to the mappings of its nested message.
+     */
+    private static final class FieldMapping {
+        private final Descriptors.FieldDescriptor fieldDescriptor;
+        private final String column;
+        private final List<FieldMapping> nestedMappings;
+
+        FieldMapping(Descriptors.FieldDescriptor fieldDescriptor, String column, List<FieldMapping> nestedMappings) {
+            this.fieldDescriptor = fieldDescriptor;
+            this.column = column;
+            this.nestedMappings = nestedMappings;
+        }
     }
 }
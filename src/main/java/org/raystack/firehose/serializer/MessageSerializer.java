@@ -3,6 +3,8 @@ package org.raystack.firehose.serializer;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.exception.DeserializerException;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Serializer serialize Message into string format.
  */
@@ -16,4 +18,15 @@ public interface MessageSerializer {
    * @throws DeserializerException the deserializer exception
    */
   String serialize(Message message) throws DeserializerException;
+
+  /**
+   * Serialize kafka message into the bytes sent over the wire.
+   *
+   * @param message the message
+   * @return serialised message
+   * @throws DeserializerException the deserializer exception
+   */
+  default byte[] serializeToBytes(Message message) throws DeserializerException {
+    return serialize(message).getBytes(StandardCharsets.UTF_8);
+  }
 }
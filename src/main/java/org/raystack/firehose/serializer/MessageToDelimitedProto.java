@@ -0,0 +1,95 @@
+package org.raystack.firehose.serializer;
+
+import com.google.protobuf.CodedOutputStream;
+import org.raystack.firehose.exception.DeserializerException;
+import org.raystack.firehose.message.Message;
+
+import java.io.IOException;
+
+/**
+ * MessageToDelimitedProto writes the raw protobuf key and message bytes with their topic, partition and offset
+ * as a size delimited {@code HttpSinkRecord} (see http_sink_record.proto), without any Base64 or JSON encoding.
+ */
+public class MessageToDelimitedProto implements MessageSerializer {
+    private static final int TOPIC_FIELD_NUMBER = 1;
+    private static final int PARTITION_FIELD_NUMBER = 2;
+    private static final int OFFSET_FIELD_NUMBER = 3;
+    private static final int LOG_KEY_FIELD_NUMBER = 4;
+    private static final int LOG_MESSAGE_FIELD_NUMBER = 5;
+
+    /**
+     * Describe the record for logging, the request body is built from {@link #serializeToBytes(Message)}.
+     *
+     * @param message the message
+     * @return the record description
+     */
+    @Override
+    public String serialize(Message message) {
+        return String.format("{\"topic\":\"%s\",\"partition\":%d,\"offset\":%d,\"size\":%d}",
+                message.getTopic(), message.getPartition(), message.getOffset(), recordSize(message));
+    }
+
+    /**
+     * Serialize the message into a size delimited record.
+     *
+     * @param message the message
+     * @return the delimited record
+     * @throws DeserializerException when the record can not be written
+     */
+    @Override
+    public byte[] serializeToBytes(Message message) throws DeserializerException {
+        int recordSize = recordSize(message);
+        byte[] record = new byte[CodedOutputStream.computeUInt32SizeNoTag(recordSize) + recordSize];
+        CodedOutputStream output = CodedOutputStream.newInstance(record);
+        try {
+            output.writeUInt32NoTag(recordSize);
+            if (!isEmpty(message.getTopic())) {
+                output.writeString(TOPIC_FIELD_NUMBER, message.getTopic());
+            }
+            if (message.getPartition() != 0) {
+                output.writeInt32(PARTITION_FIELD_NUMBER, message.getPartition());
+            }
+            if (message.getOffset() != 0) {
+                output.writeInt64(OFFSET_FIELD_NUMBER, message.getOffset());
+            }
+            if (!isEmpty(message.getLogKey())) {
+                output.writeByteArray(LOG_KEY_FIELD_NUMBER, message.getLogKey());
+            }
+            if (!isEmpty(message.getLogMessage())) {
+                output.writeByteArray(LOG_MESSAGE_FIELD_NUMBER, message.getLogMessage());
+            }
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new DeserializerException(e.getMessage(), e);
+        }
+        return record;
+    }
+
+    private static int recordSize(Message message) {
+        int size = 0;
+        if (!isEmpty(message.getTopic())) {
+            size += CodedOutputStream.computeStringSize(TOPIC_FIELD_NUMBER, message.getTopic());
+        }
+        if (message.getPartition() != 0) {
+            size += CodedOutputStream.computeInt32Size(PARTITION_FIELD_NUMBER, message.getPartition());
+        }
+        if (message.getOffset() != 0) {
+            size += CodedOutputStream.computeInt64Size(OFFSET_FIELD_NUMBER, message.getOffset());
+        }
+        if (!isEmpty(message.getLogKey())) {
+            size += CodedOutputStream.computeByteArraySize(LOG_KEY_FIELD_NUMBER, message.getLogKey());
+        }
+        if (!isEmpty(message.getLogMessage())) {
+            size += CodedOutputStream.computeByteArraySize(LOG_MESSAGE_FIELD_NUMBER, message.getLogMessage());
+        }
+        return size;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static boolean isEmpty(byte[] value) {
+        return value == null || value.length == 0;
+    }
+}
@@ -3,139 +3,123 @@ package org.raystack.firehose.serializer;
 
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.exception.DeserializerException;
-import com.google.gson.ExclusionStrategy;
-import com.google.gson.FieldAttributes;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.protobuf.Descriptors;
-import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
-import com.google.protobuf.Timestamp;
-import com.google.protobuf.util.JsonFormat;
 import org.raystack.stencil.Parser;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
-
-import java.text.SimpleDateFormat;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.ArrayList;
-import java.util.Date;
 
 /**
  * EsbMessageToJson Serialize protobuff message content into JSON.
  */
 public class MessageToJson implements MessageSerializer {
     private Parser protoParser;
-    private Gson gson;
-    private boolean preserveFieldNames;
+    private String protoClassName;
     private boolean wrapInsideArray;
-    private boolean enableSimpleDateFormat;
+    private ProtoJsonWriter protoJsonWriter;
 
     public MessageToJson(Parser protoParser, boolean preserveFieldNames, boolean enableSimpleDateFormat) {
         this(protoParser, preserveFieldNames, false, enableSimpleDateFormat);
     }
 
     public MessageToJson(Parser protoParser, boolean preserveFieldNames, boolean wrappedInsideArray, boolean enableSimpleDateFormat) {
+        this(protoParser, null, preserveFieldNames, wrappedInsideArray, enableSimpleDateFormat);
+    }
+
+    /**
+     * Instantiates a new Message to json serializer reusing the decode cached on the message.
+     *
+     * @param protoParser            the proto parser
+     * @param protoClassName         schema of the proto parser, null to parse every message again
+     * @param preserveFieldNames     print proto field names
+     * @param wrappedInsideArray     wrap the json inside an array
+     * @param enableSimpleDateFormat print timestamps in simple date format
+     */
+    public MessageToJson(Parser protoParser, String protoClassName, boolean preserveFieldNames, boolean wrappedInsideArray, boolean enableSimpleDateFormat) {
         this.protoParser = protoParser;
-        this.preserveFieldNames = preserveFieldNames;
+        this.protoClassName = protoClassName;
         this.wrapInsideArray = wrappedInsideArray;
-        this.enableSimpleDateFormat = enableSimpleDateFormat;
-        this.gson = new GsonBuilder().registerTypeAdapter(Message.class, new MessageJsonSerializer())
-                .setExclusionStrategies(createGsonExclusionStrategy())
-                .setFieldNamingStrategy(field -> field.getName().replaceAll("_", "")).create();
+        this.protoJsonWriter = new ProtoJsonWriter(ProtoJsonWriter.ReadBack.JSON_SIMPLE, preserveFieldNames, enableSimpleDateFormat);
     }
 
+    /**
+     * The envelope keys are written in the order of the json-simple {@link org.json.simple.JSONObject} this
+     * class used to build, with its escaping, so the output stays the same.
+     */
     @Override
     public String serialize(Message message) throws DeserializerException {
         try {
-            JSONObject jsonObject = new JSONObject();
-            jsonObject.put("topic", message.getTopic());
-
+            String logMessage = message.getDecodedLogMessage().toJson(protoClassName, protoParser, protoJsonWriter);
+            String logKey = null;
             if (message.getLogKey() != null && message.getLogKey().length != 0) {
-                DynamicMessage key = protoParser.parse(message.getLogKey());
-                jsonObject.put("logKey", this.gson.toJson(convertDynamicMessageToJson(key)));
+                logKey = message.getDecodedLogKey().toJson(protoClassName, protoParser, protoJsonWriter);
             }
 
-            DynamicMessage msg = protoParser.parse(message.getLogMessage());
-            jsonObject.put("logMessage", this.gson.toJson(convertDynamicMessageToJson(msg)));
-
+            StringBuilder json = new StringBuilder(logMessage.length() + (logKey == null ? 0 : logKey.length()) + 64);
             if (wrapInsideArray) {
-                return Collections.singletonList(jsonObject.toJSONString()).toString();
+                json.append('[');
             }
-            return jsonObject.toJSONString();
-        } catch (InvalidProtocolBufferException | ParseException e) {
-            throw new DeserializerException(e.getMessage());
-        }
-    }
-
-    private Object convertDynamicMessageToJson(DynamicMessage message)
-            throws ParseException, InvalidProtocolBufferException {
-        Map<Descriptors.FieldDescriptor, Object> allFields = new HashMap<>();
-        List<String> timeStampKeys = new ArrayList<>();
-
-        allFields = message.getAllFields();
-        for (Descriptors.FieldDescriptor key : allFields.keySet()) {
-            Object field = allFields.get(key);
-            boolean fieldIsTimestamp = field instanceof DynamicMessage
-                    && ((DynamicMessage) field).getDescriptorForType().getName().equals(Timestamp.class.getSimpleName());
-            if (fieldIsTimestamp) {
-                if (preserveFieldNames) {
-                    timeStampKeys.add(key.getName());
-                } else {
-                    timeStampKeys.add(key.getJsonName());
-                }
+            json.append("{\"logMessage\":");
+            appendEscaped(json, logMessage);
+            json.append(",\"topic\":");
+            appendEscaped(json, message.getTopic());
+            if (logKey != null) {
+                json.append(",\"logKey\":");
+                appendEscaped(json, logKey);
             }
-        }
-
-        JSONObject tempJsonObject = new JSONObject();
-        if (preserveFieldNames) {
-            tempJsonObject.put("tempKey", JsonFormat.printer().preservingProtoFieldNames().print(message));
-        } else {
-            tempJsonObject.put("tempKey", JsonFormat.printer().print(message));
-        }
-
-        if (enableSimpleDateFormat) {
-            for (String key : timeStampKeys) {
-                convertProtoBuffTimeStampToDateTime(tempJsonObject, "tempKey", key);
+            json.append('}');
+            if (wrapInsideArray) {
+                json.append(']');
             }
+            return json.toString();
+        } catch (InvalidProtocolBufferException e) {
+            throw new DeserializerException(e.getMessage());
         }
-
-        return new JSONParser().parse(tempJsonObject.get("tempKey").toString());
     }
 
-    private JSONObject convertProtoBuffTimeStampToDateTime(JSONObject jsonObject, String parentField,
-                                                           String timeStampField) throws ParseException {
-        JSONObject parentObject = (JSONObject) new JSONParser().parse(jsonObject.get(parentField).toString());
-        String timestampObject = parentObject.get(timeStampField).toString();
-
-        Date date;
-        try {
-            date = new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ss").parse(timestampObject);
-        } catch (java.text.ParseException e) {
-            throw new RuntimeException(String.format("Not able to parse date, %s", timestampObject));
+    private static void appendEscaped(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
         }
-        parentObject.put(timeStampField, date);
-        jsonObject.put(parentField, gson.toJson(parentObject));
-
-        return jsonObject;
-    }
-
-    private ExclusionStrategy createGsonExclusionStrategy() {
-        return new ExclusionStrategy() {
-            @Override
-            public boolean shouldSkipField(FieldAttributes fieldAttributes) {
-                return !fieldAttributes.getName().endsWith("_");
-            }
-
-            @Override
-            public boolean shouldSkipClass(Class<?> aClass) {
-                return false;
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\b':
+                    json.append("\\b");
+                    break;
+                case '\f':
+                    json.append("\\f");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                case '/':
+                    json.append("\\/");
+                    break;
+                default:
+                    if (c <= '\u001F' || (c >= '\u007F' && c <= '\u009F') || (c >= '\u2000' && c <= '\u20FF')) {
+                        String hex = Integer.toHexString(c).toUpperCase();
+                        json.append("\\u");
+                        for (int k = hex.length(); k < 4; k++) {
+                            json.append('0');
+                        }
+                        json.append(hex);
+                    } else {
+                        json.append(c);
+                    }
             }
-        };
+        }
+        json.append('"');
     }
-
 }
@@ -6,15 +6,18 @@ import org.raystack.firehose.exception.DeserializerException;
 import org.raystack.firehose.exception.ConfigurationException;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import com.google.gson.Gson;
+import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.util.JsonFormat;
+import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 import org.raystack.stencil.Parser;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -23,19 +26,39 @@ import java.util.regex.Pattern;
 
 /**
  * Converts kafka messages into Templatized json.
+ * <p>
+ * The template is compiled once into literal parts and field extractors. Paths made of plain field names are read
+ * straight from the decoded message, other paths are read with {@link JsonPath} from the message printed as JSON.
  */
 public class MessageToTemplatizedJson implements MessageSerializer {
     private static final String TEMPLATE_PATH_REGEX = "\"\\$\\.[^\\s\\\\]*?\"";
+    private static final Pattern FIELD_PATH_PATTERN = Pattern.compile("\\$(\\.[A-Za-z_][A-Za-z0-9_]*)+");
     private static final String ALL_FIELDS_FROM_TEMPLATE = "\"$._all_\"";
+    private static final JsonFormat.Printer JSON_PRINTER = JsonFormat.printer().includingDefaultValueFields().preservingProtoFieldNames();
     private final String httpSinkJsonBodyTemplate;
     private final Gson gson;
+    private final ProtoJsonWriter protoJsonWriter;
     private Parser protoParser;
-    private HashSet<String> pathsToReplace;
+    private String protoClassName;
+    private List<TemplateSegment> templateSegments;
     private JSONParser jsonParser;
     private FirehoseInstrumentation firehoseInstrumentation;
 
     public static MessageToTemplatizedJson create(FirehoseInstrumentation firehoseInstrumentation, String httpSinkJsonBodyTemplate, Parser protoParser) {
-        MessageToTemplatizedJson messageToTemplatizedJson = new MessageToTemplatizedJson(firehoseInstrumentation, httpSinkJsonBodyTemplate, protoParser);
+        return create(firehoseInstrumentation, httpSinkJsonBodyTemplate, protoParser, null);
+    }
+
+    /**
+     * Create a templatized json serializer reusing the decode cached on the message.
+     *
+     * @param firehoseInstrumentation  the instrumentation
+     * @param httpSinkJsonBodyTemplate the json body template
+     * @param protoParser              the proto parser
+     * @param protoClassName           schema of the proto parser, null to parse every message again
+     * @return the serializer
+     */
+    public static MessageToTemplatizedJson create(FirehoseInstrumentation firehoseInstrumentation, String httpSinkJsonBodyTemplate, Parser protoParser, String protoClassName) {
+        MessageToTemplatizedJson messageToTemplatizedJson = new MessageToTemplatizedJson(firehoseInstrumentation, httpSinkJsonBodyTemplate, protoParser, protoClassName);
         if (messageToTemplatizedJson.isInvalidJson()) {
             throw new ConfigurationException("Given HTTPSink JSON body template :"
                     + httpSinkJsonBodyTemplate
@@ -46,23 +69,87 @@ public class MessageToTemplatizedJson implements MessageSerializer {
     }
 
     public MessageToTemplatizedJson(FirehoseInstrumentation firehoseInstrumentation, String httpSinkJsonBodyTemplate, Parser protoParser) {
+        this(firehoseInstrumentation, httpSinkJsonBodyTemplate, protoParser, null);
+    }
+
+    public MessageToTemplatizedJson(FirehoseInstrumentation firehoseInstrumentation, String httpSinkJsonBodyTemplate, Parser protoParser, String protoClassName) {
         this.httpSinkJsonBodyTemplate = httpSinkJsonBodyTemplate;
         this.protoParser = protoParser;
+        this.protoClassName = protoClassName;
         this.jsonParser = new JSONParser();
         this.gson = new Gson();
+        this.protoJsonWriter = new ProtoJsonWriter(ProtoJsonWriter.ReadBack.JSON_PATH, true, false);
         this.firehoseInstrumentation = firehoseInstrumentation;
     }
 
     private void setPathsFromTemplate() {
         HashSet<String> paths = new HashSet<>();
+        List<TemplateSegment> segments = new ArrayList<>();
         Pattern pattern = Pattern.compile(TEMPLATE_PATH_REGEX);
         Matcher matcher = pattern.matcher(httpSinkJsonBodyTemplate);
+        int literalStart = 0;
         while (matcher.find()) {
             paths.add(matcher.group(0));
+            segments.add(createLiteralSegment(httpSinkJsonBodyTemplate.substring(literalStart, matcher.start())));
+            segments.add(createPathSegment(matcher.group(0)));
+            literalStart = matcher.end();
         }
+        segments.add(createLiteralSegment(httpSinkJsonBodyTemplate.substring(literalStart)));
         List<String> pathList = new ArrayList<>(paths);
         firehoseInstrumentation.logDebug("\nPaths: {}", pathList);
-        this.pathsToReplace = paths;
+        this.templateSegments = segments;
+    }
+
+    private TemplateSegment createLiteralSegment(String literal) {
+        return (body, context) -> body.append(literal);
+    }
+
+    private TemplateSegment createPathSegment(String quotedPath) {
+        if (quotedPath.equals(ALL_FIELDS_FROM_TEMPLATE)) {
+            return (body, context) -> JSON_PRINTER.appendTo(context.getMessage(), body);
+        }
+        String path = quotedPath.replaceAll("\"", "");
+        JsonPath jsonPath;
+        try {
+            jsonPath = JsonPath.compile(path);
+        } catch (InvalidPathException e) {
+            throw new ConfigurationException("Given HTTPSink JSON body template path :" + path + ", must be a valid JSON path. " + e.getMessage());
+        }
+        TemplateSegment jsonPathSegment = (body, context) -> body.append(gson.toJson(jsonPath.<Object>read(context.getJson())));
+        if (!FIELD_PATH_PATTERN.matcher(path).matches()) {
+            return jsonPathSegment;
+        }
+        String[] fieldNames = path.substring(2).split("\\.");
+        return (body, context) -> {
+            if (!appendField(body, context.getMessage(), fieldNames)) {
+                jsonPathSegment.append(body, context);
+            }
+        };
+    }
+
+    /**
+     * Append the field found by following the field names from the message.
+     *
+     * @return false when the path does not lead to a field in the printed message, for {@link JsonPath} to handle
+     */
+    private boolean appendField(StringBuilder body, com.google.protobuf.Message message, String[] fieldNames) throws InvalidProtocolBufferException {
+        com.google.protobuf.Message current = message;
+        for (int i = 0; i < fieldNames.length; i++) {
+            Descriptors.FieldDescriptor field = current.getDescriptorForType().findFieldByName(fieldNames[i]);
+            if (field == null || !protoJsonWriter.isWritten(current, field)) {
+                return false;
+            }
+            if (i == fieldNames.length - 1) {
+                protoJsonWriter.writeField(body, field, current.getField(field));
+                return true;
+            }
+            if (field.isRepeated() || field.getJavaType() != Descriptors.FieldDescriptor.JavaType.MESSAGE
+                    || ProtoJsonWriter.isWellKnownType(field.getMessageType())) {
+                return false;
+            }
+            current = (com.google.protobuf.Message) current.getField(field);
+        }
+        return false;
     }
 
     /**
@@ -75,23 +162,14 @@ public class MessageToTemplatizedJson implements MessageSerializer {
     @Override
     public String serialize(Message message) throws DeserializerException {
         try {
-            String jsonMessage;
-            String jsonString;
             // only supports messages not keys
-            DynamicMessage msg = protoParser.parse(message.getLogMessage());
-            jsonMessage = JsonFormat.printer().includingDefaultValueFields().preservingProtoFieldNames().print(msg);
-            String finalMessage = httpSinkJsonBodyTemplate;
-            for (String path : pathsToReplace) {
-                if (path.equals(ALL_FIELDS_FROM_TEMPLATE)) {
-                    jsonString = jsonMessage;
-                } else {
-                    Object element = JsonPath.read(jsonMessage, path.replaceAll("\"", ""));
-                    jsonString = gson.toJson(element);
-                }
-                finalMessage = finalMessage.replace(path, jsonString);
+            TemplateContext context = new TemplateContext(message.getDecodedLogMessage().parse(protoClassName, protoParser));
+            StringBuilder body = new StringBuilder(httpSinkJsonBodyTemplate.length() * 2);
+            for (TemplateSegment segment : templateSegments) {
+                segment.append(body, context);
             }
-            return finalMessage;
-        } catch (InvalidProtocolBufferException | PathNotFoundException e) {
+            return body.toString();
+        } catch (IOException | PathNotFoundException e) {
             throw new DeserializerException(e.getMessage());
         }
     }
@@ -104,4 +182,31 @@ public class MessageToTemplatizedJson implements MessageSerializer {
         }
         return false;
     }
+
+    private interface TemplateSegment {
+        void append(StringBuilder body, TemplateContext context) throws IOException;
+    }
+
+    /**
+     * Message being rendered, printed as JSON only when a path needs {@link JsonPath}.
+     */
+    private static class TemplateContext {
+        private final DynamicMessage message;
+        private String json;
+
+        TemplateContext(DynamicMessage message) {
+            this.message = message;
+        }
+
+        DynamicMessage getMessage() {
+            return message;
+        }
+
+        String getJson() throws InvalidProtocolBufferException {
+            if (json == null) {
+                json = JSON_PRINTER.print(message);
+            }
+            return json;
+        }
+    }
 }
@@ -0,0 +1,431 @@
+package org.raystack.firehose.serializer;
+
+import com.google.gson.Gson;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.util.JsonFormat;
+import com.google.protobuf.util.Timestamps;
+import com.jayway.jsonpath.Configuration;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.raystack.firehose.message.DecodedPayload;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes a protobuf message as JSON in a single walk over its descriptors.
+ * <p>
+ * The output is the same as printing the message with {@link JsonFormat}, reading it back as set by {@link ReadBack}
+ * and writing it again with Gson, numbers as the reader reads them and strings with the html safe escaping of Gson.
+ * Well known types other than {@code google.protobuf.Timestamp} still go through {@link JsonFormat} and are read back.
+ */
+class ProtoJsonWriter implements DecodedPayload.JsonPrinter {
+    private static final String WELL_KNOWN_TYPE_PACKAGE = "google.protobuf";
+    private static final String TIMESTAMP_TYPE = WELL_KNOWN_TYPE_PACKAGE + ".Timestamp";
+    private static final String NULL_VALUE_TYPE = WELL_KNOWN_TYPE_PACKAGE + ".NullValue";
+    private static final String NULL = "null";
+    private static final Gson DATE_GSON = new Gson();
+    private static final ThreadLocal<SimpleDateFormat> SIMPLE_DATE_FORMAT = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ss"));
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+    private static final Map<Descriptors.Descriptor, List<Descriptors.FieldDescriptor>> FIELDS_BY_NUMBER = new ConcurrentHashMap<>();
+    private static final int JSON_PATH_MAX_DOUBLE_LENGTH = 18;
+
+    private final ReadBack readBack;
+    private final boolean preserveFieldNames;
+    private final boolean enableSimpleDateFormat;
+    private final JsonFormat.Printer wellKnownTypePrinter;
+
+    ProtoJsonWriter(ReadBack readBack, boolean preserveFieldNames, boolean enableSimpleDateFormat) {
+        this.readBack = readBack;
+        this.preserveFieldNames = preserveFieldNames;
+        this.enableSimpleDateFormat = enableSimpleDateFormat;
+        JsonFormat.Printer printer = readBack == ReadBack.JSON_PATH ? JsonFormat.printer().includingDefaultValueFields() : JsonFormat.printer();
+        this.wellKnownTypePrinter = preserveFieldNames ? printer.preservingProtoFieldNames() : printer;
+    }
+
+    /**
+     * How the printed JSON used to be read back before Gson wrote it.
+     */
+    enum ReadBack {
+        /**
+         * {@link JSONParser}: only set fields, object keys in {@link HashMap} order and every decimal as a double.
+         */
+        JSON_SIMPLE,
+        /**
+         * {@link com.jayway.jsonpath.JsonPath} over json-smart: default values included, keys in field number order
+         * and decimals longer than 18 characters as {@link BigDecimal}.
+         */
+        JSON_PATH
+    }
+
+    @Override
+    public String print(DynamicMessage message) throws InvalidProtocolBufferException {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        if (isWellKnownType(message.getDescriptorForType())) {
+            writeWellKnownType(buffer, message);
+        } else {
+            writeMessage(buffer, message, enableSimpleDateFormat);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Timestamps are only turned into simple dates on the top level message, as they always have been.
+     */
+    private void writeMessage(StringBuilder buffer, Message message, boolean simpleDateTimestamps) throws InvalidProtocolBufferException {
+        Map<String, Descriptors.FieldDescriptor> fields = readBack == ReadBack.JSON_PATH ? new LinkedHashMap<>() : new HashMap<>();
+        for (Descriptors.FieldDescriptor field : fieldsToWrite(message)) {
+            fields.put(preserveFieldNames ? field.getName() : field.getJsonName(), field);
+        }
+        buffer.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Descriptors.FieldDescriptor> entry : fields.entrySet()) {
+            Descriptors.FieldDescriptor field = entry.getValue();
+            int mark = buffer.length();
+            writeName(buffer, entry.getKey(), first);
+            int valueStart = buffer.length();
+            if (simpleDateTimestamps && isTimestamp(field)) {
+                writeSimpleDate(buffer, (Message) message.getField(field));
+            } else {
+                writeField(buffer, field, message.getField(field));
+            }
+            if (isNull(buffer, valueStart)) {
+                buffer.setLength(mark);
+            } else {
+                first = false;
+            }
+        }
+        buffer.append('}');
+    }
+
+    /**
+     * Write a single field value, as read by a path pointing at the field.
+     *
+     * @param buffer the buffer to write to
+     * @param field  the field
+     * @param value  the value of the field in the message
+     * @throws InvalidProtocolBufferException when a well known type cannot be printed
+     */
+    void writeField(StringBuilder buffer, Descriptors.FieldDescriptor field, Object value) throws InvalidProtocolBufferException {
+        if (field.isMapField()) {
+            writeMap(buffer, field, (List<?>) value);
+        } else if (field.isRepeated()) {
+            buffer.append('[');
+            List<?> elements = (List<?>) value;
+            for (int i = 0; i < elements.size(); i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                writeValue(buffer, field, elements.get(i));
+            }
+            buffer.append(']');
+        } else {
+            writeValue(buffer, field, value);
+        }
+    }
+
+    private void writeMap(StringBuilder buffer, Descriptors.FieldDescriptor field, List<?> entries) throws InvalidProtocolBufferException {
+        Descriptors.FieldDescriptor keyField = field.getMessageType().findFieldByName("key");
+        Descriptors.FieldDescriptor valueField = field.getMessageType().findFieldByName("value");
+        Map<String, Object> values = readBack == ReadBack.JSON_PATH ? new LinkedHashMap<>() : new HashMap<>();
+        for (Object entry : entries) {
+            Message entryMessage = (Message) entry;
+            values.put(mapKey(keyField, entryMessage.getField(keyField)), entryMessage.getField(valueField));
+        }
+        buffer.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            int mark = buffer.length();
+            writeName(buffer, entry.getKey(), first);
+            int valueStart = buffer.length();
+            writeValue(buffer, valueField, entry.getValue());
+            if (isNull(buffer, valueStart)) {
+                buffer.setLength(mark);
+            } else {
+                first = false;
+            }
+        }
+        buffer.append('}');
+    }
+
+    private void writeValue(StringBuilder buffer, Descriptors.FieldDescriptor field, Object value) throws InvalidProtocolBufferException {
+        switch (field.getType()) {
+            case INT32:
+            case SINT32:
+            case SFIXED32:
+                buffer.append((int) (Integer) value);
+                return;
+            case UINT32:
+            case FIXED32:
+                buffer.append(Integer.toUnsignedString((Integer) value));
+                return;
+            case INT64:
+            case SINT64:
+            case SFIXED64:
+                writeString(buffer, value.toString());
+                return;
+            case UINT64:
+            case FIXED64:
+                writeString(buffer, Long.toUnsignedString((Long) value));
+                return;
+            case FLOAT:
+                writeFloatingPoint(buffer, ((Float) value).doubleValue(), value.toString());
+                return;
+            case DOUBLE:
+                writeFloatingPoint(buffer, (Double) value, value.toString());
+                return;
+            case BOOL:
+                buffer.append((boolean) (Boolean) value);
+                return;
+            case STRING:
+                writeString(buffer, (String) value);
+                return;
+            case BYTES:
+                writeString(buffer, Base64.getEncoder().encodeToString(((ByteString) value).toByteArray()));
+                return;
+            case ENUM:
+                Descriptors.EnumValueDescriptor enumValue = (Descriptors.EnumValueDescriptor) value;
+                if (enumValue.getType().getFullName().equals(NULL_VALUE_TYPE)) {
+                    buffer.append(NULL);
+                } else if (enumValue.getIndex() == -1) {
+                    buffer.append(enumValue.getNumber());
+                } else {
+                    writeString(buffer, enumValue.getName());
+                }
+                return;
+            case MESSAGE:
+            case GROUP:
+                Message message = (Message) value;
+                if (isWellKnownType(message.getDescriptorForType())) {
+                    writeWellKnownType(buffer, message);
+                } else {
+                    writeMessage(buffer, message, false);
+                }
+                return;
+            default:
+                throw new IllegalArgumentException("Unsupported field type " + field.getType());
+        }
+    }
+
+    /**
+     * The printed value is read back from its decimal string, so that string is parsed rather than the float widened.
+     */
+    private void writeFloatingPoint(StringBuilder buffer, double value, String printed) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeString(buffer, printed);
+        } else if (readBack == ReadBack.JSON_PATH && printed.length() > JSON_PATH_MAX_DOUBLE_LENGTH) {
+            buffer.append(new BigDecimal(printed));
+        } else {
+            buffer.append(Double.parseDouble(printed));
+        }
+    }
+
+    private void writeSimpleDate(StringBuilder buffer, Message message) throws InvalidProtocolBufferException {
+        if (!message.getDescriptorForType().getFullName().equals(TIMESTAMP_TYPE)) {
+            throw new RuntimeException(String.format("Not able to parse date, %s", message));
+        }
+        String timestamp = Timestamps.toString(Timestamp.parseFrom(message.toByteString()));
+        Date date;
+        try {
+            date = SIMPLE_DATE_FORMAT.get().parse(timestamp);
+        } catch (java.text.ParseException e) {
+            throw new RuntimeException(String.format("Not able to parse date, %s", timestamp));
+        }
+        buffer.append(DATE_GSON.toJson(date));
+    }
+
+    private void writeWellKnownType(StringBuilder buffer, Message message) throws InvalidProtocolBufferException {
+        if (message.getDescriptorForType().getFullName().equals(TIMESTAMP_TYPE)) {
+            writeString(buffer, Timestamps.toString(Timestamp.parseFrom(message.toByteString())));
+            return;
+        }
+        String printed = wellKnownTypePrinter.print(message);
+        if (readBack == ReadBack.JSON_PATH) {
+            writeParsedValue(buffer, Configuration.defaultConfiguration().jsonProvider().parse(printed));
+            return;
+        }
+        try {
+            writeParsedValue(buffer, new JSONParser().parse(printed));
+        } catch (ParseException e) {
+            throw new InvalidProtocolBufferException(e.getMessage());
+        }
+    }
+
+    /**
+     * Fields the printer writes, only the set ones unless default values are included.
+     */
+    private Iterable<Descriptors.FieldDescriptor> fieldsToWrite(Message message) {
+        if (readBack == ReadBack.JSON_SIMPLE) {
+            return message.getAllFields().keySet();
+        }
+        List<Descriptors.FieldDescriptor> fields = new ArrayList<>();
+        for (Descriptors.FieldDescriptor field : fieldsByNumber(message.getDescriptorForType())) {
+            if (isWritten(message, field)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Whether the printer writes the field of the message.
+     *
+     * @param message the message
+     * @param field   a field of the message
+     * @return true when the field is in the JSON
+     */
+    boolean isWritten(Message message, Descriptors.FieldDescriptor field) {
+        if (readBack == ReadBack.JSON_SIMPLE) {
+            return field.isRepeated() ? message.getRepeatedFieldCount(field) > 0 : message.hasField(field);
+        }
+        boolean unsetOptional = field.isOptional() && !message.hasField(field);
+        return !(unsetOptional && (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE || field.getContainingOneof() != null));
+    }
+
+    private static List<Descriptors.FieldDescriptor> fieldsByNumber(Descriptors.Descriptor descriptor) {
+        return FIELDS_BY_NUMBER.computeIfAbsent(descriptor, d -> {
+            List<Descriptors.FieldDescriptor> fields = new ArrayList<>(d.getFields());
+            fields.sort(Comparator.comparingInt(Descriptors.FieldDescriptor::getNumber));
+            return fields;
+        });
+    }
+
+    private static void writeParsedValue(StringBuilder buffer, Object value) {
+        if (value == null) {
+            buffer.append(NULL);
+        } else if (value instanceof String) {
+            writeString(buffer, (String) value);
+        } else if (value instanceof Map) {
+            buffer.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() == null) {
+                    continue;
+                }
+                writeName(buffer, String.valueOf(entry.getKey()), first);
+                writeParsedValue(buffer, entry.getValue());
+                first = false;
+            }
+            buffer.append('}');
+        } else if (value instanceof List) {
+            buffer.append('[');
+            List<?> elements = (List<?>) value;
+            for (int i = 0; i < elements.size(); i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                writeParsedValue(buffer, elements.get(i));
+            }
+            buffer.append(']');
+        } else {
+            buffer.append(value);
+        }
+    }
+
+    private static void writeName(StringBuilder buffer, String name, boolean first) {
+        if (!first) {
+            buffer.append(',');
+        }
+        writeString(buffer, name);
+        buffer.append(':');
+    }
+
+    /**
+     * Escapes like the html safe Gson writer.
+     */
+    private static void writeString(StringBuilder buffer, String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    buffer.append("\\\"");
+                    break;
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\b':
+                    buffer.append("\\b");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\f':
+                    buffer.append("\\f");
+                    break;
+                case '<':
+                case '>':
+                case '&':
+                case '=':
+                case '\'':
+                case '\u2028':
+                case '\u2029':
+                    writeUnicodeEscape(buffer, c);
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writeUnicodeEscape(buffer, c);
+                    } else {
+                        buffer.append(c);
+                    }
+            }
+        }
+        buffer.append('"');
+    }
+
+    private static void writeUnicodeEscape(StringBuilder buffer, char c) {
+        String hex = Integer.toHexString(c);
+        buffer.append("\\u");
+        for (int i = hex.length(); i < 4; i++) {
+            buffer.append('0');
+        }
+        buffer.append(hex);
+    }
+
+    private static boolean isNull(StringBuilder buffer, int valueStart) {
+        return buffer.length() - valueStart == NULL.length() && buffer.indexOf(NULL, valueStart) == valueStart;
+    }
+
+    private static String mapKey(Descriptors.FieldDescriptor keyField, Object key) {
+        switch (keyField.getType()) {
+            case UINT32:
+            case FIXED32:
+                return Integer.toUnsignedString((Integer) key);
+            case UINT64:
+            case FIXED64:
+                return Long.toUnsignedString((Long) key);
+            default:
+                return key.toString();
+        }
+    }
+
+    private static boolean isTimestamp(Descriptors.FieldDescriptor field) {
+        return field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE && !field.isRepeated()
+                && field.getMessageType().getName().equals(Timestamp.class.getSimpleName());
+    }
+
+    static boolean isWellKnownType(Descriptors.Descriptor descriptor) {
+        return descriptor.getFile().getPackage().equals(WELL_KNOWN_TYPE_PACKAGE);
+    }
+}
@@ -0,0 +1,191 @@
+package org.raystack.firehose.sink;
+
+import com.google.common.hash.Hashing;
+import org.raystack.firehose.exception.SinkTaskFailedException;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.apache.kafka.common.TopicPartition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.raystack.firehose.metrics.Metrics.SINK_POOL_WORKER_QUEUE_DEPTH;
+import static org.raystack.firehose.metrics.Metrics.SINK_POOL_WORKER_TAG;
+
+/**
+ * Sink pool which pins every kafka partition to a fixed worker sink.
+ * <p>
+ * Each poll is split by {@link TopicPartition} and every split is queued on the worker the partition hashes to,
+ * using consistent hashing over the workers. A worker pushes its queued tasks one after another,
+ * so messages of a partition are pushed in order, and every split can be committed on its own.
+ * A slow partition only holds back the partitions sharing its worker.
+ */
+public class PartitionAffineSinkPool extends SinkPool {
+    private final List<Sink> sinks;
+    private final List<BlockingQueue<FutureTask<List<Message>>>> workerQueues = new ArrayList<>();
+    private final Set<Future<List<Message>>> sinkFutures = new HashSet<>();
+    private final Object capacityMonitor = new Object();
+    private final ExecutorService executorService;
+    private final long pollTimeOutMillis;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private volatile boolean stopped;
+
+    public PartitionAffineSinkPool(List<Sink> sinks,
+                                   ExecutorService executorService,
+                                   int workerQueueCapacity,
+                                   long pollTimeOutMillis,
+                                   FirehoseInstrumentation firehoseInstrumentation) {
+        super(new LinkedBlockingQueue<>(sinks), sinks, executorService, pollTimeOutMillis);
+        this.sinks = sinks;
+        this.executorService = executorService;
+        this.pollTimeOutMillis = pollTimeOutMillis;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        for (int worker = 0; worker < sinks.size(); worker++) {
+            BlockingQueue<FutureTask<List<Message>>> workerQueue = new ArrayBlockingQueue<>(workerQueueCapacity);
+            workerQueues.add(workerQueue);
+            executorService.submit(() -> runWorker(workerQueue));
+        }
+    }
+
+    /**
+     * Split the messages by partition and queue every split on the worker of its partition.
+     *
+     * @param messages messages to push
+     * @return tasks for every split with their messages,
+     * or null if a worker queue stays full for the poll timeout, in which case nothing is queued
+     */
+    @Override
+    public Map<Future<List<Message>>, List<Message>> submitTasks(List<Message> messages) {
+        Map<TopicPartition, List<Message>> partitionToMessages = new LinkedHashMap<>();
+        messages.forEach(message -> partitionToMessages
+                .computeIfAbsent(new TopicPartition(message.getTopic(), message.getPartition()), tp -> new ArrayList<>())
+                .add(message));
+        Set<Integer> workers = partitionToMessages.keySet().stream().map(this::getWorker).collect(Collectors.toSet());
+        if (!awaitCapacity(workers)) {
+            return null;
+        }
+        Map<Future<List<Message>>, List<Message>> tasks = new LinkedHashMap<>();
+        partitionToMessages.forEach((tp, partitionMessages) -> tasks.put(enqueue(getWorker(tp), partitionMessages), partitionMessages));
+        return tasks;
+    }
+
+    /**
+     * Queue the messages on the worker of the partition of the first message.
+     * Messages are expected to be from a single partition, use {@link #submitTasks(List)} otherwise.
+     */
+    @Override
+    public Future<List<Message>> submitTask(List<Message> messages) {
+        Message first = messages.get(0);
+        int worker = getWorker(new TopicPartition(first.getTopic(), first.getPartition()));
+        if (!awaitCapacity(Collections.singleton(worker))) {
+            return null;
+        }
+        return enqueue(worker, messages);
+    }
+
+    @Override
+    public Set<Future<List<Message>>> fetchFinishedSinkTasks() {
+        Set<Future<List<Message>>> finished = new HashSet<>();
+        for (Future<List<Message>> future : sinkFutures) {
+            if (future.isDone()) {
+                try {
+                    future.get();
+                    finished.add(future);
+                } catch (InterruptedException e) {
+                    throw new SinkTaskFailedException(e);
+                } catch (ExecutionException e) {
+                    throw new SinkTaskFailedException(e.getCause());
+                }
+            }
+        }
+        sinkFutures.removeAll(finished);
+        for (int worker = 0; worker < workerQueues.size(); worker++) {
+            firehoseInstrumentation.captureValue(SINK_POOL_WORKER_QUEUE_DEPTH, workerQueues.get(worker).size(),
+                    String.format(SINK_POOL_WORKER_TAG, worker));
+        }
+        return finished;
+    }
+
+    /**
+     * Stops the workers from taking queued tasks, waits for the pushes in flight and closes the sinks.
+     * Idle workers notice the stop within a poll timeout, workers still pushing after two poll timeouts are interrupted.
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        executorService.shutdown();
+        long closeTimeoutMillis = 2 * pollTimeOutMillis;
+        try {
+            if (!executorService.awaitTermination(closeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                firehoseInstrumentation.logWarn("Sink pushes did not finish in {} milliseconds, interrupting them", closeTimeoutMillis);
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executorService.shutdownNow();
+        }
+        workerQueues.forEach(workerQueue -> workerQueue.forEach(task -> task.cancel(false)));
+        super.close();
+    }
+
+    protected int getWorker(TopicPartition topicPartition) {
+        return Hashing.consistentHash(
+                Hashing.murmur3_32().hashString(topicPartition.toString(), StandardCharsets.UTF_8), sinks.size());
+    }
+
+    private boolean awaitCapacity(Set<Integer> workers) {
+        long deadline = System.currentTimeMillis() + pollTimeOutMillis;
+        synchronized (capacityMonitor) {
+            while (workers.stream().anyMatch(worker -> workerQueues.get(worker).remainingCapacity() == 0)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    capacityMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private Future<List<Message>> enqueue(int worker, List<Message> messages) {
+        FutureTask<List<Message>> task = new FutureTask<>(new SinkTask(sinks.get(worker), messages));
+        workerQueues.get(worker).add(task);
+        sinkFutures.add(task);
+        return task;
+    }
+
+    private void runWorker(BlockingQueue<FutureTask<List<Message>>> workerQueue) {
+        try {
+            while (!stopped && !Thread.currentThread().isInterrupted()) {
+                FutureTask<List<Message>> task = workerQueue.poll(pollTimeOutMillis, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    synchronized (capacityMonitor) {
+                        capacityMonitor.notifyAll();
+                    }
+                    task.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -40,6 +40,7 @@ public class SinkFactory {
     private final Map<String, String> config;
     private BigQuerySinkFactory bigQuerySinkFactory;
     private BigTableSinkFactory bigTableSinkFactory;
+    private BlobSinkFactory blobSinkFactory;
     private LogSinkFactory logSinkFactory;
     private RedisSinkFactory redisSinkFactory;
 
@@ -66,9 +67,12 @@ public class SinkFactory {
             case ELASTICSEARCH:
             case GRPC:
             case PROMETHEUS:
-            case BLOB:
             case MONGODB:
                 return;
+            case BLOB:
+                blobSinkFactory = new BlobSinkFactory(config, offsetManager, statsDReporter, stencilClient);
+                blobSinkFactory.init();
+                return;
             case LOG:
                 logSinkFactory = new LogSinkFactory(config, statsDReporter);
                 logSinkFactory.init();
@@ -119,7 +123,7 @@ public class SinkFactory {
             case PROMETHEUS:
                 return PromSinkFactory.create(config, statsDReporter, stencilClient);
             case BLOB:
-                return BlobSinkFactory.create(config, offsetManager, statsDReporter, stencilClient);
+                return blobSinkFactory.create();
             case BIGQUERY:
                 return new GenericSink(new FirehoseInstrumentation(statsDReporter, BigQuerySink.class), sinkType.name(), bigQuerySinkFactory.create());
             case BIGTABLE:
@@ -8,8 +8,10 @@ import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
@@ -47,6 +49,17 @@ public class SinkPool implements AutoCloseable {
         return finished.stream().map(SinkFuture::getFuture).collect(Collectors.toSet());
     }
 
+    /**
+     * Submit messages to be pushed by the sinks of the pool.
+     *
+     * @param messages messages to push
+     * @return tasks with the messages each of them pushes, or null if no worker is free
+     */
+    public Map<Future<List<Message>>, List<Message>> submitTasks(List<Message> messages) {
+        Future<List<Message>> future = submitTask(messages);
+        return future == null ? null : Collections.singletonMap(future, messages);
+    }
+
     public Future<List<Message>> submitTask(List<Message> messages) {
         try {
             Sink workerSink = workerSinks.poll(pollTimeOutMillis, TimeUnit.MILLISECONDS);
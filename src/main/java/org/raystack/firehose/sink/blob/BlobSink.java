@@ -41,30 +41,35 @@ public class BlobSink extends AbstractSink {
     protected List<Message> execute() throws Exception {
         List<Message> failedMessages = new LinkedList<>();
         Map<Object, List<Message>> fileToMessages = new HashMap<>();
-        for (Message message : messages) {
-            try {
-                Record record = messageDeSerializer.deSerialize(message);
-                String filePath = writerOrchestrator.write(record);
-                fileToMessages.computeIfAbsent(filePath, key -> new ArrayList<>()).add(message);
-            } catch (EmptyMessageException e) {
-                getFirehoseInstrumentation().logWarn("empty message found on topic: {}, partition: {}, offset: {}",
-                        message.getTopic(), message.getPartition(), message.getOffset());
-                message.setErrorInfo(new ErrorInfo(e, ErrorType.INVALID_MESSAGE_ERROR));
-                failedMessages.add(message);
-            } catch (UnknownFieldsException e) {
-                getFirehoseInstrumentation().logWarn(e.getMessage());
-                message.setErrorInfo(new ErrorInfo(e, ErrorType.UNKNOWN_FIELDS_ERROR));
-                failedMessages.add(message);
-            } catch (DeserializerException e) {
-                getFirehoseInstrumentation().logWarn("message deserialization failed on topic: {}, partition: {}, offset: {}, reason: {}",
-                        message.getTopic(), message.getPartition(), message.getOffset(), e.getMessage());
-                message.setErrorInfo(new ErrorInfo(e, ErrorType.DESERIALIZATION_ERROR));
-                failedMessages.add(message);
-            } catch (Exception e) {
-                throw new SinkException("Failed to deserialize the message", e);
+        writerOrchestrator.holdFlushedPaths();
+        try {
+            for (Message message : messages) {
+                try {
+                    Record record = messageDeSerializer.deSerialize(message);
+                    String filePath = writerOrchestrator.write(record);
+                    fileToMessages.computeIfAbsent(filePath, key -> new ArrayList<>()).add(message);
+                } catch (EmptyMessageException e) {
+                    getFirehoseInstrumentation().logWarn("empty message found on topic: {}, partition: {}, offset: {}",
+                            message.getTopic(), message.getPartition(), message.getOffset());
+                    message.setErrorInfo(new ErrorInfo(e, ErrorType.INVALID_MESSAGE_ERROR));
+                    failedMessages.add(message);
+                } catch (UnknownFieldsException e) {
+                    getFirehoseInstrumentation().logWarn(e.getMessage());
+                    message.setErrorInfo(new ErrorInfo(e, ErrorType.UNKNOWN_FIELDS_ERROR));
+                    failedMessages.add(message);
+                } catch (DeserializerException e) {
+                    getFirehoseInstrumentation().logWarn("message deserialization failed on topic: {}, partition: {}, offset: {}, reason: {}",
+                            message.getTopic(), message.getPartition(), message.getOffset(), e.getMessage());
+                    message.setErrorInfo(new ErrorInfo(e, ErrorType.DESERIALIZATION_ERROR));
+                    failedMessages.add(message);
+                } catch (Exception e) {
+                    throw new SinkException("Failed to deserialize the message", e);
+                }
             }
+            offsetManager.addOffsetToBatch(fileToMessages);
+        } finally {
+            writerOrchestrator.releaseFlushedPaths();
         }
-        offsetManager.addOffsetToBatch(fileToMessages);
         return failedMessages;
     }
 
@@ -25,19 +25,42 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Creates the blob sinks of a consumer. All sinks share one {@link WriterOrchestrator}, so records of the sink pool
+ * are written into one local file per time partition and uploaded by one pool of upload threads.
+ * Offsets of the records in a file are marked committable as soon as the file is uploaded.
+ */
 public class BlobSinkFactory {
+    private final Map<String, String> configuration;
+    private final OffsetManager offsetManager;
+    private final StatsDReporter statsDReporter;
+    private final StencilClient stencilClient;
+    private BlobSinkConfig sinkConfig;
+    private WriterOrchestrator writerOrchestrator;
 
-    public static Sink create(Map<String, String> configuration, OffsetManager offsetManager, StatsDReporter statsDReporter, StencilClient stencilClient) {
-        BlobSinkConfig sinkConfig = ConfigFactory.create(BlobSinkConfig.class, configuration);
+    public BlobSinkFactory(Map<String, String> configuration, OffsetManager offsetManager, StatsDReporter statsDReporter, StencilClient stencilClient) {
+        this.configuration = configuration;
+        this.offsetManager = offsetManager;
+        this.statsDReporter = statsDReporter;
+        this.stencilClient = stencilClient;
+    }
+
+    public void init() {
+        sinkConfig = ConfigFactory.create(BlobSinkConfig.class, configuration);
         LocalStorage localStorage = getLocalFileWriterWrapper(sinkConfig, stencilClient, statsDReporter);
         BlobStorage sinkBlobStorage = createSinkObjectStorage(sinkConfig, new HashMap<>(configuration));
-        WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, sinkBlobStorage, statsDReporter);
+        writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, sinkBlobStorage, sinkConfig.getUploadThreads(),
+                sinkConfig.getLocalFileWriterMaxOpen(), sinkConfig.getLocalFileWriterMaxBufferedBytes(), statsDReporter);
+        writerOrchestrator.setFlushedPathListener(offsetManager::setCommittable);
+    }
+
+    public Sink create() {
         MessageDeSerializer messageDeSerializer = new MessageDeSerializer(sinkConfig, stencilClient);
         return new BlobSink(
                 new FirehoseInstrumentation(statsDReporter, BlobSink.class),
                 sinkConfig.getSinkType().toString(),
                 offsetManager,
-                writerOrchestrator,
+                writerOrchestrator.register(),
                 messageDeSerializer);
     }
 
@@ -32,7 +32,7 @@ public class MessageDeSerializer {
             if (message.getLogMessage() == null || message.getLogMessage().length == 0) {
                 throw new EmptyMessageException();
             }
-            DynamicMessage dynamicMessage = protoParser.parse(message.getLogMessage());
+            DynamicMessage dynamicMessage = message.getDecodedLogMessage().parse(sinkConfig.getInputSchemaProtoClass(), protoParser);
 
             if (!sinkConfig.getInputSchemaProtoAllowUnknownFieldsEnable() && ProtoUtils.hasUnknownField(dynamicMessage)) {
                 throw new UnknownFieldsException(dynamicMessage);
@@ -1,6 +1,7 @@
 package org.raystack.firehose.sink.blob.writer;
 
 import org.raystack.firehose.config.BlobSinkConfig;
+import org.raystack.firehose.metrics.BlobStorageMetrics;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.sink.blob.message.Record;
 import org.raystack.firehose.sink.blob.writer.local.LocalFileMetadata;
@@ -16,7 +17,9 @@ import org.raystack.firehose.sink.blob.writer.local.LocalStorage;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
@@ -24,9 +27,18 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * This class manages threads for local and blob storage checking.
@@ -34,44 +46,107 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * LocalFileChecker: This thread is responsible for rotation of files based on policies.
  * Once a file is written to disk it adds to a queue to be consumed by ObjectStorageChecker.
+ * Files are also rotated from the write path as soon as a policy trips, the thread rotates idle files.
  * <p>
  * ObjectStorageChecker: Reads the Local Files and Writes to given ObjectStorage.
  * After the file is written to blob storage, it adds to to flushedPath queue.
+ * It runs as soon as a file is closed or an upload completes, and periodically as a fallback.
+ * <p>
+ * With a flushed path listener, flushed paths are handed to it as soon as their upload completes,
+ * otherwise they are collected with {@link #getFlushedPaths()}.
+ * <p>
+ * One orchestrator can be shared by the sinks of a consumer, records of all sinks are written to the same file
+ * of a time partition. Each sink registers itself and the orchestrator is closed once all of them closed it.
+ * <p>
+ * The open writers can be bounded by count and by the bytes they buffer in memory. Past a bound the least recently
+ * written writers are evicted: closed and handed to ObjectStorageChecker like rotated files.
  */
 public class WriterOrchestrator implements Closeable {
     private static final int FILE_CHECKER_THREAD_INITIAL_DELAY_SECONDS = 10;
     private static final int FILE_CHECKER_THREAD_FREQUENCY_SECONDS = 5;
+    private static final int DEFAULT_UPLOAD_THREADS = 10;
+    private static final int BUFFERED_BYTES_CHECK_INTERVAL_RECORDS = 100;
+    private static final String EVICTION_REASON_OPEN_WRITERS = "open_writers";
+    private static final String EVICTION_REASON_BUFFERED_BYTES = "buffered_bytes";
     private final Map<Path, LocalFileWriter> timePartitionWriterMap = new ConcurrentHashMap<>();
+    private final Map<Path, Long> lastWriteSequences = new ConcurrentHashMap<>();
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
     private final ScheduledExecutorService localFileCheckerScheduler = Executors.newScheduledThreadPool(1);
     private final ScheduledExecutorService objectStorageCheckerScheduler = Executors.newScheduledThreadPool(1);
-    private final ExecutorService remoteUploadScheduler = Executors.newFixedThreadPool(10);
+    private final ExecutorService remoteUploadScheduler;
+    private final BlockingQueue<LocalFileMetadata> toBeFlushedToRemotePaths = new LinkedBlockingQueue<>();
     private final BlockingQueue<String> flushedToRemotePaths = new LinkedBlockingQueue<>();
     private final LocalStorage localStorage;
     private final WriterOrchestratorStatus writerOrchestratorStatus;
     private final BlobSinkConfig sinkConfig;
+    private final AtomicInteger registeredSinks = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final LocalFileChecker localFileChecker;
+    private final BlobStorageChecker blobStorageChecker;
+    private final ReentrantReadWriteLock flushedPathsLock = new ReentrantReadWriteLock();
+    private volatile Consumer<String> flushedPathListener;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final int maxOpenWriters;
+    private final long maxBufferedBytes;
 
     public WriterOrchestrator(BlobSinkConfig sinkConfig, LocalStorage localStorage, BlobStorage blobStorage, StatsDReporter statsDReporter) {
+        this(sinkConfig, localStorage, blobStorage, DEFAULT_UPLOAD_THREADS, statsDReporter);
+    }
+
+    public WriterOrchestrator(BlobSinkConfig sinkConfig, LocalStorage localStorage, BlobStorage blobStorage, int uploadThreads, StatsDReporter statsDReporter) {
+        this(sinkConfig, localStorage, blobStorage, uploadThreads, 0, 0, statsDReporter);
+    }
+
+    /**
+     * Instantiates a new Writer orchestrator with bounded open writers, a bound of 0 or less is unlimited.
+     *
+     * @param sinkConfig       the sink config
+     * @param localStorage     the local storage
+     * @param blobStorage      the blob storage
+     * @param uploadThreads    number of threads uploading local files
+     * @param maxOpenWriters   maximum number of open writers
+     * @param maxBufferedBytes maximum bytes buffered in memory by the open writers
+     * @param statsDReporter   the statsd reporter
+     */
+    public WriterOrchestrator(BlobSinkConfig sinkConfig, LocalStorage localStorage, BlobStorage blobStorage, int uploadThreads,
+                              int maxOpenWriters, long maxBufferedBytes, StatsDReporter statsDReporter) {
         this.localStorage = localStorage;
         this.sinkConfig = sinkConfig;
-        BlockingQueue<LocalFileMetadata> toBeFlushedToRemotePaths = new LinkedBlockingQueue<>();
+        this.maxOpenWriters = maxOpenWriters;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.firehoseInstrumentation = new FirehoseInstrumentation(statsDReporter, WriterOrchestrator.class);
+        this.remoteUploadScheduler = new ThreadPoolExecutor(uploadThreads, uploadThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                triggerBlobStorageCheck();
+            }
+        };
+        this.localFileChecker = new LocalFileChecker(
+                toBeFlushedToRemotePaths,
+                timePartitionWriterMap,
+                localStorage, new FirehoseInstrumentation(statsDReporter, LocalFileChecker.class));
         ScheduledFuture<?> localWriterFuture = localFileCheckerScheduler.scheduleAtFixedRate(
-                new LocalFileChecker(
-                        toBeFlushedToRemotePaths,
-                        timePartitionWriterMap,
-                        localStorage, new FirehoseInstrumentation(statsDReporter, LocalFileChecker.class)),
+                () -> {
+                    localFileChecker.run();
+                    if (!toBeFlushedToRemotePaths.isEmpty()) {
+                        triggerBlobStorageCheck();
+                    }
+                },
                 FILE_CHECKER_THREAD_INITIAL_DELAY_SECONDS,
                 FILE_CHECKER_THREAD_FREQUENCY_SECONDS,
                 TimeUnit.SECONDS);
 
         Set<BlobStorageWriterFutureHandler> remoteUploadFutures = new HashSet<>();
+        this.blobStorageChecker = new BlobStorageChecker(
+                toBeFlushedToRemotePaths,
+                flushedToRemotePaths,
+                remoteUploadFutures,
+                remoteUploadScheduler,
+                blobStorage,
+                new FirehoseInstrumentation(statsDReporter, BlobStorageChecker.class));
         ScheduledFuture<?> objectStorageWriterFuture = objectStorageCheckerScheduler.scheduleWithFixedDelay(
-                new BlobStorageChecker(
-                        toBeFlushedToRemotePaths,
-                        flushedToRemotePaths,
-                        remoteUploadFutures,
-                        remoteUploadScheduler,
-                        blobStorage,
-                        new FirehoseInstrumentation(statsDReporter, BlobStorageChecker.class)),
+                this::checkBlobStorage,
                 FILE_CHECKER_THREAD_INITIAL_DELAY_SECONDS,
                 FILE_CHECKER_THREAD_FREQUENCY_SECONDS,
                 TimeUnit.SECONDS);
@@ -80,17 +155,83 @@ public class WriterOrchestrator implements Closeable {
         writerOrchestratorStatus.startCheckers();
     }
 
+    /**
+     * Registers a sink sharing the orchestrator, each registered sink closes it once.
+     *
+     * @return this orchestrator
+     */
+    public WriterOrchestrator register() {
+        registeredSinks.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Hands each path flushed to remote to the listener as soon as its upload completes, instead of
+     * waiting for {@link #getFlushedPaths()}. The local files are cleaned up before.
+     *
+     * @param listener listener called with the flushed paths, from the ObjectStorageChecker thread
+     */
+    public void setFlushedPathListener(Consumer<String> listener) {
+        this.flushedPathListener = listener;
+    }
+
+    /**
+     * Holds back flushed paths while the calling thread writes a batch, so the batch can track the paths it wrote to
+     * before they are handed out. Each call is followed by {@link #releaseFlushedPaths()}.
+     */
+    public void holdFlushedPaths() {
+        flushedPathsLock.readLock().lock();
+    }
+
+    public void releaseFlushedPaths() {
+        flushedPathsLock.readLock().unlock();
+    }
+
     /**
      * @return Return all paths which are flushed to remote and drain the list.
      * It also cleans up local paths from the disk.
      */
     public Set<String> getFlushedPaths() {
         Set<String> flushedPaths = new HashSet<>();
-        flushedToRemotePaths.drainTo(flushedPaths);
+        flushedPathsLock.writeLock().lock();
+        try {
+            flushedToRemotePaths.drainTo(flushedPaths);
+        } finally {
+            flushedPathsLock.writeLock().unlock();
+        }
         flushedPaths.forEach(localStorage::deleteLocalFile);
         return flushedPaths;
     }
 
+    /**
+     * Submits closed files for upload, collects completed uploads and hands the flushed paths to the listener.
+     */
+    private void checkBlobStorage() {
+        blobStorageChecker.run();
+        Consumer<String> listener = flushedPathListener;
+        if (listener != null && !flushedToRemotePaths.isEmpty()) {
+            getFlushedPaths().forEach(listener);
+        }
+    }
+
+    /**
+     * Runs the ObjectStorageChecker right away on its thread, a failure closes the orchestrator.
+     */
+    private void triggerBlobStorageCheck() {
+        try {
+            objectStorageCheckerScheduler.execute(() -> {
+                try {
+                    checkBlobStorage();
+                } catch (RuntimeException e) {
+                    writerOrchestratorStatus.setThrowable(e);
+                    writerOrchestratorStatus.setClosed(true);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            firehoseInstrumentation.logDebug("Orchestrator is closed, skipping blob storage check");
+        }
+    }
+
     private void checkStatus() throws Exception {
         if (writerOrchestratorStatus.isClosed()) {
             throw new IOException(writerOrchestratorStatus.getThrowable());
@@ -125,11 +266,78 @@ public class WriterOrchestrator implements Closeable {
         if (!writer.write(record)) {
             return write(record, timePartitionedPath);
         }
+        if (localStorage.shouldRotate(writer)) {
+            if (timePartitionWriterMap.remove(timePartitionedPath, writer)) {
+                localFileChecker.closeWriter(writer);
+                triggerBlobStorageCheck();
+            }
+            return writer.getFullPath();
+        }
+        long sequence = writeSequence.incrementAndGet();
+        lastWriteSequences.put(timePartitionedPath, sequence);
+        boolean checkBufferedBytes = maxBufferedBytes > 0 && sequence % BUFFERED_BYTES_CHECK_INTERVAL_RECORDS == 0;
+        if (checkBufferedBytes || (maxOpenWriters > 0 && timePartitionWriterMap.size() > maxOpenWriters)) {
+            evictWriters(checkBufferedBytes);
+        }
         return writer.getFullPath();
     }
 
+    /**
+     * Evicts the least recently written writers until the open writers are within bounds.
+     * Buffered bytes are summed only every {@link #BUFFERED_BYTES_CHECK_INTERVAL_RECORDS} records as it checks every file.
+     * A thread finding another one evicting skips the eviction.
+     *
+     * @param checkBufferedBytes whether to check the buffered bytes bound
+     */
+    private void evictWriters(boolean checkBufferedBytes) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            lastWriteSequences.keySet().retainAll(timePartitionWriterMap.keySet());
+            List<Map.Entry<Path, LocalFileWriter>> writers = timePartitionWriterMap.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> lastWriteSequences.getOrDefault(entry.getKey(), 0L)))
+                    .collect(Collectors.toList());
+            int openWriters = writers.size();
+            long bufferedBytes = checkBufferedBytes ? writers.stream().mapToLong(entry -> entry.getValue().getBufferedBytes()).sum() : 0;
+            for (Map.Entry<Path, LocalFileWriter> entry : writers) {
+                String reason;
+                if (maxOpenWriters > 0 && openWriters > maxOpenWriters) {
+                    reason = EVICTION_REASON_OPEN_WRITERS;
+                } else if (checkBufferedBytes && bufferedBytes > maxBufferedBytes) {
+                    reason = EVICTION_REASON_BUFFERED_BYTES;
+                } else {
+                    break;
+                }
+                long writerBufferedBytes = checkBufferedBytes ? entry.getValue().getBufferedBytes() : 0;
+                if (timePartitionWriterMap.remove(entry.getKey(), entry.getValue())) {
+                    firehoseInstrumentation.logInfo("Evicting writer of {}, reason: {}", entry.getKey(), reason);
+                    localFileChecker.closeWriter(entry.getValue());
+                    triggerBlobStorageCheck();
+                    firehoseInstrumentation.incrementCounter(BlobStorageMetrics.LOCAL_FILE_EVICTION_TOTAL,
+                            String.format(BlobStorageMetrics.LOCAL_FILE_EVICTION_REASON_TAG, reason));
+                }
+                openWriters--;
+                bufferedBytes -= writerBufferedBytes;
+            }
+            if (checkBufferedBytes) {
+                firehoseInstrumentation.captureValue(BlobStorageMetrics.LOCAL_FILE_BUFFERED_BYTES, (int) Math.min(Integer.MAX_VALUE, bufferedBytes));
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the orchestrator when the last registered sink closes it, or right away when no sink registered.
+     *
+     * @throws IOException if a local file fails to close
+     */
     @Override
     public void close() throws IOException {
+        if (registeredSinks.decrementAndGet() > 0 || !closed.compareAndSet(false, true)) {
+            return;
+        }
         localFileCheckerScheduler.shutdown();
         objectStorageCheckerScheduler.shutdown();
         remoteUploadScheduler.shutdown();
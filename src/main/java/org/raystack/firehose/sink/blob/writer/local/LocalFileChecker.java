@@ -34,21 +34,33 @@ public class LocalFileChecker implements Runnable {
         Map<Path, LocalFileWriter> toBeRotated =
                 timePartitionWriterMap.entrySet().stream().filter(kv -> localStorage.shouldRotate(kv.getValue()))
                         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        timePartitionWriterMap.entrySet().removeAll(toBeRotated.entrySet());
         toBeRotated.forEach((path, writer) -> {
-            try {
-                Instant startTime = Instant.now();
-                LocalFileMetadata metadata = writer.closeAndFetchMetaData();
-                firehoseInstrumentation.logInfo("Closing Local File {} ", metadata.getFullPath());
-                toBeFlushedToRemotePaths.add(metadata);
-                captureFileClosedSuccessMetric(startTime, metadata);
-            } catch (IOException e) {
-                e.printStackTrace();
-                captureFileCloseFailedMetric();
-                throw new LocalFileWriterFailedException(e);
+            if (timePartitionWriterMap.remove(path, writer)) {
+                closeWriter(writer);
             }
         });
         firehoseInstrumentation.captureValue(BlobStorageMetrics.LOCAL_FILE_OPEN_TOTAL, timePartitionWriterMap.size());
+        long bufferedBytes = timePartitionWriterMap.values().stream().mapToLong(LocalFileWriter::getBufferedBytes).sum();
+        firehoseInstrumentation.captureValue(BlobStorageMetrics.LOCAL_FILE_BUFFERED_BYTES, (int) Math.min(Integer.MAX_VALUE, bufferedBytes));
+    }
+
+    /**
+     * Closes a writer removed from the writer map and queues its file for upload.
+     *
+     * @param writer the writer to close
+     */
+    public void closeWriter(LocalFileWriter writer) {
+        try {
+            Instant startTime = Instant.now();
+            LocalFileMetadata metadata = writer.closeAndFetchMetaData();
+            firehoseInstrumentation.logInfo("Closing Local File {} ", metadata.getFullPath());
+            toBeFlushedToRemotePaths.add(metadata);
+            captureFileClosedSuccessMetric(startTime, metadata);
+        } catch (IOException e) {
+            e.printStackTrace();
+            captureFileCloseFailedMetric();
+            throw new LocalFileWriterFailedException(e);
+        }
     }
 
     private void captureFileClosedSuccessMetric(Instant startTime, LocalFileMetadata localFileMetadata) {
@@ -15,6 +15,11 @@ public interface LocalFileWriter extends Closeable {
 
     LocalFileMetadata getMetadata();
 
+    /**
+     * @return estimate of the bytes written but still held in memory, 0 once closed
+     */
+    long getBufferedBytes();
+
     LocalFileMetadata closeAndFetchMetaData() throws IOException;
 
     String getFullPath();
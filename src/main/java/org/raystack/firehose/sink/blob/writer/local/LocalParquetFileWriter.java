@@ -8,6 +8,7 @@ import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.proto.ProtoParquetWriter;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
@@ -45,6 +46,18 @@ public class LocalParquetFileWriter implements LocalFileWriter {
                 parquetWriter.getDataSize());
     }
 
+    /**
+     * Buffered row groups are flushed to the file, so what the writer holds in memory is the data size
+     * beyond the length of the file.
+     */
+    @Override
+    public synchronized long getBufferedBytes() {
+        if (isClosed) {
+            return 0;
+        }
+        return Math.max(0, parquetWriter.getDataSize() - new File(fullPath).length());
+    }
+
     public synchronized boolean write(Record record) throws IOException {
         if (isClosed) {
             return false;
@@ -6,76 +6,253 @@ import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.metrics.Metrics;
 import org.raystack.firehose.sink.AbstractSink;
+import org.raystack.depot.error.ErrorInfo;
+import org.raystack.depot.error.ErrorType;
 import org.raystack.stencil.client.StencilClient;
 import joptsimple.internal.Strings;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.util.EntityUtils;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public abstract class AbstractHttpSink extends AbstractSink {
 
     private final List<HttpEntityEnclosingRequestBase> httpRequests = new ArrayList<>();
+    private final List<List<Message>> httpRequestMessages = new ArrayList<>();
     private final HttpClient httpClient;
     private final StencilClient stencilClient;
     private final Map<Integer, Boolean> retryStatusCodeRanges;
     private final Map<Integer, Boolean> requestLogStatusCodeRanges;
+    private final ExecutorService requestExecutor;
+    private final int adaptiveConcurrencyMaxLimit;
     protected static final String SUCCESS_CODE_PATTERN = "^2.*";
+    private static final int TOO_MANY_REQUESTS = 429;
 
     public AbstractHttpSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges) {
+        this(firehoseInstrumentation, sinkType, httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, 1);
+    }
+
+    /**
+     * Instantiates a new Http sink sending up to requestParallelism requests of a batch at the same time.
+     * The http client has to allow as many connections to the endpoint, otherwise requests wait for a free connection.
+     *
+     * @param firehoseInstrumentation    the instrumentation
+     * @param sinkType                   the sink type
+     * @param httpClient                 the http client
+     * @param stencilClient              the stencil client
+     * @param retryStatusCodeRanges      the retry status code ranges
+     * @param requestLogStatusCodeRanges the request log status code ranges
+     * @param requestParallelism         the maximum number of requests in flight, 1 to send them one after another
+     */
+    public AbstractHttpSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges, int requestParallelism) {
+        this(firehoseInstrumentation, sinkType, httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, requestParallelism, 0);
+    }
+
+    /**
+     * Instantiates a new Http sink adapting the requests in flight to every endpoint to its load.
+     * Endpoints answering 429 or 503, or timing out, get fewer concurrent requests and none before their Retry-After.
+     *
+     * @param firehoseInstrumentation     the instrumentation
+     * @param sinkType                    the sink type
+     * @param httpClient                  the http client
+     * @param stencilClient               the stencil client
+     * @param retryStatusCodeRanges       the retry status code ranges
+     * @param requestLogStatusCodeRanges  the request log status code ranges
+     * @param requestParallelism          the maximum number of requests in flight, 1 to send them one after another
+     * @param adaptiveConcurrencyMaxLimit the maximum requests in flight to an endpoint across all sinks, 0 to disable the adaptive limit
+     */
+    public AbstractHttpSink(FirehoseInstrumentation firehoseInstrumentation, String sinkType, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges, int requestParallelism, int adaptiveConcurrencyMaxLimit) {
         super(firehoseInstrumentation, sinkType);
         this.httpClient = httpClient;
         this.stencilClient = stencilClient;
         this.retryStatusCodeRanges = retryStatusCodeRanges;
         this.requestLogStatusCodeRanges = requestLogStatusCodeRanges;
+        this.requestExecutor = requestParallelism > 1 ? Executors.newFixedThreadPool(requestParallelism) : null;
+        this.adaptiveConcurrencyMaxLimit = adaptiveConcurrencyMaxLimit;
     }
 
+    /**
+     * Send the prepared requests.
+     * <p>
+     * When the messages of every request are known, a failed request only fails its own messages and the other
+     * requests of the batch are still sent. Otherwise, or when every request failed, the first failure is thrown
+     * and the whole batch is failed as before.
+     *
+     * @return the messages of the requests that failed
+     * @throws Exception {@link NeedToRetry} when a response has a retryable status code
+     */
     @Override
     public List<Message> execute() throws Exception {
-        HttpResponse response = null;
+        boolean requestMessagesKnown = httpRequestMessages.size() == httpRequests.size();
+        List<Exception> failures = requestExecutor == null || httpRequests.size() <= 1
+                ? executeInSequence(!requestMessagesKnown)
+                : executeInParallel();
+        List<Message> failedMessages = new ArrayList<>();
+        Exception firstFailure = null;
+        for (int i = 0; i < failures.size(); i++) {
+            Exception failure = failures.get(i);
+            if (failure == null) {
+                continue;
+            }
+            firstFailure = firstFailure == null ? failure : firstFailure;
+            if (requestMessagesKnown) {
+                for (Message message : httpRequestMessages.get(i)) {
+                    message.setErrorInfo(new ErrorInfo(failure, ErrorType.DEFAULT_ERROR));
+                    failedMessages.add(message);
+                }
+            }
+        }
+        if (firstFailure != null && (!requestMessagesKnown || failures.stream().allMatch(Objects::nonNull))) {
+            throw firstFailure;
+        }
+        if (!failedMessages.isEmpty()) {
+            getFirehoseInstrumentation().logWarn("{} of {} requests failed", failures.stream().filter(Objects::nonNull).count(), failures.size());
+        }
+        return failedMessages;
+    }
+
+    /**
+     * @return the failure of every sent request, null for the ones that went through
+     */
+    private List<Exception> executeInSequence(boolean stopOnFailure) throws NeedToRetry, IOException {
+        List<Exception> failures = new ArrayList<>();
         for (HttpEntityEnclosingRequestBase httpRequest : httpRequests) {
             try {
-                response = httpClient.execute(httpRequest);
-                List<String> contentStringList = null;
-                getFirehoseInstrumentation().logInfo("Response Status: {}", statusCode(response));
-                if (shouldLogResponse(response)) {
-                    printResponse(response);
+                executeRequest(httpRequest);
+                failures.add(null);
+            } catch (NeedToRetry | IOException e) {
+                if (stopOnFailure) {
+                    throw e;
                 }
-                if (shouldLogRequest(response)) {
-                    contentStringList = readContent(httpRequest);
-                    printRequest(httpRequest, contentStringList);
-                }
-                if (shouldRetry(response)) {
-                    throw new NeedToRetry(statusCode(response));
-                } else if (!Pattern.compile(SUCCESS_CODE_PATTERN).matcher(String.valueOf(response.getStatusLine().getStatusCode())).matches()) {
-                    contentStringList = contentStringList == null ? readContent(httpRequest) : contentStringList;
-                    captureMessageDropCount(response, contentStringList);
+                failures.add(e);
+            }
+        }
+        return failures;
+    }
+
+    private List<Exception> executeInParallel() throws Exception {
+        List<Future<Void>> futures = new ArrayList<>();
+        for (HttpEntityEnclosingRequestBase httpRequest : httpRequests) {
+            futures.add(requestExecutor.submit(() -> {
+                executeRequest(httpRequest);
+                return null;
+            }));
+        }
+        List<Exception> failures = new ArrayList<>();
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+                failures.add(null);
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof NeedToRetry || e.getCause() instanceof IOException)) {
+                    futures.forEach(f -> f.cancel(true));
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
                 }
-            } finally {
-                consumeResponse(response);
-                captureHttpStatusCount(response);
+                failures.add((Exception) e.getCause());
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                throw e;
+            }
+        }
+        return failures;
+    }
+
+    private void executeRequest(HttpEntityEnclosingRequestBase httpRequest) throws IOException, NeedToRetry {
+        AdaptiveConcurrencyLimiter limiter = adaptiveConcurrencyMaxLimit > 0
+                ? AdaptiveConcurrencyLimiter.forEndpoint(httpRequest.getURI(), adaptiveConcurrencyMaxLimit)
+                : null;
+        long startNanos = limiter == null ? 0 : acquire(limiter);
+        HttpResponse response = null;
+        boolean timedOut = false;
+        try {
+            response = httpClient.execute(httpRequest);
+            List<String> contentStringList = null;
+            getFirehoseInstrumentation().logInfo("Response Status: {}", statusCode(response));
+            if (shouldLogResponse(response)) {
+                printResponse(response);
+            }
+            if (shouldLogRequest(response)) {
+                contentStringList = readContent(httpRequest);
+                printRequest(httpRequest, contentStringList);
+            }
+            if (shouldRetry(response)) {
+                throw new NeedToRetry(statusCode(response));
+            } else if (!Pattern.compile(SUCCESS_CODE_PATTERN).matcher(String.valueOf(response.getStatusLine().getStatusCode())).matches()) {
+                contentStringList = contentStringList == null ? readContent(httpRequest) : contentStringList;
+                captureMessageDropCount(response, contentStringList);
             }
+        } catch (ConnectionPoolTimeoutException e) {
+            // waiting for a pooled connection says nothing about the load of the endpoint
+            throw e;
+        } catch (SocketTimeoutException | ConnectTimeoutException e) {
+            timedOut = true;
+            throw e;
+        } finally {
+            if (limiter != null) {
+                release(limiter, startNanos, httpRequest, response, timedOut);
+            }
+            consumeResponse(response);
+            captureHttpStatusCount(response);
         }
-        return new ArrayList<>();
+    }
+
+    private long acquire(AdaptiveConcurrencyLimiter limiter) throws InterruptedIOException {
+        try {
+            return limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the concurrency limit");
+        }
+    }
+
+    private void release(AdaptiveConcurrencyLimiter limiter, long startNanos, HttpEntityEnclosingRequestBase httpRequest, HttpResponse response, boolean timedOut) {
+        int statusCode = response != null && response.getStatusLine() != null ? response.getStatusLine().getStatusCode() : 0;
+        if (timedOut || statusCode == TOO_MANY_REQUESTS || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE) {
+            Header retryAfter = response == null ? null : response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+            limiter.onThrottled(startNanos, AdaptiveConcurrencyLimiter.parseRetryAfterMillis(retryAfter == null ? null : retryAfter.getValue()));
+        } else if (statusCode >= HttpStatus.SC_OK && statusCode < HttpStatus.SC_MULTIPLE_CHOICES) {
+            limiter.onSuccess(startNanos);
+        } else {
+            limiter.onIgnored();
+        }
+        getFirehoseInstrumentation().captureValue(Metrics.SINK_HTTP_CONCURRENCY_LIMIT, limiter.getLimit(),
+                String.format(Metrics.SINK_HTTP_HOST_TAG, httpRequest.getURI().getHost()));
     }
 
     @Override
     public void close() throws IOException {
         getFirehoseInstrumentation().logInfo("HTTP connection closing");
         getHttpRequests().clear();
+        httpRequestMessages.clear();
         getStencilClient().close();
+        if (requestExecutor != null) {
+            requestExecutor.shutdownNow();
+        }
     }
 
 
@@ -137,8 +314,20 @@ public abstract class AbstractHttpSink extends AbstractSink {
     protected abstract void captureMessageDropCount(HttpResponse response, List<String> contentString) throws IOException;
 
     public void setHttpRequests(List<HttpEntityEnclosingRequestBase> httpRequests) {
+        setHttpRequests(httpRequests, Collections.emptyList());
+    }
+
+    /**
+     * Sets the requests to send with the messages each of them carries.
+     *
+     * @param httpRequests        the requests
+     * @param httpRequestMessages the messages of every request, in request order
+     */
+    public void setHttpRequests(List<HttpEntityEnclosingRequestBase> httpRequests, List<List<Message>> httpRequestMessages) {
         this.httpRequests.clear();
         this.httpRequests.addAll(httpRequests);
+        this.httpRequestMessages.clear();
+        this.httpRequestMessages.addAll(httpRequestMessages);
     }
 
     public List<HttpEntityEnclosingRequestBase> getHttpRequests() {
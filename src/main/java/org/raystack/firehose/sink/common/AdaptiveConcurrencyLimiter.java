@@ -0,0 +1,156 @@
+package org.raystack.firehose.sink.common;
+
+import org.apache.http.client.utils.DateUtils;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the requests in flight to one endpoint with additive increase and multiplicative decrease.
+ * <p>
+ * The limit is halved when the endpoint throttles or times out, and no request is sent before the
+ * Retry-After of the endpoint has passed. While responses come back within twice the baseline latency,
+ * the limit grows by about one per round of requests, probing for the highest sustainable concurrency.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final Map<String, AdaptiveConcurrencyLimiter> SHARED_LIMITERS = new ConcurrentHashMap<>();
+    private static final double MIN_LIMIT = 1.0;
+    private static final double DECREASE_RATIO = 0.5;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final int BASELINE_LATENCY_DRIFT = 100;
+    private static final long MIN_LATENCY_SLACK_NANOS = 1_000_000L;
+    private static final long MAX_RETRY_AFTER_MILLIS = 300_000L;
+
+    private final double maxLimit;
+    private double limit;
+    private int inFlight;
+    private long baselineLatencyNanos = Long.MAX_VALUE;
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+    private long pausedUntilMillis;
+
+    /**
+     * Instantiates a new limiter starting at its maximum limit.
+     *
+     * @param maxLimit the maximum number of requests in flight
+     */
+    public AdaptiveConcurrencyLimiter(int maxLimit) {
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("Maximum concurrency limit must be at least 1");
+        }
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Limiter shared by every sink of the JVM sending to the scheme, host and port of the uri.
+     *
+     * @param uri      the request uri
+     * @param maxLimit the maximum number of requests in flight, used when the limiter is created
+     * @return the shared limiter
+     */
+    public static AdaptiveConcurrencyLimiter forEndpoint(URI uri, int maxLimit) {
+        return SHARED_LIMITERS.computeIfAbsent(uri.getScheme() + "://" + uri.getRawAuthority(),
+                endpoint -> new AdaptiveConcurrencyLimiter(maxLimit));
+    }
+
+    /**
+     * Wait until a request may be sent.
+     *
+     * @return the start time of the request, to pass back when it completes
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized long acquire() throws InterruptedException {
+        while (true) {
+            long pauseMillis = pausedUntilMillis - System.currentTimeMillis();
+            if (pauseMillis > 0) {
+                wait(pauseMillis);
+            } else if (inFlight >= (int) limit) {
+                wait();
+            } else {
+                break;
+            }
+        }
+        inFlight++;
+        return System.nanoTime();
+    }
+
+    /**
+     * The request went through, grow the limit while the latency stays close to the baseline.
+     *
+     * @param startNanos the start time returned by {@link #acquire()}
+     */
+    public synchronized void onSuccess(long startNanos) {
+        long latencyNanos = System.nanoTime() - startNanos;
+        if (latencyNanos < baselineLatencyNanos) {
+            baselineLatencyNanos = latencyNanos;
+        } else {
+            baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) / BASELINE_LATENCY_DRIFT;
+        }
+        boolean limitInUse = inFlight * 2 >= (int) limit;
+        double latencyLimitNanos = Math.max(baselineLatencyNanos * LATENCY_TOLERANCE, baselineLatencyNanos + MIN_LATENCY_SLACK_NANOS);
+        if (limitInUse && latencyNanos <= latencyLimitNanos) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        release();
+    }
+
+    /**
+     * The endpoint throttled the request or did not answer in time, shrink the limit once per round of
+     * requests and hold every request until the Retry-After has passed.
+     *
+     * @param startNanos       the start time returned by {@link #acquire()}
+     * @param retryAfterMillis time to wait before the next request, 0 when not given
+     */
+    public synchronized void onThrottled(long startNanos, long retryAfterMillis) {
+        if (startNanos >= lastDecreaseNanos) {
+            limit = Math.max(MIN_LIMIT, limit * DECREASE_RATIO);
+            lastDecreaseNanos = System.nanoTime();
+        }
+        if (retryAfterMillis > 0) {
+            pausedUntilMillis = Math.max(pausedUntilMillis,
+                    System.currentTimeMillis() + Math.min(retryAfterMillis, MAX_RETRY_AFTER_MILLIS));
+        }
+        release();
+    }
+
+    /**
+     * The request completed without a signal about the load of the endpoint.
+     */
+    public synchronized void onIgnored() {
+        release();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Parse a Retry-After header given in seconds or as an HTTP date.
+     *
+     * @param retryAfter the header value, may be null
+     * @return the time to wait in millis, 0 when absent or invalid
+     */
+    public static long parseRetryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return 0;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date == null ? 0 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+}
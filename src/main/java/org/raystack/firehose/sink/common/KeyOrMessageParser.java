@@ -2,6 +2,7 @@ package org.raystack.firehose.sink.common;
 
 
 import org.raystack.firehose.config.AppConfig;
+import org.raystack.firehose.message.DecodedPayload;
 import org.raystack.firehose.message.Message;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -20,7 +21,7 @@ public class KeyOrMessageParser {
     private AppConfig appConfig;
 
     /**
-     * Parse dynamic message.
+     * Parse dynamic message, reusing the decode cached on the message.
      *
      * @param message the message
      * @return the dynamic message
@@ -28,14 +29,14 @@ public class KeyOrMessageParser {
      */
     public DynamicMessage parse(Message message) throws IOException {
         if (appConfig.getKafkaRecordParserMode().equals("key")) {
-            return protoParse(message.getLogKey());
+            return protoParse(message.getDecodedLogKey());
         }
-        return protoParse(message.getLogMessage());
+        return protoParse(message.getDecodedLogMessage());
     }
 
-    private DynamicMessage protoParse(byte[] data) throws IOException {
+    private DynamicMessage protoParse(DecodedPayload payload) throws IOException {
         try {
-            return protoParser.parse(data);
+            return payload.parse(appConfig.getInputSchemaProtoClass(), protoParser);
         } catch (InvalidProtocolBufferException e) {
             throw new IOException(e);
         }
@@ -2,6 +2,7 @@ package org.raystack.firehose.sink.common.blobstorage.gcs;
 
 import com.google.api.gax.retrying.RetrySettings;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Bucket;
@@ -19,12 +20,17 @@ import org.threeten.bp.Duration;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Date;
 
 public class GoogleCloudStorage implements BlobStorage {
     private static final Logger LOGGER = LoggerFactory.getLogger(GoogleCloudStorage.class);
+    private static final int BUFFER_SIZE = 256 * 1024;
     private final GCSConfig gcsConfig;
     private final Storage storage;
 
@@ -35,7 +41,16 @@ public class GoogleCloudStorage implements BlobStorage {
     }
 
     public GoogleCloudStorage(GCSConfig gcsConfig, GoogleCredentials credentials) {
-        this(gcsConfig, StorageOptions.newBuilder()
+        this(gcsConfig, createStorageOptions(gcsConfig, credentials).getService());
+    }
+
+    public GoogleCloudStorage(GCSConfig gcsConfig, Storage storage) {
+        this.gcsConfig = gcsConfig;
+        this.storage = storage;
+    }
+
+    private static StorageOptions createStorageOptions(GCSConfig gcsConfig, GoogleCredentials credentials) {
+        StorageOptions.Builder builder = StorageOptions.newBuilder()
                 .setProjectId(gcsConfig.getGCloudProjectID())
                 .setCredentials(credentials)
                 .setRetrySettings(RetrySettings.newBuilder()
@@ -47,13 +62,11 @@ public class GoogleCloudStorage implements BlobStorage {
                         .setInitialRpcTimeout(Duration.ofMillis(gcsConfig.getGCSRetryInitialRPCTimeoutMS()))
                         .setRpcTimeoutMultiplier(gcsConfig.getGCSRetryRPCTimeoutMultiplier())
                         .setMaxRpcTimeout(Duration.ofMillis(gcsConfig.getGCSRetryRPCMaxTimeoutMS()))
-                        .build())
-                .build().getService());
-    }
-
-    public GoogleCloudStorage(GCSConfig gcsConfig, Storage storage) {
-        this.gcsConfig = gcsConfig;
-        this.storage = storage;
+                        .build());
+        if (gcsConfig.getGCSHost() != null && !gcsConfig.getGCSHost().isEmpty()) {
+            builder.setHost(gcsConfig.getGCSHost());
+        }
+        return builder.build();
     }
 
     private void checkBucket() {
@@ -82,15 +95,50 @@ public class GoogleCloudStorage implements BlobStorage {
         }
     }
 
+    /**
+     * Stores a file, in a single request below {@code GCS_UPLOAD_CHUNK_SIZE_BYTES} and otherwise as a resumable
+     * upload sending one chunk at a time, so the file is never held in memory.
+     */
     @Override
     public void store(String objectName, String filePath) throws BlobStorageException {
+        Path path = Paths.get(filePath);
         try {
-            byte[] content = Files.readAllBytes(Paths.get(filePath));
-            store(objectName, content);
+            if (Files.size(path) < gcsConfig.getGCSUploadChunkSizeBytes()) {
+                store(objectName, Files.readAllBytes(path));
+                return;
+            }
         } catch (IOException e) {
             LOGGER.error("Failed to read local file {}", filePath);
             throw new BlobStorageException("file_io_error", "File Read failed", e);
         }
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(gcsConfig.getGCSBucketName(), objectName)).build();
+        String blobPath = String.join(File.separator, blobInfo.getBucket(), blobInfo.getName());
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // closing the channel completes the upload, so it is left open when the upload fails
+            WriteChannel writeChannel = storage.writer(blobInfo, Storage.BlobWriteOption.userProject(gcsConfig.getGCloudProjectID()));
+            writeChannel.setChunkSize(gcsConfig.getGCSUploadChunkSizeBytes());
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (fileChannel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    writeChannel.write(buffer);
+                }
+                buffer.clear();
+            }
+            writeChannel.close();
+        } catch (StorageException e) {
+            LOGGER.error("Failed to create object in GCS {}", blobPath);
+            String gcsErrorType = GCSErrorType.valueOfCode(e.getCode()).name();
+            throw new BlobStorageException(gcsErrorType, "GCS Upload failed", e);
+        } catch (IOException e) {
+            LOGGER.error("Failed to create object in GCS {}", blobPath);
+            if (e.getCause() instanceof StorageException) {
+                String gcsErrorType = GCSErrorType.valueOfCode(((StorageException) e.getCause()).getCode()).name();
+                throw new BlobStorageException(gcsErrorType, "GCS Upload failed", e.getCause());
+            }
+            throw new BlobStorageException("file_io_error", "GCS Upload failed", e);
+        }
+        LOGGER.info("Created object in GCS {}", blobPath);
     }
 
     @Override
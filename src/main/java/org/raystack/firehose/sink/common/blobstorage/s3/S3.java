@@ -1,6 +1,7 @@
 package org.raystack.firehose.sink.common.blobstorage.s3;
 
 
+import com.google.common.io.ByteStreams;
 import org.raystack.firehose.config.S3Config;
 import org.raystack.firehose.sink.common.blobstorage.BlobStorage;
 import org.raystack.firehose.sink.common.blobstorage.BlobStorageException;
@@ -8,29 +9,77 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
 import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * S3 blob storage.
+ * <p>
+ * Files from {@code S3_MULTIPART_THRESHOLD_BYTES} are uploaded in parts, read from the file while they are sent,
+ * so uploads do not hold files in memory. The parts of all uploads are sent by a pool of
+ * {@code S3_MULTIPART_UPLOAD_THREADS} threads.
+ */
 public class S3 implements BlobStorage {
     private static final Logger LOGGER = LoggerFactory.getLogger(S3.class);
+    private static final int MAX_PART_COUNT = 10000;
+    private static final String CONTENT_TYPE = "application/octet-stream";
+
     private final S3Client s3Client;
     private final S3Config s3Config;
+    private final ExecutorService partUploadExecutor;
 
     public S3(S3Config s3Config) {
-        this(s3Config, S3Client.builder()
+        this(s3Config, createClient(s3Config));
+        checkBucket();
+    }
+
+    public S3(S3Config s3Config, S3Client s3Client) {
+        this.s3Client = s3Client;
+        this.s3Config = s3Config;
+        this.partUploadExecutor = Executors.newFixedThreadPool(s3Config.getS3MultipartUploadThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "s3-part-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static S3Client createClient(S3Config s3Config) {
+        S3ClientBuilder builder = S3Client.builder()
                 .region(Region.of(s3Config.getS3Region()))
                 .overrideConfiguration(ClientOverrideConfiguration.builder()
                         .retryPolicy(RetryPolicy.builder()
@@ -42,14 +91,12 @@ public class S3 implements BlobStorage {
                                 .build())
                         .apiCallTimeout(Duration.ofMillis(s3Config.getS3ApiTimeout()))
                         .apiCallAttemptTimeout(Duration.ofMillis(s3Config.getS3ApiAttemptTimeout()))
-                        .build())
-                .build());
-        checkBucket();
-    }
-
-    public S3(S3Config s3Config, S3Client s3Client) {
-        this.s3Client = s3Client;
-        this.s3Config = s3Config;
+                        .build());
+        if (s3Config.getS3Endpoint() != null && !s3Config.getS3Endpoint().isEmpty()) {
+            builder.endpointOverride(URI.create(s3Config.getS3Endpoint()))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        }
+        return builder.build();
     }
 
     private void checkBucket() {
@@ -72,13 +119,112 @@ public class S3 implements BlobStorage {
 
     @Override
     public void store(String objectName, String filePath) throws BlobStorageException {
+        Path path = Paths.get(filePath);
+        long size;
         try {
-            byte[] content = Files.readAllBytes(Paths.get(filePath));
-            store(objectName, content);
+            size = Files.size(path);
         } catch (IOException e) {
             LOGGER.error("Failed to read local file {}", filePath);
             throw new BlobStorageException("file_io_error", "File Read failed", e);
         }
+        try {
+            if (size < s3Config.getS3MultipartThresholdBytes()) {
+                PutObjectRequest putObject = PutObjectRequest.builder()
+                        .bucket(s3Config.getS3BucketName())
+                        .key(objectName)
+                        .build();
+                s3Client.putObject(putObject, RequestBody.fromFile(path));
+            } else {
+                storeMultipart(objectName, path, size);
+            }
+            LOGGER.info("Created object in S3 {}", objectName);
+        } catch (SdkException ase) {
+            LOGGER.error("Failed to create object in S3 {}", objectName);
+            throw new BlobStorageException(ase.getMessage(), ase.getMessage(), ase);
+        } catch (UncheckedIOException e) {
+            LOGGER.error("Failed to read local file {}", filePath);
+            throw new BlobStorageException("file_io_error", "File Read failed", e.getCause());
+        }
+    }
+
+    private void storeMultipart(String objectName, Path path, long size) throws BlobStorageException {
+        String bucketName = s3Config.getS3BucketName();
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(objectName)
+                .build()).uploadId();
+        long partSize = Math.max(s3Config.getS3MultipartPartSizeBytes(), (size + MAX_PART_COUNT - 1) / MAX_PART_COUNT);
+        List<Future<CompletedPart>> partUploads = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize) {
+                long partOffset = offset;
+                long partLength = Math.min(partSize, size - offset);
+                int currentPartNumber = partNumber++;
+                partUploads.add(partUploadExecutor.submit(() -> uploadPart(objectName, uploadId, currentPartNumber, path, partOffset, partLength)));
+            }
+            List<CompletedPart> completedParts = new ArrayList<>();
+            for (Future<CompletedPart> partUpload : partUploads) {
+                completedParts.add(partUpload.get());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectName)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipart(objectName, uploadId, partUploads);
+            throw new BlobStorageException("interrupted", "S3 Upload interrupted", e);
+        } catch (ExecutionException e) {
+            abortMultipart(objectName, uploadId, partUploads);
+            if (e.getCause() instanceof SdkException) {
+                throw (SdkException) e.getCause();
+            }
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw (UncheckedIOException) e.getCause();
+            }
+            throw new BlobStorageException("unknown", "S3 Upload failed", e.getCause());
+        } catch (SdkException e) {
+            abortMultipart(objectName, uploadId, partUploads);
+            throw e;
+        }
+    }
+
+    private CompletedPart uploadPart(String objectName, String uploadId, int partNumber, Path path, long offset, long length) {
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(s3Config.getS3BucketName())
+                .key(objectName)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(length)
+                .build();
+        String eTag = s3Client.uploadPart(uploadPartRequest,
+                RequestBody.fromContentProvider(() -> openPart(path, offset, length), length, CONTENT_TYPE)).eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    private static InputStream openPart(Path path, long offset, long length) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ).position(offset);
+            return ByteStreams.limit(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void abortMultipart(String objectName, String uploadId, List<Future<CompletedPart>> partUploads) {
+        partUploads.forEach(partUpload -> partUpload.cancel(true));
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(s3Config.getS3BucketName())
+                    .key(objectName)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (SdkException e) {
+            LOGGER.warn("Failed to abort multipart upload of {}", objectName, e);
+        }
     }
 
     @Override
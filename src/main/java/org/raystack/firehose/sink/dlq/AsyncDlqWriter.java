@@ -0,0 +1,212 @@
+package org.raystack.firehose.sink.dlq;
+
+import org.raystack.firehose.config.DlqConfig;
+import org.raystack.firehose.consumer.kafka.OffsetManager;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.metrics.Metrics;
+import org.raystack.firehose.sinkdecorator.BackOffProvider;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.raystack.firehose.metrics.Metrics.DLQ_MESSAGES_TOTAL;
+import static org.raystack.firehose.metrics.Metrics.DLQ_QUEUED_MESSAGES;
+
+/**
+ * Writes DLQ messages on a dedicated thread, so sink threads do not wait for the DLQ round trip.
+ * <p>
+ * Messages are queued, up to a capacity, and written by the wrapped writer in batches gathering the queued
+ * messages of all sinks, retried with back-off up to {@code DLQ_RETRY_MAX_ATTEMPTS}. Their offsets are held in
+ * the {@link OffsetManager} until the write is acknowledged, so a message is committed only once it is in the DLQ.
+ * A sink thread writing to a full queue waits for room.
+ * <p>
+ * When a write fails after the maximum attempts and {@code DLQ_RETRY_FAIL_AFTER_MAX_ATTEMPT_ENABLE} is set,
+ * the offsets stay held and the next write throws. Otherwise the failed messages are logged and released.
+ */
+public class AsyncDlqWriter implements DlqWriter {
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+
+    private final DlqWriter writer;
+    private final OffsetManager offsetManager;
+    private final BackOffProvider backOffProvider;
+    private final DlqConfig dlqConfig;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final ExecutorService writerExecutor;
+    private final BlockingQueue<PendingWrite> pendingWrites = new LinkedBlockingQueue<>();
+    private final Semaphore queueBudget;
+    private final AtomicInteger queuedMessageCount = new AtomicInteger();
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final AtomicReference<Exception> writeFailure = new AtomicReference<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    /**
+     * Instantiates a new Async dlq writer and starts its writer thread.
+     *
+     * @param writer                  the writer to the DLQ
+     * @param offsetManager           offset manager holding the offsets of queued messages
+     * @param backOffProvider         back-off between attempts
+     * @param dlqConfig               the dlq config
+     * @param queueCapacity           the maximum number of queued messages
+     * @param maxBatchSize            the maximum number of messages written at once
+     * @param firehoseInstrumentation the instrumentation
+     * @param writerExecutor          executor running the writer thread
+     */
+    public AsyncDlqWriter(DlqWriter writer, OffsetManager offsetManager, BackOffProvider backOffProvider, DlqConfig dlqConfig,
+                          int queueCapacity, int maxBatchSize, FirehoseInstrumentation firehoseInstrumentation, ExecutorService writerExecutor) {
+        if (queueCapacity < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("DLQ queue capacity and batch size must be at least 1");
+        }
+        this.writer = writer;
+        this.offsetManager = offsetManager;
+        this.backOffProvider = backOffProvider;
+        this.dlqConfig = dlqConfig;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.writerExecutor = writerExecutor;
+        this.queueBudget = new Semaphore(queueCapacity);
+        writerExecutor.submit(this::writePendingMessages);
+    }
+
+    /**
+     * Queues the messages for the writer thread.
+     *
+     * @param messages messages to write to the DLQ
+     * @return an empty list, failures are handled by the writer thread
+     * @throws IOException if a previous write failed or the wait for room is interrupted
+     */
+    @Override
+    public List<Message> write(List<Message> messages) throws IOException {
+        throwIfFailed();
+        List<Message> failedMessages = new ArrayList<>();
+        if (messages.isEmpty()) {
+            return failedMessages;
+        }
+        int permits = Math.min(messages.size(), queueCapacity);
+        acquireBudget(permits);
+        String key = "dlq-" + writeSequence.incrementAndGet();
+        offsetManager.holdOffsets(key, messages);
+        pendingWrites.add(new PendingWrite(key, new ArrayList<>(messages), permits));
+        firehoseInstrumentation.captureValue(DLQ_QUEUED_MESSAGES, queuedMessageCount.addAndGet(messages.size()));
+        return failedMessages;
+    }
+
+    private void acquireBudget(int permits) throws IOException {
+        try {
+            while (!queueBudget.tryAcquire(permits, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throwIfFailed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to queue messages for DLQ");
+        }
+    }
+
+    private void throwIfFailed() throws IOException {
+        Exception failure = writeFailure.get();
+        if (failure != null) {
+            throw new IOException("exhausted maximum number of allowed retry attempts to write messages to DLQ", failure);
+        }
+    }
+
+    private void writePendingMessages() {
+        while (running) {
+            List<PendingWrite> batch = new ArrayList<>();
+            try {
+                PendingWrite first = pendingWrites.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            List<Message> messages = new ArrayList<>(batch.get(0).messages);
+            PendingWrite next;
+            while (messages.size() < maxBatchSize && (next = pendingWrites.poll()) != null) {
+                batch.add(next);
+                messages.addAll(next.messages);
+            }
+            try {
+                List<Message> failedMessages = writeWithRetry(messages);
+                if (!failedMessages.isEmpty()) {
+                    firehoseInstrumentation.logWarn("failed to be processed by DLQ messages: {}", failedMessages.size());
+                    failedMessages.forEach(m -> firehoseInstrumentation.captureMessageMetrics(DLQ_MESSAGES_TOTAL, Metrics.MessageType.FAILURE, m.getErrorInfo().getErrorType(), 1));
+                    if (dlqConfig.getDlqRetryFailAfterMaxAttemptEnable()) {
+                        throw new IOException(failedMessages.size() + " messages could not be written to DLQ");
+                    }
+                }
+            } catch (Exception e) {
+                firehoseInstrumentation.logError("DLQ write failed: {}", e.getMessage());
+                writeFailure.compareAndSet(null, e);
+                running = false;
+                return;
+            }
+            for (PendingWrite pendingWrite : batch) {
+                offsetManager.releaseOffsets(pendingWrite.key);
+                queueBudget.release(pendingWrite.permits);
+            }
+            firehoseInstrumentation.captureValue(DLQ_QUEUED_MESSAGES, queuedMessageCount.addAndGet(-messages.size()));
+        }
+    }
+
+    private List<Message> writeWithRetry(List<Message> messages) throws IOException {
+        List<Message> retryQueueMessages = messages;
+        int attemptCount = 1;
+        while (attemptCount <= dlqConfig.getDlqRetryMaxAttempts() && !retryQueueMessages.isEmpty()) {
+            retryQueueMessages = writer.write(retryQueueMessages);
+            if (!retryQueueMessages.isEmpty()) {
+                backOffProvider.backOff(attemptCount);
+            }
+            attemptCount++;
+        }
+        return retryQueueMessages;
+    }
+
+    public int getQueuedMessageCount() {
+        return queuedMessageCount.get();
+    }
+
+    /**
+     * Stops the writer thread, queued messages are left uncommitted.
+     *
+     * @throws IOException if the wrapped writer fails to close
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        running = false;
+        writerExecutor.shutdownNow();
+        writer.close();
+    }
+
+    private static final class PendingWrite {
+        private final String key;
+        private final List<Message> messages;
+        private final int permits;
+
+        PendingWrite(String key, List<Message> messages, int permits) {
+            this.key = key;
+            this.messages = messages;
+            this.permits = permits;
+        }
+    }
+}
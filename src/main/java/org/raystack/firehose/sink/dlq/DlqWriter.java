@@ -2,10 +2,11 @@ package org.raystack.firehose.sink.dlq;
 
 import org.raystack.firehose.message.Message;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 
-public interface DlqWriter {
+public interface DlqWriter extends Closeable {
 
     /**
      * Method to write messages to dead letter queues destination.
@@ -14,4 +15,12 @@ public interface DlqWriter {
      * @throws IOException can be thrown for non retry able error
      */
     List<Message> write(List<Message> messages) throws IOException;
+
+    /**
+     * Method to release the resources of the writer, called once per sink using it.
+     * @throws IOException if the writer fails to close
+     */
+    @Override
+    default void close() throws IOException {
+    }
 }
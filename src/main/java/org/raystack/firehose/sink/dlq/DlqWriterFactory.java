@@ -2,10 +2,14 @@ package org.raystack.firehose.sink.dlq;
 
 import org.raystack.firehose.config.DlqConfig;
 import org.raystack.firehose.config.DlqKafkaProducerConfig;
+import org.raystack.firehose.exception.ConfigurationException;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.blob.writer.local.policy.SizeBasedRotatingPolicy;
+import org.raystack.firehose.sink.blob.writer.local.policy.TimeBasedRotatingPolicy;
 import org.raystack.firehose.sink.common.blobstorage.BlobStorage;
 import org.raystack.firehose.sink.common.blobstorage.BlobStorageFactory;
 import org.raystack.firehose.sink.dlq.blobstorage.BlobStorageDlqWriter;
+import org.raystack.firehose.sink.dlq.blobstorage.RollingBlobStorageDlqWriter;
 import org.raystack.firehose.sink.dlq.kafka.KafkaDlqWriter;
 import org.raystack.firehose.sink.dlq.log.LogDlqWriter;
 import org.raystack.firehose.utils.KafkaUtils;
@@ -15,7 +19,11 @@ import io.opentracing.contrib.kafka.TracingKafkaProducer;
 import org.aeonbits.owner.ConfigFactory;
 import org.apache.kafka.clients.producer.KafkaProducer;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.Executors;
 
 public class DlqWriterFactory {
 
@@ -41,6 +49,9 @@ public class DlqWriterFactory {
                     default:
                         throw new IllegalArgumentException("DLQ Blob Storage type " + dlqConfig.getBlobStorageType() + "is not supported");
                 }
+                if (dlqConfig.getDlqBlobStorageRollingFileEnable()) {
+                    return createRollingBlobStorageDlqWriter(configuration, dlqConfig, client);
+                }
                 BlobStorage blobStorage = BlobStorageFactory.createObjectStorage(dlqConfig.getBlobStorageType(), configuration);
                 return new BlobStorageDlqWriter(blobStorage);
             case LOG:
@@ -50,4 +61,22 @@ public class DlqWriterFactory {
                 throw new IllegalArgumentException("DLQ Writer type " + dlqConfig.getDlqWriterType() + " is not supported");
         }
     }
+
+    private static DlqWriter createRollingBlobStorageDlqWriter(Map<String, String> configuration, DlqConfig dlqConfig, StatsDReporter client) {
+        try {
+            return RollingBlobStorageDlqWriter.forDirectory(
+                    Paths.get(dlqConfig.getDlqBlobStorageLocalDirectory()),
+                    localDirectory -> new RollingBlobStorageDlqWriter(
+                            BlobStorageFactory.createObjectStorage(dlqConfig.getBlobStorageType(), configuration),
+                            localDirectory,
+                            dlqConfig.getDlqBlobStorageCompressionType(),
+                            Arrays.asList(
+                                    new SizeBasedRotatingPolicy(dlqConfig.getDlqBlobStorageLocalFileRotationMaxSizeBytes()),
+                                    new TimeBasedRotatingPolicy(dlqConfig.getDlqBlobStorageLocalFileRotationDurationMs())),
+                            new FirehoseInstrumentation(client, RollingBlobStorageDlqWriter.class),
+                            Executors.newScheduledThreadPool(dlqConfig.getDlqBlobStorageUploadThreads())));
+        } catch (IOException e) {
+            throw new ConfigurationException("DLQ local directory " + dlqConfig.getDlqBlobStorageLocalDirectory() + " is not usable", e);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package org.raystack.firehose.sink.dlq.blobstorage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.raystack.firehose.message.Message;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+
+/**
+ * Converts DLQ messages into the json lines stored in blob storage, partitioned by topic and consume date.
+ */
+@Slf4j
+class DlqMessageSerializer {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    String convertToString(Message message) {
+        try {
+            return objectMapper.writeValueAsString(new DlqMessage(
+                    Base64.getEncoder().encodeToString(message.getLogKey() == null ? "".getBytes() : message.getLogKey()),
+                    Base64.getEncoder().encodeToString(message.getLogMessage() == null ? "".getBytes() : message.getLogMessage()),
+                    message.getTopic(),
+                    message.getPartition(),
+                    message.getOffset(),
+                    message.getTimestamp(),
+                    message.getErrorInfo().toString()));
+        } catch (JsonProcessingException e) {
+            log.warn("Not able to convert message into json", e);
+            return "";
+        }
+    }
+
+    Path createPartition(Message message) {
+        LocalDate consumeLocalDate = LocalDate.from(Instant.ofEpochMilli(message.getConsumeTimestamp())
+                .atZone(ZoneId.of("UTC")));
+        String consumeDate = DateTimeFormatter.ISO_LOCAL_DATE.format(consumeLocalDate);
+        return Paths.get(message.getTopic(), consumeDate);
+    }
+}
@@ -0,0 +1,381 @@
+package org.raystack.firehose.sink.dlq.blobstorage;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.raystack.firehose.config.enums.DlqBlobStorageCompressionType;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.blob.writer.local.LocalFileMetadata;
+import org.raystack.firehose.sink.blob.writer.local.policy.WriterPolicy;
+import org.raystack.firehose.sink.common.blobstorage.BlobStorage;
+import org.raystack.firehose.sink.common.blobstorage.BlobStorageException;
+import org.raystack.firehose.sink.dlq.DlqWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.raystack.firehose.metrics.Metrics.DLQ_BLOB_STORAGE_PENDING_FILES;
+
+/**
+ * Appends DLQ messages as json lines into local files, one open file per topic and consume date,
+ * and uploads each file to blob storage once it is rotated.
+ * <p>
+ * Files are compressed while they are written and rotated by the given {@link WriterPolicy}s, checked on every
+ * write and periodically for idle files. A write is acknowledged once the lines are flushed and synced to disk.
+ * Rotated files are uploaded in the background and retried until they are stored. Files left in the local
+ * directory by a previous run are uploaded on start, the name of each object is its path in the local directory.
+ * <p>
+ * The writer owns every file of its local directory, so one writer per directory is shared by all consumers of the JVM
+ * through {@link #forDirectory(Path, Factory)}. This class is thread safe.
+ */
+public class RollingBlobStorageDlqWriter implements DlqWriter {
+    private static final int BUFFER_SIZE = 8192;
+    private static final long ROTATION_CHECK_INTERVAL_MILLIS = 1000;
+    private static final long UPLOAD_RETRY_DELAY_MILLIS = 10000;
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+    private static final Map<Path, SharedWriter> SHARED_WRITERS = new HashMap<>();
+
+    private final BlobStorage blobStorage;
+    private final Path localDirectory;
+    private final DlqBlobStorageCompressionType compressionType;
+    private final List<WriterPolicy> policies;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final ScheduledExecutorService uploadExecutor;
+    private final DlqMessageSerializer serializer = new DlqMessageSerializer();
+    private final Map<Path, RollingFile> openFiles = new HashMap<>();
+    private final Set<Path> pendingUploads = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Instantiates a new Rolling blob storage dlq writer, uploads files left by a previous run
+     * and starts checking files for rotation.
+     *
+     * @param blobStorage             the blob storage
+     * @param localDirectory          directory of the local files
+     * @param compressionType         compression of the local files
+     * @param policies                policies rotating the local files
+     * @param firehoseInstrumentation the instrumentation
+     * @param uploadExecutor          executor checking rotation and uploading files
+     * @throws IOException if the local directory can not be read
+     */
+    public RollingBlobStorageDlqWriter(BlobStorage blobStorage, Path localDirectory, DlqBlobStorageCompressionType compressionType,
+                                       List<WriterPolicy> policies, FirehoseInstrumentation firehoseInstrumentation,
+                                       ScheduledExecutorService uploadExecutor) throws IOException {
+        this.blobStorage = blobStorage;
+        this.localDirectory = localDirectory;
+        this.compressionType = compressionType;
+        this.policies = policies;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.uploadExecutor = uploadExecutor;
+        Files.createDirectories(localDirectory);
+        uploadLeftoverFiles();
+        uploadExecutor.scheduleAtFixedRate(this::rotateIdleFiles, ROTATION_CHECK_INTERVAL_MILLIS, ROTATION_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writer of the local directory shared by every consumer of the JVM, created on first use.
+     * The returned writer releases its share when closed, the shared writer is closed with the last share.
+     *
+     * @param localDirectory directory of the local files
+     * @param factory        creates the shared writer, files left by a previous run are only recovered by it
+     * @return a share of the writer of the directory
+     * @throws IOException if the writer can not be created
+     */
+    public static DlqWriter forDirectory(Path localDirectory, Factory factory) throws IOException {
+        Path key = localDirectory.toAbsolutePath().normalize();
+        synchronized (SHARED_WRITERS) {
+            SharedWriter sharedWriter = SHARED_WRITERS.get(key);
+            if (sharedWriter == null) {
+                sharedWriter = new SharedWriter(key, factory.create(key));
+                SHARED_WRITERS.put(key, sharedWriter);
+            }
+            sharedWriter.references++;
+            return new SharedWriterHandle(sharedWriter);
+        }
+    }
+
+    private static void release(SharedWriter sharedWriter) throws IOException {
+        synchronized (SHARED_WRITERS) {
+            if (--sharedWriter.references > 0) {
+                return;
+            }
+            SHARED_WRITERS.remove(sharedWriter.localDirectory);
+            // closed under the lock, so a new writer of the directory only starts once the files are uploaded
+            sharedWriter.writer.close();
+        }
+    }
+
+    @Override
+    public synchronized List<Message> write(List<Message> messages) throws IOException {
+        if (closed.get()) {
+            throw new IOException("DLQ writer is closed");
+        }
+        Map<Path, List<Message>> messagesByPartition = messages.stream().collect(Collectors.groupingBy(serializer::createPartition));
+        List<Message> failedMessages = new LinkedList<>();
+        for (Map.Entry<Path, List<Message>> entry : messagesByPartition.entrySet()) {
+            Path partition = entry.getKey();
+            List<Message> partitionedMessages = entry.getValue();
+            try {
+                RollingFile file = openFiles.get(partition);
+                if (file == null) {
+                    file = new RollingFile(localDirectory.resolve(partition).resolve(UUID.randomUUID() + fileExtension()));
+                    openFiles.put(partition, file);
+                }
+                file.append(partitionedMessages.stream().map(serializer::convertToString).collect(Collectors.toList()));
+                if (shouldRotate(file)) {
+                    rotate(openFiles.remove(partition));
+                }
+            } catch (IOException e) {
+                firehoseInstrumentation.logWarn("Failed to write DLQ messages into local file: {}", e.getMessage());
+                failedMessages.addAll(partitionedMessages);
+                RollingFile file = openFiles.remove(partition);
+                if (file != null) {
+                    rotate(file);
+                }
+            }
+        }
+        return failedMessages;
+    }
+
+    private boolean shouldRotate(RollingFile file) {
+        LocalFileMetadata metadata = file.getMetadata();
+        return policies.stream().anyMatch(writerPolicy -> writerPolicy.shouldRotate(metadata));
+    }
+
+    private synchronized void rotateIdleFiles() {
+        try {
+            Iterator<RollingFile> iterator = openFiles.values().iterator();
+            while (iterator.hasNext()) {
+                RollingFile file = iterator.next();
+                if (shouldRotate(file)) {
+                    iterator.remove();
+                    rotate(file);
+                }
+            }
+        } catch (RuntimeException e) {
+            firehoseInstrumentation.logError("Failed to rotate DLQ files: {}", e.getMessage());
+        }
+    }
+
+    private void rotate(RollingFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            firehoseInstrumentation.logWarn("Failed to close DLQ file {}: {}", file.path, e.getMessage());
+        }
+        if (file.recordCount == 0) {
+            deleteQuietly(file.path);
+            return;
+        }
+        firehoseInstrumentation.logInfo("Rotated DLQ file {} with {} messages", file.path, file.recordCount);
+        submitUpload(file.path);
+    }
+
+    private void uploadLeftoverFiles() throws IOException {
+        List<Path> leftoverFiles;
+        try (Stream<Path> paths = Files.walk(localDirectory)) {
+            leftoverFiles = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path path : leftoverFiles) {
+            if (Files.size(path) == 0) {
+                deleteQuietly(path);
+            } else {
+                firehoseInstrumentation.logInfo("Uploading DLQ file {} left by a previous run", path);
+                submitUpload(path);
+            }
+        }
+    }
+
+    private void submitUpload(Path path) {
+        pendingUploads.add(path);
+        firehoseInstrumentation.captureValue(DLQ_BLOB_STORAGE_PENDING_FILES, pendingUploads.size());
+        uploadExecutor.submit(() -> upload(path));
+    }
+
+    private void upload(Path path) {
+        String objectName = localDirectory.relativize(path).toString();
+        try {
+            blobStorage.store(objectName, path.toString());
+        } catch (BlobStorageException | RuntimeException e) {
+            if (uploadExecutor.isShutdown()) {
+                firehoseInstrumentation.logWarn("Failed to upload DLQ file {}, it is uploaded on the next start: {}", path, e.getMessage());
+                return;
+            }
+            firehoseInstrumentation.logWarn("Failed to upload DLQ file {}, retrying in {} milliseconds: {}", path, UPLOAD_RETRY_DELAY_MILLIS, e.getMessage());
+            uploadExecutor.schedule(() -> upload(path), UPLOAD_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        deleteQuietly(path);
+        pendingUploads.remove(path);
+        firehoseInstrumentation.captureValue(DLQ_BLOB_STORAGE_PENDING_FILES, pendingUploads.size());
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            firehoseInstrumentation.logWarn("Failed to delete DLQ file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private String fileExtension() {
+        switch (compressionType) {
+            case NONE:
+                return ".ndjson";
+            case GZIP:
+                return ".ndjson.gz";
+            case ZSTD:
+                return ".ndjson.zst";
+            default:
+                throw new IllegalArgumentException("Unsupported compression type: " + compressionType);
+        }
+    }
+
+    public int getPendingUploadCount() {
+        return pendingUploads.size();
+    }
+
+    /**
+     * Rotates the open files and waits for the pending uploads, files not uploaded in time are uploaded on the next start.
+     *
+     * @throws IOException if interrupted while waiting for the uploads
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            for (RollingFile file : new ArrayList<>(openFiles.values())) {
+                rotate(file);
+            }
+            openFiles.clear();
+        }
+        uploadExecutor.shutdown();
+        try {
+            if (!uploadExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                firehoseInstrumentation.logWarn("{} DLQ files are uploaded on the next start", pendingUploads.size());
+                uploadExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            uploadExecutor.shutdownNow();
+            throw new IOException("Interrupted while uploading DLQ files", e);
+        }
+    }
+
+    private final class RollingFile {
+        private final Path path;
+        private final FileOutputStream fileStream;
+        private final OutputStream stream;
+        private final long createdTimestampMillis;
+        private long recordCount;
+
+        RollingFile(Path path) throws IOException {
+            Files.createDirectories(path.getParent());
+            this.path = path;
+            this.fileStream = new FileOutputStream(path.toFile());
+            this.stream = new BufferedOutputStream(compress(fileStream), BUFFER_SIZE);
+            this.createdTimestampMillis = System.currentTimeMillis();
+        }
+
+        private OutputStream compress(OutputStream outputStream) throws IOException {
+            switch (compressionType) {
+                case NONE:
+                    return outputStream;
+                case GZIP:
+                    return new GZIPOutputStream(outputStream, BUFFER_SIZE, true);
+                case ZSTD:
+                    return new ZstdOutputStream(outputStream);
+                default:
+                    throw new IllegalArgumentException("Unsupported compression type: " + compressionType);
+            }
+        }
+
+        void append(List<String> lines) throws IOException {
+            for (String line : lines) {
+                stream.write(line.getBytes(StandardCharsets.UTF_8));
+                stream.write('\n');
+            }
+            stream.flush();
+            fileStream.getFD().sync();
+            recordCount += lines.size();
+        }
+
+        LocalFileMetadata getMetadata() {
+            long size;
+            try {
+                size = fileStream.getChannel().size();
+            } catch (IOException e) {
+                size = 0;
+            }
+            return new LocalFileMetadata(localDirectory.toString(), path.toString(), createdTimestampMillis, recordCount, size);
+        }
+
+        void close() throws IOException {
+            stream.close();
+        }
+    }
+
+    /**
+     * Creates the writer of a local directory.
+     */
+    @FunctionalInterface
+    public interface Factory {
+        RollingBlobStorageDlqWriter create(Path localDirectory) throws IOException;
+    }
+
+    private static final class SharedWriter {
+        private final Path localDirectory;
+        private final RollingBlobStorageDlqWriter writer;
+        private int references;
+
+        SharedWriter(Path localDirectory, RollingBlobStorageDlqWriter writer) {
+            this.localDirectory = localDirectory;
+            this.writer = writer;
+        }
+    }
+
+    private static final class SharedWriterHandle implements DlqWriter {
+        private final SharedWriter sharedWriter;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        SharedWriterHandle(SharedWriter sharedWriter) {
+            this.sharedWriter = sharedWriter;
+        }
+
+        @Override
+        public List<Message> write(List<Message> messages) throws IOException {
+            if (released.get()) {
+                throw new IOException("DLQ writer is closed");
+            }
+            return sharedWriter.writer.write(messages);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released.compareAndSet(false, true)) {
+                release(sharedWriter);
+            }
+        }
+    }
+}
@@ -48,7 +48,7 @@ public class EsSinkFactory {
         firehoseInstrumentation.logDebug(esConfig);
         EsRequestHandler esRequestHandler = new EsRequestHandlerFactory(esSinkConfig, new FirehoseInstrumentation(statsDReporter, EsRequestHandlerFactory.class),
                 esSinkConfig.getSinkEsIdField(), esSinkConfig.getSinkEsInputMessageType(),
-                new MessageToJson(stencilClient.getParser(esSinkConfig.getInputSchemaProtoClass()), esSinkConfig.isSinkEsPreserveProtoFieldNamesEnable(), false),
+                new MessageToJson(stencilClient.getParser(esSinkConfig.getInputSchemaProtoClass()), esSinkConfig.getInputSchemaProtoClass(), esSinkConfig.isSinkEsPreserveProtoFieldNamesEnable(), false, false),
                 esSinkConfig.getSinkEsTypeName(),
                 esSinkConfig.getSinkEsIndexName(),
                 esSinkConfig.getSinkEsRoutingKeyName())
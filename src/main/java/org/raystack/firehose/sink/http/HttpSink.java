@@ -6,8 +6,11 @@ import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.metrics.Metrics;
 import org.raystack.firehose.sink.common.AbstractHttpSink;
+import org.raystack.firehose.sink.http.request.entity.CompressedEntity;
+import org.raystack.firehose.sink.http.request.entity.DelimitedProtoEntity;
 import org.raystack.firehose.sink.http.request.types.Request;
 import org.raystack.stencil.client.StencilClient;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
@@ -43,14 +46,46 @@ public class HttpSink extends AbstractHttpSink {
      * @param requestLogStatusCodeRanges the request log status code ranges
      */
     public HttpSink(FirehoseInstrumentation firehoseInstrumentation, Request request, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges) {
-        super(firehoseInstrumentation, "http", httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges);
+        this(firehoseInstrumentation, request, httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, 1);
+    }
+
+    /**
+     * Instantiates a new Http sink sending the requests of a batch in parallel.
+     *
+     * @param firehoseInstrumentation    the instrumentation
+     * @param request                    the request
+     * @param httpClient                 the http client
+     * @param stencilClient              the stencil client
+     * @param retryStatusCodeRanges      the retry status code ranges
+     * @param requestLogStatusCodeRanges the request log status code ranges
+     * @param requestParallelism         the maximum number of requests in flight
+     */
+    public HttpSink(FirehoseInstrumentation firehoseInstrumentation, Request request, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges, int requestParallelism) {
+        this(firehoseInstrumentation, request, httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, requestParallelism, 0);
+    }
+
+    /**
+     * Instantiates a new Http sink sending the requests of a batch in parallel, within the adaptive concurrency limit of the endpoint.
+     *
+     * @param firehoseInstrumentation     the instrumentation
+     * @param request                     the request
+     * @param httpClient                  the http client
+     * @param stencilClient               the stencil client
+     * @param retryStatusCodeRanges       the retry status code ranges
+     * @param requestLogStatusCodeRanges  the request log status code ranges
+     * @param requestParallelism          the maximum number of requests in flight
+     * @param adaptiveConcurrencyMaxLimit the maximum requests in flight to an endpoint across all sinks, 0 to disable the adaptive limit
+     */
+    public HttpSink(FirehoseInstrumentation firehoseInstrumentation, Request request, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges, int requestParallelism, int adaptiveConcurrencyMaxLimit) {
+        super(firehoseInstrumentation, "http", httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, requestParallelism, adaptiveConcurrencyMaxLimit);
         this.request = request;
     }
 
     @Override
     protected void prepare(List<Message> messages) throws DeserializerException, IOException {
         try {
-            setHttpRequests(request.build(messages));
+            List<List<Message>> requestMessages = new ArrayList<>();
+            setHttpRequests(request.build(messages, requestMessages), requestMessages);
         } catch (URISyntaxException e) {
             throw new IOException(e);
         }
@@ -61,7 +96,16 @@ public class HttpSink extends AbstractHttpSink {
         if (httpRequest.getMethod().equals("DELETE") && httpRequest.getEntity() == null) {
             return new ArrayList<>();
         }
-        try (InputStream inputStream = httpRequest.getEntity().getContent()) {
+        HttpEntity entity = httpRequest.getEntity();
+        if (entity instanceof CompressedEntity) {
+            entity = ((CompressedEntity) entity).getUncompressedEntity();
+        }
+        if (entity instanceof DelimitedProtoEntity) {
+            return ((DelimitedProtoEntity) entity).getRecords().stream()
+                    .map(record -> "{\"record_size\":" + record.length + "}")
+                    .collect(Collectors.toList());
+        }
+        try (InputStream inputStream = entity.getContent()) {
             return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)).lines().collect(Collectors.toList());
         }
     }
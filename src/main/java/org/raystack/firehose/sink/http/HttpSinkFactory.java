@@ -43,11 +43,13 @@ public class HttpSinkFactory {
         CloseableHttpClient closeableHttpClient = newHttpClient(httpSinkConfig, statsDReporter);
         firehoseInstrumentation.logInfo("HTTP connection established");
 
-        UriParser uriParser = new UriParser(stencilClient.getParser(httpSinkConfig.getInputSchemaProtoClass()), httpSinkConfig.getKafkaRecordParserMode());
+        UriParser uriParser = new UriParser(stencilClient.getParser(httpSinkConfig.getInputSchemaProtoClass()), httpSinkConfig.getKafkaRecordParserMode(),
+                httpSinkConfig.getInputSchemaProtoClass());
 
         Request request = new RequestFactory(statsDReporter, httpSinkConfig, stencilClient, uriParser).createRequest();
 
-        return new HttpSink(new FirehoseInstrumentation(statsDReporter, HttpSink.class), request, closeableHttpClient, stencilClient, httpSinkConfig.getSinkHttpRetryStatusCodeRanges(), httpSinkConfig.getSinkHttpRequestLogStatusCodeRanges());
+        return new HttpSink(new FirehoseInstrumentation(statsDReporter, HttpSink.class), request, closeableHttpClient, stencilClient, httpSinkConfig.getSinkHttpRetryStatusCodeRanges(), httpSinkConfig.getSinkHttpRequestLogStatusCodeRanges(), httpSinkConfig.getSinkHttpRequestParallelism(),
+                httpSinkConfig.getSinkHttpAdaptiveConcurrencyMaxLimit());
     }
 
     private static CloseableHttpClient newHttpClient(HttpSinkConfig httpSinkConfig, StatsDReporter statsDReporter) {
@@ -60,7 +62,7 @@ public class HttpSinkFactory {
         connectionManager.setDefaultMaxPerRoute(maxHttpConnections);
         HttpClientBuilder builder = HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig);
         if (httpSinkConfig.isSinkHttpOAuth2Enable()) {
-            OAuth2Credential oauth2 = new OAuth2Credential(
+            OAuth2Credential oauth2 = OAuth2Credential.shared(
                     new FirehoseInstrumentation(statsDReporter, OAuth2Credential.class),
                     httpSinkConfig.getSinkHttpOAuth2ClientName(),
                     httpSinkConfig.getSinkHttpOAuth2ClientSecret(),
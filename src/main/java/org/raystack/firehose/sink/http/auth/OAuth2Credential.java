@@ -15,30 +15,45 @@ import java.io.IOException;
  * Interceptor to add oauth token in http request.
  */
 public class OAuth2Credential implements Interceptor {
+    private static final String ACCESS_TOKEN_ATTRIBUTE = "oauth2.access_token";
 
-    private final OAuth2Client client;
-    private OAuth2AccessToken accessToken;
+    private final OAuth2TokenManager tokenManager;
     private FirehoseInstrumentation firehoseInstrumentation;
 
     public OAuth2Credential(FirehoseInstrumentation firehoseInstrumentation, String clientId, String clientSecret, String scope, String accessTokenEndpoint) {
+        this(firehoseInstrumentation, new OAuth2TokenManager(firehoseInstrumentation, new OAuth2Client(clientId, clientSecret, scope, accessTokenEndpoint)));
+    }
+
+    public OAuth2Credential(FirehoseInstrumentation firehoseInstrumentation, OAuth2TokenManager tokenManager) {
         this.firehoseInstrumentation = firehoseInstrumentation;
-        this.client = new OAuth2Client(clientId, clientSecret, scope, accessTokenEndpoint);
+        this.tokenManager = tokenManager;
+    }
+
+    /**
+     * Credential sharing its access token with every sink of the JVM using the same client credentials.
+     *
+     * @param firehoseInstrumentation the instrumentation
+     * @param clientId                the client id
+     * @param clientSecret            the client secret
+     * @param scope                   the scope
+     * @param accessTokenEndpoint     the access token endpoint
+     * @return the credential
+     */
+    public static OAuth2Credential shared(FirehoseInstrumentation firehoseInstrumentation, String clientId, String clientSecret, String scope, String accessTokenEndpoint) {
+        return new OAuth2Credential(firehoseInstrumentation,
+                OAuth2TokenManager.shared(firehoseInstrumentation, clientId, clientSecret, scope, accessTokenEndpoint));
     }
 
     public void requestAccessToken() throws IOException {
-        firehoseInstrumentation.logInfo("Requesting Access Token, expires in: {0}",
-                (this.accessToken == null ? "<none>" : this.accessToken.getExpiresIn()));
-        OAuth2AccessToken token = client.requestClientCredentialsGrantAccessToken();
-        setAccessToken(token);
+        tokenManager.requestAccessToken();
     }
 
     public HttpRequestInterceptor requestInterceptor() {
         return (request, context) -> {
             try {
-                if (getAccessToken() == null || getAccessToken().isExpired()) {
-                    requestAccessToken();
-                }
-                request.addHeader("Authorization", "Bearer " + getAccessToken().toString());
+                OAuth2AccessToken token = tokenManager.getAccessToken();
+                context.setAttribute(ACCESS_TOKEN_ATTRIBUTE, token);
+                request.addHeader("Authorization", "Bearer " + token.toString());
             } catch (IOException e) {
                 firehoseInstrumentation.logWarn("OAuth2 request access token failed: {0}", e.getMessage());
             }
@@ -49,7 +64,7 @@ public class OAuth2Credential implements Interceptor {
         return (response, context) -> {
             boolean isTokenExpired = response.getStatusLine().getStatusCode() == HttpStatus.SC_UNAUTHORIZED;
             if (isTokenExpired) {
-                setAccessToken(null);
+                tokenManager.invalidate((OAuth2AccessToken) context.getAttribute(ACCESS_TOKEN_ATTRIBUTE));
             }
         };
     }
@@ -59,21 +74,20 @@ public class OAuth2Credential implements Interceptor {
     }
 
     public OAuth2AccessToken getAccessToken() {
-        return accessToken;
+        return tokenManager.peekAccessToken();
     }
 
     public void setAccessToken(OAuth2AccessToken accessToken) {
-        this.accessToken = accessToken;
+        tokenManager.setAccessToken(accessToken);
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request request = chain.request();
+        OAuth2AccessToken token = null;
         try {
-            if (getAccessToken() == null || getAccessToken().isExpired()) {
-                requestAccessToken();
-            }
-            request = request.newBuilder().header("Authorization", "Bearer " + getAccessToken().toString()).build();
+            token = tokenManager.getAccessToken();
+            request = request.newBuilder().header("Authorization", "Bearer " + token.toString()).build();
         } catch (IOException e) {
             firehoseInstrumentation.logWarn("OAuth2 request access token failed: {0}", e.getMessage());
         }
@@ -81,9 +95,8 @@ public class OAuth2Credential implements Interceptor {
         Response response = chain.proceed(request);
         boolean isTokenExpired = response.code() == HttpStatus.SC_UNAUTHORIZED;
         if (isTokenExpired) {
-            setAccessToken(null);
+            tokenManager.invalidate(token);
         }
         return response;
     }
 }
-
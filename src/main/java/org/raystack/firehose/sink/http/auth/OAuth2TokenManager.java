@@ -0,0 +1,146 @@
+package org.raystack.firehose.sink.http.auth;
+
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps an OAuth2 access token fresh.
+ * Only one token request is in flight at a time, and the token is refreshed in the background
+ * before it expires so that requests do not wait for the token endpoint.
+ */
+public class OAuth2TokenManager {
+    private static final Map<List<String>, OAuth2TokenManager> SHARED_TOKEN_MANAGERS = new ConcurrentHashMap<>();
+    private static final long MIN_REFRESH_AHEAD_SECONDS = 120L;
+    private static final long RETRY_DELAY_SECONDS = 10L;
+
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final OAuth2Client client;
+    private final AtomicReference<OAuth2AccessToken> accessToken = new AtomicReference<>();
+    private final Object refreshLock = new Object();
+    private ScheduledExecutorService refreshScheduler;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public OAuth2TokenManager(FirehoseInstrumentation firehoseInstrumentation, OAuth2Client client) {
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.client = client;
+    }
+
+    /**
+     * Token manager shared by every sink of the JVM using the same client credentials.
+     *
+     * @param firehoseInstrumentation the instrumentation
+     * @param clientId                the client id
+     * @param clientSecret            the client secret
+     * @param scope                   the scope
+     * @param accessTokenEndpoint     the access token endpoint
+     * @return the shared token manager
+     */
+    public static OAuth2TokenManager shared(FirehoseInstrumentation firehoseInstrumentation, String clientId, String clientSecret, String scope, String accessTokenEndpoint) {
+        return SHARED_TOKEN_MANAGERS.computeIfAbsent(Arrays.asList(clientId, clientSecret, scope, accessTokenEndpoint),
+                key -> new OAuth2TokenManager(firehoseInstrumentation, new OAuth2Client(clientId, clientSecret, scope, accessTokenEndpoint)));
+    }
+
+    /**
+     * Current access token, requested first if there is none or it is about to expire.
+     *
+     * @return the access token
+     * @throws IOException if the token could not be requested
+     */
+    public OAuth2AccessToken getAccessToken() throws IOException {
+        OAuth2AccessToken token = accessToken.get();
+        if (isUsable(token)) {
+            return token;
+        }
+        synchronized (refreshLock) {
+            token = accessToken.get();
+            return isUsable(token) ? token : requestAccessToken();
+        }
+    }
+
+    /**
+     * Request a new access token, waiting for any token request already in flight.
+     *
+     * @return the new access token
+     * @throws IOException if the token could not be requested
+     */
+    public OAuth2AccessToken requestAccessToken() throws IOException {
+        synchronized (refreshLock) {
+            OAuth2AccessToken current = accessToken.get();
+            firehoseInstrumentation.logInfo("Requesting Access Token, expires in: {0}",
+                    (current == null ? "<none>" : current.getExpiresIn()));
+            OAuth2AccessToken token = client.requestClientCredentialsGrantAccessToken();
+            accessToken.set(token);
+            scheduleRefresh(refreshDelaySeconds(token.getExpiresIn()));
+            return token;
+        }
+    }
+
+    /**
+     * Drop the token rejected by the server, unless it was already replaced by a newer one.
+     *
+     * @param rejectedToken the token sent with the rejected request
+     */
+    public void invalidate(OAuth2AccessToken rejectedToken) {
+        if (rejectedToken != null) {
+            accessToken.compareAndSet(rejectedToken, null);
+        }
+    }
+
+    public OAuth2AccessToken peekAccessToken() {
+        return accessToken.get();
+    }
+
+    public void setAccessToken(OAuth2AccessToken token) {
+        accessToken.set(token);
+    }
+
+    private static boolean isUsable(OAuth2AccessToken token) {
+        return token != null && !token.isExpired();
+    }
+
+    /**
+     * Refresh once a quarter of the lifetime, and at least two minutes, is left,
+     * but never before half of the lifetime has passed, nor sooner than the retry delay
+     * so that short lived tokens do not refresh in a loop.
+     */
+    static long refreshDelaySeconds(long expiresIn) {
+        return Math.max(RETRY_DELAY_SECONDS, Math.max(expiresIn / 2, expiresIn - Math.max(MIN_REFRESH_AHEAD_SECONDS, expiresIn / 4)));
+    }
+
+    private void scheduleRefresh(long delaySeconds) {
+        synchronized (refreshLock) {
+            if (scheduledRefresh != null) {
+                scheduledRefresh.cancel(false);
+            }
+            if (refreshScheduler == null) {
+                refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "oauth2-token-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            scheduledRefresh = refreshScheduler.schedule(this::refreshInBackground, delaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private void refreshInBackground() {
+        try {
+            requestAccessToken();
+        } catch (IOException | RuntimeException e) {
+            firehoseInstrumentation.logWarn("OAuth2 background refresh of access token failed: {0}", e.getMessage());
+            if (isUsable(accessToken.get())) {
+                scheduleRefresh(RETRY_DELAY_SECONDS);
+            }
+        }
+    }
+}
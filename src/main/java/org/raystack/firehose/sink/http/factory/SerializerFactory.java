@@ -5,6 +5,7 @@ import org.raystack.firehose.config.enums.HttpSinkDataFormatType;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.serializer.JsonWrappedProtoByte;
 import org.raystack.firehose.serializer.MessageSerializer;
+import org.raystack.firehose.serializer.MessageToDelimitedProto;
 import org.raystack.firehose.serializer.MessageToJson;
 import org.raystack.firehose.serializer.MessageToTemplatizedJson;
 import org.raystack.depot.metrics.StatsDReporter;
@@ -24,6 +25,11 @@ public class SerializerFactory {
 
     public MessageSerializer build() {
         FirehoseInstrumentation firehoseInstrumentation = new FirehoseInstrumentation(statsDReporter, SerializerFactory.class);
+        if (httpSinkConfig.getSinkHttpDataFormat() == HttpSinkDataFormatType.BINARY) {
+            firehoseInstrumentation.logDebug("Serializer type: MessageToDelimitedProto");
+            return new MessageToDelimitedProto();
+        }
+
         if (isProtoSchemaEmpty() || httpSinkConfig.getSinkHttpDataFormat() == HttpSinkDataFormatType.PROTO) {
             firehoseInstrumentation.logDebug("Serializer type: JsonWrappedProtoByte");
             // Fallback to json wrapped proto byte
@@ -34,10 +40,10 @@ public class SerializerFactory {
             Parser protoParser = stencilClient.getParser(httpSinkConfig.getInputSchemaProtoClass());
             if (httpSinkConfig.getSinkHttpJsonBodyTemplate().isEmpty()) {
                 firehoseInstrumentation.logDebug("Serializer type: EsbMessageToJson", HttpSinkDataFormatType.JSON);
-                return new MessageToJson(protoParser, false, httpSinkConfig.getSinkHttpSimpleDateFormatEnable());
+                return new MessageToJson(protoParser, httpSinkConfig.getInputSchemaProtoClass(), false, false, httpSinkConfig.getSinkHttpSimpleDateFormatEnable());
             } else {
                 firehoseInstrumentation.logDebug("Serializer type: EsbMessageToTemplatizedJson");
-                return MessageToTemplatizedJson.create(new FirehoseInstrumentation(statsDReporter, MessageToTemplatizedJson.class), httpSinkConfig.getSinkHttpJsonBodyTemplate(), protoParser);
+                return MessageToTemplatizedJson.create(new FirehoseInstrumentation(statsDReporter, MessageToTemplatizedJson.class), httpSinkConfig.getSinkHttpJsonBodyTemplate(), protoParser, httpSinkConfig.getInputSchemaProtoClass());
             }
         }
 
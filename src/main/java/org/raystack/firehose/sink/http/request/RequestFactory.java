@@ -56,7 +56,8 @@ public class RequestFactory {
         HttpSinkRequestMethodType httpSinkRequestMethodType = httpSinkConfig.getSinkHttpRequestMethod();
         HeaderBuilder headerBuilder = new HeaderBuilder(httpSinkConfig.getSinkHttpHeaders());
         UriBuilder uriBuilder = new UriBuilder(httpSinkConfig.getSinkHttpServiceUrl(), uriParser);
-        RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder();
+        RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder()
+                .setCompression(httpSinkConfig.getSinkHttpCompressionType(), httpSinkConfig.getSinkHttpCompressionLevel());
 
         List<Request> requests = Arrays.asList(
                 new SimpleRequest(statsDReporter, httpSinkConfig, body, httpSinkRequestMethodType),
@@ -74,8 +75,9 @@ public class RequestFactory {
     }
 
     private ProtoToFieldMapper getProtoToFieldMapper() {
-        Parser protoParser = stencilClient.getParser(httpSinkConfig.getSinkHttpParameterSchemaProtoClass());
-        return new ProtoToFieldMapper(protoParser, httpSinkConfig.getInputSchemaProtoToColumnMapping());
+        String protoClassName = httpSinkConfig.getSinkHttpParameterSchemaProtoClass();
+        Parser protoParser = stencilClient.getParser(protoClassName);
+        return new ProtoToFieldMapper(protoParser, httpSinkConfig.getInputSchemaProtoToColumnMapping(), protoClassName);
     }
 
     private JsonBody createBody() {
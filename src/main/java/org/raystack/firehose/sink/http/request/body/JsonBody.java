@@ -39,4 +39,19 @@ public class JsonBody {
     return serializedBody;
   }
 
+  /**
+   * Serialize into the bytes sent as request body.
+   *
+   * @param messages the messages
+   * @return the list
+   * @throws DeserializerException the deserializer exception
+   */
+  public List<byte[]> serializeToBytes(List<Message> messages) throws DeserializerException {
+    List<byte[]> serializedBody = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      serializedBody.add(jsonSerializer.serializeToBytes(message));
+    }
+    return serializedBody;
+  }
+
 }
@@ -1,6 +1,7 @@
 package org.raystack.firehose.sink.http.request.create;
 
 import org.raystack.firehose.config.HttpSinkConfig;
+import org.raystack.firehose.config.enums.HttpSinkDataFormatType;
 import org.raystack.firehose.config.enums.HttpSinkRequestMethodType;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
@@ -13,7 +14,7 @@ import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -36,23 +37,44 @@ public class BatchRequestCreator implements RequestCreator {
     }
 
     @Override
-    public List<HttpEntityEnclosingRequestBase> create(List<Message> messages, RequestEntityBuilder requestEntityBuilder) throws URISyntaxException {
+    public List<HttpEntityEnclosingRequestBase> create(List<Message> messages, RequestEntityBuilder requestEntityBuilder, List<List<Message>> requestMessages) throws URISyntaxException {
         URI uri = uriBuilder.build();
-        HttpEntityEnclosingRequestBase request = HttpRequestMethodFactory
-                .create(uri, method);
-
         Map<String, String> headerMap = headerBuilder.build();
-        headerMap.forEach(request::addHeader);
-        String messagesString = jsonBody.serialize(messages).toString();
-
-        if (!(method == HttpSinkRequestMethodType.DELETE && !httpSinkConfig.getSinkHttpDeleteBodyEnable())) {
-            request.setEntity(requestEntityBuilder.buildHttpEntity(messagesString));
-            firehoseInstrumentation.logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: {}\nRequest method: {}",
-                    uri, headerMap, jsonBody.serialize(messages), method);
-        } else {
-            firehoseInstrumentation.logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: no body\nRequest method: {}",
-                    uri, headerMap, method);
+        boolean withBody = !(method == HttpSinkRequestMethodType.DELETE && !httpSinkConfig.getSinkHttpDeleteBodyEnable());
+
+        List<HttpEntityEnclosingRequestBase> requests = new ArrayList<>();
+        for (RequestBatch batch : split(messages)) {
+            HttpEntityEnclosingRequestBase request = HttpRequestMethodFactory
+                    .create(uri, method);
+            headerMap.forEach(request::addHeader);
+
+            if (withBody) {
+                request.setEntity(isBinary()
+                        ? requestEntityBuilder.buildDelimitedProtoEntity(batch.getEncodedMessages())
+                        : requestEntityBuilder.buildJsonArrayEntity(batch.getEncodedMessages()));
+                if (firehoseInstrumentation.isDebugEnabled()) {
+                    firehoseInstrumentation.logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: {}\nRequest method: {}",
+                            uri, headerMap, jsonBody.serialize(batch.getMessages()), method);
+                }
+            } else {
+                firehoseInstrumentation.logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: no body\nRequest method: {}",
+                        uri, headerMap, method);
+            }
+            requests.add(request);
+            requestMessages.add(batch.getMessages());
         }
-        return Collections.singletonList(request);
+        return requests;
+    }
+
+    /**
+     * Splits the messages into size bounded batches.
+     */
+    private List<RequestBatch> split(List<Message> messages) {
+        return RequestBatch.split(messages, jsonBody, isBinary(),
+                httpSinkConfig.getSinkHttpBatchMaxBytes(), httpSinkConfig.getSinkHttpBatchMaxMessages());
+    }
+
+    private boolean isBinary() {
+        return httpSinkConfig.getSinkHttpDataFormat() == HttpSinkDataFormatType.BINARY;
     }
 }
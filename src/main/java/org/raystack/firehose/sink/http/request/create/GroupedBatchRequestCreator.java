@@ -0,0 +1,95 @@
+package org.raystack.firehose.sink.http.request.create;
+
+import org.raystack.firehose.config.HttpSinkConfig;
+import org.raystack.firehose.config.enums.HttpSinkDataFormatType;
+import org.raystack.firehose.config.enums.HttpSinkRequestMethodType;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.http.request.HttpRequestMethodFactory;
+import org.raystack.firehose.sink.http.request.body.JsonBody;
+import org.raystack.firehose.sink.http.request.entity.RequestEntityBuilder;
+import org.raystack.firehose.sink.http.request.header.HeaderBuilder;
+import org.raystack.firehose.sink.http.request.uri.UriBuilder;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates one batch request for every distinct URI and header set rendered from the messages,
+ * split further when a group exceeds the configured batch limits.
+ * Groups keep the order in which their first message appears in the batch.
+ */
+public class GroupedBatchRequestCreator implements RequestCreator {
+
+    private UriBuilder uriBuilder;
+    private HeaderBuilder headerBuilder;
+    private HttpSinkRequestMethodType method;
+    private JsonBody jsonBody;
+    private FirehoseInstrumentation firehoseInstrumentation;
+    private HttpSinkConfig httpSinkConfig;
+
+    public GroupedBatchRequestCreator(FirehoseInstrumentation firehoseInstrumentation, UriBuilder uriBuilder, HeaderBuilder headerBuilder, HttpSinkRequestMethodType method, JsonBody jsonBody, HttpSinkConfig httpSinkConfig) {
+        this.uriBuilder = uriBuilder;
+        this.headerBuilder = headerBuilder;
+        this.method = method;
+        this.jsonBody = jsonBody;
+        this.httpSinkConfig = httpSinkConfig;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+    }
+
+    @Override
+    public List<HttpEntityEnclosingRequestBase> create(List<Message> messages, RequestEntityBuilder requestEntityBuilder, List<List<Message>> requestMessages) throws URISyntaxException {
+        boolean withBody = !(method == HttpSinkRequestMethodType.DELETE && !httpSinkConfig.getSinkHttpDeleteBodyEnable());
+        List<HttpEntityEnclosingRequestBase> requests = new ArrayList<>();
+        for (Map.Entry<Map.Entry<URI, Map<String, String>>, RequestBatch> group : group(messages)) {
+            URI uri = group.getKey().getKey();
+            Map<String, String> headerMap = group.getKey().getValue();
+            HttpEntityEnclosingRequestBase request = HttpRequestMethodFactory.create(uri, method);
+            headerMap.forEach(request::addHeader);
+
+            if (withBody) {
+                request.setEntity(isBinary()
+                        ? requestEntityBuilder.buildDelimitedProtoEntity(group.getValue().getEncodedMessages())
+                        : requestEntityBuilder.setWrapping(false).buildJsonArrayEntity(group.getValue().getEncodedMessages()));
+                if (firehoseInstrumentation.isDebugEnabled()) {
+                    firehoseInstrumentation.logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: {}\nRequest method: {}",
+                            uri, headerMap, jsonBody.serialize(group.getValue().getMessages()), method);
+                }
+            } else {
+                firehoseInstrumentation.logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: no body\nRequest method: {}",
+                        uri, headerMap, method);
+            }
+            requests.add(request);
+            requestMessages.add(group.getValue().getMessages());
+        }
+        return requests;
+    }
+
+    /**
+     * Groups the messages by their rendered URI and headers and splits every group into size bounded batches.
+     */
+    private List<Map.Entry<Map.Entry<URI, Map<String, String>>, RequestBatch>> group(List<Message> messages) throws URISyntaxException {
+        Map<Map.Entry<URI, Map<String, String>>, List<Message>> messagesByKey = new LinkedHashMap<>();
+        for (Message message : messages) {
+            Map.Entry<URI, Map<String, String>> key = new AbstractMap.SimpleImmutableEntry<>(uriBuilder.build(message), headerBuilder.build(message));
+            messagesByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(message);
+        }
+        List<Map.Entry<Map.Entry<URI, Map<String, String>>, RequestBatch>> messageGroups = new ArrayList<>();
+        for (Map.Entry<Map.Entry<URI, Map<String, String>>, List<Message>> entry : messagesByKey.entrySet()) {
+            List<RequestBatch> batches = RequestBatch.split(entry.getValue(), jsonBody, isBinary(),
+                    httpSinkConfig.getSinkHttpBatchMaxBytes(), httpSinkConfig.getSinkHttpBatchMaxMessages());
+            batches.forEach(batch -> messageGroups.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), batch)));
+        }
+        return messageGroups;
+    }
+
+    private boolean isBinary() {
+        return httpSinkConfig.getSinkHttpDataFormat() == HttpSinkDataFormatType.BINARY;
+    }
+}
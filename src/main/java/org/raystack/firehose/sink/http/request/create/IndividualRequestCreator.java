@@ -1,6 +1,7 @@
 package org.raystack.firehose.sink.http.request.create;
 
 import org.raystack.firehose.config.HttpSinkConfig;
+import org.raystack.firehose.config.enums.HttpSinkDataFormatType;
 import org.raystack.firehose.config.enums.HttpSinkRequestMethodType;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
@@ -14,6 +15,7 @@ import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -36,9 +38,11 @@ public class IndividualRequestCreator implements RequestCreator {
     }
 
     @Override
-    public List<HttpEntityEnclosingRequestBase> create(List<Message> messages, RequestEntityBuilder entity) throws URISyntaxException {
+    public List<HttpEntityEnclosingRequestBase> create(List<Message> messages, RequestEntityBuilder entity, List<List<Message>> requestMessages) throws URISyntaxException {
         List<HttpEntityEnclosingRequestBase> requests = new ArrayList<>();
         List<String> bodyContents = jsonBody.serialize(messages);
+        boolean binary = httpSinkConfig.getSinkHttpDataFormat() == HttpSinkDataFormatType.BINARY;
+        List<byte[]> binaryBodies = binary ? jsonBody.serializeToBytes(messages) : null;
         for (int i = 0; i < messages.size(); i++) {
             Message message = messages.get(i);
             URI requestUrl = uriBuilder.build(message);
@@ -47,7 +51,9 @@ public class IndividualRequestCreator implements RequestCreator {
             Map<String, String> headerMap = headerBuilder.build(message);
             headerMap.forEach(request::addHeader);
             if (!(method == HttpSinkRequestMethodType.DELETE && !httpSinkConfig.getSinkHttpDeleteBodyEnable())) {
-                request.setEntity(entity.buildHttpEntity(bodyContents.get(i)));
+                request.setEntity(binary
+                        ? entity.buildDelimitedProtoEntity(Collections.singletonList(binaryBodies.get(i)))
+                        : entity.buildHttpEntity(bodyContents.get(i)));
 
                 firehoseInstrumentation.logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: {}\nRequest method: {}",
                         requestUrl, headerMap, bodyContents.get(i), method);
@@ -56,6 +62,7 @@ public class IndividualRequestCreator implements RequestCreator {
                         requestUrl, headerMap, method);
             }
             requests.add(request);
+            requestMessages.add(Collections.singletonList(message));
         }
         return requests;
     }
@@ -0,0 +1,68 @@
+package org.raystack.firehose.sink.http.request.create;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.sink.http.request.body.JsonBody;
+import org.raystack.firehose.sink.http.request.entity.JsonArrayEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Messages sent together in one batch request, with their encoded bodies.
+ */
+@Getter
+@AllArgsConstructor
+class RequestBatch {
+    private static final long EMPTY_ARRAY_LENGTH = JsonArrayEntity.contentLength(Collections.emptyList(), false);
+    private static final long SEPARATOR_LENGTH = JsonArrayEntity.contentLength(Collections.nCopies(2, new byte[0]), false) - EMPTY_ARRAY_LENGTH;
+
+    private final List<Message> messages;
+    private final List<byte[]> encodedMessages;
+
+    /**
+     * Encodes the messages and splits them into batches whose body stays within the limits.
+     * A message bigger than the byte limit on its own is sent in a batch of its own.
+     *
+     * @param messages    the messages
+     * @param body        the body serializing the messages
+     * @param binary      whether the body is made of delimited protobuf records rather than a JSON array
+     * @param maxBytes    the maximum body size in bytes, no limit when not positive
+     * @param maxMessages the maximum messages in a batch, no limit when not positive
+     * @return the batches in message order
+     */
+    static List<RequestBatch> split(List<Message> messages, JsonBody body, boolean binary, long maxBytes, int maxMessages) {
+        List<byte[]> encodedMessages = body.serializeToBytes(messages);
+        if (maxBytes <= 0 && maxMessages <= 0) {
+            return Collections.singletonList(new RequestBatch(messages, encodedMessages));
+        }
+
+        long emptyLength = binary ? 0 : EMPTY_ARRAY_LENGTH;
+        long separatorLength = binary ? 0 : SEPARATOR_LENGTH;
+        List<RequestBatch> batches = new ArrayList<>();
+        int start = 0;
+        long length = emptyLength;
+        for (int i = 0; i < encodedMessages.size(); i++) {
+            int count = i - start;
+            long nextLength = length + encodedMessages.get(i).length + (count > 0 ? separatorLength : 0);
+            boolean exceedsBytes = maxBytes > 0 && nextLength > maxBytes;
+            boolean exceedsMessages = maxMessages > 0 && count >= maxMessages;
+            if (count > 0 && (exceedsBytes || exceedsMessages)) {
+                batches.add(subBatch(messages, encodedMessages, start, i));
+                start = i;
+                nextLength = emptyLength + encodedMessages.get(i).length;
+            }
+            length = nextLength;
+        }
+        if (start < encodedMessages.size() || batches.isEmpty()) {
+            batches.add(subBatch(messages, encodedMessages, start, encodedMessages.size()));
+        }
+        return batches;
+    }
+
+    private static RequestBatch subBatch(List<Message> messages, List<byte[]> encodedMessages, int from, int to) {
+        return new RequestBatch(messages.subList(from, to), encodedMessages.subList(from, to));
+    }
+}
@@ -5,6 +5,7 @@ import org.raystack.firehose.sink.http.request.entity.RequestEntityBuilder;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,5 +13,18 @@ import java.util.List;
  */
 public interface RequestCreator {
 
-    List<HttpEntityEnclosingRequestBase> create(List<Message> bodyContents, RequestEntityBuilder entity) throws URISyntaxException;
+    default List<HttpEntityEnclosingRequestBase> create(List<Message> bodyContents, RequestEntityBuilder entity) throws URISyntaxException {
+        return create(bodyContents, entity, new ArrayList<>());
+    }
+
+    /**
+     * Creates the requests and adds the messages every created request carries to the given list.
+     *
+     * @param messages        the messages
+     * @param entity          the entity builder
+     * @param requestMessages list the messages of every request are added to, in request order
+     * @return the requests
+     * @throws URISyntaxException the uri syntax exception
+     */
+    List<HttpEntityEnclosingRequestBase> create(List<Message> messages, RequestEntityBuilder entity, List<List<Message>> requestMessages) throws URISyntaxException;
 }
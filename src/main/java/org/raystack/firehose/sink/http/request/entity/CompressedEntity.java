@@ -0,0 +1,127 @@
+package org.raystack.firehose.sink.http.request.entity;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.raystack.firehose.config.enums.HttpSinkCompressionType;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.protocol.HTTP;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Http entity compressing the wrapped entity while it is written to the output stream.
+ */
+public class CompressedEntity extends HttpEntityWrapper {
+    public static final int DEFAULT_COMPRESSION_LEVEL = -1;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int ZSTD_DEFAULT_COMPRESSION_LEVEL = 3;
+
+    private final HttpSinkCompressionType compressionType;
+    private final int compressionLevel;
+
+    /**
+     * Instantiates a new Compressed entity.
+     *
+     * @param wrappedEntity    the entity to compress
+     * @param compressionType  the compression type
+     * @param compressionLevel the compression level, {@link #DEFAULT_COMPRESSION_LEVEL} for the default of the type
+     */
+    public CompressedEntity(HttpEntity wrappedEntity, HttpSinkCompressionType compressionType, int compressionLevel) {
+        super(wrappedEntity);
+        if (compressionType == HttpSinkCompressionType.NONE) {
+            throw new IllegalArgumentException("Compression type must not be NONE");
+        }
+        this.compressionType = compressionType;
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public Header getContentEncoding() {
+        return new BasicHeader(HTTP.CONTENT_ENCODING, contentEncoding(compressionType));
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    /**
+     * Compressed content, buffered in memory. Requests are sent through {@link #writeTo(OutputStream)} instead.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    /**
+     * Entity before compression.
+     *
+     * @return the uncompressed entity
+     */
+    public HttpEntity getUncompressedEntity() {
+        return wrappedEntity;
+    }
+
+    /**
+     * Content of the wrapped entity before compression.
+     *
+     * @return the uncompressed content
+     * @throws IOException if the content can not be read
+     */
+    public InputStream getUncompressedContent() throws IOException {
+        return wrappedEntity.getContent();
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        try (OutputStream compressedStream = compress(outputStream)) {
+            wrappedEntity.writeTo(compressedStream);
+        }
+    }
+
+    private OutputStream compress(OutputStream outputStream) throws IOException {
+        switch (compressionType) {
+            case GZIP:
+                return new GZIPOutputStream(outputStream, BUFFER_SIZE) {
+                    {
+                        def.setLevel(compressionLevel);
+                    }
+                };
+            case ZSTD:
+                return new ZstdOutputStream(outputStream,
+                        compressionLevel == DEFAULT_COMPRESSION_LEVEL ? ZSTD_DEFAULT_COMPRESSION_LEVEL : compressionLevel);
+            case SNAPPY:
+                return new SnappyFramedOutputStream(outputStream);
+            default:
+                throw new IllegalArgumentException("Unsupported compression type: " + compressionType);
+        }
+    }
+
+    private static String contentEncoding(HttpSinkCompressionType compressionType) {
+        switch (compressionType) {
+            case GZIP:
+                return "gzip";
+            case ZSTD:
+                return "zstd";
+            case SNAPPY:
+                return "x-snappy-framed";
+            default:
+                throw new IllegalArgumentException("Unsupported compression type: " + compressionType);
+        }
+    }
+}
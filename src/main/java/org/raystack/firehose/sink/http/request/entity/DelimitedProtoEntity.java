@@ -0,0 +1,79 @@
+package org.raystack.firehose.sink.http.request.entity;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Http entity writing size delimited protobuf records back to back as an {@code application/x-protobuf} body.
+ */
+public class DelimitedProtoEntity extends AbstractHttpEntity {
+    public static final String CONTENT_TYPE = "application/x-protobuf";
+
+    private final List<byte[]> records;
+    private final long contentLength;
+
+    /**
+     * Instantiates a new Delimited proto entity.
+     *
+     * @param records the size delimited records
+     */
+    public DelimitedProtoEntity(List<byte[]> records) {
+        this.records = records;
+        this.contentLength = contentLength(records);
+        setContentType(CONTENT_TYPE);
+    }
+
+    /**
+     * Length of the body for the given records.
+     *
+     * @param records the size delimited records
+     * @return the body length in bytes
+     */
+    public static long contentLength(List<byte[]> records) {
+        long length = 0;
+        for (byte[] record : records) {
+            length += record.length;
+        }
+        return length;
+    }
+
+    public List<byte[]> getRecords() {
+        return records;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) Math.min(contentLength, Integer.MAX_VALUE));
+        writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        for (byte[] record : records) {
+            outputStream.write(record);
+        }
+        outputStream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
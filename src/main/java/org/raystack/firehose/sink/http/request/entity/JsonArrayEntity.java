@@ -0,0 +1,98 @@
+package org.raystack.firehose.sink.http.request.entity;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Http entity writing already encoded JSON elements as an array straight to the output stream,
+ * without joining them into a single body string first.
+ */
+public class JsonArrayEntity extends AbstractHttpEntity {
+    private static final byte[] ARRAY_START = "[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARRAY_END = "]".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SEPARATOR = ", ".getBytes(StandardCharsets.UTF_8);
+
+    private final List<byte[]> elements;
+    private final boolean wrapArray;
+    private final long contentLength;
+
+    /**
+     * Instantiates a new Json array entity.
+     *
+     * @param elements  the UTF-8 encoded JSON elements
+     * @param wrapArray whether the array is wrapped inside another array
+     */
+    public JsonArrayEntity(List<byte[]> elements, boolean wrapArray) {
+        this.elements = elements;
+        this.wrapArray = wrapArray;
+        this.contentLength = contentLength(elements, wrapArray);
+        setContentType(ContentType.APPLICATION_JSON.toString());
+    }
+
+    /**
+     * Length of the array body for the given elements.
+     *
+     * @param elements  the UTF-8 encoded JSON elements
+     * @param wrapArray whether the array is wrapped inside another array
+     * @return the body length in bytes
+     */
+    public static long contentLength(List<byte[]> elements, boolean wrapArray) {
+        long length = ARRAY_START.length + ARRAY_END.length;
+        for (byte[] element : elements) {
+            length += element.length;
+        }
+        if (!elements.isEmpty()) {
+            length += (long) SEPARATOR.length * (elements.size() - 1);
+        }
+        return wrapArray ? length + ARRAY_START.length + ARRAY_END.length : length;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) Math.min(contentLength, Integer.MAX_VALUE));
+        writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        if (wrapArray) {
+            outputStream.write(ARRAY_START);
+        }
+        outputStream.write(ARRAY_START);
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                outputStream.write(SEPARATOR);
+            }
+            outputStream.write(elements.get(i));
+        }
+        outputStream.write(ARRAY_END);
+        if (wrapArray) {
+            outputStream.write(ARRAY_END);
+        }
+        outputStream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
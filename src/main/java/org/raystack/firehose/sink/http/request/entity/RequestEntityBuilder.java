@@ -1,22 +1,29 @@
 package org.raystack.firehose.sink.http.request.entity;
 
+import org.raystack.firehose.config.enums.HttpSinkCompressionType;
 import org.raystack.firehose.exception.DeserializerException;
+import org.apache.http.HttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 
 import java.util.Collections;
+import java.util.List;
 
 /**
  * Request entity builder.
  */
 public class RequestEntityBuilder {
     private boolean wrapArray;
+    private HttpSinkCompressionType compressionType;
+    private int compressionLevel;
 
     /**
      * Instantiates a new Request entity builder.
      */
     public RequestEntityBuilder() {
         this.wrapArray = false;
+        this.compressionType = HttpSinkCompressionType.NONE;
+        this.compressionLevel = CompressedEntity.DEFAULT_COMPRESSION_LEVEL;
     }
 
     public RequestEntityBuilder setWrapping(boolean isArrayWrap) {
@@ -24,19 +31,59 @@ public class RequestEntityBuilder {
         return this;
     }
 
+    /**
+     * Compress the built entities.
+     *
+     * @param type  the compression type
+     * @param level the compression level, {@link CompressedEntity#DEFAULT_COMPRESSION_LEVEL} for the default of the type
+     * @return the request entity builder
+     */
+    public RequestEntityBuilder setCompression(HttpSinkCompressionType type, int level) {
+        this.compressionType = type;
+        this.compressionLevel = level;
+        return this;
+    }
+
     /**
      * Build http entity string entity.
      *
      * @param bodyContent the body content
-     * @return the string entity
+     * @return the string entity, compressed if set
      * @throws DeserializerException the deserializer exception
      */
-    public StringEntity buildHttpEntity(String bodyContent) throws DeserializerException {
+    public HttpEntity buildHttpEntity(String bodyContent) throws DeserializerException {
         if (!wrapArray) {
-            return new StringEntity(bodyContent, ContentType.APPLICATION_JSON);
+            return compress(new StringEntity(bodyContent, ContentType.APPLICATION_JSON));
         } else {
             String arrayWrappedBody = Collections.singletonList(bodyContent).toString();
-            return new StringEntity(arrayWrappedBody, ContentType.APPLICATION_JSON);
+            return compress(new StringEntity(arrayWrappedBody, ContentType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Build http entity writing the encoded JSON elements as an array.
+     *
+     * @param elements the UTF-8 encoded JSON elements
+     * @return the json array entity, compressed if set
+     */
+    public HttpEntity buildJsonArrayEntity(List<byte[]> elements) {
+        return compress(new JsonArrayEntity(elements, wrapArray));
+    }
+
+    /**
+     * Build http entity writing the size delimited protobuf records back to back.
+     *
+     * @param records the size delimited records
+     * @return the delimited proto entity, compressed if set
+     */
+    public HttpEntity buildDelimitedProtoEntity(List<byte[]> records) {
+        return compress(new DelimitedProtoEntity(records));
+    }
+
+    private HttpEntity compress(HttpEntity entity) {
+        if (compressionType == HttpSinkCompressionType.NONE) {
+            return entity;
         }
+        return new CompressedEntity(entity, compressionType, compressionLevel);
     }
 }
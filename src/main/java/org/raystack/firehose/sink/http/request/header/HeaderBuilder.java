@@ -5,15 +5,19 @@ import org.raystack.firehose.message.Message;
 import org.raystack.firehose.proto.ProtoToFieldMapper;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * Header builder for http requests.
+ * <p>
+ * The header config is parsed once, requests without parameterized headers share the same unmodifiable map.
  */
 public class HeaderBuilder {
 
-    private String headerConfig;
+    private final Map<String, String> baseHeaders;
     private ProtoToFieldMapper protoToFieldMapper;
     private HttpSinkParameterSourceType httpSinkParameterSourceType;
 
@@ -23,30 +27,29 @@ public class HeaderBuilder {
      * @param headerConfig the header config
      */
     public HeaderBuilder(String headerConfig) {
-        this.headerConfig = headerConfig;
+        this.baseHeaders = Collections.unmodifiableMap(Arrays.stream(headerConfig.split(","))
+                .filter(headerKeyValue -> !headerKeyValue.trim().isEmpty()).collect(Collectors
+                        .toMap(headerKeyValue -> headerKeyValue.split(":")[0], headerKeyValue -> headerKeyValue.split(":")[1])));
     }
 
     public Map<String, String> build() {
-        return Arrays.stream(headerConfig.split(","))
-                .filter(headerKeyValue -> !headerKeyValue.trim().isEmpty()).collect(Collectors
-                        .toMap(headerKeyValue -> headerKeyValue.split(":")[0], headerKeyValue -> headerKeyValue.split(":")[1]));
+        return baseHeaders;
     }
 
     public Map<String, String> build(Message message) {
-        Map<String, String> baseHeaders = build();
         if (protoToFieldMapper == null) {
             return baseHeaders;
         }
 
         // flow for parameterized headers
         Map<String, Object> paramMap = protoToFieldMapper
-                .getFields((httpSinkParameterSourceType == HttpSinkParameterSourceType.KEY) ? message.getLogKey()
-                        : message.getLogMessage());
+                .getFields((httpSinkParameterSourceType == HttpSinkParameterSourceType.KEY) ? message.getDecodedLogKey()
+                        : message.getDecodedLogMessage());
 
-        Map<String, String> parameterizedHeaders = paramMap.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().toString()));
-        baseHeaders.putAll(parameterizedHeaders);
-        return baseHeaders;
+        Map<String, String> headers = new HashMap<>(baseHeaders.size() + paramMap.size());
+        headers.putAll(baseHeaders);
+        paramMap.forEach((key, value) -> headers.put(key, value.toString()));
+        return headers;
     }
 
     public HeaderBuilder withParameterizedHeader(ProtoToFieldMapper protoToFieldmapper, HttpSinkParameterSourceType httpSinkParameterSource) {
@@ -7,6 +7,7 @@ import org.raystack.firehose.exception.DeserializerException;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.sink.http.request.body.JsonBody;
+import org.raystack.firehose.sink.http.request.create.GroupedBatchRequestCreator;
 import org.raystack.firehose.sink.http.request.create.IndividualRequestCreator;
 import org.raystack.firehose.sink.http.request.create.RequestCreator;
 import org.raystack.firehose.sink.http.request.entity.RequestEntityBuilder;
@@ -49,6 +50,11 @@ public class DynamicUrlRequest implements Request {
         return requestCreator.create(messages, requestEntityBuilder.setWrapping(!isTemplateBody(httpSinkConfig)));
     }
 
+    @Override
+    public List<HttpEntityEnclosingRequestBase> build(List<Message> messages, List<List<Message>> requestMessages) throws URISyntaxException, DeserializerException {
+        return requestCreator.create(messages, requestEntityBuilder.setWrapping(!isTemplateBody(httpSinkConfig)), requestMessages);
+    }
+
     /**
      * Sets request strategy.
      *
@@ -59,8 +65,13 @@ public class DynamicUrlRequest implements Request {
      */
     @Override
     public Request setRequestStrategy(HeaderBuilder headerBuilder, UriBuilder uriBuilder, RequestEntityBuilder requestEntitybuilder) {
-        this.requestCreator = new IndividualRequestCreator(
-                new FirehoseInstrumentation(statsDReporter, IndividualRequestCreator.class), uriBuilder, headerBuilder, method, body, httpSinkConfig);
+        if (httpSinkConfig.getSinkHttpGroupedBatchEnable()) {
+            this.requestCreator = new GroupedBatchRequestCreator(
+                    new FirehoseInstrumentation(statsDReporter, GroupedBatchRequestCreator.class), uriBuilder, headerBuilder, method, body, httpSinkConfig);
+        } else {
+            this.requestCreator = new IndividualRequestCreator(
+                    new FirehoseInstrumentation(statsDReporter, IndividualRequestCreator.class), uriBuilder, headerBuilder, method, body, httpSinkConfig);
+        }
         this.requestEntityBuilder = requestEntitybuilder;
         return this;
     }
@@ -11,6 +11,7 @@ import org.raystack.firehose.proto.ProtoToFieldMapper;
 import org.raystack.firehose.sink.http.request.header.HeaderBuilder;
 import org.raystack.depot.metrics.StatsDReporter;
 import org.raystack.firehose.sink.http.request.body.JsonBody;
+import org.raystack.firehose.sink.http.request.create.GroupedBatchRequestCreator;
 import org.raystack.firehose.sink.http.request.create.IndividualRequestCreator;
 import org.raystack.firehose.sink.http.request.create.RequestCreator;
 import org.raystack.firehose.sink.http.request.entity.RequestEntityBuilder;
@@ -60,6 +61,11 @@ public class ParameterizedHeaderRequest implements Request {
         return requestCreator.create(messages, requestEntityBuilder.setWrapping(!isTemplateBody(httpSinkConfig)));
     }
 
+    @Override
+    public List<HttpEntityEnclosingRequestBase> build(List<Message> messages, List<List<Message>> requestMessages) throws URISyntaxException, DeserializerException {
+        return requestCreator.create(messages, requestEntityBuilder.setWrapping(!isTemplateBody(httpSinkConfig)), requestMessages);
+    }
+
     /**
      * Sets request strategy.
      *
@@ -70,10 +76,16 @@ public class ParameterizedHeaderRequest implements Request {
      */
     @Override
     public Request setRequestStrategy(HeaderBuilder headerBuilder, UriBuilder uriBuilder, RequestEntityBuilder requestEntitybuilder) {
-        this.requestCreator = new IndividualRequestCreator(
-                new FirehoseInstrumentation(statsDReporter, IndividualRequestCreator.class), uriBuilder,
-                headerBuilder.withParameterizedHeader(protoToFieldMapper, httpSinkConfig.getSinkHttpParameterSource()),
-                method, body, httpSinkConfig);
+        HeaderBuilder parameterizedHeaderBuilder = headerBuilder.withParameterizedHeader(protoToFieldMapper, httpSinkConfig.getSinkHttpParameterSource());
+        if (httpSinkConfig.getSinkHttpGroupedBatchEnable()) {
+            this.requestCreator = new GroupedBatchRequestCreator(
+                    new FirehoseInstrumentation(statsDReporter, GroupedBatchRequestCreator.class), uriBuilder,
+                    parameterizedHeaderBuilder, method, body, httpSinkConfig);
+        } else {
+            this.requestCreator = new IndividualRequestCreator(
+                    new FirehoseInstrumentation(statsDReporter, IndividualRequestCreator.class), uriBuilder,
+                    parameterizedHeaderBuilder, method, body, httpSinkConfig);
+        }
         this.requestEntityBuilder = requestEntitybuilder;
         return this;
     }
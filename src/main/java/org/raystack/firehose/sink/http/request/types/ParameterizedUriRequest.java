@@ -11,6 +11,7 @@ import org.raystack.firehose.proto.ProtoToFieldMapper;
 import org.raystack.firehose.sink.http.request.header.HeaderBuilder;
 import org.raystack.depot.metrics.StatsDReporter;
 import org.raystack.firehose.sink.http.request.body.JsonBody;
+import org.raystack.firehose.sink.http.request.create.GroupedBatchRequestCreator;
 import org.raystack.firehose.sink.http.request.create.IndividualRequestCreator;
 import org.raystack.firehose.sink.http.request.create.RequestCreator;
 import org.raystack.firehose.sink.http.request.entity.RequestEntityBuilder;
@@ -59,6 +60,11 @@ public class ParameterizedUriRequest implements Request {
         return requestCreator.create(messages, requestEntityBuilder.setWrapping(!isTemplateBody(httpSinkConfig)));
     }
 
+    @Override
+    public List<HttpEntityEnclosingRequestBase> build(List<Message> messages, List<List<Message>> requestMessages) throws URISyntaxException, DeserializerException {
+        return requestCreator.create(messages, requestEntityBuilder.setWrapping(!isTemplateBody(httpSinkConfig)), requestMessages);
+    }
+
     /**
      * Sets request strategy.
      *
@@ -69,10 +75,16 @@ public class ParameterizedUriRequest implements Request {
      */
     @Override
     public Request setRequestStrategy(HeaderBuilder headerBuilder, UriBuilder uriBuilder, RequestEntityBuilder requestEntitybuilder) {
-        this.requestCreator = new IndividualRequestCreator(
-                new FirehoseInstrumentation(statsDReporter, IndividualRequestCreator.class),
-                uriBuilder.withParameterizedURI(protoToFieldMapper, httpSinkConfig.getSinkHttpParameterSource()),
-                headerBuilder, method, body, httpSinkConfig);
+        UriBuilder parameterizedUriBuilder = uriBuilder.withParameterizedURI(protoToFieldMapper, httpSinkConfig.getSinkHttpParameterSource());
+        if (httpSinkConfig.getSinkHttpGroupedBatchEnable()) {
+            this.requestCreator = new GroupedBatchRequestCreator(
+                    new FirehoseInstrumentation(statsDReporter, GroupedBatchRequestCreator.class),
+                    parameterizedUriBuilder, headerBuilder, method, body, httpSinkConfig);
+        } else {
+            this.requestCreator = new IndividualRequestCreator(
+                    new FirehoseInstrumentation(statsDReporter, IndividualRequestCreator.class),
+                    parameterizedUriBuilder, headerBuilder, method, body, httpSinkConfig);
+        }
         this.requestEntityBuilder = requestEntitybuilder;
         return this;
     }
@@ -26,6 +26,17 @@ public interface Request {
      */
     List<HttpEntityEnclosingRequestBase> build(List<Message> messages) throws URISyntaxException, DeserializerException;
 
+    /**
+     * Create list of requests along with the messages every request carries.
+     *
+     * @param messages        the messages
+     * @param requestMessages list the messages of every request are added to, in request order
+     * @return the list
+     * @throws URISyntaxException    the uri syntax exception
+     * @throws DeserializerException the deserializer exception
+     */
+    List<HttpEntityEnclosingRequestBase> build(List<Message> messages, List<List<Message>> requestMessages) throws URISyntaxException, DeserializerException;
+
     /**
      * Sets request strategy.
      *
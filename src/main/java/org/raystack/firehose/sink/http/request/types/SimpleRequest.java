@@ -50,6 +50,11 @@ public class SimpleRequest implements Request {
         return requestCreator.create(messages, requestEntityBuilder);
     }
 
+    @Override
+    public List<HttpEntityEnclosingRequestBase> build(List<Message> messages, List<List<Message>> requestMessages) throws URISyntaxException, DeserializerException {
+        return requestCreator.create(messages, requestEntityBuilder, requestMessages);
+    }
+
     /**
      * Sets request strategy.
      *
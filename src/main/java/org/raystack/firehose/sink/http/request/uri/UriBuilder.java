@@ -36,8 +36,8 @@ public class UriBuilder {
 
         // flow for parameterized URI
         Map<String, Object> paramMap = protoToFieldMapper
-                .getFields((httpSinkParameterSourceType == HttpSinkParameterSourceType.KEY) ? message.getLogKey()
-                        : message.getLogMessage());
+                .getFields((httpSinkParameterSourceType == HttpSinkParameterSourceType.KEY) ? message.getDecodedLogKey()
+                        : message.getDecodedLogMessage());
         paramMap.forEach((string, object) -> uriBuilder.addParameter(string, object.toString()));
         return uriBuilder.build();
     }
@@ -1,6 +1,7 @@
 package org.raystack.firehose.sink.http.request.uri;
 
 
+import org.raystack.firehose.message.DecodedPayload;
 import org.raystack.firehose.message.Message;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
@@ -9,90 +10,191 @@ import org.raystack.stencil.Parser;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.common.errors.InvalidConfigurationException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 /**
  * URI parser for http requests.
+ * <p>
+ * The service URL is compiled once into its pattern and field numbers, the field descriptors are
+ * resolved once per message type, so rendering a URL only reads the fields of the decoded message.
  */
 public class UriParser {
-    private Parser protoParser;
-    private String parserMode;
+    private final Parser protoParser;
+    private final String parserMode;
+    private final String protoClassName;
+    private volatile UrlTemplate urlTemplate;
 
     public UriParser(Parser protoParser, String parserMode) {
+        this(protoParser, parserMode, null);
+    }
+
+    /**
+     * Instantiates a new Uri parser reusing the decode cached on the messages.
+     *
+     * @param protoParser    the proto parser
+     * @param parserMode     the parser mode, key or message
+     * @param protoClassName schema the parser was created for, null to parse every message again
+     */
+    public UriParser(Parser protoParser, String parserMode, String protoClassName) {
         this.protoParser = protoParser;
         this.parserMode = parserMode;
+        this.protoClassName = protoClassName;
     }
 
     public String parse(Message message, String serviceUrl) {
-        DynamicMessage parsedMessage = parseEsbMessage(message);
-        return parseServiceUrl(parsedMessage, serviceUrl);
+        UrlTemplate template = getUrlTemplate(serviceUrl);
+        if (!template.isParameterized()) {
+            return template.pattern;
+        }
+        return template.render(parseEsbMessage(message));
+    }
 
+    private UrlTemplate getUrlTemplate(String serviceUrl) {
+        UrlTemplate template = urlTemplate;
+        if (template == null || !template.serviceUrl.equals(serviceUrl)) {
+            template = UrlTemplate.compile(serviceUrl);
+            urlTemplate = template;
+        }
+        return template;
     }
 
     private DynamicMessage parseEsbMessage(Message message) {
         DynamicMessage parsedMessage;
         try {
-            parsedMessage = protoParser.parse(getPayload(message));
+            parsedMessage = getPayload(message).parse(protoClassName, protoParser);
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalArgumentException("Unable to parse Service URL", e);
         }
         return parsedMessage;
     }
 
-    private String parseServiceUrl(DynamicMessage data, String serviceUrl) {
-        if (StringUtils.isEmpty(serviceUrl)) {
-            throw new IllegalArgumentException("Service URL '" + serviceUrl + "' is invalid");
-        }
-        String[] urlStrings = serviceUrl.split(",");
-        if (urlStrings.length == 0) {
-            throw new InvalidConfigurationException("Empty Service URL configuration: '" + serviceUrl + "'");
+    private DecodedPayload getPayload(Message message) {
+        if (parserMode.equals("key")) {
+            return message.getDecodedLogKey();
+        } else {
+            return message.getDecodedLogMessage();
         }
-        urlStrings = Arrays
-                .stream(urlStrings)
-                .map(String::trim)
-                .toArray(String[]::new);
-
-        String urlPattern = urlStrings[0];
-        String urlVariables = StringUtils.join(Arrays.copyOfRange(urlStrings, 1, urlStrings.length), ",");
-        String renderedUrl = renderStringUrl(data, urlPattern, urlVariables);
-        return StringUtils.isEmpty(urlVariables)
-                ? urlPattern
-                : renderedUrl;
     }
 
-    private String renderStringUrl(DynamicMessage parsedMessage, String pattern, String patternVariables) {
-        if (StringUtils.isEmpty(patternVariables)) {
-            return pattern;
+    /**
+     * Service URL split into its pattern and the field numbers of the pattern variables.
+     */
+    private static final class UrlTemplate {
+        private final String serviceUrl;
+        private final String pattern;
+        private final String[] fieldNumberNames;
+        private final int[] fieldNumbers;
+        /**
+         * Text around the {@code %s} placeholders, null when the pattern needs {@link String#format}.
+         */
+        private final String[] literals;
+        private volatile ResolvedFields resolvedFields;
+
+        private UrlTemplate(String serviceUrl, String pattern, String[] fieldNumberNames, int[] fieldNumbers) {
+            this.serviceUrl = serviceUrl;
+            this.pattern = pattern;
+            this.fieldNumberNames = fieldNumberNames;
+            this.fieldNumbers = fieldNumbers;
+            this.literals = splitLiterals(pattern, fieldNumbers.length);
         }
-        List<String> patternVariableFieldNumbers = Arrays.asList(patternVariables.split(","));
-        Object[] patternVariableData = patternVariableFieldNumbers
-                .stream()
-                .map(fieldNumber -> getDataByFieldNumber(parsedMessage, fieldNumber))
-                .toArray();
-        return String.format(pattern, patternVariableData);
-    }
 
-    private Object getDataByFieldNumber(DynamicMessage parsedMessage, String fieldNumber) {
-        int fieldNumberInt;
-        try {
-            fieldNumberInt = Integer.parseInt(fieldNumber);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid Proto Index");
+        static UrlTemplate compile(String serviceUrl) {
+            if (StringUtils.isEmpty(serviceUrl)) {
+                throw new IllegalArgumentException("Service URL '" + serviceUrl + "' is invalid");
+            }
+            String[] urlStrings = serviceUrl.split(",");
+            if (urlStrings.length == 0) {
+                throw new InvalidConfigurationException("Empty Service URL configuration: '" + serviceUrl + "'");
+            }
+            urlStrings = Arrays
+                    .stream(urlStrings)
+                    .map(String::trim)
+                    .toArray(String[]::new);
+
+            String urlPattern = urlStrings[0];
+            String urlVariables = StringUtils.join(Arrays.copyOfRange(urlStrings, 1, urlStrings.length), ",");
+            if (StringUtils.isEmpty(urlVariables)) {
+                return new UrlTemplate(serviceUrl, urlPattern, new String[0], new int[0]);
+            }
+            String[] fieldNumberNames = urlVariables.split(",");
+            int[] fieldNumbers = new int[fieldNumberNames.length];
+            for (int i = 0; i < fieldNumberNames.length; i++) {
+                try {
+                    fieldNumbers[i] = Integer.parseInt(fieldNumberNames[i]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid Proto Index");
+                }
+            }
+            return new UrlTemplate(serviceUrl, urlPattern, fieldNumberNames, fieldNumbers);
         }
-        Descriptors.FieldDescriptor fieldDescriptor = parsedMessage.getDescriptorForType().findFieldByNumber(fieldNumberInt);
-        if (fieldDescriptor == null) {
-            throw new IllegalArgumentException(String.format("Descriptor not found for index: %s", fieldNumber));
+
+        boolean isParameterized() {
+            return fieldNumbers.length > 0;
         }
-        return parsedMessage.getField(fieldDescriptor);
-    }
 
-    private byte[] getPayload(Message message) {
-        if (parserMode.equals("key")) {
-            return message.getLogKey();
-        } else {
-            return message.getLogMessage();
+        String render(DynamicMessage parsedMessage) {
+            Descriptors.FieldDescriptor[] fields = resolve(parsedMessage.getDescriptorForType());
+            if (literals == null) {
+                Object[] patternVariableData = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    patternVariableData[i] = parsedMessage.getField(fields[i]);
+                }
+                return String.format(pattern, patternVariableData);
+            }
+            StringBuilder renderedUrl = new StringBuilder(pattern.length() + 16 * fields.length);
+            renderedUrl.append(literals[0]);
+            for (int i = 1; i < literals.length; i++) {
+                renderedUrl.append(parsedMessage.getField(fields[i - 1])).append(literals[i]);
+            }
+            return renderedUrl.toString();
+        }
+
+        private Descriptors.FieldDescriptor[] resolve(Descriptors.Descriptor descriptor) {
+            ResolvedFields resolved = resolvedFields;
+            if (resolved != null && resolved.descriptor == descriptor) {
+                return resolved.fields;
+            }
+            Descriptors.FieldDescriptor[] fields = new Descriptors.FieldDescriptor[fieldNumbers.length];
+            for (int i = 0; i < fieldNumbers.length; i++) {
+                fields[i] = descriptor.findFieldByNumber(fieldNumbers[i]);
+                if (fields[i] == null) {
+                    throw new IllegalArgumentException(String.format("Descriptor not found for index: %s", fieldNumberNames[i]));
+                }
+            }
+            resolvedFields = new ResolvedFields(descriptor, fields);
+            return fields;
+        }
+
+        /**
+         * Split a pattern made only of {@code %s} placeholders, at most one per variable.
+         * Other conversions are left to {@link String#format}, which also reports missing variables.
+         */
+        private static String[] splitLiterals(String pattern, int variableCount) {
+            List<String> literals = new ArrayList<>();
+            int start = 0;
+            int index = pattern.indexOf('%');
+            while (index >= 0) {
+                if (index + 1 >= pattern.length() || pattern.charAt(index + 1) != 's') {
+                    return null;
+                }
+                literals.add(pattern.substring(start, index));
+                start = index + 2;
+                index = pattern.indexOf('%', start);
+            }
+            literals.add(pattern.substring(start));
+            return literals.size() - 1 <= variableCount ? literals.toArray(new String[0]) : null;
         }
     }
 
+    private static final class ResolvedFields {
+        private final Descriptors.Descriptor descriptor;
+        private final Descriptors.FieldDescriptor[] fields;
+
+        ResolvedFields(Descriptors.Descriptor descriptor, Descriptors.FieldDescriptor[] fields) {
+            this.descriptor = descriptor;
+            this.fields = fields;
+        }
+    }
 }
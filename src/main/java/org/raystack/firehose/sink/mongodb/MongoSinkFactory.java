@@ -44,7 +44,7 @@ public class MongoSinkFactory {
         logMongoConfig(mongoSinkConfig, firehoseInstrumentation);
         MongoRequestHandler mongoRequestHandler = new MongoRequestHandlerFactory(mongoSinkConfig, new FirehoseInstrumentation(statsDReporter, MongoRequestHandlerFactory.class),
                 mongoSinkConfig.getSinkMongoPrimaryKey(), mongoSinkConfig.getSinkMongoInputMessageType(),
-                new MessageToJson(stencilClient.getParser(mongoSinkConfig.getInputSchemaProtoClass()), mongoSinkConfig.isSinkMongoPreserveProtoFieldNamesEnable(), false)
+                new MessageToJson(stencilClient.getParser(mongoSinkConfig.getInputSchemaProtoClass()), mongoSinkConfig.getInputSchemaProtoClass(), mongoSinkConfig.isSinkMongoPreserveProtoFieldNamesEnable(), false, false)
         ).getRequestHandler();
 
         MongoClient mongoClient = buildMongoClient(mongoSinkConfig, firehoseInstrumentation);
@@ -41,7 +41,22 @@ public class PromSink extends AbstractHttpSink {
      * @param requestLogStatusCodeRanges the request log status code ranges
      */
     public PromSink(FirehoseInstrumentation firehoseInstrumentation, PromRequest request, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges) {
-        super(firehoseInstrumentation, "prometheus", httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges);
+        this(firehoseInstrumentation, request, httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, 0);
+    }
+
+    /**
+     * Instantiates a new Prometheus sink within the adaptive concurrency limit of the endpoint.
+     *
+     * @param firehoseInstrumentation     the instrumentation
+     * @param request                     the request
+     * @param httpClient                  the http client
+     * @param stencilClient               the stencil client
+     * @param retryStatusCodeRanges       the retry status code ranges
+     * @param requestLogStatusCodeRanges  the request log status code ranges
+     * @param adaptiveConcurrencyMaxLimit the maximum requests in flight to the endpoint across all sinks, 0 to disable the adaptive limit
+     */
+    public PromSink(FirehoseInstrumentation firehoseInstrumentation, PromRequest request, HttpClient httpClient, StencilClient stencilClient, Map<Integer, Boolean> retryStatusCodeRanges, Map<Integer, Boolean> requestLogStatusCodeRanges, int adaptiveConcurrencyMaxLimit) {
+        super(firehoseInstrumentation, "prometheus", httpClient, stencilClient, retryStatusCodeRanges, requestLogStatusCodeRanges, 1, adaptiveConcurrencyMaxLimit);
         this.request = request;
     }
 
@@ -53,7 +53,8 @@ public class PromSinkFactory {
                 closeableHttpClient,
                 stencilClient,
                 promSinkConfig.getSinkPromRetryStatusCodeRanges(),
-                promSinkConfig.getSinkPromRequestLogStatusCodeRanges()
+                promSinkConfig.getSinkPromRequestLogStatusCodeRanges(),
+                promSinkConfig.getSinkPromAdaptiveConcurrencyMaxLimit()
         );
     }
 
@@ -12,4 +12,14 @@ public interface BackOffProvider {
      * @param attemptCount the number of attempt.
      */
     void backOff(int attemptCount);
+
+    /**
+     * duration of the back-off for a specific number of attempts, without backing off.
+     *
+     * @param attemptCount the number of attempt.
+     * @return the back-off in milliseconds
+     */
+    default long getBackOffMillis(int attemptCount) {
+        return 0;
+    }
 }
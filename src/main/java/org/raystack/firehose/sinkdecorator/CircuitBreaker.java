@@ -0,0 +1,214 @@
+package org.raystack.firehose.sinkdecorator;
+
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+
+import static org.raystack.firehose.metrics.Metrics.SINK_CIRCUIT_BREAKER_STATE;
+import static org.raystack.firehose.metrics.Metrics.SINK_CIRCUIT_BREAKER_STATE_TAG;
+import static org.raystack.firehose.metrics.Metrics.SINK_CIRCUIT_BREAKER_TRANSITIONS_TOTAL;
+
+/**
+ * Circuit breaker shared by the sinks pushing to the same downstream.
+ * <p>
+ * Pushes are recorded in a sliding window of buckets. The circuit opens when, after a minimum number of batches,
+ * the rate of failed messages or of slow batches in the window reaches its threshold. While open no batch is
+ * pushed. After the open duration the circuit half opens and lets a few probe batches through, it closes when
+ * they all succeed and opens again when one of them fails.
+ * <p>
+ * This class is thread safe.
+ */
+public class CircuitBreaker {
+    private static final int BUCKET_COUNT = 10;
+    private static final long NO_PERMIT = -1;
+
+    private final long windowMillis;
+    private final long bucketMillis;
+    private final int minBatches;
+    private final int failureRateThreshold;
+    private final long slowBatchMillis;
+    private final int slowBatchRateThreshold;
+    private final long openDurationMillis;
+    private final int probeBatches;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final Bucket[] buckets = new Bucket[BUCKET_COUNT];
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openUntilMillis;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    /**
+     * Instantiates a new Circuit breaker.
+     *
+     * @param windowMillis            length of the sliding window
+     * @param minBatches              batches in the window before the circuit can open
+     * @param failureRateThreshold    percentage of failed messages opening the circuit
+     * @param slowBatchMillis         duration from which a batch is slow, 0 to ignore latency
+     * @param slowBatchRateThreshold  percentage of slow batches opening the circuit
+     * @param openDurationMillis      time the circuit stays open before half opening
+     * @param probeBatches            batches let through while half open
+     * @param firehoseInstrumentation the instrumentation
+     */
+    public CircuitBreaker(long windowMillis, int minBatches, int failureRateThreshold, long slowBatchMillis,
+                          int slowBatchRateThreshold, long openDurationMillis, int probeBatches,
+                          FirehoseInstrumentation firehoseInstrumentation) {
+        if (windowMillis < BUCKET_COUNT) {
+            throw new IllegalArgumentException("Circuit breaker window must be at least " + BUCKET_COUNT + " milliseconds");
+        }
+        this.windowMillis = windowMillis;
+        this.bucketMillis = windowMillis / BUCKET_COUNT;
+        this.minBatches = Math.max(1, minBatches);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowBatchMillis = slowBatchMillis;
+        this.slowBatchRateThreshold = slowBatchRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.probeBatches = Math.max(1, probeBatches);
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new Bucket();
+        }
+        firehoseInstrumentation.captureValue(SINK_CIRCUIT_BREAKER_STATE, state.ordinal());
+    }
+
+    /**
+     * Asks to push a batch.
+     *
+     * @return a permit to record the push with, negative if the batch must not be pushed
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntilMillis) {
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.CLOSED) {
+            return generation;
+        }
+        if (state == State.HALF_OPEN && probesStarted < probeBatches) {
+            probesStarted++;
+            return generation;
+        }
+        return NO_PERMIT;
+    }
+
+    /**
+     * Records the outcome of a push, ignored if the state changed since the permit was given.
+     *
+     * @param permit             the permit returned by {@link #tryAcquire()}
+     * @param messageCount       number of messages pushed
+     * @param failedMessageCount number of messages that failed
+     * @param durationMillis     duration of the push
+     */
+    public synchronized void record(long permit, int messageCount, int failedMessageCount, long durationMillis) {
+        if (permit != generation) {
+            return;
+        }
+        boolean failed = failedMessageCount > 0 && failedMessageCount * 100L >= failureRateThreshold * (long) messageCount;
+        boolean slow = slowBatchMillis > 0 && durationMillis >= slowBatchMillis;
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transition(State.OPEN);
+            } else if (++probesSucceeded >= probeBatches) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Bucket bucket = currentBucket(now);
+        bucket.batches++;
+        bucket.messages += messageCount;
+        bucket.failedMessages += failedMessageCount;
+        bucket.slowBatches += slow ? 1 : 0;
+
+        long batches = 0;
+        long messages = 0;
+        long failedMessages = 0;
+        long slowBatches = 0;
+        for (Bucket windowBucket : buckets) {
+            if (windowBucket.startMillis > now - windowMillis) {
+                batches += windowBucket.batches;
+                messages += windowBucket.messages;
+                failedMessages += windowBucket.failedMessages;
+                slowBatches += windowBucket.slowBatches;
+            }
+        }
+        if (batches < minBatches) {
+            return;
+        }
+        boolean failureRateReached = failedMessages > 0 && failedMessages * 100 >= failureRateThreshold * messages;
+        boolean slowRateReached = slowBatchMillis > 0 && slowBatches * 100 >= slowBatchRateThreshold * batches;
+        if (failureRateReached || slowRateReached) {
+            firehoseInstrumentation.logWarn("Opening circuit, {} of {} messages failed and {} of {} batches were slow",
+                    failedMessages, messages, slowBatches, batches);
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * @return time left before the circuit half opens, 0 if it is not open
+     */
+    public synchronized long getRemainingOpenMillis() {
+        return state == State.OPEN ? Math.max(0, openUntilMillis - System.currentTimeMillis()) : 0;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private Bucket currentBucket(long now) {
+        long startMillis = now - now % bucketMillis;
+        Bucket bucket = buckets[(int) ((now / bucketMillis) % BUCKET_COUNT)];
+        if (bucket.startMillis != startMillis) {
+            bucket.reset(startMillis);
+        }
+        return bucket;
+    }
+
+    private void transition(State newState) {
+        state = newState;
+        generation++;
+        switch (newState) {
+            case OPEN:
+                openUntilMillis = System.currentTimeMillis() + openDurationMillis;
+                break;
+            case HALF_OPEN:
+                probesStarted = 0;
+                probesSucceeded = 0;
+                break;
+            case CLOSED:
+                for (Bucket bucket : buckets) {
+                    bucket.reset(Long.MIN_VALUE);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unexpected value: " + newState);
+        }
+        firehoseInstrumentation.logInfo("Circuit breaker is {}", newState);
+        firehoseInstrumentation.captureValue(SINK_CIRCUIT_BREAKER_STATE, newState.ordinal());
+        firehoseInstrumentation.incrementCounter(SINK_CIRCUIT_BREAKER_TRANSITIONS_TOTAL,
+                String.format(SINK_CIRCUIT_BREAKER_STATE_TAG, newState.name().toLowerCase()));
+    }
+
+    /**
+     * State of the circuit, the ordinal is reported as the state metric.
+     */
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private static final class Bucket {
+        private long startMillis = Long.MIN_VALUE;
+        private long batches;
+        private long messages;
+        private long failedMessages;
+        private long slowBatches;
+
+        void reset(long newStartMillis) {
+            startMillis = newStartMillis;
+            batches = 0;
+            messages = 0;
+            failedMessages = 0;
+            slowBatches = 0;
+        }
+    }
+}
@@ -46,6 +46,11 @@ public class ExponentialBackOffProvider implements BackOffProvider {
         backOff.inMilliSeconds(sleepTime);
     }
 
+    @Override
+    public long getBackOffMillis(int attemptCount) {
+        return calculateDelay(attemptCount);
+    }
+
     private long calculateDelay(int attemptCount) {
         double exponentialBackOffTimeInMs = initialExpiryTimeInMs * Math.pow(backoffRate, attemptCount);
         return (long) Math.min(maximumExpiryTimeInMS, exponentialBackOffTimeInMs);
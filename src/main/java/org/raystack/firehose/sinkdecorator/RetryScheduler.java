@@ -0,0 +1,229 @@
+package org.raystack.firehose.sinkdecorator;
+
+import org.raystack.firehose.consumer.kafka.OffsetManager;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.Sink;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.raystack.firehose.metrics.Metrics.RETRY_ATTEMPTS_TOTAL;
+import static org.raystack.firehose.metrics.Metrics.RETRY_PARKED_MESSAGES;
+
+/**
+ * Retries failed messages on dedicated threads, so sink threads go on with new batches.
+ * <p>
+ * Failed messages are parked in a queue ordered by the time of their next attempt, with an exponential
+ * back-off and equal jitter. Their offsets are held in the {@link OffsetManager} until the retry is done.
+ * The number of parked messages and of retry threads is bounded, a sink thread parking messages waits
+ * while the budget is used up, which slows down consumption instead of piling up retries.
+ */
+public class RetryScheduler implements AutoCloseable {
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+    private static final ThreadLocal<RetryContext> CURRENT_RETRY = new ThreadLocal<>();
+
+    private final OffsetManager offsetManager;
+    private final BackOffProvider backOffProvider;
+    private final int maxParkedMessages;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+    private final ExecutorService retryExecutor;
+    private final DelayQueue<ParkedMessages> parkedQueue = new DelayQueue<>();
+    private final Semaphore parkedBudget;
+    private final AtomicInteger parkedMessageCount = new AtomicInteger();
+    private final AtomicLong parkSequence = new AtomicLong();
+    private final AtomicReference<Exception> retryFailure = new AtomicReference<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<Sink> retrySinks = new ArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * Instantiates a new Retry scheduler.
+     *
+     * @param offsetManager           offset manager holding the offsets of parked messages
+     * @param backOffProvider         provides the back-off before each attempt, jitter is added on top
+     * @param maxParkedMessages       the maximum number of messages waiting for a retry
+     * @param firehoseInstrumentation the instrumentation
+     * @param retryExecutor           executor running one retry loop per retry sink
+     */
+    public RetryScheduler(OffsetManager offsetManager, BackOffProvider backOffProvider, int maxParkedMessages,
+                          FirehoseInstrumentation firehoseInstrumentation, ExecutorService retryExecutor) {
+        if (maxParkedMessages < 1) {
+            throw new IllegalArgumentException("Maximum parked messages must be at least 1");
+        }
+        this.offsetManager = offsetManager;
+        this.backOffProvider = backOffProvider;
+        this.maxParkedMessages = maxParkedMessages;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+        this.retryExecutor = retryExecutor;
+        this.parkedBudget = new Semaphore(maxParkedMessages);
+    }
+
+    /**
+     * Starts one retry thread per sink.
+     *
+     * @param sinks sinks to retry with, decorated like the sinks of the sink threads
+     */
+    public void start(List<Sink> sinks) {
+        retrySinks.addAll(sinks);
+        for (Sink sink : sinks) {
+            retryExecutor.submit(() -> retryParkedMessages(sink));
+        }
+    }
+
+    /**
+     * @return the attempt being retried on the current thread, 0 when it is not a retry thread
+     */
+    public static int currentAttempt() {
+        RetryContext context = CURRENT_RETRY.get();
+        return context == null ? 0 : context.attemptCount;
+    }
+
+    /**
+     * Parks messages until their next attempt is due, holding their offsets meanwhile.
+     * Waits while the parked messages budget is used up.
+     *
+     * @param messages     messages to retry
+     * @param attemptCount the attempt to make
+     * @throws IOException if a retry failed or the wait is interrupted
+     */
+    public void park(List<Message> messages, int attemptCount) throws IOException {
+        int permits = Math.min(messages.size(), maxParkedMessages);
+        RetryContext context = CURRENT_RETRY.get();
+        if (context != null) {
+            // retry thread parking again part of the messages it already holds the budget for
+            context.transferredPermits += permits;
+        } else {
+            acquireBudget(permits);
+        }
+        String key = "retry-" + parkSequence.incrementAndGet();
+        offsetManager.holdOffsets(key, messages);
+        long backOffMillis = backOffProvider.getBackOffMillis(attemptCount);
+        long delayMillis = backOffMillis / 2 + ThreadLocalRandom.current().nextLong(backOffMillis / 2 + 1);
+        parkedQueue.put(new ParkedMessages(key, new ArrayList<>(messages), attemptCount, permits,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis)));
+        firehoseInstrumentation.captureValue(RETRY_PARKED_MESSAGES, parkedMessageCount.addAndGet(messages.size()));
+        firehoseInstrumentation.logDebug("Parked {} messages for attempt {} in {} milliseconds", messages.size(), attemptCount, delayMillis);
+    }
+
+    private void acquireBudget(int permits) throws IOException {
+        try {
+            while (!parkedBudget.tryAcquire(permits, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throwIfFailed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to park messages for retry");
+        }
+    }
+
+    /**
+     * @throws IOException if a retry failed, its messages are still held and firehose has to stop
+     */
+    public void throwIfFailed() throws IOException {
+        Exception failure = retryFailure.get();
+        if (failure != null) {
+            throw new IOException("Delayed retry failed", failure);
+        }
+    }
+
+    private void retryParkedMessages(Sink sink) {
+        while (running) {
+            ParkedMessages parked;
+            try {
+                parked = parkedQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (parked == null) {
+                continue;
+            }
+            RetryContext context = new RetryContext(parked.attemptCount);
+            CURRENT_RETRY.set(context);
+            try {
+                firehoseInstrumentation.incrementCounter(RETRY_ATTEMPTS_TOTAL);
+                firehoseInstrumentation.logInfo("Retrying messages attempt count: {}, Number of messages: {}", parked.attemptCount, parked.messages.size());
+                sink.pushMessage(parked.messages);
+            } catch (Exception e) {
+                firehoseInstrumentation.logError("Delayed retry failed: {}", e.getMessage());
+                retryFailure.compareAndSet(null, e);
+                running = false;
+                return;
+            } finally {
+                CURRENT_RETRY.remove();
+            }
+            offsetManager.releaseOffsets(parked.key);
+            parkedBudget.release(parked.permits - context.transferredPermits);
+            firehoseInstrumentation.captureValue(RETRY_PARKED_MESSAGES, parkedMessageCount.addAndGet(-parked.messages.size()));
+        }
+    }
+
+    public int getParkedMessageCount() {
+        return parkedMessageCount.get();
+    }
+
+    /**
+     * Stops the retry threads and closes the retry sinks, parked messages are left uncommitted.
+     *
+     * @throws IOException if a retry sink fails to close
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        running = false;
+        retryExecutor.shutdownNow();
+        for (Sink sink : retrySinks) {
+            sink.close();
+        }
+    }
+
+    private static final class RetryContext {
+        private final int attemptCount;
+        private int transferredPermits;
+
+        RetryContext(int attemptCount) {
+            this.attemptCount = attemptCount;
+        }
+    }
+
+    private static final class ParkedMessages implements Delayed {
+        private final String key;
+        private final List<Message> messages;
+        private final int attemptCount;
+        private final int permits;
+        private final long dueNanos;
+
+        ParkedMessages(String key, List<Message> messages, int attemptCount, int permits, long dueNanos) {
+            this.key = key;
+            this.messages = messages;
+            this.attemptCount = attemptCount;
+            this.permits = permits;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
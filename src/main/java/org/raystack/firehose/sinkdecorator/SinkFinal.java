@@ -23,13 +23,20 @@ public class SinkFinal extends SinkDecorator {
         this.firehoseInstrumentation = firehoseInstrumentation;
     }
 
+    /**
+     * Pushes the messages and releases their decoded payloads, as the batch is acknowledged once this returns.
+     */
     @Override
     public List<Message> pushMessage(List<Message> inputMessages) throws IOException, DeserializerException {
-        List<Message> failedMessages = super.pushMessage(inputMessages);
-        if (failedMessages.size() > 0) {
-            firehoseInstrumentation.logInfo("Ignoring messages {}", failedMessages.size());
-            firehoseInstrumentation.captureGlobalMessageMetrics(Metrics.MessageScope.IGNORED, failedMessages.size());
+        try {
+            List<Message> failedMessages = super.pushMessage(inputMessages);
+            if (failedMessages.size() > 0) {
+                firehoseInstrumentation.logInfo("Ignoring messages {}", failedMessages.size());
+                firehoseInstrumentation.captureGlobalMessageMetrics(Metrics.MessageScope.IGNORED, failedMessages.size());
+            }
+            return failedMessages;
+        } finally {
+            inputMessages.forEach(Message::releaseDecoded);
         }
-        return failedMessages;
     }
 }
@@ -0,0 +1,104 @@
+package org.raystack.firehose.sinkdecorator;
+
+import org.raystack.depot.error.ErrorInfo;
+import org.raystack.depot.error.ErrorType;
+import org.raystack.firehose.exception.DefaultException;
+import org.raystack.firehose.exception.DeserializerException;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.Sink;
+import org.raystack.firehose.sink.dlq.DlqWriter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.raystack.firehose.metrics.Metrics.SINK_CIRCUIT_BREAKER_REJECTED_MESSAGES_TOTAL;
+
+/**
+ * Pushes messages through a {@link CircuitBreaker}.
+ * <p>
+ * While the circuit is open, batches are written straight to the DLQ when a DLQ writer is given,
+ * otherwise the sink thread waits for the circuit to half open, which pauses consumption.
+ * Placed around the sink, so retries of an open circuit do not reach the downstream either.
+ */
+public class SinkWithCircuitBreaker extends SinkDecorator {
+    private static final long PAUSE_POLL_MILLIS = 100;
+
+    private final CircuitBreaker circuitBreaker;
+    private final DlqWriter dlqWriter;
+    private final FirehoseInstrumentation firehoseInstrumentation;
+
+    /**
+     * Instantiates a new Sink with circuit breaker.
+     *
+     * @param sink                    the sink
+     * @param circuitBreaker          the circuit breaker, shared by the sinks of the consumer
+     * @param dlqWriter               writer for batches rejected by the open circuit, null to pause instead
+     * @param firehoseInstrumentation the instrumentation
+     */
+    public SinkWithCircuitBreaker(Sink sink, CircuitBreaker circuitBreaker, DlqWriter dlqWriter, FirehoseInstrumentation firehoseInstrumentation) {
+        super(sink);
+        this.circuitBreaker = circuitBreaker;
+        this.dlqWriter = dlqWriter;
+        this.firehoseInstrumentation = firehoseInstrumentation;
+    }
+
+    @Override
+    public List<Message> pushMessage(List<Message> inputMessages) throws IOException, DeserializerException {
+        long permit = circuitBreaker.tryAcquire();
+        while (permit < 0) {
+            if (dlqWriter != null) {
+                return writeToDlq(inputMessages);
+            }
+            pause();
+            permit = circuitBreaker.tryAcquire();
+        }
+        long startMillis = System.currentTimeMillis();
+        List<Message> failedMessages;
+        try {
+            failedMessages = super.pushMessage(inputMessages);
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.record(permit, inputMessages.size(), inputMessages.size(), System.currentTimeMillis() - startMillis);
+            throw e;
+        }
+        circuitBreaker.record(permit, inputMessages.size(), failedMessages.size(), System.currentTimeMillis() - startMillis);
+        return failedMessages;
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (dlqWriter != null) {
+            dlqWriter.close();
+        }
+    }
+
+    private void pause() throws InterruptedIOException {
+        long pauseMillis = Math.max(PAUSE_POLL_MILLIS, circuitBreaker.getRemainingOpenMillis());
+        firehoseInstrumentation.logDebug("Circuit is open, pausing for {} milliseconds", pauseMillis);
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while the circuit is open");
+        }
+    }
+
+    private List<Message> writeToDlq(List<Message> messages) throws IOException {
+        messages.forEach(message -> {
+            if (message.getErrorInfo() == null) {
+                message.setErrorInfo(new ErrorInfo(new DefaultException("circuit breaker is open"), ErrorType.SINK_UNKNOWN_ERROR));
+            }
+        });
+        firehoseInstrumentation.captureCount(SINK_CIRCUIT_BREAKER_REJECTED_MESSAGES_TOTAL, (long) messages.size());
+        List<Message> failedMessages = dlqWriter.write(messages);
+        if (super.canManageOffsets()) {
+            List<Message> writtenMessages = new ArrayList<>(messages);
+            writtenMessages.removeAll(failedMessages);
+            super.addOffsetsAndSetCommittable(writtenMessages);
+        }
+        return failedMessages;
+    }
+}
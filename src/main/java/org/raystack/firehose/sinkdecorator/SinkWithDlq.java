@@ -102,5 +102,6 @@ public class SinkWithDlq extends SinkDecorator {
     @Override
     public void close() throws IOException {
         super.close();
+        writer.close();
     }
 }
@@ -23,6 +23,9 @@ import static org.raystack.firehose.metrics.Metrics.RETRY_ATTEMPTS_TOTAL;
 
 /**
  * Pushes messages with configured retry.
+ * <p>
+ * With a {@link RetryScheduler} the failed messages are parked for a delayed retry on the retry threads
+ * instead of retrying them on the calling thread.
  */
 public class SinkWithRetry extends SinkDecorator {
 
@@ -31,14 +34,20 @@ public class SinkWithRetry extends SinkDecorator {
     private final AppConfig appConfig;
     private final KeyOrMessageParser parser;
     private final ErrorHandler errorHandler;
+    private final RetryScheduler retryScheduler;
 
     public SinkWithRetry(Sink sink, BackOffProvider backOffProvider, FirehoseInstrumentation firehoseInstrumentation, AppConfig appConfig, KeyOrMessageParser parser, ErrorHandler errorHandler) {
+        this(sink, backOffProvider, firehoseInstrumentation, appConfig, parser, errorHandler, null);
+    }
+
+    public SinkWithRetry(Sink sink, BackOffProvider backOffProvider, FirehoseInstrumentation firehoseInstrumentation, AppConfig appConfig, KeyOrMessageParser parser, ErrorHandler errorHandler, RetryScheduler retryScheduler) {
         super(sink);
         this.backOffProvider = backOffProvider;
         this.firehoseInstrumentation = firehoseInstrumentation;
         this.appConfig = appConfig;
         this.parser = parser;
         this.errorHandler = errorHandler;
+        this.retryScheduler = retryScheduler;
     }
 
     /**
@@ -51,6 +60,10 @@ public class SinkWithRetry extends SinkDecorator {
      */
     @Override
     public List<Message> pushMessage(List<Message> inputMessages) throws IOException, DeserializerException {
+        if (retryScheduler != null) {
+            retryScheduler.throwIfFailed();
+            return pushAndPark(inputMessages);
+        }
         List<Message> failedMessages = super.pushMessage(inputMessages);
         if (failedMessages.isEmpty()) {
             return failedMessages;
@@ -64,6 +77,47 @@ public class SinkWithRetry extends SinkDecorator {
         return messagesAfterRetry;
     }
 
+    /**
+     * Pushes messages once and parks the retryable failures for their next attempt.
+     * On a retry thread the messages are the parked ones, they are parked again until the maximum attempts.
+     */
+    private List<Message> pushAndPark(List<Message> inputMessages) throws IOException {
+        int attemptCount = RetryScheduler.currentAttempt();
+        if (attemptCount > 0) {
+            logDebug(inputMessages);
+        }
+        List<Message> failedMessages = super.pushMessage(inputMessages);
+        if (attemptCount > 0) {
+            firehoseInstrumentation.captureMessageMetrics(RETRY_MESSAGES_TOTAL, Metrics.MessageType.SUCCESS, inputMessages.size() - failedMessages.size());
+        }
+        if (failedMessages.isEmpty()) {
+            return failedMessages;
+        }
+        Map<Boolean, List<Message>> splitLists = errorHandler.split(failedMessages, ErrorScope.RETRY);
+        List<Message> retryMessages = splitLists.get(Boolean.TRUE);
+        List<Message> remainingMessages = new ArrayList<>(splitLists.get(Boolean.FALSE));
+        if (retryMessages.isEmpty()) {
+            return remainingMessages;
+        }
+        if (attemptCount == 0) {
+            firehoseInstrumentation.logInfo("Maximum retry attempts: {}", appConfig.getRetryMaxAttempts());
+            retryMessages.forEach(m -> {
+                m.setDefaultErrorIfNotPresent();
+                firehoseInstrumentation.captureMessageMetrics(RETRY_MESSAGES_TOTAL, Metrics.MessageType.TOTAL, m.getErrorInfo().getErrorType(), 1);
+            });
+        }
+        if (attemptCount < appConfig.getRetryMaxAttempts()) {
+            retryScheduler.park(retryMessages, attemptCount + 1);
+            return remainingMessages;
+        }
+        retryMessages.forEach(m -> firehoseInstrumentation.captureMessageMetrics(RETRY_MESSAGES_TOTAL, Metrics.MessageType.FAILURE, m.getErrorInfo().getErrorType(), 1));
+        if (appConfig.getRetryFailAfterMaxAttemptsEnable()) {
+            throw new IOException("exceeded maximum Sink retry attempts");
+        }
+        remainingMessages.addAll(retryMessages);
+        return remainingMessages;
+    }
+
     private void logDebug(List<Message> messageList) throws IOException {
         if (firehoseInstrumentation.isDebugEnabled()) {
             switch (appConfig.getInputSchemaType()) {
@@ -123,5 +177,8 @@ public class SinkWithRetry extends SinkDecorator {
     @Override
     public void close() throws IOException {
         super.close();
+        if (retryScheduler != null) {
+            retryScheduler.close();
+        }
     }
 }
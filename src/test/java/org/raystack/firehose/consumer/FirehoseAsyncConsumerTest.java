@@ -20,6 +20,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.Future;
@@ -63,8 +64,8 @@ public class FirehoseAsyncConsumerTest {
         }};
 
         Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messageList1);
-        Mockito.when(sinkPool.submitTask(messageList1)).thenReturn(future1);
-        Mockito.when(sinkPool.submitTask(messageList2)).thenReturn(future2);
+        Mockito.when(sinkPool.submitTasks(messageList1)).thenReturn(Collections.singletonMap(future1, messageList1));
+        Mockito.when(sinkPool.submitTasks(messageList2)).thenReturn(Collections.singletonMap(future2, messageList2));
         Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
         Mockito.when(future1.isDone()).thenReturn(false);
         Mockito.when(future2.isDone()).thenReturn(false);
@@ -85,7 +86,7 @@ public class FirehoseAsyncConsumerTest {
         }};
         Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messages);
 
-        Mockito.when(sinkPool.submitTask(messages)).thenReturn(future1);
+        Mockito.when(sinkPool.submitTasks(messages)).thenReturn(Collections.singletonMap(future1, messages));
         Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<Future<List<Message>>>() {{
             add(future1);
         }});
@@ -106,7 +107,7 @@ public class FirehoseAsyncConsumerTest {
             add(new Message(new byte[0], new byte[0], "topic1", 1, 12));
         }};
         Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messages);
-        Mockito.when(sinkPool.submitTask(messages)).thenReturn(future1);
+        Mockito.when(sinkPool.submitTasks(messages)).thenReturn(Collections.singletonMap(future1, messages));
         Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenThrow(new SinkTaskFailedException(new RuntimeException()));
         asyncConsumer.process();
     }
@@ -128,9 +129,10 @@ public class FirehoseAsyncConsumerTest {
             addToInvalidMessages(messages.get(1));
             addToInvalidMessages(messages.get(2));
         }});
-        Mockito.when(sinkPool.submitTask(new ArrayList<Message>() {{
+        List<Message> validMessages = new ArrayList<Message>() {{
             add(messages.get(0));
-        }})).thenReturn(future1);
+        }};
+        Mockito.when(sinkPool.submitTasks(validMessages)).thenReturn(Collections.singletonMap(future1, validMessages));
         Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<Future<List<Message>>>() {{
             add(future1);
         }});
@@ -0,0 +1,133 @@
+package org.raystack.firehose.consumer;
+
+import org.raystack.firehose.consumer.kafka.ConsumerAndOffsetManager;
+import org.raystack.firehose.exception.FirehoseConsumerFailedException;
+import org.raystack.firehose.filter.Filter;
+import org.raystack.firehose.filter.FilterException;
+import org.raystack.firehose.filter.FilteredMessages;
+import org.raystack.firehose.filter.NoOpFilter;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.SinkPool;
+import org.raystack.firehose.tracer.SinkTracer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.ArgumentMatchers.anyList;
+
+public class FirehosePipelinedAsyncConsumerTest {
+    @Mock
+    private SinkPool sinkPool;
+    @Mock
+    private SinkTracer tracer;
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+    @Mock
+    private ConsumerAndOffsetManager consumerAndOffsetManager;
+    @Mock
+    private Future<List<Message>> future;
+    private ExecutorService stageExecutor;
+    private FirehosePipelinedAsyncConsumer pipelinedConsumer;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        stageExecutor = Executors.newFixedThreadPool(2);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pipelinedConsumer.close();
+    }
+
+    private FirehosePipelinedAsyncConsumer createConsumer(Filter filter) {
+        FirehoseFilter firehoseFilter = new FirehoseFilter(filter, firehoseInstrumentation);
+        return new FirehosePipelinedAsyncConsumer(sinkPool, tracer, consumerAndOffsetManager, firehoseFilter, firehoseInstrumentation, stageExecutor, 1, 10);
+    }
+
+    @Test
+    public void shouldFilterAndDispatchMessagesOnStageThreads() {
+        pipelinedConsumer = createConsumer(new NoOpFilter(firehoseInstrumentation));
+        List<Message> messages = new ArrayList<Message>() {{
+            add(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+            add(new Message(new byte[0], new byte[0], "topic1", 2, 11));
+        }};
+        Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messages).thenReturn(new ArrayList<>());
+        Mockito.when(sinkPool.submitTasks(messages)).thenReturn(Collections.singletonMap(future, messages));
+
+        pipelinedConsumer.process();
+
+        Mockito.verify(consumerAndOffsetManager, Mockito.timeout(1000)).addOffsets(future, messages);
+        Mockito.verify(sinkPool, Mockito.timeout(1000)).submitTasks(messages);
+        Mockito.verify(tracer, Mockito.timeout(1000)).finishTrace(anyList());
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).resume();
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).commit();
+    }
+
+    @Test
+    public void shouldSetOffsetsCommittableForFinishedTasks() {
+        pipelinedConsumer = createConsumer(new NoOpFilter(firehoseInstrumentation));
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messages).thenReturn(new ArrayList<>());
+        Mockito.when(sinkPool.submitTasks(messages)).thenReturn(Collections.singletonMap(future, messages));
+        Mockito.when(sinkPool.fetchFinishedSinkTasks())
+                .thenReturn(new HashSet<>())
+                .thenReturn(new HashSet<Future<List<Message>>>() {{
+                    add(future);
+                }})
+                .thenReturn(new HashSet<>());
+
+        pipelinedConsumer.process();
+
+        Mockito.verify(consumerAndOffsetManager, Mockito.timeout(1000)).setCommittable(future);
+    }
+
+    @Test
+    public void shouldPausePartitionsWhenStagesAreFull() throws FilterException, InterruptedException {
+        Filter blockingFilter = Mockito.mock(Filter.class);
+        Mockito.when(blockingFilter.filter(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(10000);
+            return new FilteredMessages();
+        });
+        pipelinedConsumer = createConsumer(blockingFilter);
+        Mockito.when(consumerAndOffsetManager.readMessages())
+                .thenReturn(Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10)));
+
+        pipelinedConsumer.process();
+        Thread.sleep(100);
+        pipelinedConsumer.process();
+        pipelinedConsumer.process();
+        pipelinedConsumer.process();
+
+        Mockito.verify(consumerAndOffsetManager, Mockito.atLeastOnce()).pause();
+    }
+
+    @Test(expected = FirehoseConsumerFailedException.class)
+    public void shouldThrowExceptionWhenStageFails() throws FilterException, InterruptedException {
+        Filter failingFilter = Mockito.mock(Filter.class);
+        Mockito.when(failingFilter.filter(anyList())).thenThrow(new FilterException("test"));
+        pipelinedConsumer = createConsumer(failingFilter);
+        Mockito.when(consumerAndOffsetManager.readMessages())
+                .thenReturn(Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10)))
+                .thenReturn(new ArrayList<>());
+
+        for (int i = 0; i < 100; i++) {
+            pipelinedConsumer.process();
+            Thread.sleep(10);
+        }
+    }
+}
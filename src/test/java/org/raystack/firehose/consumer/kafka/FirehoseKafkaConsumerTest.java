@@ -32,9 +32,12 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FirehoseKafkaConsumerTest {
@@ -249,4 +252,45 @@ public class FirehoseKafkaConsumerTest {
             put(new TopicPartition("topic1", 4), new OffsetAndMetadata(5));
         }}), Mockito.any(OffsetCommitCallback.class));
     }
+
+    @Test
+    public void shouldPollWithPausedTimeoutWhenPaused() {
+        Set<TopicPartition> assignment = new HashSet<>(Arrays.asList(new TopicPartition("topic1", 1), new TopicPartition("topic1", 2)));
+        when(kafkaConsumer.assignment()).thenReturn(assignment);
+        when(consumerConfig.getSourceKafkaPausedPollTimeoutMs()).thenReturn(100L);
+        when(kafkaConsumer.poll(Duration.ofMillis(100L))).thenReturn(consumerRecords);
+        when(consumerRecords.iterator()).thenReturn(Collections.emptyIterator());
+
+        firehoseKafkaConsumer.pause();
+        firehoseKafkaConsumer.readMessages();
+
+        verify(kafkaConsumer, times(1)).pause(assignment);
+        verify(kafkaConsumer, times(1)).poll(Duration.ofMillis(100L));
+        verify(firehoseInstrumentation, times(1)).incrementCounter(Metrics.SOURCE_KAFKA_PARTITIONS_PAUSE_TOTAL);
+    }
+
+    @Test
+    public void shouldResumePausedPartitions() {
+        Set<TopicPartition> assignment = new HashSet<>(Arrays.asList(new TopicPartition("topic1", 1), new TopicPartition("topic1", 2)));
+        when(kafkaConsumer.assignment()).thenReturn(assignment);
+        when(kafkaConsumer.paused()).thenReturn(assignment);
+        when(consumerRecords.iterator()).thenReturn(Collections.emptyIterator());
+
+        firehoseKafkaConsumer.pause();
+        firehoseKafkaConsumer.pause();
+        firehoseKafkaConsumer.resume();
+        firehoseKafkaConsumer.readMessages();
+
+        verify(kafkaConsumer, times(2)).pause(assignment);
+        verify(kafkaConsumer, times(1)).resume(assignment);
+        verify(kafkaConsumer, times(1)).poll(Duration.ofMillis(500L));
+        verify(firehoseInstrumentation, times(1)).incrementCounter(Metrics.SOURCE_KAFKA_PARTITIONS_PAUSE_TOTAL);
+    }
+
+    @Test
+    public void shouldNotResumeWhenNotPaused() {
+        firehoseKafkaConsumer.resume();
+
+        verify(kafkaConsumer, times(0)).resume(Mockito.any());
+    }
 }
@@ -10,6 +10,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -391,6 +393,21 @@ public class OffsetManagerTest {
 
     }
 
+    @Test
+    public void shouldNotCommitHeldOffsetsUntilReleased() {
+        OffsetManager manager = new OffsetManager();
+        List<Message> messages = Arrays.asList(createMessage("topic1", 1, 1), createMessage("topic1", 1, 2), createMessage("topic1", 1, 3));
+        manager.addOffsetToBatch("batch", messages);
+        manager.holdOffsets("retry", Collections.singletonList(messages.get(1)));
+        manager.setCommittable("batch");
+
+        Assert.assertEquals(new OffsetAndMetadata(2), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+
+        manager.releaseOffsets("retry");
+
+        Assert.assertEquals(new OffsetAndMetadata(4), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+    }
+
     @EqualsAndHashCode
     @Data
     @AllArgsConstructor
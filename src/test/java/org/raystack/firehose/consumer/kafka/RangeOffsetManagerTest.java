@@ -0,0 +1,149 @@
+package org.raystack.firehose.consumer.kafka;
+
+import org.raystack.firehose.message.Message;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RangeOffsetManagerTest {
+
+    private Message createMessage(String topic, int partition, int offset) {
+        return new Message("".getBytes(), "".getBytes(), topic, partition, offset);
+    }
+
+    @Test
+    public void shouldReturnCommittableOffset() {
+        OffsetManager manager = new RangeOffsetManager();
+        List<Message> messageList1 = Arrays.asList(
+                createMessage("topic2", 1, 1),
+                createMessage("topic1", 1, 3),
+                createMessage("topic2", 1, 2),
+                createMessage("topic1", 1, 1),
+                createMessage("topic1", 1, 2),
+                createMessage("topic1", 1, 4));
+        List<Message> messageList2 = Arrays.asList(
+                createMessage("topic2", 1, 3),
+                createMessage("topic1", 1, 6),
+                createMessage("topic1", 1, 5),
+                createMessage("topic2", 1, 4));
+        List<Message> messageList3 = Arrays.asList(
+                createMessage("topic1", 1, 7),
+                createMessage("topic1", 1, 8),
+                createMessage("topic1", 1, 9),
+                createMessage("topic2", 1, 5),
+                createMessage("topic2", 1, 6),
+                createMessage("topic3", 1, 1));
+        manager.addOffsetToBatch("key1", messageList1);
+        manager.addOffsetToBatch("key2", messageList2);
+        manager.addOffsetToBatch("key3", messageList3);
+
+        manager.setCommittable("key2");
+        Assert.assertTrue(manager.getCommittableOffset().isEmpty());
+
+        manager.setCommittable("key1");
+        Map<TopicPartition, OffsetAndMetadata> committableOffset = manager.getCommittableOffset();
+        Assert.assertEquals(2, committableOffset.size());
+        Assert.assertEquals(new OffsetAndMetadata(7), committableOffset.get(new TopicPartition("topic1", 1)));
+        Assert.assertEquals(new OffsetAndMetadata(5), committableOffset.get(new TopicPartition("topic2", 1)));
+
+        committableOffset = manager.getCommittableOffset();
+        Assert.assertEquals(2, committableOffset.size());
+        Assert.assertEquals(new OffsetAndMetadata(7), committableOffset.get(new TopicPartition("topic1", 1)));
+        Assert.assertEquals(new OffsetAndMetadata(5), committableOffset.get(new TopicPartition("topic2", 1)));
+
+        manager.setCommittable("key3");
+        committableOffset = manager.getCommittableOffset();
+        Assert.assertEquals(3, committableOffset.size());
+        Assert.assertEquals(new OffsetAndMetadata(10), committableOffset.get(new TopicPartition("topic1", 1)));
+        Assert.assertEquals(new OffsetAndMetadata(7), committableOffset.get(new TopicPartition("topic2", 1)));
+        Assert.assertEquals(new OffsetAndMetadata(2), committableOffset.get(new TopicPartition("topic3", 1)));
+    }
+
+    @Test
+    public void shouldNotCommitPastUnfinishedInterleavedOffsets() {
+        OffsetManager manager = new RangeOffsetManager();
+        manager.addOffsetToBatch(new HashMap<Object, List<Message>>() {{
+            put("file1", Arrays.asList(createMessage("topic1", 1, 10), createMessage("topic1", 1, 12), createMessage("topic1", 1, 14)));
+            put("file2", Arrays.asList(createMessage("topic1", 1, 11), createMessage("topic1", 1, 13)));
+        }});
+
+        manager.setCommittable("file2");
+        Assert.assertTrue(manager.getCommittableOffset().isEmpty());
+
+        manager.setCommittable("file1");
+        Assert.assertEquals(new OffsetAndMetadata(15), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+    }
+
+    @Test
+    public void shouldCommitUpToTheLowestUnfinishedOffset() {
+        OffsetManager manager = new RangeOffsetManager();
+        manager.addOffsetToBatch("file1", Arrays.asList(createMessage("topic1", 1, 10), createMessage("topic1", 1, 12), createMessage("topic1", 1, 14)));
+        manager.addOffsetToBatch("file2", Arrays.asList(createMessage("topic1", 1, 11), createMessage("topic1", 1, 13)));
+
+        manager.setCommittable("file1");
+
+        Assert.assertEquals(new OffsetAndMetadata(11), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+    }
+
+    @Test
+    public void shouldAddOffsetsAndSetCommittable() {
+        OffsetManager manager = new RangeOffsetManager();
+        manager.addOffsetToBatch("key1", Arrays.asList(createMessage("topic1", 1, 1), createMessage("topic1", 1, 2)));
+        manager.addOffsetsAndSetCommittable(Arrays.asList(createMessage("topic1", 1, 3), createMessage("topic1", 2, 3)));
+
+        Map<TopicPartition, OffsetAndMetadata> committableOffset = manager.getCommittableOffset();
+        Assert.assertEquals(1, committableOffset.size());
+        Assert.assertEquals(new OffsetAndMetadata(4), committableOffset.get(new TopicPartition("topic1", 2)));
+
+        manager.setCommittable("key1");
+        Assert.assertEquals(new OffsetAndMetadata(4), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+    }
+
+    @Test
+    public void shouldStartNewBatchWhenAddingToCommittedKey() {
+        OffsetManager manager = new RangeOffsetManager();
+        manager.addOffsetToBatch("key1", createMessage("topic1", 1, 1));
+        manager.setCommittable("key1");
+        manager.addOffsetToBatch("key1", createMessage("topic1", 1, 2));
+
+        Assert.assertEquals(new OffsetAndMetadata(2), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+
+        manager.setCommittable("key1");
+        Assert.assertEquals(new OffsetAndMetadata(3), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+    }
+
+    @Test
+    public void shouldNotCommitWhenOlderOffsetIsAddedAfterCommit() {
+        OffsetManager manager = new RangeOffsetManager();
+        manager.addOffsetsAndSetCommittable(new ArrayList<Message>() {{
+            add(createMessage("topic1", 1, 10));
+        }});
+        Assert.assertEquals(new OffsetAndMetadata(11), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+
+        manager.addOffsetToBatch("key1", createMessage("topic1", 1, 5));
+        Assert.assertTrue(manager.getCommittableOffset().isEmpty());
+    }
+
+    @Test
+    public void shouldNotCommitHeldOffsetsUntilReleased() {
+        OffsetManager manager = new RangeOffsetManager();
+        List<Message> messages = Arrays.asList(createMessage("topic1", 1, 1), createMessage("topic1", 1, 2), createMessage("topic1", 1, 3));
+        manager.addOffsetToBatch("batch", messages);
+        manager.holdOffsets("retry", Collections.singletonList(messages.get(1)));
+        manager.setCommittable("batch");
+
+        Assert.assertEquals(new OffsetAndMetadata(2), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+
+        manager.releaseOffsets("retry");
+
+        Assert.assertEquals(new OffsetAndMetadata(4), manager.getCommittableOffset().get(new TopicPartition("topic1", 1)));
+    }
+}
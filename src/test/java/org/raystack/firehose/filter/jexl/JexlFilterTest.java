@@ -18,8 +18,10 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -102,4 +104,54 @@ public class JexlFilterTest {
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).logInfo("\n\tFilter schema: {}", TestMessage.class.getName());
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).logInfo("\n\tFilter expression: {}", "testMessage.getOrderNumber() == 123");
     }
+
+    @Test
+    public void shouldFilterLargeBatchesInParallelPreservingOrder() throws FilterException {
+        Map<String, String> filterConfigs = new HashMap<>();
+        filterConfigs.put("FILTER_DATA_SOURCE", "message");
+        filterConfigs.put("FILTER_JEXL_EXPRESSION", "testMessage.getOrderNumber() == 123");
+        filterConfigs.put("FILTER_SCHEMA_PROTO_CLASS", TestMessage.class.getName());
+        filterConfigs.put("FILTER_JEXL_PARALLELISM", "3");
+        filterConfigs.put("FILTER_JEXL_PARALLEL_MIN_BATCH_SIZE", "5");
+        filter = new JexlFilter(ConfigFactory.create(FilterConfig.class, filterConfigs), firehoseInstrumentation);
+        List<Message> messages = new ArrayList<>();
+        FilteredMessages expectedMessages = new FilteredMessages();
+        for (int i = 0; i < 10; i++) {
+            String orderNumber = i % 2 == 0 ? "123" : "456";
+            TestMessage message = TestMessage.newBuilder().setOrderNumber(orderNumber).build();
+            messages.add(new Message(key.toByteArray(), message.toByteArray(), "topic1", 0, i));
+            if (i % 2 == 0) {
+                expectedMessages.addToValidMessages(messages.get(i));
+            } else {
+                expectedMessages.addToInvalidMessages(messages.get(i));
+            }
+        }
+
+        assertEquals(expectedMessages, filter.filter(messages));
+    }
+
+    @Test(expected = FilterException.class)
+    public void shouldShutDownParallelEvaluationOnClose() throws Exception {
+        Map<String, String> filterConfigs = new HashMap<>();
+        filterConfigs.put("FILTER_DATA_SOURCE", "message");
+        filterConfigs.put("FILTER_JEXL_EXPRESSION", "testMessage.getOrderNumber() == 123");
+        filterConfigs.put("FILTER_SCHEMA_PROTO_CLASS", TestMessage.class.getName());
+        filterConfigs.put("FILTER_JEXL_PARALLELISM", "2");
+        filterConfigs.put("FILTER_JEXL_PARALLEL_MIN_BATCH_SIZE", "2");
+        filter = new JexlFilter(ConfigFactory.create(FilterConfig.class, filterConfigs), firehoseInstrumentation);
+        Message message = new Message(key.toByteArray(), testMessage.toByteArray(), "topic1", 0, 100);
+
+        filter.close();
+        filter.filter(Arrays.asList(message, message));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionOnInvalidSchemaProtoClass() {
+        Map<String, String> filterConfigs = new HashMap<>();
+        filterConfigs.put("FILTER_DATA_SOURCE", "message");
+        filterConfigs.put("FILTER_JEXL_EXPRESSION", "testMessage.getOrderNumber() == 123");
+        filterConfigs.put("FILTER_SCHEMA_PROTO_CLASS", "org.raystack.firehose.consumer.UnknownMessage");
+
+        new JexlFilter(ConfigFactory.create(FilterConfig.class, filterConfigs), firehoseInstrumentation);
+    }
 }
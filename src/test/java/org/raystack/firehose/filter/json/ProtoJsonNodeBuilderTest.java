@@ -0,0 +1,67 @@
+package org.raystack.firehose.filter.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.util.JsonFormat;
+import org.raystack.firehose.consumer.TestAuditEntityLogMessage;
+import org.raystack.firehose.consumer.TestBookingLogMessage;
+import org.raystack.firehose.consumer.TestFeedbackLogMessage;
+import org.raystack.firehose.consumer.TestLocation;
+import org.raystack.firehose.consumer.TestReason;
+import org.raystack.firehose.consumer.TestServiceType;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProtoJsonNodeBuilderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private void assertSameAsPrintedJson(Message message) throws IOException {
+        JsonNode expected = objectMapper.readTree(JsonFormat.printer().preservingProtoFieldNames().print(message));
+        DynamicMessage dynamicMessage = DynamicMessage.parseFrom(message.getDescriptorForType(), message.toByteArray());
+
+        assertEquals(expected, ProtoJsonNodeBuilder.build(dynamicMessage));
+    }
+
+    @Test
+    public void shouldBuildScalarNestedAndWellKnownTypeFields() throws IOException {
+        assertSameAsPrintedJson(TestBookingLogMessage.newBuilder()
+                .setServiceType(TestServiceType.Enum.GO_RIDE)
+                .setCustomerId("customer")
+                .setAmountPaidByCash(12.3f)
+                .setCustomerTotalFareWithoutSurge(1234567890123L)
+                .setCustomerDynamicSurgeEnabled(true)
+                .setEventTimestamp(Timestamp.newBuilder().setSeconds(1600000000).setNanos(5000).build())
+                .setDriverPickupLocation(TestLocation.newBuilder().setLatitude(22.4).setAccuracyMeter(0.1f).build())
+                .build());
+    }
+
+    @Test
+    public void shouldBuildRepeatedFields() throws IOException {
+        assertSameAsPrintedJson(TestFeedbackLogMessage.newBuilder()
+                .setOrderNumber("123")
+                .setFeedbackRating(-5)
+                .addReason(TestReason.newBuilder().setReasonId("1").build())
+                .addReason(TestReason.newBuilder().setGroupId("2").build())
+                .build());
+    }
+
+    @Test
+    public void shouldBuildMapFields() throws IOException {
+        assertSameAsPrintedJson(TestAuditEntityLogMessage.newBuilder()
+                .putCurrentState("status", "open")
+                .putCurrentState("rating", "4")
+                .putPreviousValues("status", "closed")
+                .build());
+    }
+
+    @Test
+    public void shouldSkipUnsetFields() throws IOException {
+        assertSameAsPrintedJson(TestBookingLogMessage.newBuilder().build());
+    }
+}
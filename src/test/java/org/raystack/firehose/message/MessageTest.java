@@ -4,9 +4,13 @@ import org.raystack.firehose.exception.DefaultException;
 import org.raystack.depot.error.ErrorType;
 import org.raystack.firehose.consumer.TestKey;
 import org.raystack.firehose.consumer.TestMessage;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.raystack.stencil.Parser;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import static org.junit.Assert.*;
 
@@ -66,4 +70,68 @@ public class MessageTest {
         Assert.assertEquals(new DefaultException("DEFAULT"), message.getErrorInfo().getException());
         Assert.assertEquals(ErrorType.DEFAULT_ERROR, message.getErrorInfo().getErrorType());
     }
+
+    @Test
+    public void shouldParseMessageOnceForTheSameSchema() throws InvalidProtocolBufferException {
+        Parser parser = Mockito.mock(Parser.class);
+        DynamicMessage dynamicMessage = DynamicMessage.newBuilder(TestMessage.getDescriptor()).build();
+        Mockito.when(parser.parse(testMessage.toByteArray())).thenReturn(dynamicMessage);
+
+        assertSame(dynamicMessage, message.getDecodedLogMessage().parse(TestMessage.class.getName(), parser));
+        assertSame(dynamicMessage, message.getDecodedLogMessage().parse(TestMessage.class.getName(), parser));
+
+        Mockito.verify(parser, Mockito.times(1)).parse(testMessage.toByteArray());
+    }
+
+    @Test
+    public void shouldParseAgainForAnotherSchema() throws InvalidProtocolBufferException {
+        Parser parser = Mockito.mock(Parser.class);
+        Mockito.when(parser.parse(testMessage.toByteArray())).thenReturn(DynamicMessage.newBuilder(TestMessage.getDescriptor()).build());
+
+        message.getDecodedLogMessage().parse(TestMessage.class.getName(), parser);
+        message.getDecodedLogMessage().parse(TestKey.class.getName(), parser);
+
+        Mockito.verify(parser, Mockito.times(2)).parse(testMessage.toByteArray());
+    }
+
+    @Test
+    public void shouldReuseJsonForTheSamePrinter() throws InvalidProtocolBufferException {
+        Parser parser = Mockito.mock(Parser.class);
+        Mockito.when(parser.parse(key.toByteArray())).thenReturn(DynamicMessage.newBuilder(key).build());
+        DecodedPayload.JsonPrinter printer = Mockito.mock(DecodedPayload.JsonPrinter.class);
+        DecodedPayload.JsonPrinter otherPrinter = Mockito.mock(DecodedPayload.JsonPrinter.class);
+        Mockito.when(printer.print(Mockito.any(DynamicMessage.class))).thenReturn("{\"order_number\":\"123\"}");
+        Mockito.when(otherPrinter.print(Mockito.any(DynamicMessage.class))).thenReturn("{\"orderNumber\":\"123\"}");
+
+        assertEquals("{\"order_number\":\"123\"}", message.getDecodedLogKey().toJson(TestKey.class.getName(), parser, printer));
+        assertEquals("{\"order_number\":\"123\"}", message.getDecodedLogKey().toJson(TestKey.class.getName(), parser, printer));
+        assertEquals("{\"orderNumber\":\"123\"}", message.getDecodedLogKey().toJson(TestKey.class.getName(), parser, otherPrinter));
+
+        Mockito.verify(printer, Mockito.times(1)).print(Mockito.any(DynamicMessage.class));
+        Mockito.verify(parser, Mockito.times(1)).parse(key.toByteArray());
+    }
+
+    @Test
+    public void shouldParseAgainAfterRelease() throws InvalidProtocolBufferException {
+        Parser parser = Mockito.mock(Parser.class);
+        Mockito.when(parser.parse(testMessage.toByteArray())).thenReturn(DynamicMessage.newBuilder(TestMessage.getDescriptor()).build());
+
+        message.getDecodedLogMessage().parse(TestMessage.class.getName(), parser);
+        message.releaseDecoded();
+        message.getDecodedLogMessage().parse(TestMessage.class.getName(), parser);
+
+        Mockito.verify(parser, Mockito.times(2)).parse(testMessage.toByteArray());
+    }
+
+    @Test
+    public void shouldNotCompareDecodedPayloads() throws InvalidProtocolBufferException {
+        Parser parser = Mockito.mock(Parser.class);
+        Mockito.when(parser.parse(testMessage.toByteArray())).thenReturn(DynamicMessage.newBuilder(TestMessage.getDescriptor()).build());
+        Message other = new Message(key.toByteArray(), testMessage.toByteArray(), "Topic", 0, 100);
+
+        message.getDecodedLogMessage().parse(TestMessage.class.getName(), parser);
+
+        assertEquals(other, message);
+        assertEquals(other.hashCode(), message.hashCode());
+    }
 }
@@ -0,0 +1,69 @@
+package org.raystack.firehose.serializer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.sink.http.proto.HttpSinkRecordProto.HttpSinkRecord;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MessageToDelimitedProtoTest {
+
+  private Message message;
+
+  @Before
+  public void setup() {
+    String logMessage = "CgYIyOm+xgUSBgiE6r7GBRgNIICAgIDA9/y0LigCMAM=";
+    String logKey = "CgYIyOm+xgUSBgiE6r7GBRgNIICAgIDA9/y0LigC";
+    message = new Message(Base64.getDecoder().decode(logKey.getBytes()),
+        Base64.getDecoder().decode(logMessage.getBytes()), "sample-topic", 3, 100);
+  }
+
+  @Test
+  public void shouldWriteRawProtoBytesAsDelimitedRecord() throws IOException {
+    MessageToDelimitedProto messageToDelimitedProto = new MessageToDelimitedProto();
+
+    HttpSinkRecord record = HttpSinkRecord.parseDelimitedFrom(new ByteArrayInputStream(messageToDelimitedProto.serializeToBytes(message)));
+
+    assertEquals("sample-topic", record.getTopic());
+    assertEquals(3, record.getPartition());
+    assertEquals(100, record.getOffset());
+    assertArrayEquals(message.getLogKey(), record.getLogKey().toByteArray());
+    assertArrayEquals(message.getLogMessage(), record.getLogMessage().toByteArray());
+  }
+
+  @Test
+  public void shouldWriteTheSameBytesAsGeneratedCode() throws IOException {
+    MessageToDelimitedProto messageToDelimitedProto = new MessageToDelimitedProto();
+    Message messageWithoutKey = new Message(null, message.getLogMessage(), "sample-topic", 0, 100);
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    HttpSinkRecord.parseDelimitedFrom(new ByteArrayInputStream(messageToDelimitedProto.serializeToBytes(messageWithoutKey)))
+        .writeDelimitedTo(expected);
+
+    assertArrayEquals(expected.toByteArray(), messageToDelimitedProto.serializeToBytes(messageWithoutKey));
+  }
+
+  @Test
+  public void shouldDescribeRecordForLogs() {
+    MessageToDelimitedProto messageToDelimitedProto = new MessageToDelimitedProto();
+
+    assertEquals("{\"topic\":\"sample-topic\",\"partition\":3,\"offset\":100,\"size\":" + (messageToDelimitedProto.serializeToBytes(message).length - 1) + "}",
+        messageToDelimitedProto.serialize(message));
+  }
+
+  @Test
+  public void shouldSkipEmptyFields() {
+    MessageToDelimitedProto messageToDelimitedProto = new MessageToDelimitedProto();
+    Message emptyMessage = new Message(null, null, "", 0, 0);
+
+    assertArrayEquals(new byte[]{0}, messageToDelimitedProto.serializeToBytes(emptyMessage));
+  }
+}
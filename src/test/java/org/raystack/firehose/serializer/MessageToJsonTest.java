@@ -3,6 +3,7 @@ package org.raystack.firehose.serializer;
 import org.raystack.firehose.exception.DeserializerException;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.consumer.TestAggregatedSupplyMessage;
+import org.raystack.firehose.consumer.TestMessage;
 import org.raystack.stencil.StencilClientFactory;
 import org.raystack.stencil.client.StencilClient;
 import org.raystack.stencil.Parser;
@@ -112,4 +113,17 @@ public class MessageToJsonTest {
                 + "\\\"windowEndTime\\\":\\\"2017-03-20T10:55:00Z\\\",\\\"s2IdLevel\\\":13,\\\"vehicleType\\\":\\\"BIKE\\\","
                 + "\\\"s2Id\\\":\\\"3344472187078705152\\\"}\",\"topic\":\"sample-topic\"}]", actualOutput);
     }
+
+    @Test
+    public void shouldEscapeStringsAndOrderKeysAsBefore() throws DeserializerException {
+        Parser testMessageParser = StencilClientFactory.getClient().getParser(TestMessage.class.getName());
+        MessageToJson messageToJson = new MessageToJson(testMessageParser, TestMessage.class.getName(), true, false, false);
+        TestMessage testMessage = TestMessage.newBuilder().setOrderNumber("123")
+                .setOrderUrl("http://a.com/?x=1&y=<2>").setOrderDetails("it's").build();
+
+        Message message = new Message(null, testMessage.toByteArray(), "sample-topic", 0, 100);
+        String actualOutput = messageToJson.serialize(message);
+        assertEquals("{\"logMessage\":\"{\\\"order_url\\\":\\\"http:\\/\\/a.com\\/?x\\\\u003d1\\\\u0026y\\\\u003d\\\\u003c2\\\\u003e\\\","
+                + "\\\"order_number\\\":\\\"123\\\",\\\"order_details\\\":\\\"it\\\\u0027s\\\"}\",\"topic\":\"sample-topic\"}", actualOutput);
+    }
 }
@@ -8,6 +8,8 @@ import org.raystack.firehose.exception.DeserializerException;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.consumer.TestAggregatedSupplyMessage;
+import org.raystack.firehose.consumer.TestMessage;
+import org.raystack.firehose.consumer.TestNestedRepeatedMessage;
 import org.raystack.stencil.StencilClientFactory;
 import org.raystack.stencil.client.StencilClient;
 import org.raystack.stencil.Parser;
@@ -140,4 +142,33 @@ public class MessageToTemplatizedJsonTest {
 
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).logDebug("\nPaths: {}", pathList);
     }
+
+    @Test
+    public void shouldReadFieldPathsFromTheMessageAndOtherPathsWithJsonPath() {
+        String template = "{\"id\":\"$.single_message.order_number\",\"msg\":\"$.single_message\","
+                + "\"first\":\"$.repeated_message[0].order_url\",\"numbers\":\"$.repeated_number_field\",\"n\":\"$.number_field\"}";
+        StencilClient stencilClient = StencilClientFactory.getClient();
+        protoParser = stencilClient.getParser(TestNestedRepeatedMessage.class.getName());
+        MessageToTemplatizedJson messageToTemplatizedJson = MessageToTemplatizedJson
+                .create(firehoseInstrumentation, template, protoParser, TestNestedRepeatedMessage.class.getName());
+        TestNestedRepeatedMessage nestedMessage = TestNestedRepeatedMessage.newBuilder()
+                .setSingleMessage(TestMessage.newBuilder().setOrderNumber("1").setOrderUrl("a&b"))
+                .addRepeatedMessage(TestMessage.newBuilder().setOrderUrl("x"))
+                .addRepeatedNumberField(1).addRepeatedNumberField(2).build();
+        Message message = new Message(null, nestedMessage.toByteArray(), "sample-topic", 0, 100);
+
+        String serializedMessage = messageToTemplatizedJson.serialize(message);
+        String expectedMessage = "{\"id\":\"1\",\"msg\":{\"order_number\":\"1\",\"order_url\":\"a\\u0026b\",\"order_details\":\"\"},"
+                + "\"first\":\"x\",\"numbers\":[1,2],\"n\":0}";
+        Assert.assertEquals(expectedMessage, serializedMessage);
+    }
+
+    @Test
+    public void shouldFailForInvalidJsonPathInTemplate() {
+        expectedException.expect(ConfigurationException.class);
+        expectedException.expectMessage("must be a valid JSON path.");
+
+        String template = "{\"test\":\"$.\"}";
+        MessageToTemplatizedJson.create(firehoseInstrumentation, template, protoParser);
+    }
 }
@@ -0,0 +1,176 @@
+package org.raystack.firehose.sink;
+
+import org.raystack.firehose.exception.SinkTaskFailedException;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.metrics.Metrics;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+
+public class PartitionAffineSinkPoolTest {
+    @Mock
+    private Sink sink1;
+    @Mock
+    private Sink sink2;
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+    private PartitionAffineSinkPool sinkPool;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        sinkPool = new PartitionAffineSinkPool(Arrays.asList(sink1, sink2), Executors.newFixedThreadPool(2), 1, 100, firehoseInstrumentation);
+    }
+
+    @After
+    public void tearDown() {
+        sinkPool.close();
+    }
+
+    private Set<Future<List<Message>>> awaitFinishedTasks(int count) throws InterruptedException {
+        Set<Future<List<Message>>> finished = new HashSet<>();
+        for (int i = 0; i < 100 && finished.size() < count; i++) {
+            finished.addAll(sinkPool.fetchFinishedSinkTasks());
+            Thread.sleep(10);
+        }
+        return finished;
+    }
+
+    @Test
+    public void shouldSplitMessagesByPartition() throws InterruptedException {
+        Message message1 = new Message(new byte[0], new byte[0], "topic1", 1, 10);
+        Message message2 = new Message(new byte[0], new byte[0], "topic1", 2, 10);
+        Message message3 = new Message(new byte[0], new byte[0], "topic1", 1, 11);
+
+        Map<Future<List<Message>>, List<Message>> tasks = sinkPool.submitTasks(Arrays.asList(message1, message2, message3));
+
+        Assert.assertEquals(2, tasks.size());
+        Assert.assertTrue(tasks.containsValue(Arrays.asList(message1, message3)));
+        Assert.assertTrue(tasks.containsValue(Collections.singletonList(message2)));
+        Assert.assertEquals(tasks.keySet(), awaitFinishedTasks(2));
+    }
+
+    @Test
+    public void shouldPinPartitionToTheSameWorker() {
+        TopicPartition topicPartition = new TopicPartition("topic1", 3);
+        int worker = sinkPool.getWorker(topicPartition);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(worker, sinkPool.getWorker(new TopicPartition("topic1", 3)));
+        }
+    }
+
+    @Test
+    public void shouldPushMessagesOfAPartitionInOrder() throws Exception {
+        List<List<Message>> pushed = Collections.synchronizedList(new ArrayList<>());
+        Mockito.when(sink1.pushMessage(anyList())).thenAnswer(invocation -> {
+            pushed.add(invocation.getArgument(0));
+            return new ArrayList<>();
+        });
+        Mockito.when(sink2.pushMessage(anyList())).thenAnswer(invocation -> {
+            pushed.add(invocation.getArgument(0));
+            return new ArrayList<>();
+        });
+        List<Message> batch1 = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        List<Message> batch2 = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 11));
+
+        sinkPool.submitTasks(batch1);
+        sinkPool.submitTasks(batch2);
+        awaitFinishedTasks(2);
+
+        Assert.assertEquals(Arrays.asList(batch1, batch2), pushed);
+    }
+
+    @Test
+    public void shouldReturnNullWhenWorkerQueueIsFull() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Mockito.when(sink1.pushMessage(anyList())).thenAnswer(invocation -> {
+            latch.await(5, TimeUnit.SECONDS);
+            return new ArrayList<>();
+        });
+        Mockito.when(sink2.pushMessage(anyList())).thenAnswer(invocation -> {
+            latch.await(5, TimeUnit.SECONDS);
+            return new ArrayList<>();
+        });
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+
+        Assert.assertNotNull(sinkPool.submitTasks(messages));
+        Thread.sleep(50);
+        Assert.assertNotNull(sinkPool.submitTasks(messages));
+        Assert.assertNull(sinkPool.submitTasks(messages));
+        latch.countDown();
+    }
+
+    @Test(expected = SinkTaskFailedException.class)
+    public void shouldThrowExceptionWhenSinkTaskFails() throws Exception {
+        Mockito.when(sink1.pushMessage(anyList())).thenThrow(new RuntimeException("failed"));
+        Mockito.when(sink2.pushMessage(anyList())).thenThrow(new RuntimeException("failed"));
+
+        sinkPool.submitTasks(Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10)));
+        awaitFinishedTasks(1);
+    }
+
+    @Test
+    public void shouldCaptureWorkerQueueDepth() {
+        sinkPool.fetchFinishedSinkTasks();
+
+        Mockito.verify(firehoseInstrumentation, Mockito.times(1)).captureValue(Metrics.SINK_POOL_WORKER_QUEUE_DEPTH, 0, "worker=0");
+        Mockito.verify(firehoseInstrumentation, Mockito.times(1)).captureValue(Metrics.SINK_POOL_WORKER_QUEUE_DEPTH, 0, "worker=1");
+    }
+
+    @Test
+    public void shouldCloseAllSinks() throws IOException {
+        sinkPool.close();
+
+        Mockito.verify(sink1, Mockito.times(1)).close();
+        Mockito.verify(sink2, Mockito.times(1)).close();
+    }
+
+    @Test
+    public void shouldFinishPushesInFlightBeforeClosingSinks() throws Exception {
+        CountDownLatch pushStarted = new CountDownLatch(1);
+        List<Boolean> interrupted = Collections.synchronizedList(new ArrayList<>());
+        Mockito.when(sink1.pushMessage(anyList())).thenAnswer(invocation -> {
+            pushStarted.countDown();
+            Thread.sleep(50);
+            interrupted.add(Thread.currentThread().isInterrupted());
+            return new ArrayList<>();
+        });
+        Mockito.when(sink2.pushMessage(anyList())).thenAnswer(invocation -> {
+            pushStarted.countDown();
+            Thread.sleep(50);
+            interrupted.add(Thread.currentThread().isInterrupted());
+            return new ArrayList<>();
+        });
+        Map<Future<List<Message>>, List<Message>> tasks = sinkPool.submitTasks(
+                Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10)));
+        Assert.assertTrue(pushStarted.await(5, TimeUnit.SECONDS));
+
+        sinkPool.close();
+
+        Assert.assertEquals(Collections.singletonList(false), interrupted);
+        Assert.assertTrue(tasks.keySet().iterator().next().isDone());
+        Mockito.verify(sink1, Mockito.times(1)).close();
+        Mockito.verify(sink2, Mockito.times(1)).close();
+    }
+}
@@ -18,6 +18,7 @@ import org.apache.kafka.common.TopicPartition;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -74,6 +75,23 @@ public class BlobSinkTest {
         assertEquals(0, retryMessages.size());
     }
 
+    @Test
+    public void shouldHoldFlushedPathsUntilOffsetsAreAdded() throws Exception {
+        Message message1 = new Message("".getBytes(), "".getBytes(), "booking", 1, 1);
+        Record record1 = mock(Record.class);
+        when(messageDeSerializer.deSerialize(message1)).thenReturn(record1);
+        when(writerOrchestrator.write(record1)).thenReturn("/tmp/test1");
+
+        blobSink.pushMessage(Collections.singletonList(message1));
+
+        InOrder inOrder = inOrder(writerOrchestrator);
+        inOrder.verify(writerOrchestrator).holdFlushedPaths();
+        inOrder.verify(writerOrchestrator).write(record1);
+        inOrder.verify(writerOrchestrator).releaseFlushedPaths();
+        offsetManager.setCommittable("/tmp/test1");
+        assertEquals(new OffsetAndMetadata(2), offsetManager.getCommittableOffset().get(new TopicPartition("booking", 1)));
+    }
+
     @Test(expected = SinkException.class)
     public void shouldThrowWriterIOExceptionWhenWritingRecordThrowIOException() throws Exception {
         Message message1 = new Message("".getBytes(), "".getBytes(), "booking", 1, 1);
@@ -26,6 +26,9 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 
@@ -79,6 +82,101 @@ public class WriterOrchestratorTest {
         }
     }
 
+    @Test
+    public void shouldCloseWhenAllRegisteredSinksClosed() throws Exception {
+        Record record = Mockito.mock(Record.class);
+        Mockito.when(record.getTimestamp(timeStampFieldName)).thenReturn(Instant.ofEpochMilli(1L));
+        Mockito.when(record.getTopic("")).thenReturn(defaultTopic);
+        Mockito.when(localFileWriter1.getFullPath()).thenReturn("/tmp/test");
+        Mockito.when(localStorage.createLocalFileWriter(TimePartitionedPathUtils.getTimePartitionedPath(record, sinkConfig))).thenReturn(localFileWriter1);
+        Mockito.when(localFileWriter1.write(record)).thenReturn(true);
+        WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, 1, statsDReporter);
+        writerOrchestrator.register();
+        writerOrchestrator.register();
+
+        writerOrchestrator.write(record);
+        writerOrchestrator.close();
+        Mockito.verify(localFileWriter1, Mockito.never()).close();
+        Assert.assertEquals("/tmp/test", writerOrchestrator.write(record));
+
+        writerOrchestrator.close();
+        Mockito.verify(localFileWriter1, Mockito.times(1)).close();
+        writerOrchestrator.close();
+        Mockito.verify(localFileWriter1, Mockito.times(1)).close();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyWrittenWriterWhenMaxOpenWritersExceeded() throws Exception {
+        Record record1 = Mockito.mock(Record.class);
+        Mockito.when(record1.getTimestamp(timeStampFieldName)).thenReturn(Instant.ofEpochMilli(3600000L));
+        Mockito.when(record1.getTopic("")).thenReturn(defaultTopic);
+        Mockito.when(localStorage.createLocalFileWriter(TimePartitionedPathUtils.getTimePartitionedPath(record1, sinkConfig))).thenReturn(localFileWriter1);
+        Mockito.when(localFileWriter1.write(record1)).thenReturn(true);
+        Mockito.when(localFileWriter1.closeAndFetchMetaData()).thenReturn(new LocalFileMetadata("/tmp/", "/tmp/test1", 0, 1, 0));
+
+        Record record2 = Mockito.mock(Record.class);
+        Mockito.when(record2.getTimestamp(timeStampFieldName)).thenReturn(Instant.ofEpochMilli(7200000L));
+        Mockito.when(record2.getTopic("")).thenReturn(defaultTopic);
+        Mockito.when(localStorage.createLocalFileWriter(TimePartitionedPathUtils.getTimePartitionedPath(record2, sinkConfig))).thenReturn(localFileWriter2);
+        Mockito.when(localFileWriter2.write(record2)).thenReturn(true);
+
+        try (WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, 1, 1, 0, statsDReporter)) {
+            writerOrchestrator.write(record1);
+            writerOrchestrator.write(record2);
+            Mockito.verify(localFileWriter1, Mockito.times(1)).closeAndFetchMetaData();
+            Mockito.verify(localFileWriter2, Mockito.never()).closeAndFetchMetaData();
+        }
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyWrittenWriterWhenMaxBufferedBytesExceeded() throws Exception {
+        Record record1 = Mockito.mock(Record.class);
+        Mockito.when(record1.getTimestamp(timeStampFieldName)).thenReturn(Instant.ofEpochMilli(3600000L));
+        Mockito.when(record1.getTopic("")).thenReturn(defaultTopic);
+        Mockito.when(localStorage.createLocalFileWriter(TimePartitionedPathUtils.getTimePartitionedPath(record1, sinkConfig))).thenReturn(localFileWriter1);
+        Mockito.when(localFileWriter1.write(record1)).thenReturn(true);
+        Mockito.when(localFileWriter1.getBufferedBytes()).thenReturn(600L);
+        Mockito.when(localFileWriter1.closeAndFetchMetaData()).thenReturn(new LocalFileMetadata("/tmp/", "/tmp/test1", 0, 1, 0));
+
+        Record record2 = Mockito.mock(Record.class);
+        Mockito.when(record2.getTimestamp(timeStampFieldName)).thenReturn(Instant.ofEpochMilli(7200000L));
+        Mockito.when(record2.getTopic("")).thenReturn(defaultTopic);
+        Mockito.when(localStorage.createLocalFileWriter(TimePartitionedPathUtils.getTimePartitionedPath(record2, sinkConfig))).thenReturn(localFileWriter2);
+        Mockito.when(localFileWriter2.write(record2)).thenReturn(true);
+        Mockito.when(localFileWriter2.getBufferedBytes()).thenReturn(600L);
+
+        try (WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, 1, 0, 1000, statsDReporter)) {
+            writerOrchestrator.write(record1);
+            for (int i = 0; i < 99; i++) {
+                writerOrchestrator.write(record2);
+            }
+            Mockito.verify(localFileWriter1, Mockito.times(1)).closeAndFetchMetaData();
+            Mockito.verify(localFileWriter2, Mockito.never()).closeAndFetchMetaData();
+        }
+    }
+
+    @Test
+    public void shouldRotateFromWritePathAndHandFlushedPathToListener() throws Exception {
+        Record record = Mockito.mock(Record.class);
+        Mockito.when(record.getTimestamp(timeStampFieldName)).thenReturn(Instant.ofEpochMilli(1L));
+        Mockito.when(record.getTopic("")).thenReturn(defaultTopic);
+        Mockito.when(localFileWriter1.getFullPath()).thenReturn("/tmp/test1");
+        Mockito.when(localStorage.createLocalFileWriter(TimePartitionedPathUtils.getTimePartitionedPath(record, sinkConfig))).thenReturn(localFileWriter1);
+        Mockito.when(localFileWriter1.write(record)).thenReturn(true);
+        Mockito.when(localStorage.shouldRotate(localFileWriter1)).thenReturn(true);
+        Mockito.when(localFileWriter1.closeAndFetchMetaData()).thenReturn(new LocalFileMetadata("/tmp/", "/tmp/test1", 0, 1, 0));
+        BlockingQueue<String> flushedPaths = new LinkedBlockingQueue<>();
+
+        try (WriterOrchestrator writerOrchestrator = new WriterOrchestrator(sinkConfig, localStorage, blobStorage, statsDReporter)) {
+            writerOrchestrator.setFlushedPathListener(flushedPaths::add);
+            Assert.assertEquals("/tmp/test1", writerOrchestrator.write(record));
+
+            Assert.assertEquals("/tmp/test1", flushedPaths.poll(5, TimeUnit.SECONDS));
+            Mockito.verify(blobStorage).store("test1", "/tmp/test1");
+            Mockito.verify(localStorage).deleteLocalFile("/tmp/test1");
+        }
+    }
+
     @Test
     public void shouldCreateMultipleWriterBasedOnPartition() throws Exception {
         Record record1 = Mockito.mock(Record.class);
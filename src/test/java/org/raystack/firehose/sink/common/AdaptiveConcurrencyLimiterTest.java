@@ -0,0 +1,110 @@
+package org.raystack.firehose.sink.common;
+
+import org.apache.http.client.utils.DateUtils;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void shouldHalveLimitWhenThrottled() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8);
+
+        limiter.onThrottled(limiter.acquire(), 0);
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void shouldDecreaseOnceForRequestsSentBeforeTheDecrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8);
+        long first = limiter.acquire();
+        long second = limiter.acquire();
+
+        limiter.onThrottled(first, 0);
+        limiter.onThrottled(second, 0);
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void shouldNotGoBelowOneRequestInFlight() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.onThrottled(limiter.acquire(), 0);
+        }
+
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void shouldGrowLimitBackWhileLatencyStaysLow() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4);
+        limiter.onThrottled(limiter.acquire(), 0);
+        limiter.onThrottled(limiter.acquire(), 0);
+        assertEquals(1, limiter.getLimit());
+
+        for (int round = 0; round < 20; round++) {
+            int limit = limiter.getLimit();
+            long[] starts = new long[limit];
+            for (int i = 0; i < limit; i++) {
+                starts[i] = limiter.acquire();
+            }
+            for (long start : starts) {
+                limiter.onSuccess(start);
+            }
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void shouldWaitForARequestToCompleteWhenLimitIsReached() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1);
+        long first = limiter.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        limiter.onSuccess(first);
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldHoldRequestsUntilRetryAfterHasPassed() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4);
+        limiter.onThrottled(limiter.acquire(), 300);
+
+        long start = System.currentTimeMillis();
+        limiter.acquire();
+
+        assertTrue(System.currentTimeMillis() - start >= 250);
+    }
+
+    @Test
+    public void shouldParseRetryAfterInSecondsOrAsDate() {
+        assertEquals(120000, AdaptiveConcurrencyLimiter.parseRetryAfterMillis("120"));
+        assertEquals(0, AdaptiveConcurrencyLimiter.parseRetryAfterMillis(null));
+        assertEquals(0, AdaptiveConcurrencyLimiter.parseRetryAfterMillis("soon"));
+
+        long retryAfter = AdaptiveConcurrencyLimiter.parseRetryAfterMillis(DateUtils.formatDate(new Date(System.currentTimeMillis() + 60000)));
+        assertTrue(retryAfter > 55000 && retryAfter <= 60000);
+    }
+}
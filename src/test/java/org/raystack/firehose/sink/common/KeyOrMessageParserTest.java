@@ -56,4 +56,14 @@ public class KeyOrMessageParserTest {
         Mockito.verify(protoParser, Mockito.times(1)).parse("logKey".getBytes());
     }
 
+    @Test
+    public void shouldReuseParsedMessageForTheSameSchema() throws IOException {
+        Mockito.when(appConfig.getInputSchemaProtoClass()).thenReturn(TestMessage.class.getName());
+
+        parser.parse(message);
+        parser.parse(message);
+
+        Mockito.verify(protoParser, Mockito.times(1)).parse("logMessage".getBytes());
+    }
+
 }
@@ -1,5 +1,6 @@
 package org.raystack.firehose.sink.common.gcs;
 
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
@@ -9,14 +10,95 @@ import org.raystack.firehose.sink.common.blobstorage.BlobStorageException;
 import org.raystack.firehose.sink.common.blobstorage.gcs.GoogleCloudStorage;
 import org.aeonbits.owner.ConfigFactory;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 
 public class GoogleCloudStorageTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private GCSConfig createChunkedConfig() {
+        return ConfigFactory.create(GCSConfig.class, new HashMap<Object, Object>() {{
+            put("GCS_TYPE", "SOME_TYPE");
+            put("SOME_TYPE_GCS_BUCKET_NAME", "TestBucket");
+            put("SOME_TYPE_GCS_GOOGLE_CLOUD_PROJECT_ID", "projectID");
+            put("SOME_TYPE_GCS_UPLOAD_CHUNK_SIZE_BYTES", "4");
+        }});
+    }
+
+    private File createFile(String content) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void shouldStoreSmallFilesInOneRequest() throws Exception {
+        Storage storage = Mockito.mock(Storage.class);
+        GoogleCloudStorage gcs = new GoogleCloudStorage(createChunkedConfig(), storage);
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of("TestBucket", "test")).build();
+
+        gcs.store("test", createFile("abc").getPath());
+
+        Mockito.verify(storage, Mockito.times(1)).create(blobInfo, "abc".getBytes(StandardCharsets.UTF_8), Storage.BlobTargetOption.userProject("projectID"));
+        Mockito.verify(storage, Mockito.never()).writer(Mockito.any(BlobInfo.class), Mockito.any(Storage.BlobWriteOption.class));
+    }
+
+    @Test
+    public void shouldStreamLargeFilesThroughResumableUpload() throws Exception {
+        Storage storage = Mockito.mock(Storage.class);
+        WriteChannel writeChannel = Mockito.mock(WriteChannel.class);
+        ByteArrayOutputStream uploadedContent = new ByteArrayOutputStream();
+        Mockito.when(writeChannel.write(Mockito.any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(0);
+            int length = buffer.remaining();
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            uploadedContent.write(bytes);
+            return length;
+        });
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of("TestBucket", "test")).build();
+        Mockito.when(storage.writer(blobInfo, Storage.BlobWriteOption.userProject("projectID"))).thenReturn(writeChannel);
+        GoogleCloudStorage gcs = new GoogleCloudStorage(createChunkedConfig(), storage);
+
+        gcs.store("test", createFile("0123456789").getPath());
+
+        Assert.assertEquals("0123456789", new String(uploadedContent.toByteArray(), StandardCharsets.UTF_8));
+        Mockito.verify(writeChannel, Mockito.times(1)).setChunkSize(4);
+        Mockito.verify(writeChannel, Mockito.times(1)).close();
+        Mockito.verify(storage, Mockito.never()).create(Mockito.any(BlobInfo.class), Mockito.any(byte[].class), Mockito.any(Storage.BlobTargetOption.class));
+    }
+
+    @Test
+    public void shouldNotCompleteResumableUploadWhenItFails() throws Exception {
+        Storage storage = Mockito.mock(Storage.class);
+        WriteChannel writeChannel = Mockito.mock(WriteChannel.class);
+        StorageException storageException = new StorageException(503, "some error");
+        Mockito.when(writeChannel.write(Mockito.any(ByteBuffer.class))).thenThrow(storageException);
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of("TestBucket", "test")).build();
+        Mockito.when(storage.writer(blobInfo, Storage.BlobWriteOption.userProject("projectID"))).thenReturn(writeChannel);
+        GoogleCloudStorage gcs = new GoogleCloudStorage(createChunkedConfig(), storage);
+        String filePath = createFile("0123456789").getPath();
+
+        BlobStorageException thrown = Assertions
+                .assertThrows(BlobStorageException.class, () -> gcs.store("test", filePath), "BlobStorageException error was expected");
+
+        Assert.assertEquals("GCS Upload failed", thrown.getMessage());
+        Mockito.verify(writeChannel, Mockito.never()).close();
+    }
+
     @Test
     public void shouldCallStorage() throws BlobStorageException {
         GCSConfig config = ConfigFactory.create(GCSConfig.class, new HashMap<Object, Object>() {{
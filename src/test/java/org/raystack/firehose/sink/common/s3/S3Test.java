@@ -5,20 +5,114 @@ import org.raystack.firehose.sink.common.blobstorage.BlobStorageException;
 import org.raystack.firehose.sink.common.blobstorage.s3.S3;
 import org.aeonbits.owner.ConfigFactory;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.utils.IoUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 public class S3Test {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private S3Config createMultipartConfig() {
+        return ConfigFactory.create(S3Config.class, new HashMap<Object, Object>() {{
+            put("S3_TYPE", "SOME_TYPE");
+            put("SOME_TYPE_S3_BUCKET_NAME", "TestBucket");
+            put("SOME_TYPE_S3_REGION", "asia");
+            put("SOME_TYPE_S3_MULTIPART_THRESHOLD_BYTES", "8");
+            put("SOME_TYPE_S3_MULTIPART_PART_SIZE_BYTES", "4");
+        }});
+    }
+
+    private File createFile(String content) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void shouldStreamFilesBelowMultipartThresholdInOneRequest() throws Exception {
+        S3Client s3Client = Mockito.mock(S3Client.class);
+        S3 s3Storage = new S3(createMultipartConfig(), s3Client);
+        File file = createFile("test");
+
+        s3Storage.store("test", file.getPath());
+
+        ArgumentCaptor<RequestBody> requestBodyArgumentCaptor = ArgumentCaptor.forClass(RequestBody.class);
+        Mockito.verify(s3Client, Mockito.times(1)).putObject(Mockito.any(PutObjectRequest.class), requestBodyArgumentCaptor.capture());
+        Assert.assertEquals("test", IoUtils.toUtf8String(requestBodyArgumentCaptor.getValue().contentStreamProvider().newStream()));
+        Mockito.verify(s3Client, Mockito.never()).createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void shouldUploadLargeFilesInParts() throws Exception {
+        S3Client s3Client = Mockito.mock(S3Client.class);
+        Map<Integer, String> uploadedParts = new ConcurrentHashMap<>();
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload").build());
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            RequestBody requestBody = invocation.getArgument(1);
+            uploadedParts.put(request.partNumber(), IoUtils.toUtf8String(requestBody.contentStreamProvider().newStream()));
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+        S3 s3Storage = new S3(createMultipartConfig(), s3Client);
+
+        s3Storage.store("test", createFile("0123456789").getPath());
+
+        Assert.assertEquals("0123", uploadedParts.get(1));
+        Assert.assertEquals("4567", uploadedParts.get(2));
+        Assert.assertEquals("89", uploadedParts.get(3));
+        ArgumentCaptor<CompleteMultipartUploadRequest> completeArgumentCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.verify(s3Client, Mockito.times(1)).completeMultipartUpload(completeArgumentCaptor.capture());
+        Assert.assertEquals("upload", completeArgumentCaptor.getValue().uploadId());
+        Assert.assertEquals(Arrays.asList("etag-1", "etag-2", "etag-3"),
+                completeArgumentCaptor.getValue().multipartUpload().parts().stream().map(CompletedPart::eTag).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldAbortMultipartUploadWhenAPartFails() throws Exception {
+        S3Client s3Client = Mockito.mock(S3Client.class);
+        Mockito.when(s3Client.createMultipartUpload(Mockito.any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload").build());
+        SdkClientException exception = SdkClientException.create("test");
+        Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class), Mockito.any(RequestBody.class))).thenThrow(exception);
+        S3 s3Storage = new S3(createMultipartConfig(), s3Client);
+        String filePath = createFile("0123456789").getPath();
+
+        BlobStorageException thrown = Assertions
+                .assertThrows(BlobStorageException.class, () -> s3Storage.store("test", filePath), "BlobStorageException error was expected");
+
+        Assertions.assertEquals(new BlobStorageException("test", "test", exception), thrown);
+        Mockito.verify(s3Client, Mockito.times(1)).abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+        Mockito.verify(s3Client, Mockito.never()).completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class));
+    }
+
     @Test
     public void shouldCallStorage() throws BlobStorageException, IOException {
         S3Config s3Config = ConfigFactory.create(S3Config.class, new HashMap<Object, Object>() {{
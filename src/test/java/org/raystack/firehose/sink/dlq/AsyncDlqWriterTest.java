@@ -0,0 +1,151 @@
+package org.raystack.firehose.sink.dlq;
+
+import org.raystack.depot.error.ErrorInfo;
+import org.raystack.depot.error.ErrorType;
+import org.raystack.firehose.config.DlqConfig;
+import org.raystack.firehose.consumer.kafka.OffsetManager;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sinkdecorator.BackOffProvider;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class AsyncDlqWriterTest {
+
+    @Mock
+    private DlqWriter dlqWriter;
+
+    @Mock
+    private BackOffProvider backOffProvider;
+
+    @Mock
+    private DlqConfig dlqConfig;
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    private OffsetManager offsetManager;
+    private AsyncDlqWriter asyncDlqWriter;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        when(dlqConfig.getDlqRetryMaxAttempts()).thenReturn(2);
+        offsetManager = new OffsetManager();
+        asyncDlqWriter = new AsyncDlqWriter(dlqWriter, offsetManager, backOffProvider, dlqConfig, 10, 10,
+                firehoseInstrumentation, Executors.newSingleThreadExecutor());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        asyncDlqWriter.close();
+    }
+
+    private Message createMessage(int offset) {
+        return new Message(new Message("key".getBytes(), "value".getBytes(), "topic", 1, offset),
+                new ErrorInfo(null, ErrorType.SINK_5XX_ERROR));
+    }
+
+    @Test
+    public void shouldHoldOffsetsUntilTheDlqWriteIsAcknowledged() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch acknowledge = new CountDownLatch(1);
+        when(dlqWriter.write(anyList())).thenAnswer(invocation -> {
+            writeStarted.countDown();
+            acknowledge.await();
+            return new ArrayList<>();
+        });
+        List<Message> messages = Arrays.asList(createMessage(1), createMessage(2));
+        offsetManager.addOffsetsAndSetCommittable(messages);
+
+        List<Message> failedMessages = asyncDlqWriter.write(messages);
+
+        assertTrue(failedMessages.isEmpty());
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+        assertTrue(offsetManager.getCommittableOffset().isEmpty());
+
+        acknowledge.countDown();
+        waitUntilNothingIsQueued();
+
+        assertEquals(new OffsetAndMetadata(3), offsetManager.getCommittableOffset().get(new TopicPartition("topic", 1)));
+    }
+
+    @Test
+    public void shouldWriteQueuedMessagesTogether() throws Exception {
+        CountDownLatch firstWrite = new CountDownLatch(1);
+        CountDownLatch acknowledge = new CountDownLatch(1);
+        when(dlqWriter.write(anyList())).thenAnswer(invocation -> {
+            firstWrite.countDown();
+            acknowledge.await();
+            return new ArrayList<>();
+        });
+
+        Message message1 = createMessage(1);
+        Message message2 = createMessage(2);
+        Message message3 = createMessage(3);
+
+        asyncDlqWriter.write(Collections.singletonList(message1));
+        assertTrue(firstWrite.await(5, TimeUnit.SECONDS));
+        asyncDlqWriter.write(Collections.singletonList(message2));
+        asyncDlqWriter.write(Collections.singletonList(message3));
+        acknowledge.countDown();
+        waitUntilNothingIsQueued();
+
+        verify(dlqWriter, times(1)).write(Collections.singletonList(message1));
+        verify(dlqWriter, times(1)).write(Arrays.asList(message2, message3));
+    }
+
+    @Test
+    public void shouldFailNextWriteWhenRetriesAreExhausted() throws Exception {
+        when(dlqConfig.getDlqRetryFailAfterMaxAttemptEnable()).thenReturn(true);
+        when(dlqWriter.write(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<Message>>getArgument(0)));
+        List<Message> messages = Collections.singletonList(createMessage(1));
+        offsetManager.addOffsetsAndSetCommittable(messages);
+
+        asyncDlqWriter.write(messages);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                asyncDlqWriter.write(Collections.emptyList());
+                Thread.sleep(10);
+            } catch (IOException e) {
+                verify(dlqWriter, times(2)).write(messages);
+                verify(backOffProvider, times(1)).backOff(1);
+                assertTrue(offsetManager.getCommittableOffset().isEmpty());
+                return;
+            }
+        }
+        fail("exhausted DLQ retries were not reported");
+    }
+
+    private void waitUntilNothingIsQueued() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (asyncDlqWriter.getQueuedMessageCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, asyncDlqWriter.getQueuedMessageCount());
+    }
+}
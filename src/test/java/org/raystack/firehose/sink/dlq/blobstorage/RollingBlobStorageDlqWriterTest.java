@@ -0,0 +1,188 @@
+package org.raystack.firehose.sink.dlq.blobstorage;
+
+import org.raystack.depot.error.ErrorInfo;
+import org.raystack.depot.error.ErrorType;
+import org.raystack.firehose.config.enums.DlqBlobStorageCompressionType;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.blob.writer.local.policy.WriterPolicy;
+import org.raystack.firehose.sink.common.blobstorage.BlobStorage;
+import org.raystack.firehose.sink.dlq.DlqWriter;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class RollingBlobStorageDlqWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private BlobStorage blobStorage;
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    private final AtomicBoolean rotate = new AtomicBoolean();
+    private final AtomicReference<String> uploadedContent = new AtomicReference<>();
+    private Path localDirectory;
+    private RollingBlobStorageDlqWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        initMocks(this);
+        localDirectory = temporaryFolder.getRoot().toPath();
+        doAnswer(invocation -> {
+            try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(Paths.get(invocation.<String>getArgument(1))))) {
+                uploadedContent.set(IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+            }
+            return null;
+        }).when(blobStorage).store(anyString(), anyString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private RollingBlobStorageDlqWriter createWriter() throws IOException {
+        WriterPolicy policy = metadata -> rotate.get();
+        return new RollingBlobStorageDlqWriter(blobStorage, localDirectory, DlqBlobStorageCompressionType.GZIP,
+                Collections.singletonList(policy), firehoseInstrumentation, Executors.newScheduledThreadPool(1));
+    }
+
+    private Message createMessage(long offset) {
+        long timestamp = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+        return new Message("123".getBytes(), "abc".getBytes(), "booking", 1, offset, null, timestamp, timestamp,
+                new ErrorInfo(new IOException("test"), ErrorType.DESERIALIZATION_ERROR));
+    }
+
+    private String line(long offset) {
+        return "{\"key\":\"MTIz\",\"value\":\"YWJj\",\"topic\":\"booking\",\"partition\":1,\"offset\":" + offset
+                + ",\"timestamp\":1577836800000,\"error\":\"Exception test, ErrorType: DESERIALIZATION_ERROR\"}\n";
+    }
+
+    @Test
+    public void shouldAppendMessagesIntoOneFileUntilItIsRotated() throws Exception {
+        writer = createWriter();
+
+        assertTrue(writer.write(Collections.singletonList(createMessage(1))).isEmpty());
+        assertTrue(writer.write(Collections.singletonList(createMessage(2))).isEmpty());
+        verify(blobStorage, never()).store(anyString(), anyString());
+
+        rotate.set(true);
+        assertTrue(writer.write(Collections.singletonList(createMessage(3))).isEmpty());
+
+        waitForUploads();
+        verify(blobStorage).store(startsWith("booking/2020-01-01/"), anyString());
+        assertEquals(line(1) + line(2) + line(3), uploadedContent.get());
+    }
+
+    @Test
+    public void shouldDeleteLocalFileOnceUploaded() throws Exception {
+        rotate.set(true);
+        writer = createWriter();
+
+        writer.write(Arrays.asList(createMessage(1), createMessage(2)));
+
+        waitForUploads();
+        verify(blobStorage).store(anyString(), anyString());
+        try (Stream<Path> paths = Files.walk(localDirectory)) {
+            assertFalse(paths.anyMatch(Files::isRegularFile));
+        }
+    }
+
+    @Test
+    public void shouldUploadOpenFilesOnClose() throws Exception {
+        writer = createWriter();
+        List<Message> messages = Collections.singletonList(createMessage(1));
+
+        writer.write(messages);
+        writer.close();
+
+        verify(blobStorage).store(startsWith("booking/2020-01-01/"), anyString());
+        assertEquals(line(1), uploadedContent.get());
+    }
+
+    @Test
+    public void shouldUploadFilesLeftByPreviousRun() throws Exception {
+        Path leftoverFile = localDirectory.resolve("booking/2020-01-01/leftover.ndjson.gz");
+        Files.createDirectories(leftoverFile.getParent());
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(leftoverFile))) {
+            outputStream.write(line(1).getBytes(StandardCharsets.UTF_8));
+        }
+
+        writer = createWriter();
+
+        waitForUploads();
+        verify(blobStorage).store(eq(Paths.get("booking", "2020-01-01", "leftover.ndjson.gz").toString()), eq(leftoverFile.toString()));
+        assertEquals(line(1), uploadedContent.get());
+    }
+
+    @Test
+    public void shouldShareOneWriterPerDirectoryUntilTheLastShareIsClosed() throws Exception {
+        AtomicInteger createdWriters = new AtomicInteger();
+        RollingBlobStorageDlqWriter.Factory factory = directory -> {
+            createdWriters.incrementAndGet();
+            writer = createWriter();
+            return writer;
+        };
+        DlqWriter first = RollingBlobStorageDlqWriter.forDirectory(localDirectory, factory);
+        assertTrue(first.write(Collections.singletonList(createMessage(1))).isEmpty());
+
+        DlqWriter second = RollingBlobStorageDlqWriter.forDirectory(localDirectory.resolve("."), factory);
+        first.close();
+        assertTrue(second.write(Collections.singletonList(createMessage(2))).isEmpty());
+
+        assertEquals(1, createdWriters.get());
+        verify(blobStorage, never()).store(anyString(), anyString());
+
+        second.close();
+        verify(blobStorage).store(startsWith("booking/2020-01-01/"), anyString());
+        assertEquals(line(1) + line(2), uploadedContent.get());
+    }
+
+    private void waitForUploads() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writer.getPendingUploadCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, writer.getPendingUploadCount());
+    }
+}
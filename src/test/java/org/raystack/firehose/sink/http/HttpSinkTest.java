@@ -1,11 +1,13 @@
 package org.raystack.firehose.sink.http;
 
 
+import org.raystack.depot.error.ErrorType;
 import org.raystack.firehose.config.converter.RangeToHashMapConverter;
 import org.raystack.firehose.exception.DeserializerException;
 import org.raystack.firehose.exception.NeedToRetry;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.common.AdaptiveConcurrencyLimiter;
 import org.raystack.firehose.sink.http.request.types.Request;
 import org.raystack.stencil.client.StencilClient;
 import org.apache.http.Header;
@@ -16,6 +18,7 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.message.BasicHeader;
 import org.apache.tools.ant.filters.StringInputStream;
 import org.junit.Before;
@@ -29,6 +32,9 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -80,7 +86,7 @@ public class HttpSinkTest {
         when(statusLine.getStatusCode()).thenReturn(200, 200);
 
         List<HttpEntityEnclosingRequestBase> httpRequests = Arrays.asList(httpPut, httpPost);
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response, response);
         when(httpClient.execute(httpPost)).thenReturn(response, response);
         when(response.getAllHeaders()).thenReturn(
@@ -93,7 +99,7 @@ public class HttpSinkTest {
         httpSink.prepare(messages);
         httpSink.execute();
 
-        verify(request, times(1)).build(messages);
+        verify(request, times(1)).build(eq(messages), anyList());
         verify(httpClient, times(1)).execute(httpPut);
         verify(httpClient, times(1)).execute(httpPost);
     }
@@ -106,7 +112,7 @@ public class HttpSinkTest {
         List<HttpEntityEnclosingRequestBase> httpRequests = Arrays.asList(httpPut);
 
         when(httpPut.getURI()).thenReturn(new URI("http://dummy.com"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -118,6 +124,86 @@ public class HttpSinkTest {
         httpSink.execute();
     }
 
+    @Test
+    public void shouldSendEveryRequestInParallelAndThrowNeedToRetryWhenOneOfThemIsRetryable() throws Exception {
+        HttpResponse successResponse = mock(HttpResponse.class);
+        StatusLine successStatusLine = mock(StatusLine.class);
+        when(response.getStatusLine()).thenReturn(statusLine);
+        when(statusLine.getStatusCode()).thenReturn(500);
+        when(successResponse.getStatusLine()).thenReturn(successStatusLine);
+        when(successStatusLine.getStatusCode()).thenReturn(200);
+
+        List<HttpEntityEnclosingRequestBase> httpRequests = Arrays.asList(httpPut, httpPost);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
+        when(httpClient.execute(httpPut)).thenReturn(response);
+        when(httpClient.execute(httpPost)).thenReturn(successResponse);
+
+        HttpSink httpSink = new HttpSink(firehoseInstrumentation, request, httpClient, stencilClient,
+                new RangeToHashMapConverter().convert(null, "400-505"), requestLogStatusCodeRanges, 2);
+        httpSink.prepare(messages);
+        try {
+            httpSink.execute();
+            fail("Expected NeedToRetry");
+        } catch (NeedToRetry e) {
+            verify(httpClient, times(1)).execute(httpPut);
+            verify(httpClient, times(1)).execute(httpPost);
+        } finally {
+            httpSink.close();
+        }
+    }
+
+    @Test
+    public void shouldNotShrinkTheConcurrencyLimitWhenWaitingForAPooledConnectionTimesOut() throws Exception {
+        URI uri = new URI("http://pool-timeout.dummy.com");
+        when(httpPut.getURI()).thenReturn(uri);
+        when(request.build(eq(messages), anyList())).thenReturn(Collections.singletonList(httpPut));
+        when(httpClient.execute(httpPut)).thenThrow(new ConnectionPoolTimeoutException("Timeout waiting for connection from pool"));
+
+        HttpSink httpSink = new HttpSink(firehoseInstrumentation, request, httpClient, stencilClient,
+                retryStatusCodeRange, requestLogStatusCodeRanges, 1, 8);
+        httpSink.prepare(messages);
+        try {
+            httpSink.execute();
+            fail("Expected ConnectionPoolTimeoutException");
+        } catch (ConnectionPoolTimeoutException e) {
+            AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.forEndpoint(uri, 8);
+            assertEquals(8, limiter.getLimit());
+            assertEquals(0, limiter.getInFlight());
+        }
+    }
+
+    @Test
+    public void shouldReturnOnlyTheMessagesOfFailedRequests() throws Exception {
+        Message failedMessage = new Message(null, "{\"key\":\"value1\"}".getBytes(), "", 0, 1);
+        Message successMessage = new Message(null, "{\"key\":\"value2\"}".getBytes(), "", 0, 2);
+        List<Message> batch = Arrays.asList(failedMessage, successMessage);
+        HttpResponse successResponse = mock(HttpResponse.class);
+        StatusLine successStatusLine = mock(StatusLine.class);
+        when(response.getStatusLine()).thenReturn(statusLine);
+        when(statusLine.getStatusCode()).thenReturn(500);
+        when(successResponse.getStatusLine()).thenReturn(successStatusLine);
+        when(successStatusLine.getStatusCode()).thenReturn(200);
+
+        when(request.build(eq(batch), anyList())).thenAnswer(invocation -> {
+            List<List<Message>> requestMessages = invocation.getArgument(1);
+            requestMessages.add(Collections.singletonList(failedMessage));
+            requestMessages.add(Collections.singletonList(successMessage));
+            return Arrays.asList(httpPut, httpPost);
+        });
+        when(httpClient.execute(httpPut)).thenReturn(response);
+        when(httpClient.execute(httpPost)).thenReturn(successResponse);
+
+        HttpSink httpSink = new HttpSink(firehoseInstrumentation, request, httpClient, stencilClient,
+                new RangeToHashMapConverter().convert(null, "400-505"), requestLogStatusCodeRanges);
+        httpSink.prepare(batch);
+        List<Message> failedMessages = httpSink.execute();
+
+        assertEquals(Collections.singletonList(failedMessage), failedMessages);
+        assertEquals(ErrorType.DEFAULT_ERROR, failedMessage.getErrorInfo().getErrorType());
+        assertTrue(failedMessage.getErrorInfo().getException() instanceof NeedToRetry);
+        verify(httpClient, times(1)).execute(httpPost);
+    }
+
     @Test(expected = NeedToRetry.class)
     public void shouldThrowNeedToRetryExceptionWhenResponseIsNull() throws Exception {
 
@@ -127,7 +213,7 @@ public class HttpSinkTest {
         when(httpPut.getAllHeaders()).thenReturn(new Header[]{});
         when(httpPut.getEntity()).thenReturn(httpEntity);
         when(httpEntity.getContent()).thenReturn(new StringInputStream(""));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(null);
         when(httpPut.getMethod()).thenReturn("PUT");
 
@@ -145,7 +231,7 @@ public class HttpSinkTest {
         when(httpPut.getAllHeaders()).thenReturn(new Header[]{});
         when(httpPut.getEntity()).thenReturn(httpEntity);
         when(httpEntity.getContent()).thenReturn(new StringInputStream(""));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getStatusLine()).thenReturn(statusLine);
         when(statusLine.getStatusCode()).thenReturn(0);
@@ -157,7 +243,7 @@ public class HttpSinkTest {
 
     @Test(expected = IOException.class)
     public void shouldCatchURISyntaxExceptionAndThrowIOException() throws URISyntaxException, DeserializerException, IOException {
-        when(request.build(messages)).thenThrow(new URISyntaxException("", ""));
+        when(request.build(eq(messages), anyList())).thenThrow(new URISyntaxException("", ""));
 
         HttpSink httpSink = new HttpSink(firehoseInstrumentation, request, httpClient, stencilClient, retryStatusCodeRange, requestLogStatusCodeRanges);
         httpSink.prepare(messages);
@@ -191,7 +277,7 @@ public class HttpSinkTest {
         when(httpPut.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(httpPut.getEntity()).thenReturn(httpEntity);
         when(httpEntity.getContent()).thenReturn(new StringInputStream("[{\"key\":\"value1\"},{\"key\":\"value2\"}]"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -221,7 +307,7 @@ public class HttpSinkTest {
         when(httpPut.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(httpPut.getEntity()).thenReturn(httpEntity);
         when(httpEntity.getContent()).thenReturn(new StringInputStream("{\"key\":\"value\"}"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -252,7 +338,7 @@ public class HttpSinkTest {
         when(httpPut.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(httpPut.getEntity()).thenReturn(httpEntity);
         when(httpEntity.getContent()).thenReturn(new StringInputStream("[{\"key\":\"value\"}]"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -281,7 +367,7 @@ public class HttpSinkTest {
         when(httpPut.getURI()).thenReturn(new URI("http://dummy.com"));
         when(httpPut.getEntity()).thenReturn(httpEntity);
         when(httpEntity.getContent()).thenReturn(new StringInputStream("[{\"key\":\"value1\"},{\"key\":\"value2\"}]"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -309,7 +395,7 @@ public class HttpSinkTest {
         when(httpPut.getURI()).thenReturn(new URI("http://dummy.com"));
         when(httpPut.getEntity()).thenReturn(httpEntity);
         when(httpEntity.getContent()).thenReturn(new StringInputStream("[{\"key\":\"value1\"},{\"key\":\"value2\"}]"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -332,7 +418,7 @@ public class HttpSinkTest {
         List<HttpEntityEnclosingRequestBase> httpRequests = Collections.singletonList(httpPut);
 
         when(httpPut.getURI()).thenReturn(new URI("http://dummy.com"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -357,7 +443,7 @@ public class HttpSinkTest {
         List<HttpEntityEnclosingRequestBase> httpRequests = Collections.singletonList(httpPut);
 
         when(httpPut.getURI()).thenReturn(new URI("http://dummy.com"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -379,7 +465,7 @@ public class HttpSinkTest {
         List<HttpEntityEnclosingRequestBase> httpRequests = Collections.singletonList(httpPut);
 
         when(httpPut.getURI()).thenReturn(new URI("http://dummy.com"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -402,7 +488,7 @@ public class HttpSinkTest {
 
         URI uri = new URI("http://dummy.com");
         when(httpPut.getURI()).thenReturn(uri);
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getAllHeaders()).thenReturn(new Header[]{new BasicHeader("Accept", "text/plain")});
         when(response.getEntity()).thenReturn(httpEntity);
@@ -428,7 +514,7 @@ public class HttpSinkTest {
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getEntity()).thenReturn(httpEntity);
         when(httpEntity.getContent()).thenReturn(new StringInputStream("[{\"key\":\"value1\"},{\"key\":\"value2\"}]"));
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(firehoseInstrumentation.isDebugEnabled()).thenReturn(true);
 
         HttpSink httpSink = new HttpSink(firehoseInstrumentation, request, httpClient, stencilClient,
@@ -449,7 +535,7 @@ public class HttpSinkTest {
         when(httpPut.getURI()).thenReturn(new URI("http://dummy.com"));
         when(httpClient.execute(httpPut)).thenReturn(response);
         when(response.getEntity()).thenReturn(null);
-        when(request.build(messages)).thenReturn(httpRequests);
+        when(request.build(eq(messages), anyList())).thenReturn(httpRequests);
         when(firehoseInstrumentation.isDebugEnabled()).thenReturn(true);
 
         HttpSink httpSink = new HttpSink(firehoseInstrumentation, request, httpClient, stencilClient,
@@ -0,0 +1,120 @@
+package org.raystack.firehose.sink.http.auth;
+
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class OAuth2TokenManagerTest {
+    @Mock
+    private OAuth2Client client;
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    private OAuth2TokenManager tokenManager;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        tokenManager = new OAuth2TokenManager(firehoseInstrumentation, client);
+    }
+
+    @Test
+    public void shouldRequestTokenOnceForConcurrentCallers() throws Exception {
+        OAuth2AccessToken token = new OAuth2AccessToken("ACCESSTOKEN", 3600);
+        CountDownLatch tokenRequested = new CountDownLatch(1);
+        when(client.requestClientCredentialsGrantAccessToken()).thenAnswer(invocation -> {
+            tokenRequested.countDown();
+            Thread.sleep(200);
+            return token;
+        });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<OAuth2AccessToken>> tokens = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tokens.add(executorService.submit(() -> tokenManager.getAccessToken()));
+        }
+        tokenRequested.await();
+        for (Future<OAuth2AccessToken> future : tokens) {
+            assertSame(token, future.get());
+        }
+        executorService.shutdown();
+
+        verify(client, times(1)).requestClientCredentialsGrantAccessToken();
+    }
+
+    @Test
+    public void shouldReuseTokenUntilItExpires() throws Exception {
+        OAuth2AccessToken token = new OAuth2AccessToken("ACCESSTOKEN", 3600);
+        when(client.requestClientCredentialsGrantAccessToken()).thenReturn(token);
+
+        tokenManager.getAccessToken();
+        tokenManager.getAccessToken();
+
+        verify(client, times(1)).requestClientCredentialsGrantAccessToken();
+    }
+
+    @Test
+    public void shouldNotInvalidateTokenAlreadyReplaced() throws Exception {
+        OAuth2AccessToken rejectedToken = new OAuth2AccessToken("OLDTOKEN", 3600);
+        OAuth2AccessToken newToken = new OAuth2AccessToken("NEWTOKEN", 3600);
+        when(client.requestClientCredentialsGrantAccessToken()).thenReturn(newToken);
+        tokenManager.setAccessToken(rejectedToken);
+        tokenManager.requestAccessToken();
+
+        tokenManager.invalidate(rejectedToken);
+        assertSame(newToken, tokenManager.peekAccessToken());
+
+        tokenManager.invalidate(newToken);
+        assertNull(tokenManager.peekAccessToken());
+    }
+
+    @Test
+    public void shouldRefreshTokenInBackgroundBeforeItExpires() throws Exception {
+        OAuth2AccessToken shortLivedToken = new OAuth2AccessToken("SHORTTOKEN", 1);
+        OAuth2AccessToken refreshedToken = new OAuth2AccessToken("REFRESHEDTOKEN", 3600);
+        when(client.requestClientCredentialsGrantAccessToken()).thenReturn(shortLivedToken, refreshedToken);
+
+        tokenManager.requestAccessToken();
+        for (int i = 0; i < 150 && tokenManager.peekAccessToken() != refreshedToken; i++) {
+            Thread.sleep(100);
+        }
+
+        assertSame(refreshedToken, tokenManager.peekAccessToken());
+        verify(client, times(2)).requestClientCredentialsGrantAccessToken();
+    }
+
+    @Test
+    public void shouldNotRefreshShortLivedTokenInALoop() throws Exception {
+        OAuth2AccessToken shortLivedToken = new OAuth2AccessToken("SHORTTOKEN", 1);
+        when(client.requestClientCredentialsGrantAccessToken()).thenReturn(shortLivedToken);
+
+        tokenManager.requestAccessToken();
+        Thread.sleep(500);
+
+        verify(client, times(1)).requestClientCredentialsGrantAccessToken();
+    }
+
+    @Test
+    public void shouldWaitAtLeastTheRetryDelayBeforeRefreshing() {
+        assertEquals(10, OAuth2TokenManager.refreshDelaySeconds(0));
+        assertEquals(10, OAuth2TokenManager.refreshDelaySeconds(1));
+        assertEquals(2700, OAuth2TokenManager.refreshDelaySeconds(3600));
+    }
+}
@@ -1,18 +1,19 @@
 package org.raystack.firehose.sink.http.request.create;
 
 import org.raystack.firehose.config.HttpSinkConfig;
+import org.raystack.firehose.config.enums.HttpSinkDataFormatType;
 import org.raystack.firehose.config.enums.HttpSinkRequestMethodType;
 import org.raystack.firehose.exception.DeserializerException;
 import org.raystack.firehose.message.Message;
 import org.raystack.firehose.metrics.FirehoseInstrumentation;
 import org.raystack.firehose.sink.http.request.body.JsonBody;
+import org.raystack.firehose.sink.http.request.entity.JsonArrayEntity;
 import org.raystack.firehose.sink.http.request.entity.RequestEntityBuilder;
 import org.raystack.firehose.sink.http.request.header.HeaderBuilder;
 import org.raystack.firehose.sink.http.request.uri.UriBuilder;
+import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicHeader;
 import org.junit.Assert;
 import org.junit.Before;
@@ -20,9 +21,12 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.internal.matchers.apachecommons.ReflectionEquals;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -57,6 +61,7 @@ public class BatchRequestCreatorTest {
         initMocks(this);
         Message message = new Message(new byte[]{10, 20}, new byte[]{1, 2}, "sample-topic", 0, 100);
         messages = Collections.singletonList(message);
+        when(firehoseInstrumentation.isDebugEnabled()).thenReturn(true);
     }
 
     @Test
@@ -145,7 +150,7 @@ public class BatchRequestCreatorTest {
 
         verify(uriBuilder, times(1)).build();
         verify(headerBuilder, times(1)).build();
-        verify(requestEntityBuilder, times(1)).buildHttpEntity(any(String.class));
+        verify(requestEntityBuilder, times(1)).buildJsonArrayEntity(anyList());
         verify(firehoseInstrumentation, times(1)).logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: {}\nRequest method: {}",
                 uriBuilder.build(), headerBuilder.build(), jsonBody.serialize(messages), HttpSinkRequestMethodType.POST);
     }
@@ -169,7 +174,7 @@ public class BatchRequestCreatorTest {
         when(uriBuilder.build()).thenReturn(new URI("dummyEndpoint"));
         when(headerBuilder.build()).thenReturn(headerMap);
         when(jsonBody.serialize(messages)).thenReturn(serializedMessages);
-        when(requestEntityBuilder.buildHttpEntity(any())).thenReturn(new StringEntity("[\"dummyMessage1\", \"dummyMessage2\"]", ContentType.APPLICATION_JSON));
+        when(requestEntityBuilder.buildJsonArrayEntity(any())).thenReturn(new JsonArrayEntity(Collections.singletonList("dummyMessage1".getBytes()), false));
 
         BatchRequestCreator batchRequestCreator = new BatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
         List<HttpEntityEnclosingRequestBase> httpEntityEnclosingRequestBases = batchRequestCreator.create(messages, requestEntityBuilder);
@@ -185,4 +190,96 @@ public class BatchRequestCreatorTest {
         verify(firehoseInstrumentation, times(1)).logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: {}\nRequest method: {}",
                 uriBuilder.build(), headerBuilder.build(), jsonBody.serialize(messages), HttpSinkRequestMethodType.POST);
     }
+
+    @Test
+    public void shouldSplitMessagesIntoRequestsByMaxBytes() throws URISyntaxException, IOException {
+        Message message1 = new Message(new byte[]{10, 20}, new byte[]{1, 2}, "sample-topic", 0, 100);
+        Message message2 = new Message(new byte[]{10, 21}, new byte[]{1, 2}, "sample-topic", 0, 101);
+        Message message3 = new Message(new byte[]{10, 22}, new byte[]{1, 2}, "sample-topic", 0, 102);
+        messages = Arrays.asList(message1, message2, message3);
+        when(jsonBody.serializeToBytes(messages)).thenReturn(encode("\"message1\"", "\"message2\"", "\"message3\""));
+        when(uriBuilder.build()).thenReturn(new URI("dummyEndpoint"));
+        when(httpSinkConfig.getSinkHttpBatchMaxBytes()).thenReturn(24L);
+
+        BatchRequestCreator batchRequestCreator = new BatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
+        List<List<Message>> requestMessages = new ArrayList<>();
+        List<HttpEntityEnclosingRequestBase> requests = batchRequestCreator.create(messages, new RequestEntityBuilder(), requestMessages);
+
+        assertEquals(2, requests.size());
+        assertEquals("[\"message1\", \"message2\"]", IOUtils.toString(requests.get(0).getEntity().getContent(), StandardCharsets.UTF_8));
+        assertEquals(24, requests.get(0).getEntity().getContentLength());
+        assertEquals("[\"message3\"]", IOUtils.toString(requests.get(1).getEntity().getContent(), StandardCharsets.UTF_8));
+        assertEquals(Arrays.asList(Arrays.asList(message1, message2), Collections.singletonList(message3)), requestMessages);
+        verify(jsonBody, times(1)).serializeToBytes(messages);
+    }
+
+    @Test
+    public void shouldSplitMessagesIntoRequestsByMaxMessages() throws URISyntaxException {
+        Message message1 = new Message(new byte[]{10, 20}, new byte[]{1, 2}, "sample-topic", 0, 100);
+        Message message2 = new Message(new byte[]{10, 21}, new byte[]{1, 2}, "sample-topic", 0, 101);
+        Message message3 = new Message(new byte[]{10, 22}, new byte[]{1, 2}, "sample-topic", 0, 102);
+        messages = Arrays.asList(message1, message2, message3);
+        when(jsonBody.serializeToBytes(messages)).thenReturn(encode("\"message1\"", "\"message2\"", "\"message3\""));
+        when(httpSinkConfig.getSinkHttpBatchMaxMessages()).thenReturn(1);
+
+        BatchRequestCreator batchRequestCreator = new BatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
+        List<List<Message>> requestMessages = new ArrayList<>();
+        List<HttpEntityEnclosingRequestBase> requests = batchRequestCreator.create(messages, new RequestEntityBuilder(), requestMessages);
+
+        assertEquals(3, requests.size());
+        assertEquals(Arrays.asList(Collections.singletonList(message1), Collections.singletonList(message2), Collections.singletonList(message3)),
+                requestMessages);
+    }
+
+    @Test
+    public void shouldSendMessageBiggerThanMaxBytesInARequestOfItsOwn() throws URISyntaxException {
+        Message message1 = new Message(new byte[]{10, 20}, new byte[]{1, 2}, "sample-topic", 0, 100);
+        Message message2 = new Message(new byte[]{10, 21}, new byte[]{1, 2}, "sample-topic", 0, 101);
+        messages = Arrays.asList(message1, message2);
+        when(jsonBody.serializeToBytes(messages)).thenReturn(encode("\"a-message-bigger-than-the-limit\"", "\"message2\""));
+        when(httpSinkConfig.getSinkHttpBatchMaxBytes()).thenReturn(16L);
+
+        BatchRequestCreator batchRequestCreator = new BatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
+        List<List<Message>> requestMessages = new ArrayList<>();
+        List<HttpEntityEnclosingRequestBase> requests = batchRequestCreator.create(messages, new RequestEntityBuilder(), requestMessages);
+
+        assertEquals(2, requests.size());
+        assertEquals(Arrays.asList(Collections.singletonList(message1), Collections.singletonList(message2)), requestMessages);
+    }
+
+    @Test
+    public void shouldNotSerializeMessagesForTheLogWhenDebugIsDisabled() throws URISyntaxException {
+        when(firehoseInstrumentation.isDebugEnabled()).thenReturn(false);
+        when(jsonBody.serializeToBytes(messages)).thenReturn(encode("\"message1\""));
+
+        BatchRequestCreator batchRequestCreator = new BatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
+        batchRequestCreator.create(messages, new RequestEntityBuilder());
+
+        verify(jsonBody, times(1)).serializeToBytes(messages);
+        verify(jsonBody, never()).serialize(anyList());
+    }
+
+    @Test
+    public void shouldSendDelimitedProtoRecordsWhenDataFormatIsBinary() throws URISyntaxException, IOException {
+        Message message1 = new Message(new byte[]{10, 20}, new byte[]{1, 2}, "sample-topic", 0, 100);
+        Message message2 = new Message(new byte[]{10, 21}, new byte[]{1, 2}, "sample-topic", 0, 101);
+        messages = Arrays.asList(message1, message2);
+        when(httpSinkConfig.getSinkHttpDataFormat()).thenReturn(HttpSinkDataFormatType.BINARY);
+        when(jsonBody.serializeToBytes(messages)).thenReturn(Arrays.asList(new byte[]{2, 1, 2}, new byte[]{2, 3, 4}));
+
+        BatchRequestCreator batchRequestCreator = new BatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
+        List<HttpEntityEnclosingRequestBase> requests = batchRequestCreator.create(messages, new RequestEntityBuilder());
+
+        assertEquals(1, requests.size());
+        assertEquals("application/x-protobuf", requests.get(0).getEntity().getContentType().getValue());
+        Assert.assertArrayEquals(new byte[]{2, 1, 2, 2, 3, 4}, IOUtils.toByteArray(requests.get(0).getEntity().getContent()));
+    }
+
+    private static List<byte[]> encode(String... serializedMessages) {
+        List<byte[]> encodedMessages = new ArrayList<>();
+        for (String serializedMessage : serializedMessages) {
+            encodedMessages.add(serializedMessage.getBytes(StandardCharsets.UTF_8));
+        }
+        return encodedMessages;
+    }
 }
@@ -0,0 +1,126 @@
+package org.raystack.firehose.sink.http.request.create;
+
+import org.raystack.firehose.config.HttpSinkConfig;
+import org.raystack.firehose.config.enums.HttpSinkRequestMethodType;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.http.request.body.JsonBody;
+import org.raystack.firehose.sink.http.request.entity.RequestEntityBuilder;
+import org.raystack.firehose.sink.http.request.header.HeaderBuilder;
+import org.raystack.firehose.sink.http.request.uri.UriBuilder;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class GroupedBatchRequestCreatorTest {
+    @Mock
+    private UriBuilder uriBuilder;
+
+    @Mock
+    private HeaderBuilder headerBuilder;
+
+    @Mock
+    private JsonBody jsonBody;
+
+    @Mock
+    private HttpSinkConfig httpSinkConfig;
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    private Message message1;
+    private Message message2;
+    private Message message3;
+    private List<Message> messages;
+
+    @Before
+    public void setup() throws URISyntaxException {
+        initMocks(this);
+        message1 = new Message(new byte[]{10, 20}, new byte[]{1, 2}, "sample-topic", 0, 100);
+        message2 = new Message(new byte[]{10, 21}, new byte[]{1, 2}, "sample-topic", 0, 101);
+        message3 = new Message(new byte[]{10, 22}, new byte[]{1, 2}, "sample-topic", 0, 102);
+        messages = Arrays.asList(message1, message2, message3);
+
+        when(uriBuilder.build(message1)).thenReturn(new URI("http://dummy.com/tenant-a"));
+        when(uriBuilder.build(message2)).thenReturn(new URI("http://dummy.com/tenant-b"));
+        when(uriBuilder.build(message3)).thenReturn(new URI("http://dummy.com/tenant-a"));
+        when(headerBuilder.build(message1)).thenReturn(Collections.singletonMap("Tenant", "a"));
+        when(headerBuilder.build(message2)).thenReturn(Collections.singletonMap("Tenant", "b"));
+        when(headerBuilder.build(message3)).thenReturn(Collections.singletonMap("Tenant", "a"));
+        when(jsonBody.serializeToBytes(Arrays.asList(message1, message3))).thenReturn(Arrays.asList("dummyMessage1".getBytes(), "dummyMessage3".getBytes()));
+        when(jsonBody.serializeToBytes(Collections.singletonList(message2))).thenReturn(Collections.singletonList("dummyMessage2".getBytes()));
+        when(jsonBody.serialize(Arrays.asList(message1, message3))).thenReturn(Arrays.asList("dummyMessage1", "dummyMessage3"));
+        when(jsonBody.serialize(Collections.singletonList(message2))).thenReturn(Collections.singletonList("dummyMessage2"));
+        when(firehoseInstrumentation.isDebugEnabled()).thenReturn(true);
+    }
+
+    @Test
+    public void shouldProduceOneBatchRequestPerUriAndHeaders() throws URISyntaxException, IOException {
+        GroupedBatchRequestCreator requestCreator = new GroupedBatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
+        List<HttpEntityEnclosingRequestBase> requests = requestCreator.create(messages, new RequestEntityBuilder().setWrapping(true));
+
+        assertEquals(2, requests.size());
+        assertEquals("http://dummy.com/tenant-a", requests.get(0).getURI().toString());
+        assertEquals("a", requests.get(0).getFirstHeader("Tenant").getValue());
+        assertEquals("[dummyMessage1, dummyMessage3]", IOUtils.toString(requests.get(0).getEntity().getContent()));
+        assertEquals("http://dummy.com/tenant-b", requests.get(1).getURI().toString());
+        assertEquals("b", requests.get(1).getFirstHeader("Tenant").getValue());
+        assertEquals("[dummyMessage2]", IOUtils.toString(requests.get(1).getEntity().getContent()));
+        verify(firehoseInstrumentation, times(1)).logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: {}\nRequest method: {}",
+                new URI("http://dummy.com/tenant-a"), Collections.singletonMap("Tenant", "a"), Arrays.asList("dummyMessage1", "dummyMessage3"), HttpSinkRequestMethodType.POST);
+    }
+
+    @Test
+    public void shouldGroupMessagesTheSameWayAsTheRequests() throws URISyntaxException {
+        GroupedBatchRequestCreator requestCreator = new GroupedBatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
+        List<List<Message>> groups = new ArrayList<>();
+        requestCreator.create(messages, new RequestEntityBuilder(), groups);
+
+        assertEquals(Arrays.asList(Arrays.asList(message1, message3), Collections.singletonList(message2)), groups);
+        verify(uriBuilder, times(1)).build(message1);
+        verify(headerBuilder, times(1)).build(message1);
+    }
+
+    @Test
+    public void shouldNotSerializeMessagesForTheLogWhenDebugIsDisabled() throws URISyntaxException {
+        when(firehoseInstrumentation.isDebugEnabled()).thenReturn(false);
+        GroupedBatchRequestCreator requestCreator = new GroupedBatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.POST, jsonBody, httpSinkConfig);
+
+        requestCreator.create(messages, new RequestEntityBuilder());
+
+        verify(jsonBody, never()).serialize(anyList());
+        verify(jsonBody, times(1)).serializeToBytes(Arrays.asList(message1, message3));
+        verify(jsonBody, times(1)).serializeToBytes(Collections.singletonList(message2));
+    }
+
+    @Test
+    public void shouldNotAddBodyToDeleteRequestsWhenDeleteBodyIsDisabled() throws URISyntaxException {
+        when(httpSinkConfig.getSinkHttpDeleteBodyEnable()).thenReturn(false);
+        GroupedBatchRequestCreator requestCreator = new GroupedBatchRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.DELETE, jsonBody, httpSinkConfig);
+
+        List<HttpEntityEnclosingRequestBase> requests = requestCreator.create(messages, new RequestEntityBuilder());
+
+        assertEquals(2, requests.size());
+        assertNull(requests.get(0).getEntity());
+        assertNull(requests.get(1).getEntity());
+    }
+}
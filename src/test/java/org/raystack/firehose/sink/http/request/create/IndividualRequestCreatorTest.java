@@ -19,6 +19,8 @@ import org.mockito.Mock;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -252,4 +254,18 @@ public class IndividualRequestCreatorTest {
         verify(firehoseInstrumentation, times(1)).logDebug("\nRequest URL: {}\nRequest headers: {}\nRequest content: {}\nRequest method: {}",
                 uriBuilder.build(), headerBuilder.build(), jsonBody.serialize(messages).get(1), HttpSinkRequestMethodType.PUT);
     }
+
+    @Test
+    public void shouldGroupEveryMessageIntoItsOwnRequest() throws URISyntaxException {
+        Message message1 = new Message(new byte[]{10, 20}, new byte[]{1, 2}, "sample-topic", 0, 100);
+        Message message2 = new Message(new byte[]{10, 20}, new byte[]{1, 2}, "sample-topic", 0, 101);
+        List<Message> messages = Arrays.asList(message1, message2);
+        when(jsonBody.serialize(messages)).thenReturn(Arrays.asList("dummyMessage1", "dummyMessage2"));
+
+        IndividualRequestCreator individualRequestCreator = new IndividualRequestCreator(firehoseInstrumentation, uriBuilder, headerBuilder, HttpSinkRequestMethodType.PUT, jsonBody, httpSinkConfig);
+        List<List<Message>> requestMessages = new ArrayList<>();
+        individualRequestCreator.create(messages, requestEntityBuilder, requestMessages);
+
+        assertEquals(Arrays.asList(Collections.singletonList(message1), Collections.singletonList(message2)), requestMessages);
+    }
 }
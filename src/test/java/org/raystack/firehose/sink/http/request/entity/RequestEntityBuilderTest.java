@@ -1,12 +1,21 @@
 package org.raystack.firehose.sink.http.request.entity;
 
+import com.github.luben.zstd.ZstdInputStream;
 import org.apache.commons.io.IOUtils;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.HttpEntity;
+import org.raystack.firehose.config.enums.HttpSinkCompressionType;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.xerial.snappy.SnappyFramedInputStream;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -24,7 +33,7 @@ public class RequestEntityBuilderTest {
     public void shouldCreateStringEntity() throws IOException {
         RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder();
 
-        StringEntity stringEntity = requestEntityBuilder.buildHttpEntity(bodyContent);
+        HttpEntity stringEntity = requestEntityBuilder.buildHttpEntity(bodyContent);
         byte[] bytes = IOUtils.toByteArray(stringEntity.getContent());
         Assert.assertEquals("dummyContent", new String(bytes));
     }
@@ -33,7 +42,7 @@ public class RequestEntityBuilderTest {
     public void shouldWrapEntityIfSet() throws IOException {
         RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder();
 
-        StringEntity stringEntity = requestEntityBuilder.setWrapping(true).buildHttpEntity(bodyContent);
+        HttpEntity stringEntity = requestEntityBuilder.setWrapping(true).buildHttpEntity(bodyContent);
         byte[] bytes = IOUtils.toByteArray(stringEntity.getContent());
         Assert.assertEquals("[dummyContent]", new String(bytes));
     }
@@ -42,8 +51,62 @@ public class RequestEntityBuilderTest {
     public void shouldNotWrapEntityIfNotSet() throws IOException {
         RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder();
 
-        StringEntity stringEntity = requestEntityBuilder.setWrapping(false).buildHttpEntity(bodyContent);
+        HttpEntity stringEntity = requestEntityBuilder.setWrapping(false).buildHttpEntity(bodyContent);
         byte[] bytes = IOUtils.toByteArray(stringEntity.getContent());
         Assert.assertEquals("dummyContent", new String(bytes));
     }
+
+    @Test
+    public void shouldCreateJsonArrayEntity() throws IOException {
+        RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder();
+
+        HttpEntity jsonArrayEntity = requestEntityBuilder.buildJsonArrayEntity(Arrays.asList("{\"a\":1}".getBytes(), "{\"b\":2}".getBytes()));
+        byte[] bytes = IOUtils.toByteArray(jsonArrayEntity.getContent());
+        Assert.assertEquals("[{\"a\":1}, {\"b\":2}]", new String(bytes));
+        Assert.assertEquals(bytes.length, jsonArrayEntity.getContentLength());
+    }
+
+    @Test
+    public void shouldWrapJsonArrayEntityIfSet() throws IOException {
+        RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder();
+
+        HttpEntity jsonArrayEntity = requestEntityBuilder.setWrapping(true).buildJsonArrayEntity(Collections.singletonList("dummyContent".getBytes()));
+        byte[] bytes = IOUtils.toByteArray(jsonArrayEntity.getContent());
+        Assert.assertEquals("[[dummyContent]]", new String(bytes));
+        Assert.assertEquals(bytes.length, jsonArrayEntity.getContentLength());
+    }
+
+    @Test
+    public void shouldGzipEntityIfSet() throws IOException {
+        RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder().setCompression(HttpSinkCompressionType.GZIP, 9);
+
+        HttpEntity httpEntity = requestEntityBuilder.buildJsonArrayEntity(Collections.singletonList("dummyContent".getBytes()));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        httpEntity.writeTo(outputStream);
+        byte[] bytes = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+        Assert.assertEquals("[dummyContent]", new String(bytes));
+        Assert.assertEquals("gzip", httpEntity.getContentEncoding().getValue());
+        Assert.assertEquals(-1, httpEntity.getContentLength());
+    }
+
+    @Test
+    public void shouldCompressEntityWithZstdIfSet() throws IOException {
+        RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder().setCompression(HttpSinkCompressionType.ZSTD, CompressedEntity.DEFAULT_COMPRESSION_LEVEL);
+
+        HttpEntity httpEntity = requestEntityBuilder.buildHttpEntity(bodyContent);
+        byte[] bytes = IOUtils.toByteArray(new ZstdInputStream(httpEntity.getContent()));
+        Assert.assertEquals("dummyContent", new String(bytes));
+        Assert.assertEquals("zstd", httpEntity.getContentEncoding().getValue());
+    }
+
+    @Test
+    public void shouldCompressEntityWithSnappyIfSet() throws IOException {
+        RequestEntityBuilder requestEntityBuilder = new RequestEntityBuilder().setCompression(HttpSinkCompressionType.SNAPPY, CompressedEntity.DEFAULT_COMPRESSION_LEVEL);
+
+        HttpEntity httpEntity = requestEntityBuilder.buildHttpEntity(bodyContent);
+        byte[] bytes = IOUtils.toByteArray(new SnappyFramedInputStream(httpEntity.getContent()));
+        Assert.assertEquals("dummyContent", new String(bytes));
+        Assert.assertEquals("x-snappy-framed", httpEntity.getContentEncoding().getValue());
+        Assert.assertEquals("dummyContent", IOUtils.toString(((CompressedEntity) httpEntity).getUncompressedContent(), StandardCharsets.UTF_8));
+    }
 }
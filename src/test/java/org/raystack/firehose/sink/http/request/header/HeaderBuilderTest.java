@@ -14,6 +14,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -92,7 +93,7 @@ public class HeaderBuilderTest {
     public void shouldHaveExtraParameterizedHeaderIfParameterizedHeaderEnabled() {
         String headerConfig = "content-type:json";
         Map<String, Object> mockParamMap = Collections.singletonMap("orderNumber", "RB_1234");
-        when(protoToFieldMapper.getFields(message.getLogMessage())).thenReturn(mockParamMap);
+        when(protoToFieldMapper.getFields(message.getDecodedLogMessage())).thenReturn(mockParamMap);
 
         HeaderBuilder headerBuilder = new HeaderBuilder(headerConfig)
                 .withParameterizedHeader(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
@@ -106,7 +107,7 @@ public class HeaderBuilderTest {
     public void shouldKeepBaseHeadersAndAddExtraHeaderAsItIsProvideInTheConfig() {
         String headerConfig = "content-type:json";
         Map<String, Object> mockParamMap = Collections.singletonMap("X-OrderNumber", "RB_1234");
-        when(protoToFieldMapper.getFields(message.getLogMessage())).thenReturn(mockParamMap);
+        when(protoToFieldMapper.getFields(message.getDecodedLogMessage())).thenReturn(mockParamMap);
 
         HeaderBuilder headerBuilder = new HeaderBuilder(headerConfig)
                 .withParameterizedHeader(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
@@ -124,7 +125,7 @@ public class HeaderBuilderTest {
                 .withParameterizedHeader(protoToFieldMapper, HttpSinkParameterSourceType.KEY);
 
         headerBuilder.build(message);
-        verify(protoToFieldMapper, times(1)).getFields(message.getLogKey());
+        verify(protoToFieldMapper, times(1)).getFields(message.getDecodedLogKey());
     }
 
     @Test
@@ -134,6 +135,15 @@ public class HeaderBuilderTest {
                 .withParameterizedHeader(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
 
         headerBuilder.build(message);
-        verify(protoToFieldMapper, times(1)).getFields(message.getLogMessage());
+        verify(protoToFieldMapper, times(1)).getFields(message.getDecodedLogMessage());
+    }
+
+    @Test
+    public void shouldParseHeaderConfigOnceForAllMessages() {
+        String headerConfig = "content-type:json";
+        HeaderBuilder headerBuilder = new HeaderBuilder(headerConfig);
+
+        assertSame(headerBuilder.build(), headerBuilder.build(message));
+        assertSame(headerBuilder.build(), headerBuilder.build(message));
     }
 }
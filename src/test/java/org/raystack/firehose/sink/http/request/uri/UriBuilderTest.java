@@ -69,7 +69,7 @@ public class UriBuilderTest {
     public void shouldAddParamMapToUri() {
         Map<String, Object> mockProtoField = Collections.singletonMap("order_number", "RB_1234");
 
-        when(protoToFieldMapper.getFields(message.getLogMessage())).thenReturn(mockProtoField);
+        when(protoToFieldMapper.getFields(message.getDecodedLogMessage())).thenReturn(mockProtoField);
 
         UriBuilder uriBuilder = new UriBuilder(serviceUrl, uriParser).withParameterizedURI(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
 
@@ -87,7 +87,7 @@ public class UriBuilderTest {
         mockProtoField.put("order_number", "RB_1234");
         mockProtoField.put("service_type", "GO_RIDE");
 
-        when(protoToFieldMapper.getFields(message.getLogMessage())).thenReturn(mockProtoField);
+        when(protoToFieldMapper.getFields(message.getDecodedLogMessage())).thenReturn(mockProtoField);
 
         UriBuilder uriBuilder = new UriBuilder(serviceUrl, uriParser).withParameterizedURI(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
 
@@ -105,7 +105,7 @@ public class UriBuilderTest {
                 .withParameterizedURI(protoToFieldMapper, HttpSinkParameterSourceType.KEY);
         try {
             uriBuilder.build(message);
-            verify(protoToFieldMapper, times(1)).getFields(message.getLogKey());
+            verify(protoToFieldMapper, times(1)).getFields(message.getDecodedLogKey());
         } catch (URISyntaxException e) {
             new RuntimeException(e);
         }
@@ -117,7 +117,7 @@ public class UriBuilderTest {
                 .withParameterizedURI(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
         try {
             uriBuilder.build(message);
-            verify(protoToFieldMapper, times(1)).getFields(message.getLogMessage());
+            verify(protoToFieldMapper, times(1)).getFields(message.getDecodedLogMessage());
         } catch (URISyntaxException e) {
             new RuntimeException(e);
         }
@@ -4,6 +4,7 @@ import org.raystack.firehose.message.Message;
 import org.raystack.firehose.consumer.TestBookingLogMessage;
 import org.raystack.firehose.consumer.TestKey;
 import org.raystack.firehose.consumer.TestMessage;
+import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import org.raystack.stencil.client.ClassLoadStencilClient;
 import org.raystack.stencil.client.StencilClient;
@@ -156,4 +157,40 @@ public class UriParserTest {
 
     }
 
+    @Test
+    public void shouldSetTheValuesOfSeveralProtoIndexesInServiceUrl() {
+        UriParser uriParser = new UriParser(testMessageProtoParser, "message");
+        String serviceUrl = "http://dummyurl.com/%s/details/%s, 1, 3";
+
+        assertEquals("http://dummyurl.com/test-order/details/ORDER-DETAILS", uriParser.parse(message, serviceUrl));
+        assertEquals("http://dummyurl.com/test-order/details/ORDER-DETAILS", uriParser.parse(message, serviceUrl));
+    }
+
+    @Test
+    public void shouldFormatServiceUrlWithEscapedPercentSign() {
+        UriParser uriParser = new UriParser(testMessageProtoParser, "message");
+        String serviceUrl = "http://dummyurl.com/%s?discount=100%%,1";
+
+        assertEquals("http://dummyurl.com/test-order?discount=100%", uriParser.parse(message, serviceUrl));
+    }
+
+    @Test
+    public void shouldNotParseMessageWhenServiceUrlIsNotParametrized() throws InvalidProtocolBufferException {
+        UriParser uriParser = new UriParser(protoParser, "message");
+
+        assertEquals("http://dummyurl.com", uriParser.parse(message, "http://dummyurl.com"));
+        verify(protoParser, never()).parse(any());
+    }
+
+    @Test
+    public void shouldReuseTheDecodedMessage() throws InvalidProtocolBufferException {
+        when(protoParser.parse(any())).thenReturn(DynamicMessage.newBuilder(TestMessage.newBuilder().setOrderNumber("test-order").build()).build());
+        UriParser uriParser = new UriParser(protoParser, "message", TestMessage.class.getCanonicalName());
+        String serviceUrl = "http://dummyurl.com/%s,1";
+
+        assertEquals("http://dummyurl.com/test-order", uriParser.parse(message, serviceUrl));
+        assertEquals("http://dummyurl.com/test-order", uriParser.parse(message, serviceUrl));
+        verify(protoParser, times(1)).parse(any());
+    }
+
 }
@@ -3,6 +3,8 @@ package org.raystack.firehose.sink.jdbc;
 
 
 
+import org.raystack.firehose.message.DecodedPayload;
+import org.raystack.firehose.message.Message;
 import org.raystack.firehose.proto.ProtoToFieldMapper;
 import org.raystack.firehose.consumer.TestMapMessage;
 import org.raystack.firehose.consumer.TestMessage;
@@ -19,6 +21,7 @@ import org.gradle.internal.impldep.org.testng.Assert;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -229,4 +232,23 @@ public class ProtoToFieldMapperTest {
 
         protoToFieldMapper.getFields(TestBookingLogMessage.newBuilder().setCustomerEmail("test.com").build().toByteArray());
     }
+
+    @Test
+    public void shouldMapAlreadyParsedMessage() throws Exception {
+        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(protoParser, protoToDbMapping);
+
+        Assert.assertEquals(protoToFieldMapper.getFields(message.toByteArray()), protoToFieldMapper.getFields(protoParser.parse(message.toByteArray())));
+    }
+
+    @Test
+    public void shouldMapDecodedPayloadWithoutParsingItAgain() throws Exception {
+        String protoClassName = TestFeedbackLogMessage.class.getName();
+        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(protoParser, protoToDbMapping, protoClassName);
+        DecodedPayload payload = new Message(null, message.toByteArray(), "topic", 0, 1).getDecodedLogMessage();
+
+        Assert.assertEquals(protoToFieldMapper.getFields(payload), protoToFieldMapper.getFields(message.toByteArray()));
+        Parser unusedParser = Mockito.mock(Parser.class);
+        payload.parse(protoClassName, unusedParser);
+        Mockito.verifyNoInteractions(unusedParser);
+    }
 }
@@ -0,0 +1,135 @@
+package org.raystack.firehose.sinkdecorator;
+
+import org.raystack.firehose.config.AppConfig;
+import org.raystack.firehose.config.ErrorConfig;
+import org.raystack.firehose.consumer.kafka.OffsetManager;
+import org.raystack.firehose.error.ErrorHandler;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.Sink;
+import org.raystack.firehose.sink.common.KeyOrMessageParser;
+import org.raystack.depot.error.ErrorInfo;
+import org.raystack.depot.error.ErrorType;
+import org.aeonbits.owner.ConfigFactory;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class RetrySchedulerTest {
+
+    @Mock
+    private Sink sink;
+
+    @Mock
+    private BackOffProvider backOffProvider;
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    @Mock
+    private KeyOrMessageParser parser;
+
+    @Mock
+    private AppConfig appConfig;
+
+    private ErrorHandler errorHandler;
+    private OffsetManager offsetManager;
+    private RetryScheduler retryScheduler;
+    private Message message;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        when(appConfig.getRetryMaxAttempts()).thenReturn(3);
+        errorHandler = new ErrorHandler(ConfigFactory.create(ErrorConfig.class, new HashMap<String, String>() {{
+            put("ERROR_TYPES_FOR_RETRY", ErrorType.DESERIALIZATION_ERROR.name());
+        }}));
+        offsetManager = new OffsetManager();
+        retryScheduler = new RetryScheduler(offsetManager, backOffProvider, 10, firehoseInstrumentation, Executors.newSingleThreadExecutor());
+        message = new Message(new Message("key".getBytes(), "value".getBytes(), "topic", 1, 1),
+                new ErrorInfo(null, ErrorType.DESERIALIZATION_ERROR));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        retryScheduler.close();
+    }
+
+    private SinkWithRetry createSinkWithRetry() {
+        return new SinkWithRetry(sink, backOffProvider, firehoseInstrumentation, appConfig, parser, errorHandler, retryScheduler);
+    }
+
+    @Test
+    public void shouldParkFailedMessagesAndHoldTheirOffsetsUntilRetried() throws Exception {
+        when(sink.pushMessage(anyList())).thenReturn(new ArrayList<>(Collections.singletonList(message))).thenReturn(new ArrayList<>());
+        offsetManager.addOffsetToBatch("batch", Collections.singletonList(message));
+
+        List<Message> failedMessages = createSinkWithRetry().pushMessage(Collections.singletonList(message));
+        offsetManager.setCommittable("batch");
+
+        assertTrue(failedMessages.isEmpty());
+        assertEquals(1, retryScheduler.getParkedMessageCount());
+        assertTrue(offsetManager.getCommittableOffset().isEmpty());
+        verify(backOffProvider, never()).backOff(anyInt());
+
+        retryScheduler.start(Collections.singletonList(createSinkWithRetry()));
+        waitUntilNoMessageIsParked();
+
+        verify(sink, times(2)).pushMessage(anyList());
+        assertEquals(new OffsetAndMetadata(2), offsetManager.getCommittableOffset().get(new TopicPartition("topic", 1)));
+    }
+
+    @Test
+    public void shouldFailNextPushWhenRetriesAreExhausted() throws Exception {
+        when(appConfig.getRetryMaxAttempts()).thenReturn(2);
+        when(appConfig.getRetryFailAfterMaxAttemptsEnable()).thenReturn(true);
+        when(sink.pushMessage(anyList())).thenAnswer(invocation -> new ArrayList<>(Collections.singletonList(message)));
+        SinkWithRetry sinkWithRetry = createSinkWithRetry();
+
+        sinkWithRetry.pushMessage(Collections.singletonList(message));
+        retryScheduler.start(Collections.singletonList(createSinkWithRetry()));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                retryScheduler.throwIfFailed();
+                Thread.sleep(10);
+            } catch (IOException e) {
+                assertEquals("Delayed retry failed", e.getMessage());
+                verify(sink, times(3)).pushMessage(anyList());
+                assertTrue(offsetManager.getCommittableOffset().isEmpty());
+                return;
+            }
+        }
+        fail("exhausted retries were not reported");
+    }
+
+    private void waitUntilNoMessageIsParked() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (retryScheduler.getParkedMessageCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, retryScheduler.getParkedMessageCount());
+    }
+}
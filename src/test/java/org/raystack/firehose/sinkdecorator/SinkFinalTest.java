@@ -28,4 +28,19 @@ public class SinkFinalTest {
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).logInfo("Ignoring messages {}", 2);
         Mockito.verify(firehoseInstrumentation, Mockito.times(1)).captureGlobalMessageMetrics(Metrics.MessageScope.IGNORED, 2);
     }
+
+    @Test
+    public void shouldReleaseDecodedPayloadsAfterPush() throws IOException {
+        Sink sink = Mockito.mock(Sink.class);
+        FirehoseInstrumentation firehoseInstrumentation = Mockito.mock(FirehoseInstrumentation.class);
+        SinkFinal sinkFinal = new SinkFinal(sink, firehoseInstrumentation);
+        Message message = Mockito.mock(Message.class);
+        List<Message> messages = new ArrayList<Message>() {{
+            add(message);
+        }};
+        Mockito.when(sink.pushMessage(messages)).thenReturn(new ArrayList<>());
+
+        sinkFinal.pushMessage(messages);
+        Mockito.verify(message, Mockito.times(1)).releaseDecoded();
+    }
 }
@@ -0,0 +1,143 @@
+package org.raystack.firehose.sinkdecorator;
+
+import org.raystack.depot.error.ErrorType;
+import org.raystack.firehose.message.Message;
+import org.raystack.firehose.metrics.FirehoseInstrumentation;
+import org.raystack.firehose.sink.Sink;
+import org.raystack.firehose.sink.dlq.DlqWriter;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class SinkWithCircuitBreakerTest {
+
+    @Mock
+    private Sink sink;
+
+    @Mock
+    private DlqWriter dlqWriter;
+
+    @Mock
+    private FirehoseInstrumentation firehoseInstrumentation;
+
+    private List<Message> messages;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        messages = Collections.singletonList(new Message("key".getBytes(), "value".getBytes(), "topic", 1, 1));
+    }
+
+    private CircuitBreaker createCircuitBreaker(long openDurationMillis) {
+        return new CircuitBreaker(60000, 2, 50, 0, 100, openDurationMillis, 1, firehoseInstrumentation);
+    }
+
+    @Test
+    public void shouldOpenAfterFailuresAndWriteToDlqWithoutPushing() throws IOException {
+        when(sink.pushMessage(anyList())).thenReturn(new ArrayList<>(messages));
+        when(dlqWriter.write(anyList())).thenReturn(new ArrayList<>());
+        CircuitBreaker circuitBreaker = createCircuitBreaker(60000);
+        SinkWithCircuitBreaker sinkWithCircuitBreaker = new SinkWithCircuitBreaker(sink, circuitBreaker, dlqWriter, firehoseInstrumentation);
+
+        sinkWithCircuitBreaker.pushMessage(messages);
+        sinkWithCircuitBreaker.pushMessage(messages);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        List<Message> failedMessages = sinkWithCircuitBreaker.pushMessage(messages);
+
+        assertTrue(failedMessages.isEmpty());
+        verify(sink, times(2)).pushMessage(anyList());
+        verify(dlqWriter, times(1)).write(messages);
+        assertEquals(ErrorType.SINK_UNKNOWN_ERROR, messages.get(0).getErrorInfo().getErrorType());
+    }
+
+    @Test
+    public void shouldStayClosedWhileBatchesSucceed() throws IOException {
+        when(sink.pushMessage(anyList())).thenReturn(new ArrayList<>());
+        CircuitBreaker circuitBreaker = createCircuitBreaker(60000);
+        SinkWithCircuitBreaker sinkWithCircuitBreaker = new SinkWithCircuitBreaker(sink, circuitBreaker, dlqWriter, firehoseInstrumentation);
+
+        for (int i = 0; i < 5; i++) {
+            sinkWithCircuitBreaker.pushMessage(messages);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        verify(dlqWriter, never()).write(anyList());
+    }
+
+    @Test
+    public void shouldRejectBatchesWhileOpen() {
+        CircuitBreaker circuitBreaker = createCircuitBreaker(60000);
+
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.record(circuitBreaker.tryAcquire(), 10, 10, 1);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire() < 0);
+    }
+
+    @Test
+    public void shouldPauseUntilHalfOpenAndCloseAfterSuccessfulProbe() throws Exception {
+        when(sink.pushMessage(anyList())).thenReturn(new ArrayList<>());
+        CircuitBreaker circuitBreaker = createCircuitBreaker(200);
+        circuitBreaker.record(circuitBreaker.tryAcquire(), 1, 1, 1);
+        circuitBreaker.record(circuitBreaker.tryAcquire(), 1, 1, 1);
+        SinkWithCircuitBreaker sinkWithCircuitBreaker = new SinkWithCircuitBreaker(sink, circuitBreaker, null, firehoseInstrumentation);
+
+        long start = System.currentTimeMillis();
+        sinkWithCircuitBreaker.pushMessage(messages);
+
+        assertTrue(System.currentTimeMillis() - start >= 150);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        verify(sink, times(1)).pushMessage(messages);
+    }
+
+    @Test
+    public void shouldReopenWhenProbeFails() throws Exception {
+        CircuitBreaker circuitBreaker = createCircuitBreaker(50);
+        circuitBreaker.record(circuitBreaker.tryAcquire(), 1, 1, 1);
+        circuitBreaker.record(circuitBreaker.tryAcquire(), 1, 1, 1);
+        Thread.sleep(100);
+
+        long probe = circuitBreaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire() < 0);
+        circuitBreaker.record(probe, 1, 1, 1);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldCloseTheSinkAndTheDlqWriter() throws IOException {
+        SinkWithCircuitBreaker sinkWithCircuitBreaker = new SinkWithCircuitBreaker(sink, createCircuitBreaker(60000), dlqWriter, firehoseInstrumentation);
+
+        sinkWithCircuitBreaker.close();
+
+        verify(sink, times(1)).close();
+        verify(dlqWriter, times(1)).close();
+    }
+
+    @Test
+    public void shouldCloseTheSinkWithoutADlqWriter() throws IOException {
+        SinkWithCircuitBreaker sinkWithCircuitBreaker = new SinkWithCircuitBreaker(sink, createCircuitBreaker(60000), null, firehoseInstrumentation);
+
+        sinkWithCircuitBreaker.close();
+
+        verify(sink, times(1)).close();
+    }
+}